@@ -0,0 +1,98 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A synthetic catalog shared by the benchmark threads, made by
+ * {@link CatalogGenerator}. Catalogs of 10 000 000 magazines need a
+ * heap of about 8 GB, pass <code>-jvmArgsAppend -Xmx8g</code>.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    /**
+     * Number of magazines probed for duplicates, a power of two
+     */
+    static final int PROBE_COUNT = 1024;
+
+    /**
+     * Number of magazines added to the register at a time
+     */
+    private static final int BATCH_SIZE = 10000;
+
+    /**
+     * Number of magazines in the catalog
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    /**
+     * The register holding the catalog
+     */
+    MagazineRegister register;
+
+    /**
+     * Copies of stored magazines, with other publications per year
+     */
+    Magazine[] storedProbes;
+
+    /**
+     * Magazines not in the catalog
+     */
+    Magazine[] absentProbes;
+
+    /**
+     * Creates the catalog and the probes
+     */
+    @Setup
+    public void setUp() {
+        CatalogGenerator generator = new CatalogGenerator(1);
+        this.register = createRegister(generator, this.catalogSize);
+
+        Random random = new Random(2);
+        this.storedProbes = new Magazine[PROBE_COUNT];
+        this.absentProbes = new Magazine[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            Magazine stored = this.register.getMagazineAtIndex(
+                    random.nextInt(this.catalogSize));
+            this.storedProbes[i] = new Magazine(stored.getTitle(),
+                    stored.getPublisher(), stored.getPublicationsPerYear() + 1);
+            this.absentProbes[i] = generator.next();
+        }
+    }
+
+    /**
+     * Creates a register holding the next magazines of the generator
+     *
+     * @param generator The generator of the catalog
+     * @param size The number of magazines
+     * @return Returns the register
+     */
+    static MagazineRegister createRegister(CatalogGenerator generator,
+                                           int size) {
+        MagazineRegister register = new MagazineRegister();
+        List<Magazine> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            batch.add(generator.next());
+            if (batch.size() == BATCH_SIZE || i == size - 1) {
+                register.addAll(batch);
+                batch.clear();
+            }
+        }
+        return register;
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.ConcurrentMagazineRegister;
+import com.bookstore.readables.Magazine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures searches of a {@link ConcurrentMagazineRegister} by number
+ * of threads, alone and while a writer adds and deletes magazines.
+ * <p>
+ * Pass <code>-t</code> to set the number of threads of the search
+ * benchmark, and <code>-tg</code> to set the number of search and
+ * write threads of the read-write group, like <code>-tg 7,1</code>.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentRegisterBenchmark {
+
+    /**
+     * Number of results a search reads, one screen
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Title query of the searches
+     */
+    private static final String QUERY = CatalogGenerator.titleQuery(0.01);
+
+    /**
+     * The register shared by the threads
+     */
+    @State(Scope.Benchmark)
+    public static class SharedRegister {
+
+        /**
+         * Number of magazines in the catalog. Every write copies the
+         * catalog, so the sizes stop below those of the other benchmarks.
+         */
+        @Param({"1000", "100000", "1000000"})
+        public int catalogSize;
+
+        /**
+         * The register holding the catalog
+         */
+        ConcurrentMagazineRegister register;
+
+        /**
+         * Makes the magazines the writer adds
+         */
+        CatalogGenerator generator;
+
+        /**
+         * Creates the catalog
+         */
+        @Setup
+        public void setUp() {
+            this.generator = new CatalogGenerator(1);
+            this.register = new ConcurrentMagazineRegister(
+                    CatalogState.createRegister(this.generator,
+                            this.catalogSize));
+        }
+    }
+
+    /**
+     * Reads the first page of a title search, with no writer
+     *
+     * @param shared The register
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void search(SharedRegister shared, Blackhole blackhole) {
+        consumePage(shared.register, blackhole);
+    }
+
+    /**
+     * Reads the first page of a title search, while writing
+     *
+     * @param shared The register
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public void searchWhileWriting(SharedRegister shared, Blackhole blackhole) {
+        consumePage(shared.register, blackhole);
+    }
+
+    /**
+     * Adds a new magazine and deletes it again, while searching
+     *
+     * @param shared The register
+     * @return Returns true if deleted
+     */
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public boolean writeWhileSearching(SharedRegister shared) {
+        Magazine magazine;
+        synchronized (shared.generator) {
+            magazine = shared.generator.next();
+        }
+        shared.register.addMagazine(magazine);
+        return shared.register.deleteMagazine(magazine);
+    }
+
+    /**
+     * Reads the first page of a title search
+     *
+     * @param register The register to search
+     * @param blackhole Consumes the results
+     */
+    private static void consumePage(ConcurrentMagazineRegister register,
+                                    Blackhole blackhole) {
+        Iterator<Magazine> found = register.searchMagazinesTitles(QUERY);
+        for (int i = 0; i < PAGE_SIZE && found.hasNext(); i++) {
+            blackhole.consume(found.next());
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.FuzzyMatch;
+import com.bookstore.MagazineRegister;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency distribution of fuzzy title searches for
+ * misspelled titles of the catalog, see
+ * {@link MagazineRegister#searchMagazinesTitlesFuzzy(String, int)}.
+ * Each query is a stored title with as many random edits as the
+ * allowed distance. The sample mode reports the p99 of the searches,
+ * which should stay below a few milliseconds at 1 000 000 titles.
+ * <p>
+ * The fuzzy index is built in the setup, so the first search is not
+ * measured.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzySearchBenchmark {
+
+    /**
+     * Number of misspelled queries, a power of two
+     */
+    private static final int QUERY_COUNT = 1024;
+
+    /**
+     * Number of magazines in the catalog
+     */
+    @Param({"100000", "1000000"})
+    public int catalogSize;
+
+    /**
+     * The largest edit distance of the searches, and the number of
+     * edits made to each query
+     */
+    @Param({"1", "2", "3"})
+    public int maxDistance;
+
+    /**
+     * The register holding the catalog
+     */
+    private MagazineRegister register;
+
+    /**
+     * Misspelled titles of the catalog
+     */
+    private String[] queries;
+
+    /**
+     * The number of the next query
+     */
+    private int nextQuery;
+
+    /**
+     * Creates the catalog, builds the fuzzy index and misspells the
+     * queries
+     */
+    @Setup
+    public void setUp() {
+        this.register = CatalogState.createRegister(new CatalogGenerator(1),
+                this.catalogSize);
+        this.register.searchMagazinesTitlesFuzzy("", 0);
+
+        Random random = new Random(2);
+        this.queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            StringBuilder query = new StringBuilder(this.register
+                    .getMagazineAtIndex(random.nextInt(this.catalogSize))
+                    .getTitle());
+            for (int edit = 0; edit < this.maxDistance; edit++) {
+                misspell(query, random);
+            }
+            this.queries[i] = query.toString();
+        }
+        this.nextQuery = 0;
+    }
+
+    /**
+     * Searches for the next misspelled title
+     *
+     * @return Returns the found magazines
+     */
+    @Benchmark
+    public List<FuzzyMatch> searchMisspelledTitle() {
+        String query = this.queries[this.nextQuery++ & (QUERY_COUNT - 1)];
+        return this.register.searchMagazinesTitlesFuzzy(query,
+                this.maxDistance);
+    }
+
+    /**
+     * Makes a random edit to a query: removes, inserts or changes a
+     * letter, or swaps two neighbouring letters
+     *
+     * @param query The query to change
+     * @param random The random generator
+     */
+    private static void misspell(StringBuilder query, Random random) {
+        int position = random.nextInt(query.length() - 1);
+        char letter = (char) ('a' + random.nextInt(26));
+        switch (random.nextInt(4)) {
+            case 0:
+                query.deleteCharAt(position);
+                break;
+            case 1:
+                query.insert(position, letter);
+                break;
+            case 2:
+                query.setCharAt(position, letter);
+                break;
+            default:
+                char swapped = query.charAt(position);
+                query.setCharAt(position, query.charAt(position + 1));
+                query.setCharAt(position + 1, swapped);
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures title searches checked on a search pool of the given number
+ * of threads, see {@link MagazineRegister#setSearchPool(ForkJoinPool)}.
+ * One thread searches without a pool, so the speedup of each pool size
+ * is its time divided into the time of one thread.
+ * <p>
+ * The short query is checked against every title, the long query against
+ * the titles sharing its trigrams. Only pool sizes up to the number of
+ * cores of the machine are expected to speed the search up, pass
+ * <code>-p threads=1,2,4</code> to match it.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    /**
+     * Number of results on a page
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Query too short for the trigram index, so every title is checked
+     */
+    private static final String SHORT_QUERY = "qz";
+
+    /**
+     * Number of magazines in the catalog
+     */
+    @Param({"100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    /**
+     * Number of threads of the search pool
+     */
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    /**
+     * The register holding the catalog
+     */
+    private MagazineRegister register;
+
+    /**
+     * Query matching about a hundredth of the titles, see
+     * {@link CatalogGenerator#titleQuery(double)}
+     */
+    private String longQuery;
+
+    /**
+     * The search pool, null for one thread
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Creates the catalog and the search pool
+     */
+    @Setup
+    public void setUp() {
+        this.register = CatalogState.createRegister(new CatalogGenerator(1),
+                this.catalogSize);
+        this.longQuery = CatalogGenerator.titleQuery(0.01);
+        if (this.threads > 1) {
+            this.pool = new ForkJoinPool(this.threads);
+            this.register.setSearchPool(this.pool);
+        }
+    }
+
+    /**
+     * Stops the threads of the search pool
+     */
+    @TearDown
+    public void tearDown() {
+        if (this.pool != null) {
+            this.pool.shutdown();
+        }
+    }
+
+    /**
+     * Reads all results of a search checking every title
+     *
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void shortQueryAll(Blackhole blackhole) {
+        consume(this.register.searchMagazinesTitles(SHORT_QUERY),
+                Integer.MAX_VALUE, blackhole);
+    }
+
+    /**
+     * Reads all results of a search checking the trigram candidates
+     *
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void longQueryAll(Blackhole blackhole) {
+        consume(this.register.searchMagazinesTitles(this.longQuery),
+                Integer.MAX_VALUE, blackhole);
+    }
+
+    /**
+     * Reads the first page of a search checking every title, to see
+     * what the batches cost a search stopping early
+     *
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void shortQueryFirstPage(Blackhole blackhole) {
+        consume(this.register.searchMagazinesTitles(SHORT_QUERY),
+                PAGE_SIZE, blackhole);
+    }
+
+    /**
+     * Consumes up to the given number of results
+     *
+     * @param found The results
+     * @param limit Max number of results to consume
+     * @param blackhole Consumes the results
+     */
+    private static void consume(Iterator<Magazine> found, int limit,
+                                Blackhole blackhole) {
+        for (int i = 0; i < limit && found.hasNext(); i++) {
+            blackhole.consume(found.next());
+        }
+    }
+
+}
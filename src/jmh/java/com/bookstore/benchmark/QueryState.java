@@ -0,0 +1,46 @@
+package com.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The title and publisher queries of a benchmark, matching about the
+ * given fraction of a {@link CatalogState} catalog.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@State(Scope.Benchmark)
+public class QueryState {
+
+    /**
+     * The fraction of the magazines the queries should match
+     */
+    @Param({"0.5", "0.01", "0.0001"})
+    public double selectivity;
+
+    /**
+     * Title query matching the selectivity, see
+     * {@link CatalogGenerator#titleQuery(double)}
+     */
+    String titleQuery;
+
+    /**
+     * Publisher query matching the selectivity, see
+     * {@link CatalogGenerator#publisherQuery(double)}
+     */
+    String publisherQuery;
+
+    /**
+     * Picks the queries
+     */
+    @Setup
+    public void setUp() {
+        this.titleQuery = CatalogGenerator.titleQuery(this.selectivity);
+        this.publisherQuery = new CatalogGenerator(1)
+                .publisherQuery(this.selectivity);
+    }
+
+}
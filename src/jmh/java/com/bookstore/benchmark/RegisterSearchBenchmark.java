@@ -0,0 +1,279 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.MagazineRegister;
+import com.bookstore.query.Criterion;
+import com.bookstore.query.MagazineQuery;
+import com.bookstore.query.SortOrder;
+import com.bookstore.readables.Magazine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the read operations of {@link MagazineRegister} by catalog
+ * size and query selectivity. The register is only read, so the
+ * benchmarks can be run by many threads, pass <code>-t</code>.
+ * <p>
+ * The first page benchmarks read one screen of results, the all
+ * benchmarks read every result. The complete benchmarks complete the
+ * first characters of stored titles and publishers, the completion
+ * indexes are built by the warmup. The query benchmarks combine the
+ * title and publisher queries through {@link MagazineRegister#query}.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterSearchBenchmark {
+
+    /**
+     * Number of results on a page
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Number of characters typed before completing
+     */
+    private static final int COMPLETED_LENGTH = 3;
+
+    /**
+     * Picks the next probe of each thread
+     */
+    @State(Scope.Thread)
+    public static class ProbeCursor {
+
+        /**
+         * The number of the next probe
+         */
+        private int next;
+
+        /**
+         * Returns the position of the next probe
+         *
+         * @return Returns the position
+         */
+        int next() {
+            return this.next++ & (CatalogState.PROBE_COUNT - 1);
+        }
+    }
+
+    /**
+     * Checks for a duplicate of a stored magazine
+     *
+     * @param catalog The catalog
+     * @param cursor The probe cursor of the thread
+     * @return Returns the result
+     */
+    @Benchmark
+    public boolean hasDuplicateOfStored(CatalogState catalog,
+                                        ProbeCursor cursor) {
+        return catalog.register.hasDuplicateOf(
+                catalog.storedProbes[cursor.next()]);
+    }
+
+    /**
+     * Checks for a duplicate of a magazine not in the catalog
+     *
+     * @param catalog The catalog
+     * @param cursor The probe cursor of the thread
+     * @return Returns the result
+     */
+    @Benchmark
+    public boolean hasDuplicateOfAbsent(CatalogState catalog,
+                                        ProbeCursor cursor) {
+        return catalog.register.hasDuplicateOf(
+                catalog.absentProbes[cursor.next()]);
+    }
+
+    /**
+     * Reads the first page of a title search
+     *
+     * @param catalog The catalog
+     * @param query The queries
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void searchTitlesFirstPage(CatalogState catalog, QueryState query,
+                                      Blackhole blackhole) {
+        consume(catalog.register.searchMagazinesTitles(query.titleQuery),
+                PAGE_SIZE, blackhole);
+    }
+
+    /**
+     * Reads all results of a title search
+     *
+     * @param catalog The catalog
+     * @param query The queries
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void searchTitlesAll(CatalogState catalog, QueryState query,
+                                Blackhole blackhole) {
+        consume(catalog.register.searchMagazinesTitles(query.titleQuery),
+                Integer.MAX_VALUE, blackhole);
+    }
+
+    /**
+     * Reads the first page of a publisher search
+     *
+     * @param catalog The catalog
+     * @param query The queries
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void searchPublisherFirstPage(CatalogState catalog,
+                                         QueryState query,
+                                         Blackhole blackhole) {
+        consume(catalog.register.searchMagazinesByPublisher(
+                query.publisherQuery), PAGE_SIZE, blackhole);
+    }
+
+    /**
+     * Reads all results of a publisher search
+     *
+     * @param catalog The catalog
+     * @param query The queries
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void searchPublisherAll(CatalogState catalog, QueryState query,
+                                   Blackhole blackhole) {
+        consume(catalog.register.searchMagazinesByPublisher(
+                query.publisherQuery), Integer.MAX_VALUE, blackhole);
+    }
+
+    /**
+     * Reads the first page of the weeklies, about a 52nd of the catalog
+     *
+     * @param catalog The catalog
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void searchWeekliesFirstPage(CatalogState catalog,
+                                        Blackhole blackhole) {
+        consume(catalog.register.searchByPublicationsPerYear(52,
+                Integer.MAX_VALUE), PAGE_SIZE, blackhole);
+    }
+
+    /**
+     * Counts the magazines published at least monthly
+     *
+     * @param catalog The catalog
+     * @return Returns the count
+     */
+    @Benchmark
+    public int countMonthlyOrMore(CatalogState catalog) {
+        return catalog.register.countByPublicationsPerYear(12,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads a page of the most published magazines
+     *
+     * @param catalog The catalog
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void mostPublishedPage(CatalogState catalog, Blackhole blackhole) {
+        consume(catalog.register.getMostPublished(PAGE_SIZE), PAGE_SIZE,
+                blackhole);
+    }
+
+    /**
+     * Reads all results of a compound query for the title and publisher
+     * queries among the magazines published at least monthly, driven
+     * from the most selective index
+     *
+     * @param catalog The catalog
+     * @param query The queries
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void queryTitlePublisherMonthly(CatalogState catalog,
+                                           QueryState query,
+                                           Blackhole blackhole) {
+        consume(catalog.register.query(new MagazineQuery(
+                Criterion.titleContains(query.titleQuery)
+                        .and(Criterion.publisherContains(query.publisherQuery))
+                        .and(Criterion.publicationsPerYearAtLeast(12)))),
+                Integer.MAX_VALUE, blackhole);
+    }
+
+    /**
+     * Reads the first page of the title query matches sorted by title
+     *
+     * @param catalog The catalog
+     * @param query The queries
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void queryTitleSortedFirstPage(CatalogState catalog,
+                                          QueryState query,
+                                          Blackhole blackhole) {
+        consume(catalog.register.query(new MagazineQuery(
+                Criterion.titleContains(query.titleQuery), SortOrder.TITLE,
+                PAGE_SIZE)), PAGE_SIZE, blackhole);
+    }
+
+    /**
+     * Completes the first characters of the title of a stored magazine
+     *
+     * @param catalog The catalog
+     * @param cursor The probe cursor of the thread
+     * @return Returns the completions
+     */
+    @Benchmark
+    public List<String> completeTitle(CatalogState catalog,
+                                      ProbeCursor cursor) {
+        String title = catalog.storedProbes[cursor.next()].getTitle();
+        return catalog.register.completeTitles(
+                title.substring(0, COMPLETED_LENGTH), PAGE_SIZE);
+    }
+
+    /**
+     * Completes the first characters of the publisher of a stored
+     * magazine
+     *
+     * @param catalog The catalog
+     * @param cursor The probe cursor of the thread
+     * @return Returns the completions
+     */
+    @Benchmark
+    public List<String> completePublisher(CatalogState catalog,
+                                          ProbeCursor cursor) {
+        String publisher = catalog.storedProbes[cursor.next()].getPublisher();
+        return catalog.register.completePublishers(
+                publisher.substring(0, COMPLETED_LENGTH), PAGE_SIZE);
+    }
+
+    /**
+     * Consumes up to the given number of results
+     *
+     * @param found The results
+     * @param limit Max number of results to consume
+     * @param blackhole Consumes the results
+     */
+    private static void consume(Iterator<Magazine> found, int limit,
+                                Blackhole blackhole) {
+        for (int i = 0; i < limit && found.hasNext(); i++) {
+            blackhole.consume(found.next());
+        }
+    }
+
+}
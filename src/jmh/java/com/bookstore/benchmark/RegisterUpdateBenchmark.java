@@ -0,0 +1,119 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding and deleting magazines in a {@link MagazineRegister}
+ * by catalog size. Every benchmark thread has its own register.
+ * <p>
+ * The catalog size is kept by pairing the operations: a new magazine
+ * is added and deleted again, and a stored magazine is deleted by
+ * record id and added back. Deleting only marks the magazine deleted,
+ * so both pairs include the compactions the deletions lead to.
+ * The second deletes from random positions.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterUpdateBenchmark {
+
+    /**
+     * The register of a benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class UpdateState {
+
+        /**
+         * Number of magazines in the catalog
+         */
+        @Param({"1000", "10000", "100000", "1000000"})
+        public int catalogSize;
+
+        /**
+         * The register holding the catalog
+         */
+        MagazineRegister register;
+
+        /**
+         * Makes the magazines to add
+         */
+        CatalogGenerator generator;
+
+        /**
+         * Picks the magazines to delete
+         */
+        Random random;
+
+        /**
+         * The record ids of the catalog magazines
+         */
+        int[] recordIds;
+
+        /**
+         * Creates the catalog
+         */
+        @Setup
+        public void setUp() {
+            this.generator = new CatalogGenerator(1);
+            this.register = CatalogState.createRegister(this.generator,
+                    this.catalogSize);
+            this.random = new Random(3);
+            this.recordIds = new int[this.catalogSize];
+            for (int i = 0; i < this.catalogSize; i++) {
+                this.recordIds[i] = i;
+            }
+        }
+    }
+
+    /**
+     * Adds a new magazine and deletes it again
+     *
+     * @param state The register of the thread
+     * @return Returns true if deleted
+     */
+    @Benchmark
+    public boolean addAndDelete(UpdateState state) {
+        Magazine magazine = state.generator.next();
+        state.register.addMagazine(magazine);
+        return state.register.deleteMagazine(magazine);
+    }
+
+    /**
+     * Deletes a random stored magazine by record id and adds it back
+     *
+     * @param state The register of the thread
+     * @return Returns the new record id of the magazine
+     */
+    @Benchmark
+    public int deleteByIdAndAddBack(UpdateState state) {
+        int slot = state.random.nextInt(state.catalogSize);
+        int recordId = state.recordIds[slot];
+        Magazine magazine = state.register.getById(recordId);
+        state.register.deleteById(recordId);
+        state.register.addMagazine(magazine);
+        state.recordIds[slot] = state.register.findIdOf(magazine);
+        return state.recordIds[slot];
+    }
+
+}
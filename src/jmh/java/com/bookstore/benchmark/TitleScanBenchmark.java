@@ -0,0 +1,131 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+import com.bookstore.util.TextNormalizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking every title of a catalog against a query using the
+ * normalized titles the magazines compute once, with case folding every
+ * title during the scan. The query is shorter than a trigram, so every
+ * magazine is checked. Results are per checked magazine.
+ * <p>
+ * Run with the GC profiler to see the bytes allocated per checked
+ * magazine, <code>gc.alloc.rate.norm</code>:
+ * <code>gradle jmh -PjmhArgs="TitleScanBenchmark -prof gc"</code>.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleScanBenchmark {
+
+    /**
+     * Number of magazines in the catalog
+     */
+    private static final int CATALOG_SIZE = 100000;
+
+    /**
+     * The query, too short for the trigram index
+     */
+    private static final String QUERY = "ab";
+
+    /**
+     * The register holding the catalog
+     */
+    private MagazineRegister register;
+
+    /**
+     * The register holding the catalog, ignoring accents
+     */
+    private MagazineRegister accentFoldingRegister;
+
+    /**
+     * Creates the catalog
+     */
+    @Setup
+    public void setUp() {
+        this.register = CatalogState.createRegister(new CatalogGenerator(1),
+                CATALOG_SIZE);
+        this.accentFoldingRegister = new MagazineRegister(this.register);
+        this.accentFoldingRegister.setAccentFolding(true);
+    }
+
+    /**
+     * Searches the titles, checking the precomputed normalized titles
+     *
+     * @return Returns the number of matches
+     */
+    @Benchmark
+    @OperationsPerInvocation(CATALOG_SIZE)
+    public int precomputed() {
+        return count(this.register.searchMagazinesTitles(QUERY));
+    }
+
+    /**
+     * Searches the titles ignoring accents, checking the precomputed
+     * accent folded titles
+     *
+     * @return Returns the number of matches
+     */
+    @Benchmark
+    @OperationsPerInvocation(CATALOG_SIZE)
+    public int precomputedAccentFolded() {
+        return count(this.accentFoldingRegister.searchMagazinesTitles(QUERY));
+    }
+
+    /**
+     * Checks every title by case folding it during the scan
+     *
+     * @return Returns the number of matches
+     */
+    @Benchmark
+    @OperationsPerInvocation(CATALOG_SIZE)
+    public int foldedPerMagazine() {
+        int matches = 0;
+        Iterator<Magazine> magazines = this.register.getAllMagazines();
+        while (magazines.hasNext()) {
+            if (TextNormalizer.foldCase(magazines.next().getTitle())
+                    .contains(QUERY)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Counts the magazines of an iterator
+     *
+     * @param magazines The magazines to count
+     * @return Returns the number of magazines
+     */
+    private static int count(Iterator<Magazine> magazines) {
+        int count = 0;
+        while (magazines.hasNext()) {
+            magazines.next();
+            count++;
+        }
+        return count;
+    }
+
+}
@@ -1,14 +1,98 @@
 package com.bookstore;
 
+import com.bookstore.cache.QueryCache;
+import com.bookstore.metrics.MetricsReporter;
+import com.bookstore.metrics.RegisterMetrics;
+import com.bookstore.persistence.PersistenceOptions;
+import com.bookstore.persistence.PersistentCatalog;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 /**
  * Application for managing and keeping records of books, magazines,
  * papers etc for book stores.
+ * <p>
+ * The register operations are measured, see {@link RegisterMetrics}. The
+ * metrics are published through JMX and written to
+ * <code>magazine-data/metrics.json</code> every minute. Start with
+ * <code>-Dbookstore.metrics=off</code> to turn measuring off entirely.
+ * Start with <code>-Dbookstore.foldAccents=true</code> to make searches
+ * ignore accents.
+ * <p>
+ * Title and publisher search results are cached, see {@link QueryCache},
+ * holding up to <code>-Dbookstore.queryCacheSize=N</code> record ids,
+ * 1 000 000 by default. A size of 0 turns the cache off. The cache
+ * statistics are published through JMX.
+ * <p>
+ * Title searches of large registers are checked on the common fork-join
+ * pool, start with <code>-Dbookstore.parallelSearch=false</code> to search
+ * on one thread.
+ * <p>
+ * Started with <code>--batch</code>, the commands are read from standard
+ * input without prompts, see {@link BatchRunner}. Started with
+ * <code>--batch FILE</code>, they are read from the UTF-8 file.
  *
  * @author Christoffer A Træen
  * @version 1
  */
 public class App {
 
+    /**
+     * Directory the magazine register is kept in between runs
+     */
+    private static final Path DATA_DIRECTORY = Paths.get("magazine-data");
+
+    /**
+     * System property turning the metrics off when set to "off"
+     */
+    private static final String METRICS_PROPERTY = "bookstore.metrics";
+
+    /**
+     * System property making searches ignore accents when set to "true"
+     */
+    private static final String FOLD_ACCENTS_PROPERTY = "bookstore.foldAccents";
+
+    /**
+     * System property making title searches run on one thread when
+     * set to "false"
+     */
+    private static final String PARALLEL_SEARCH_PROPERTY =
+            "bookstore.parallelSearch";
+
+    /**
+     * System property setting the number of record ids the query
+     * cache holds, 0 for no cache
+     */
+    private static final String QUERY_CACHE_SIZE_PROPERTY =
+            "bookstore.queryCacheSize";
+
+    /**
+     * Number of record ids the query cache holds by default
+     */
+    private static final long DEFAULT_QUERY_CACHE_SIZE = 1000000L;
+
+    /**
+     * Milliseconds between the metrics reports
+     */
+    private static final long METRICS_INTERVAL_MILLIS = 60 * 1000L;
+
+    /**
+     * Argument starting the batch mode
+     */
+    private static final String BATCH_OPTION = "--batch";
+
     /**
      * Application entry
      *
@@ -16,10 +100,146 @@ public class App {
      */
     public static void main(String[] args) {
 
-        // CREATE USER INTERFACE
-        ApplicationUI ui = new ApplicationUI(new MagazineRegister());
-        ui.start();
+        int failedCommands = 0;
 
+        // OPEN THE REGISTER KEPT ON DISK
+        try (PersistentCatalog catalog = PersistentCatalog.open(
+                DATA_DIRECTORY, PersistenceOptions.defaults())) {
+
+            catalog.getRegister().setAccentFolding(
+                    Boolean.getBoolean(FOLD_ACCENTS_PROPERTY));
+            if (!"false".equalsIgnoreCase(
+                    System.getProperty(PARALLEL_SEARCH_PROPERTY))) {
+                catalog.getRegister().setSearchPool(ForkJoinPool.commonPool());
+            }
+
+            // CACHE REPEATED SEARCHES
+            long queryCacheSize = Long.getLong(QUERY_CACHE_SIZE_PROPERTY,
+                    DEFAULT_QUERY_CACHE_SIZE);
+            if (queryCacheSize > 0) {
+                startQueryCache(catalog.getRegister(), queryCacheSize);
+            }
+
+            // MEASURE THE REGISTER OPERATIONS
+            RegisterMetrics metrics = null;
+            if (!"off".equalsIgnoreCase(System.getProperty(METRICS_PROPERTY))) {
+                metrics = startMetrics(catalog.getRegister());
+            }
+
+            // The reporter is stopped and the metrics unpublished
+            // however the commands end
+            MetricsReporter reporter = null;
+            try {
+                if (metrics != null) {
+                    reporter = new MetricsReporter(metrics,
+                            DATA_DIRECTORY.resolve("metrics.json"),
+                            MetricsReporter.Format.JSON,
+                            METRICS_INTERVAL_MILLIS);
+                }
+
+                if (args.length > 0 && BATCH_OPTION.equals(args[0])) {
+                    // RUN THE COMMANDS WITHOUT PROMPTS
+                    failedCommands = runBatch(catalog.getRegister(),
+                            args.length > 1 ? Paths.get(args[1]) : null);
+                } else {
+                    // CREATE USER INTERFACE
+                    ApplicationUI ui = new ApplicationUI(catalog.getRegister());
+                    ui.start();
+                }
+            } finally {
+                try {
+                    if (reporter != null) {
+                        reporter.close();
+                    }
+                } finally {
+                    if (metrics != null) {
+                        stopMetrics(metrics);
+                    }
+                }
+            }
+
+        } catch (IOException e) {
+            System.err.println("Could not read or write the magazine data in "
+                    + DATA_DIRECTORY.toAbsolutePath() + ": " + e.getMessage());
+            failedCommands++;
+        }
+
+        if (failedCommands > 0 && args.length > 0
+                && BATCH_OPTION.equals(args[0])) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the commands of a command file or standard input, writing
+     * the results to standard output
+     *
+     * @param register The register to run the commands against
+     * @param commandFile The command file, or null for standard input
+     * @return Returns the number of failed commands
+     * @throws IOException If reading or writing fails
+     */
+    private static int runBatch(MagazineRegister register, Path commandFile)
+            throws IOException {
+        Reader input = commandFile == null
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(commandFile, StandardCharsets.UTF_8);
+        try (Reader commands = input) {
+            OutputStreamWriter output = new OutputStreamWriter(System.out,
+                    StandardCharsets.UTF_8);
+            return new BatchRunner(register, commands, output).run();
+        }
+    }
+
+    /**
+     * Sets a query cache on the register, and publishes its
+     * statistics through JMX
+     *
+     * @param register The register to cache the searches of
+     * @param size The number of record ids the cache holds
+     */
+    private static void startQueryCache(MagazineRegister register, long size) {
+        QueryCache queryCache = new QueryCache(size);
+        register.setQueryCache(queryCache);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(queryCache,
+                    new ObjectName("com.bookstore:type=QueryCache"));
+        } catch (JMException e) {
+            System.err.println("Could not publish the query cache through JMX: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts measuring the register, and publishes the metrics through JMX
+     *
+     * @param register The register to measure
+     * @return Returns the metrics of the register
+     */
+    private static RegisterMetrics startMetrics(MagazineRegister register) {
+        RegisterMetrics metrics = new RegisterMetrics();
+        register.setMetrics(metrics);
+        try {
+            metrics.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            System.err.println("Could not publish the metrics through JMX: "
+                    + e.getMessage());
+        }
+        return metrics;
+    }
+
+    /**
+     * Removes the metrics published through JMX
+     *
+     * @param metrics The metrics to remove
+     */
+    private static void stopMetrics(RegisterMetrics metrics) {
+        try {
+            metrics.unregisterMBeans(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            System.err.println("Could not remove the metrics from JMX: "
+                    + e.getMessage());
+        }
     }
 
 }
@@ -25,21 +25,37 @@ public class ApplicationUI {
         "Quit application"
     };
 
-    private HashMap<Integer, Magazine> lastFoundMagazines;
+    /**
+     * Number of magazines shown on a page of found magazines
+     */
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * The magazines found by the last search or listing,
+     * null before the first
+     */
+    private ResultPager lastFoundMagazines;
 
     /**
      * The Magazine register to get and insert magazines.
      */
     private final MagazineRegister magazineRegister;
 
+    /**
+     * Reads the user input. One scanner for all prompts, as a scanner
+     * buffers input it has not returned yet.
+     */
+    private final Scanner scanner;
+
     /**
      * Set the magazine register to field for use.
      *
      * @param magazineRegister The magazine register which holds on magazines.
      */
     public ApplicationUI(MagazineRegister magazineRegister) {
-        this.lastFoundMagazines = new HashMap<>();
+        this.lastFoundMagazines = null;
         this.magazineRegister = magazineRegister;
+        this.scanner = new Scanner(System.in);
     }
 
     /**
@@ -127,15 +143,14 @@ public class ApplicationUI {
         String magazineTitle;
         String magazinePublisher;
         int publicationsPerYear;
-        Scanner scanner = new Scanner(System.in);
 
         this.println("\nAdd magazine by title\n");
 
         this.println("Title:");
-        magazineTitle = scanner.nextLine();
+        magazineTitle = this.scanner.nextLine();
 
         this.println("Publisher:");
-        magazinePublisher = scanner.nextLine();
+        magazinePublisher = this.scanner.nextLine();
 
         this.println("Publications per year:");
         publicationsPerYear = getIntInput();
@@ -166,123 +181,123 @@ public class ApplicationUI {
      * Lists all magazines stored in the magazine register.
      */
     private void searchMagazinesByPublisher() {
-        String magazinePublisher;
-        Scanner scanner = new Scanner(System.in);
-
         this.println("\nSearch magazines by publisher\n");
         this.println("Publisher:");
 
-        magazinePublisher = scanner.nextLine().trim();
+        String publisher = this.scanner.nextLine().trim();
 
-        Iterator<Magazine> foundMagazines = this.magazineRegister
-                .searchMagazinesByPublisher(magazinePublisher);
-        this.addFoundMagazines(foundMagazines);
+        this.lastFoundMagazines = new ResultPager((token, limit) ->
+                this.magazineRegister.searchMagazinesByPublisherPage(
+                        publisher, token, limit), PAGE_SIZE);
         this.printLastFoundMagazines();
 
     }
 
     /**
-     * Adds magazines to map of found magazines with ID
-     * for referencing. Clears the existing collection
-     * before adding new entries.
-     *
-     * @param magazines The magazines to add
-     */
-    private void addFoundMagazines(Iterator<Magazine> magazines) {
-        this.lastFoundMagazines.clear();
-        int i = 0;
-        while (magazines.hasNext()) {
-            this.lastFoundMagazines.put(i, magazines.next());
-            i++;
-        }
-    }
-
-    /**
-     * Get all magazine in register and add call
-     * {@link #addFoundMagazines} so we can use them later
-     * and then call {@link #printLastFoundMagazines} to print them out.
+     * Get all magazine in register, a page at a time, and call
+     * {@link #printLastFoundMagazines} to print them out.
      * displays message if no magazine is found
      */
     private void listAllMagazines() {
         this.println("\nListing all magazines\n");
-        Iterator<Magazine> magazines = this.magazineRegister.getAllMagazines();
+        this.lastFoundMagazines = new ResultPager(
+                this.magazineRegister::getAllMagazinesPage, PAGE_SIZE);
 
-        if (magazines.hasNext()) {
-            this.addFoundMagazines(magazines);
-            this.printLastFoundMagazines();
-        } else {
+        if (this.lastFoundMagazines.isEmpty()) {
             this.println("There are no magazines to display.");
+        } else {
+            this.printLastFoundMagazines();
         }
         this.println("");
     }
 
     /**
      * Gets input from the user and searches the register for that input
-     * and call {@link #addFoundMagazines} so we can use them later
-     * and then call {@link #printLastFoundMagazines} to print them out.
+     * and call {@link #printLastFoundMagazines} to print them out.
      *
      */
     private void searchMagazinesByTitle() {
-        String searchString;
-        Scanner scanner = new Scanner(System.in);
-
         this.println("\nSearch magazines by title\n");
         this.println("Title:");
 
-        searchString = scanner.nextLine().trim();
+        String searchString = this.scanner.nextLine().trim();
 
-        Iterator<Magazine> foundMagazines = this.magazineRegister
-                .searchMagazinesTitles(searchString);
-        this.addFoundMagazines(foundMagazines);
+        this.lastFoundMagazines = new ResultPager((token, limit) ->
+                this.magazineRegister.searchMagazinesTitlesPage(
+                        searchString, token, limit), PAGE_SIZE);
         this.printLastFoundMagazines();
     }
 
     /**
-     * Prints all found magazines by Id, Title, Publisher and releases per year
+     * Prints the found magazines by Id, Title, Publisher and releases
+     * per year, a page at a time. After each page the user can go to
+     * the next or previous page, or back to the menu.
      */
     private void printLastFoundMagazines() {
 
-        StringBuilder magazinesString = new StringBuilder();
         if (this.lastFoundMagazines.isEmpty()) {
-            magazinesString.append("\nCan not find any magazines");
-        } else {
-            magazinesString.append("ID | TITLE | PUBLISHER | " +
-                    "PUBLICATIONS YEAR\n");
-
-            this.lastFoundMagazines.forEach((id, magazine) -> {
-                magazinesString.append(id);
-                magazinesString.append(" | ");
-                magazinesString.append(magazine.getTitle());
-                magazinesString.append(" | ");
-                magazinesString.append(magazine.getPublisher());
-                magazinesString.append(" | ");
-                magazinesString.append(magazine.getPublicationsPerYear());
-                magazinesString.append("\n");
-            });
+            this.println("\nCan not find any magazines");
+            return;
+        }
+
+        int pageNumber = 0;
+        boolean browsing = true;
+        while (browsing) {
+            this.printPage(pageNumber);
+
+            boolean hasPrevious = pageNumber > 0;
+            boolean hasNext = this.lastFoundMagazines.hasNextPage(pageNumber);
+            if (!hasPrevious && !hasNext) {
+                return;
+            }
+            this.println((hasNext ? "[N] Next page  " : "")
+                    + (hasPrevious ? "[P] Previous page  " : "")
+                    + "[Enter] Back to menu");
+            String choice = this.scanner.nextLine().trim();
+            if (hasNext && choice.equalsIgnoreCase("n")) {
+                pageNumber++;
+            } else if (hasPrevious && choice.equalsIgnoreCase("p")) {
+                pageNumber--;
+            } else {
+                browsing = false;
+            }
         }
-        this.println(magazinesString.toString());
+    }
+
+    /**
+     * Prints a page of the found magazines, a line per magazine.
+     * Magazines deleted since they were found are left out.
+     *
+     * @param pageNumber The page number, starting at 0
+     */
+    private void printPage(int pageNumber) {
+        this.println("ID | TITLE | PUBLISHER | PUBLICATIONS YEAR");
+
+        int index = this.lastFoundMagazines.getFirstIndex(pageNumber);
+        for (Magazine magazine : this.lastFoundMagazines.getPage(pageNumber)) {
+            int id = this.lastFoundMagazines.getRecordId(index);
+            if (this.magazineRegister.getById(id) != null) {
+                this.println(id + " | " + magazine.getTitle() + " | "
+                        + magazine.getPublisher() + " | "
+                        + magazine.getPublicationsPerYear());
+            }
+            index++;
+        }
+        this.println("Page " + (pageNumber + 1) + "\n");
     }
 
     /**
      * Removes a magazine from the register by the ID displayed
-     * when getting magazines from the register.
-     * Displays error message if it could`nt delete the magazine.
-     * If wrong id is entered, prompt for retry
+     * when getting magazines from the register. The ID is the record id
+     * of the magazine, so it stays valid when other magazines are
+     * deleted. If wrong id is entered, prompt for retry
      */
     private void removeMagazine() {
-        this.println("\nThe id of a found magazine: ");
-        Integer id = this.getIntInput();
-        try {
-            Magazine magazine = this.lastFoundMagazines.get(id);
-            if (magazine != null) {
-                if (this.magazineRegister.deleteMagazine(magazine)) {
-                    this.println("Removed magazine");
-                    this.lastFoundMagazines.remove(id);
-                } else {
-                    this.println("Could not remove magazine");
-                }
-            }
-        } catch (IndexOutOfBoundsException e) {
+        this.println("\nThe id of the magazine: ");
+        int id = this.getIntInput();
+        if (this.magazineRegister.deleteById(id)) {
+            this.println("Removed magazine");
+        } else {
             this.println("Magazine id not valid.");
             if (this.tryAgain()) {
                 this.removeMagazine();
@@ -291,25 +306,22 @@ public class ApplicationUI {
     }
 
     /**
-     * Reads the Scanner for number and returns it,
+     * Reads a line with a number and returns it,
      * if no valid number is passed, prints an error message and
      * ask try to get input again.
      * <p>
-     * Workaround for the scanner, because it goes into infinite loop if
-     * a non int is used as input type when expecting int.
+     * The whole line is read, so the next prompt starts on a new line.
      *
      * @return returns the number entered by the user
      */
     private int getIntInput() {
-        Scanner scanner = new Scanner(System.in);
-        int number = 0;
-        try {
-            number = scanner.nextInt();
-        } catch (InputMismatchException e) {
-            this.println("Please enter a whole number.");
-            number = getIntInput();
+        while (true) {
+            try {
+                return Integer.parseInt(this.scanner.nextLine().trim());
+            } catch (NumberFormatException e) {
+                this.println("Please enter a whole number.");
+            }
         }
-        return number;
     }
 
     /**
@@ -322,10 +334,9 @@ public class ApplicationUI {
      */
     private boolean confirmAction() {
         boolean confirmed = false;
-        Scanner scanner = new Scanner(System.in);
         String choice;
         this.print("Enter [Y / N]: ");
-        choice = scanner.next();
+        choice = this.scanner.nextLine().trim();
         if (choice.equalsIgnoreCase("y") || choice.equalsIgnoreCase("n")) {
             if (choice.equalsIgnoreCase("y")) {
                 confirmed = true;
@@ -353,8 +364,7 @@ public class ApplicationUI {
      */
     private void pressKeyToContinue() {
         this.println("Press a key to continue...");
-        Scanner scanner = new Scanner(System.in);
-        scanner.nextLine();
+        this.scanner.nextLine();
     }
 
     /**
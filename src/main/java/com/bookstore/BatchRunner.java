@@ -0,0 +1,275 @@
+package com.bookstore;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs commands against a register without prompts, so the register
+ * can be driven by a command file or a pipe.
+ * <p>
+ * Every line holds one command, fields are separated by <code>|</code>:
+ * <ul>
+ * <li><code>add TITLE | PUBLISHER | PUBLICATIONS PER YEAR</code></li>
+ * <li><code>delete TITLE | PUBLISHER</code></li>
+ * <li><code>list</code></li>
+ * <li><code>search-title QUERY</code></li>
+ * <li><code>search-publisher QUERY</code></li>
+ * <li><code>complete-title PREFIX</code></li>
+ * <li><code>complete-publisher PREFIX</code></li>
+ * <li><code>quit</code>, stops reading</li>
+ * </ul>
+ * Empty lines and lines starting with <code>#</code> are skipped.
+ * Found magazines are written as <code>TITLE | PUBLISHER |
+ * PUBLICATIONS PER YEAR</code>, followed by <code>found N</code>.
+ * Completions are written one per line, at most
+ * {@value #COMPLETION_LIMIT}, followed by <code>found N</code>. A
+ * failing command writes <code>error line N: MESSAGE</code> and the
+ * next command is run.
+ * <p>
+ * The commands are read through one buffered reader and the results
+ * written through one buffered writer, flushed when full and at the end.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class BatchRunner {
+
+    /**
+     * Separates the fields of a command
+     */
+    private static final String FIELD_SEPARATOR = "|";
+
+    /**
+     * Max number of completions written for a prefix
+     */
+    private static final int COMPLETION_LIMIT = 10;
+
+    /**
+     * Size of the read and write buffers in chars
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The register to run the commands against
+     */
+    private final MagazineRegister magazineRegister;
+
+    /**
+     * Reads the commands
+     */
+    private final BufferedReader input;
+
+    /**
+     * Writes the results
+     */
+    private final BufferedWriter output;
+
+    /**
+     * Creates a runner
+     *
+     * @param magazineRegister The register to run the commands against
+     * @param input The commands
+     * @param output Where the results are written
+     * @throws IllegalArgumentException If an argument is null
+     */
+    public BatchRunner(MagazineRegister magazineRegister, Reader input,
+                       Writer output) {
+        if (magazineRegister == null || input == null || output == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.magazineRegister = magazineRegister;
+        this.input = new BufferedReader(input, BUFFER_SIZE);
+        this.output = new BufferedWriter(output, BUFFER_SIZE);
+    }
+
+    /**
+     * Runs the commands until the input ends or a quit command is read
+     *
+     * @return Returns the number of failed commands
+     * @throws IOException If reading or writing fails
+     */
+    public int run() throws IOException {
+        int failed = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = this.input.readLine()) != null) {
+            lineNumber++;
+            String command = line.trim();
+            if (command.isEmpty() || command.startsWith("#")) {
+                continue;
+            }
+            if (command.equalsIgnoreCase("quit")) {
+                break;
+            }
+            try {
+                this.runCommand(command);
+            } catch (IllegalArgumentException | DuplicateEntryException e) {
+                this.writeLine("error line " + lineNumber + ": "
+                        + e.getMessage());
+                failed++;
+            }
+        }
+        this.output.flush();
+        return failed;
+    }
+
+    /**
+     * Runs one command
+     *
+     * @param command The trimmed command line
+     * @throws IllegalArgumentException If the command is invalid
+     * @throws DuplicateEntryException If an added magazine is a duplicate
+     * @throws IOException If writing fails
+     */
+    private void runCommand(String command) throws IOException {
+        int nameEnd = command.indexOf(' ');
+        String name = (nameEnd < 0 ? command : command.substring(0, nameEnd))
+                .toLowerCase(Locale.ROOT);
+        String arguments = nameEnd < 0 ? "" : command.substring(nameEnd + 1).trim();
+
+        switch (name) {
+            case "add":
+                this.add(arguments);
+                break;
+            case "delete":
+                this.delete(arguments);
+                break;
+            case "list":
+                this.writeFound(this.magazineRegister.getAllMagazines());
+                break;
+            case "search-title":
+                this.writeFound(this.magazineRegister
+                        .searchMagazinesTitles(arguments));
+                break;
+            case "search-publisher":
+                this.writeFound(this.magazineRegister
+                        .searchMagazinesByPublisher(arguments));
+                break;
+            case "complete-title":
+                this.writeCompletions(this.magazineRegister
+                        .completeTitles(arguments, COMPLETION_LIMIT));
+                break;
+            case "complete-publisher":
+                this.writeCompletions(this.magazineRegister
+                        .completePublishers(arguments, COMPLETION_LIMIT));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + name);
+        }
+    }
+
+    /**
+     * Adds the magazine described by the arguments
+     *
+     * @param arguments Title, publisher and publications per year
+     * @throws IllegalArgumentException If the arguments are invalid
+     * @throws DuplicateEntryException If the magazine is a duplicate
+     * @throws IOException If writing fails
+     */
+    private void add(String arguments) throws IOException {
+        String[] fields = splitFields(arguments, 3);
+        int publicationsPerYear;
+        try {
+            publicationsPerYear = Integer.parseInt(fields[2]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Publications per year must be a whole number.");
+        }
+        this.magazineRegister.addMagazine(new Magazine(fields[0], fields[1],
+                publicationsPerYear));
+        this.writeLine("added");
+    }
+
+    /**
+     * Deletes the magazine with the title and publisher of the arguments
+     *
+     * @param arguments Title and publisher
+     * @throws IllegalArgumentException If the arguments are invalid
+     * @throws IOException If writing fails
+     */
+    private void delete(String arguments) throws IOException {
+        String[] fields = splitFields(arguments, 2);
+        boolean deleted = this.magazineRegister.deleteMagazine(
+                new Magazine(fields[0], fields[1], 0));
+        this.writeLine(deleted ? "deleted" : "not found");
+    }
+
+    /**
+     * Writes the found magazines and their number
+     *
+     * @param magazines The found magazines
+     * @throws IOException If writing fails
+     */
+    private void writeFound(Iterator<Magazine> magazines) throws IOException {
+        long found = 0;
+        while (magazines.hasNext()) {
+            Magazine magazine = magazines.next();
+            this.output.write(magazine.getTitle());
+            this.output.write(" | ");
+            this.output.write(magazine.getPublisher());
+            this.output.write(" | ");
+            this.output.write(Integer.toString(magazine.getPublicationsPerYear()));
+            this.output.newLine();
+            found++;
+        }
+        this.writeLine("found " + found);
+    }
+
+    /**
+     * Writes the completions and their number
+     *
+     * @param completions The completions
+     * @throws IOException If writing fails
+     */
+    private void writeCompletions(List<String> completions) throws IOException {
+        for (String completion : completions) {
+            this.writeLine(completion);
+        }
+        this.writeLine("found " + completions.size());
+    }
+
+    /**
+     * Writes a line
+     *
+     * @param line The line to write
+     * @throws IOException If writing fails
+     */
+    private void writeLine(String line) throws IOException {
+        this.output.write(line);
+        this.output.newLine();
+    }
+
+    /**
+     * Splits the arguments of a command in trimmed fields
+     *
+     * @param arguments The arguments
+     * @param count The number of fields expected
+     * @return Returns the fields
+     * @throws IllegalArgumentException If the number of fields is wrong
+     */
+    private static String[] splitFields(String arguments, int count) {
+        String[] fields = new String[count];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = i == count - 1 ? arguments.length()
+                    : arguments.indexOf(FIELD_SEPARATOR, start);
+            if (end < 0 || (i == count - 1
+                    && arguments.indexOf(FIELD_SEPARATOR, start) >= 0)) {
+                throw new IllegalArgumentException("Expected " + count
+                        + " fields separated by " + FIELD_SEPARATOR + ".");
+            }
+            fields[i] = arguments.substring(start, end).trim();
+            start = end + 1;
+        }
+        return fields;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.bookstore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of adding many magazines at once: how many were added,
+ * and which rows were rejected and why. Rejected rows do not stop
+ * the rest of the load.
+ * <p>
+ * Only the first {@link #MAX_STORED_REJECTIONS} rejections are kept,
+ * so a bad feed can not fill the memory. All rejections are counted.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class BulkLoadResult {
+
+    /**
+     * Max number of rejections kept with their reason
+     */
+    public static final int MAX_STORED_REJECTIONS = 10000;
+
+    /**
+     * Number of magazines added
+     */
+    private long addedCount;
+
+    /**
+     * Number of rows rejected
+     */
+    private long rejectedCount;
+
+    /**
+     * The first rejections
+     */
+    private final List<Rejection> rejections;
+
+    /**
+     * Creates an empty result
+     */
+    public BulkLoadResult() {
+        this.addedCount = 0;
+        this.rejectedCount = 0;
+        this.rejections = new ArrayList<>();
+    }
+
+    /**
+     * Counts added magazines
+     *
+     * @param count Number of magazines added
+     */
+    public void addAdded(long count) {
+        this.addedCount += count;
+    }
+
+    /**
+     * Records a rejected row
+     *
+     * @param rowNumber The number of the row
+     * @param reason Why the row was rejected
+     */
+    public void addRejection(long rowNumber, String reason) {
+        this.rejectedCount++;
+        if (this.rejections.size() < MAX_STORED_REJECTIONS) {
+            this.rejections.add(new Rejection(rowNumber, reason));
+        }
+    }
+
+    /**
+     * Returns the number of magazines added
+     *
+     * @return Returns the number of magazines added
+     */
+    public long getAddedCount() {
+        return this.addedCount;
+    }
+
+    /**
+     * Returns the number of rejected rows
+     *
+     * @return Returns the number of rejected rows
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount;
+    }
+
+    /**
+     * Returns the first {@link #MAX_STORED_REJECTIONS} rejections,
+     * in the order of the rows
+     *
+     * @return Returns an unmodifiable list of rejections
+     */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(this.rejections);
+    }
+
+    @Override
+    public String toString() {
+        return "Added " + this.addedCount + " magazines, rejected "
+                + this.rejectedCount + " rows.";
+    }
+
+    /**
+     * A row that could not be added, and why
+     */
+    public static class Rejection {
+
+        /**
+         * The number of the row
+         */
+        private final long rowNumber;
+
+        /**
+         * Why the row was rejected
+         */
+        private final String reason;
+
+        /**
+         * Creates a rejection
+         *
+         * @param rowNumber The number of the row
+         * @param reason Why the row was rejected
+         */
+        public Rejection(long rowNumber, String reason) {
+            this.rowNumber = rowNumber;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns the number of the rejected row. For a file this is
+         * the line number, for a collection the index in the collection.
+         *
+         * @return Returns the row number
+         */
+        public long getRowNumber() {
+            return this.rowNumber;
+        }
+
+        /**
+         * Returns why the row was rejected
+         *
+         * @return Returns the reason
+         */
+        public String getReason() {
+            return this.reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + this.rowNumber + ": " + this.reason;
+        }
+    }
+
+}
@@ -0,0 +1,407 @@
+package com.bookstore;
+
+import com.bookstore.feed.ChangeFeed;
+import com.bookstore.query.MagazineQuery;
+import com.bookstore.query.QueryPlan;
+import com.bookstore.readables.Magazine;
+import com.bookstore.stats.CatalogStatistics;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Magazine register that can be shared by many threads, for example
+ * several till terminals and a background importer.
+ * <p>
+ * Reads never block. Readers use the current snapshot, a read-only
+ * {@link MagazineRegister} that is never changed after it is published.
+ * Searches and iterators started on a snapshot keep seeing that
+ * snapshot, even if the register is changed while they are consumed.
+ * <p>
+ * Writers are serialized. A write copies the current snapshot,
+ * changes the copy and publishes it as the new snapshot. A write
+ * therefore costs time linear in the size of the register, and many
+ * changes should be applied together through {@link #update(Consumer)}.
+ * <p>
+ * Changes are logged to the journal of the register, see
+ * {@link MagazineRegister#setJournal(MagazineJournal)}, just before the
+ * snapshot holding them is published, and published on the change feed,
+ * see {@link #setChangeFeed(ChangeFeed)}, once it is. Changes that are
+ * not published, because {@link #update(Consumer)} failed, are never
+ * logged or sent. If logging fails, the snapshot is not published.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class ConcurrentMagazineRegister {
+
+    /**
+     * The current read-only snapshot of the register
+     */
+    private volatile MagazineRegister snapshot;
+
+    /**
+     * Lock serializing the writers
+     */
+    private final Object writeLock;
+
+    /**
+     * Creates an empty register
+     */
+    public ConcurrentMagazineRegister() {
+        this(new MagazineRegister());
+    }
+
+    /**
+     * Creates a register holding a copy of the magazines of
+     * the given register
+     *
+     * @param magazineRegister The register to copy
+     * @throws IllegalArgumentException If passed register is null
+     */
+    public ConcurrentMagazineRegister(MagazineRegister magazineRegister) {
+        if (magazineRegister == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+        MagazineRegister initial = new MagazineRegister(magazineRegister);
+        initial.makeReadOnly();
+        this.snapshot = initial;
+        this.writeLock = new Object();
+    }
+
+    /**
+     * Returns the current snapshot of the register. The snapshot is
+     * read-only, and is not affected by later changes to this register.
+     *
+     * @return Returns the current read-only snapshot
+     */
+    public MagazineRegister snapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Add a magazine to the register if the magazine does not
+     * already exist, see {@link MagazineRegister#addMagazine(Magazine)}.
+     *
+     * @param magazine The magazine to add
+     * @return Returns boolean for success / failure
+     * @throws DuplicateEntryException  If there is a magazine with same title and publisher
+     * @throws IllegalArgumentException If passed object is null
+     */
+    public boolean addMagazine(Magazine magazine) {
+        if (magazine == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+        synchronized (this.writeLock) {
+            // Fail before paying for the copy
+            if (this.snapshot.hasDuplicateOf(magazine)) {
+                throw new DuplicateEntryException("A magazine with that " +
+                        "title and publisher already exists.");
+            }
+            MagazineRegister next = this.writableCopy();
+            boolean added = next.addMagazine(magazine);
+            this.publish(next);
+            return added;
+        }
+    }
+
+    /**
+     * Deletes the provided magazine,
+     * see {@link MagazineRegister#deleteMagazine(Magazine)}.
+     *
+     * @param magazineToDelete The magazine to delete
+     * @return Returns boolean true if removed else false
+     */
+    public boolean deleteMagazine(Magazine magazineToDelete) {
+        synchronized (this.writeLock) {
+            MagazineRegister next = this.writableCopy();
+            boolean removed = next.deleteMagazine(magazineToDelete);
+            if (removed) {
+                this.publish(next);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * Deletes the magazine with the given record id,
+     * see {@link MagazineRegister#deleteById(int)}.
+     *
+     * @param recordId The record id of the magazine to delete
+     * @return Returns boolean true if removed else false
+     */
+    public boolean deleteById(int recordId) {
+        synchronized (this.writeLock) {
+            // Fail before paying for the copy
+            if (this.snapshot.getById(recordId) == null) {
+                return false;
+            }
+            MagazineRegister next = this.writableCopy();
+            boolean removed = next.deleteById(recordId);
+            this.publish(next);
+            return removed;
+        }
+    }
+
+    /**
+     * Adds many magazines with a single copy of the register,
+     * see {@link MagazineRegister#addAll(Collection)}.
+     *
+     * @param newMagazines The magazines to add
+     * @return Returns the number of added magazines and the rejections
+     * @throws IllegalArgumentException If passed collection is null
+     */
+    public BulkLoadResult addAll(Collection<Magazine> newMagazines) {
+        if (newMagazines == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+        synchronized (this.writeLock) {
+            MagazineRegister next = this.writableCopy();
+            BulkLoadResult result = next.addAll(newMagazines);
+            if (result.getAddedCount() > 0) {
+                this.publish(next);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Applies a group of changes with a single copy of the register.
+     * The changes are applied to a writable copy of the current
+     * snapshot, which is published when all changes are done.
+     * If the changes throw an exception, nothing is published.
+     *
+     * @param changes Applies the changes to the writable copy
+     * @throws IllegalArgumentException If passed changes is null
+     */
+    public void update(Consumer<MagazineRegister> changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+        synchronized (this.writeLock) {
+            MagazineRegister next = this.writableCopy();
+            changes.accept(next);
+            this.publish(next);
+        }
+    }
+
+    /**
+     * Sets the feed to publish the added and deleted magazines on,
+     * see {@link MagazineRegister#setChangeFeed(ChangeFeed)}
+     *
+     * @param changeFeed The feed, or null to stop publishing
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        synchronized (this.writeLock) {
+            // Only read by the writers, when copying the snapshot
+            this.snapshot.setChangeFeed(changeFeed);
+        }
+    }
+
+    /**
+     * Check if a magazine with title and publisher exists,
+     * see {@link MagazineRegister#hasDuplicateOf(Magazine)}.
+     *
+     * @param magazine The magazine to check for duplicate
+     * @return Returns true if duplicate else false
+     */
+    public boolean hasDuplicateOf(Magazine magazine) {
+        return this.snapshot.hasDuplicateOf(magazine);
+    }
+
+    /**
+     * Returns the magazine with the given record id in the current
+     * snapshot, see {@link MagazineRegister#getById(int)}.
+     *
+     * @param recordId The record id of the magazine
+     * @return Returns the magazine, or null if not found
+     */
+    public Magazine getById(int recordId) {
+        return this.snapshot.getById(recordId);
+    }
+
+    /**
+     * Search the current snapshot for magazines by title,
+     * see {@link MagazineRegister#searchMagazinesTitles(String)}.
+     *
+     * @param searchString The string to search for
+     * @return Returns an iterator of the found magazines
+     * @throws IllegalArgumentException If argument is null
+     */
+    public Iterator<Magazine> searchMagazinesTitles(String searchString) {
+        return this.snapshot.searchMagazinesTitles(searchString);
+    }
+
+    /**
+     * Search the current snapshot for magazines with titles close to
+     * the search string, see
+     * {@link MagazineRegister#searchMagazinesTitlesFuzzy(String, int)}.
+     *
+     * @param searchString The title to search for
+     * @param maxDistance The largest number of edits
+     * @return Returns the found magazines, closest first
+     * @throws IllegalArgumentException If searchString is null or
+     *                                  maxDistance is out of range
+     */
+    public List<FuzzyMatch> searchMagazinesTitlesFuzzy(String searchString,
+                                                       int maxDistance) {
+        return this.snapshot.searchMagazinesTitlesFuzzy(searchString,
+                maxDistance);
+    }
+
+    /**
+     * Completes a title from the current snapshot, see
+     * {@link MagazineRegister#completeTitles(String, int)}.
+     *
+     * @param prefix The start of the title
+     * @param limit Max number of titles to return
+     * @return Returns the titles in alphabetical order
+     * @throws IllegalArgumentException If prefix is null or limit is
+     *                                  out of range
+     */
+    public List<String> completeTitles(String prefix, int limit) {
+        return this.snapshot.completeTitles(prefix, limit);
+    }
+
+    /**
+     * Completes a publisher from the current snapshot, see
+     * {@link MagazineRegister#completePublishers(String, int)}.
+     *
+     * @param prefix The start of the publisher
+     * @param limit Max number of publishers to return
+     * @return Returns the publishers in alphabetical order
+     * @throws IllegalArgumentException If prefix is null or limit is
+     *                                  out of range
+     */
+    public List<String> completePublishers(String prefix, int limit) {
+        return this.snapshot.completePublishers(prefix, limit);
+    }
+
+    /**
+     * Search the current snapshot for magazines by publisher,
+     * see {@link MagazineRegister#searchMagazinesByPublisher(String)}.
+     *
+     * @param publisher The publisher of a magazine
+     * @return Returns an iterator of the found magazines
+     * @throws IllegalArgumentException If argument is null
+     */
+    public Iterator<Magazine> searchMagazinesByPublisher(String publisher) {
+        return this.snapshot.searchMagazinesByPublisher(publisher);
+    }
+
+    /**
+     * Search the current snapshot for magazines by publications per
+     * year, see {@link MagazineRegister#searchByPublicationsPerYear(int, int)}.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns an iterator of the found magazines
+     */
+    public Iterator<Magazine> searchByPublicationsPerYear(int min, int max) {
+        return this.snapshot.searchByPublicationsPerYear(min, max);
+    }
+
+    /**
+     * Counts the magazines of the current snapshot by publications per
+     * year, see {@link MagazineRegister#countByPublicationsPerYear(int, int)}.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns the number of magazines
+     */
+    public int countByPublicationsPerYear(int min, int max) {
+        return this.snapshot.countByPublicationsPerYear(min, max);
+    }
+
+    /**
+     * Returns the most published magazines of the current snapshot,
+     * see {@link MagazineRegister#getMostPublished(int)}.
+     *
+     * @param limit Max number of magazines to return
+     * @return Returns an iterator of up to limit magazines
+     * @throws IllegalArgumentException If limit is out of range
+     */
+    public Iterator<Magazine> getMostPublished(int limit) {
+        return this.snapshot.getMostPublished(limit);
+    }
+
+    /**
+     * Returns all magazines of the current snapshot
+     *
+     * @return Returns an iterator of all magazines
+     */
+    public Iterator<Magazine> getAllMagazines() {
+        return this.snapshot.getAllMagazines();
+    }
+
+    /**
+     * Runs a query on the current snapshot,
+     * see {@link MagazineRegister#query(MagazineQuery)}.
+     *
+     * @param query The query
+     * @return Returns a lazy iterator of the found magazines
+     */
+    public Iterator<Magazine> query(MagazineQuery query) {
+        return this.snapshot.query(query);
+    }
+
+    /**
+     * Plans a query on the current snapshot,
+     * see {@link MagazineRegister#explain(MagazineQuery)}.
+     *
+     * @param query The query
+     * @return Returns the plan
+     */
+    public QueryPlan explain(MagazineQuery query) {
+        return this.snapshot.explain(query);
+    }
+
+    /**
+     * Returns the statistics of the current snapshot, see
+     * {@link MagazineRegister#getStatistics()}. The statistics are
+     * consistent with the snapshot, even while writers change the
+     * register.
+     *
+     * @return Returns the statistics
+     */
+    public CatalogStatistics getStatistics() {
+        return this.snapshot.getStatistics();
+    }
+
+    /**
+     * Returns the number of magazines in the current snapshot
+     *
+     * @return Returns the number of magazines
+     */
+    public int size() {
+        return this.snapshot.size();
+    }
+
+    /**
+     * Logs the changes of the changed copy, makes it read-only and
+     * publishes it as the current snapshot
+     *
+     * @param next The changed copy of the register
+     */
+    private void publish(MagazineRegister next) {
+        next.logDeferredChanges();
+        next.makeReadOnly();
+        this.snapshot = next;
+        next.publishDeferredChanges();
+    }
+
+    /**
+     * Returns a writable copy of the current snapshot, holding back
+     * the logging and publishing of its changes until it is published
+     *
+     * @return Returns the copy
+     */
+    private MagazineRegister writableCopy() {
+        MagazineRegister next = new MagazineRegister(this.snapshot);
+        next.deferChanges();
+        return next;
+    }
+
+}
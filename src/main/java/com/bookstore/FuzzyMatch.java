@@ -0,0 +1,73 @@
+package com.bookstore;
+
+import com.bookstore.readables.Magazine;
+
+/**
+ * A magazine found by a fuzzy title search in the
+ * {@link MagazineRegister}, with the edit distance between its title
+ * and the search string.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class FuzzyMatch {
+
+    /**
+     * The magazine found
+     */
+    private final Magazine magazine;
+
+    /**
+     * The record id of the magazine
+     */
+    private final int recordId;
+
+    /**
+     * The edit distance between the title and the search string
+     */
+    private final int distance;
+
+    /**
+     * Creates a match
+     *
+     * @param magazine The magazine found
+     * @param recordId The record id of the magazine
+     * @param distance The edit distance between the title and the
+     *                 search string
+     */
+    public FuzzyMatch(Magazine magazine, int recordId, int distance) {
+        this.magazine = magazine;
+        this.recordId = recordId;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns the magazine found
+     *
+     * @return Returns the magazine
+     */
+    public Magazine getMagazine() {
+        return this.magazine;
+    }
+
+    /**
+     * Returns the record id of the magazine, see
+     * {@link MagazineRegister#getById(int)}
+     *
+     * @return Returns the record id
+     */
+    public int getRecordId() {
+        return this.recordId;
+    }
+
+    /**
+     * Returns the number of edits between the title and the search
+     * string, 0 if they are equal apart from case and accents
+     *
+     * @return Returns the edit distance
+     */
+    public int getDistance() {
+        return this.distance;
+    }
+
+}
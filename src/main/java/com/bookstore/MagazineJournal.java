@@ -0,0 +1,40 @@
+package com.bookstore;
+
+import com.bookstore.readables.Magazine;
+
+/**
+ * Records the changes made to a {@link MagazineRegister}, for example
+ * to a write-ahead log so the register survives a restart.
+ * <p>
+ * A change is logged before it is applied to the register. If logging
+ * throws an exception, the change is not applied.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface MagazineJournal {
+
+    /**
+     * Logs that a magazine is about to be added
+     *
+     * @param magazine The magazine to add
+     */
+    void logAdd(Magazine magazine);
+
+    /**
+     * Logs that a magazine is about to be deleted
+     *
+     * @param magazine The stored magazine to delete
+     */
+    void logDelete(Magazine magazine);
+
+    /**
+     * Called after logged changes have been applied to the register,
+     * from the thread that made them. The register must not be changed
+     * by this method.
+     *
+     * @param register The register the changes were applied to
+     */
+    void changesApplied(MagazineRegister register);
+
+}
@@ -0,0 +1,98 @@
+package com.bookstore;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of magazines from a search or listing in the
+ * {@link MagazineRegister}, with a continuation token to get the
+ * next page if there are more magazines.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class MagazinePage {
+
+    /**
+     * The magazines on this page
+     */
+    private final List<Magazine> magazines;
+
+    /**
+     * The record ids of the magazines, in the same order
+     */
+    private final int[] recordIds;
+
+    /**
+     * Token to pass to the register to get the next page,
+     * null if this is the last page
+     */
+    private final String continuationToken;
+
+    /**
+     * Creates a page of magazines
+     *
+     * @param magazines The magazines on the page
+     * @param recordIds The record ids of the magazines, in the same order
+     * @param continuationToken Token for the next page, or null if
+     *                          this is the last page
+     * @throws IllegalArgumentException If there is not one record id
+     *                                  per magazine
+     */
+    public MagazinePage(List<Magazine> magazines, int[] recordIds,
+                        String continuationToken) {
+        if (magazines.size() != recordIds.length) {
+            throw new IllegalArgumentException(
+                    "Every magazine needs a record id.");
+        }
+        this.magazines = Collections.unmodifiableList(magazines);
+        this.recordIds = recordIds;
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Returns the magazines on this page
+     *
+     * @return Returns an unmodifiable list of the magazines
+     */
+    public List<Magazine> getMagazines() {
+        return this.magazines;
+    }
+
+    /**
+     * Returns the record id of a magazine on this page,
+     * see {@link MagazineRegister#getById(int)}
+     *
+     * @param index The index of the magazine on the page
+     * @return Returns the record id
+     * @throws IndexOutOfBoundsException If index is out of range
+     */
+    public int getRecordId(int index) {
+        if (index < 0 || index >= this.recordIds.length) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + this.recordIds.length);
+        }
+        return this.recordIds[index];
+    }
+
+    /**
+     * Returns the token to get the next page with
+     *
+     * @return Returns the token, or null if this is the last page
+     */
+    public String getContinuationToken() {
+        return this.continuationToken;
+    }
+
+    /**
+     * Returns true if there are more magazines after this page
+     *
+     * @return Returns true if there is a next page else false
+     */
+    public boolean hasNextPage() {
+        return this.continuationToken != null;
+    }
+
+}
@@ -1,10 +1,54 @@
 package com.bookstore;
 
+import com.bookstore.cache.QueryCache;
+import com.bookstore.feed.ChangeEvent;
+import com.bookstore.feed.ChangeFeed;
+import com.bookstore.index.CompletionIndex;
+import com.bookstore.index.FenwickTree;
+import com.bookstore.index.FuzzyTitleIndex;
+import com.bookstore.index.IntList;
+import com.bookstore.index.KeyIndex;
+import com.bookstore.index.LongIntMap;
+import com.bookstore.index.ParallelFilterCursor;
+import com.bookstore.index.PostingCursor;
+import com.bookstore.index.PublicationsPerYearIndex;
+import com.bookstore.index.PublisherIndex;
+import com.bookstore.index.TrigramIndex;
+import com.bookstore.index.UnionCursor;
+import com.bookstore.metrics.Operation;
+import com.bookstore.metrics.RegisterMetrics;
+import com.bookstore.query.AccessPath;
+import com.bookstore.query.Criterion;
+import com.bookstore.query.IndexStatistics;
+import com.bookstore.query.MagazineQuery;
+import com.bookstore.query.QueryPlan;
+import com.bookstore.query.QueryPlanner;
 import com.bookstore.readables.Magazine;
+import com.bookstore.stats.CatalogAggregates;
+import com.bookstore.stats.CatalogStatistics;
+import com.bookstore.storage.HeapMagazineStore;
+import com.bookstore.storage.MagazineStore;
+import com.bookstore.storage.OverlayMagazineStore;
+import com.bookstore.util.TextNormalizer;
 
-import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Register for storing magazines
@@ -14,65 +58,453 @@ import java.util.Iterator;
  * <li>Get a magazine by title</li>
  * <li>Get magazines by a publisher</li>
  * </ul>
+ * <p>
+ * Searches and listings are lazy, magazines are found as the returned
+ * iterator or stream is consumed. The register must not be changed
+ * while a search is consumed, the iterator then throws
+ * {@link ConcurrentModificationException}.
+ * <p>
+ * The magazines are kept in a {@link MagazineStore}. A register created
+ * from an existing store builds its indexes on first use, so opening
+ * a large store does not parse it up front. Listings and short title
+ * searches read the store without the indexes.
+ * <p>
+ * Searches compare the normalized titles and publishers the magazines
+ * compute once, so checking a magazine held on the heap does not
+ * allocate. With {@link #setAccentFolding(boolean)} searches ignore
+ * accents too, so "traeen" finds "Træen". Repeated searches can be
+ * answered from a {@link QueryCache}, see {@link #setQueryCache(QueryCache)}.
+ * Title searches of large registers can check the titles on several
+ * threads, see {@link #setSearchPool(ForkJoinPool)}. Misspelled titles
+ * are found with {@link #searchMagazinesTitlesFuzzy(String, int)}, and
+ * what a user has typed so far is completed with
+ * {@link #completeTitles(String, int)} and
+ * {@link #completePublishers(String, int)}. Magazines are found by
+ * how often they are published through a sorted index, see
+ * {@link #searchByPublicationsPerYear(int, int)}. Counts per publisher
+ * and of the publications per year are kept up to date as magazines are
+ * added and deleted, see {@link #getStatistics()}. Added and deleted
+ * magazines are published in order on a {@link ChangeFeed}, see
+ * {@link #setChangeFeed(ChangeFeed)}. Criteria on the title, publisher
+ * and publications per year are combined in a {@link MagazineQuery},
+ * see {@link #query(MagazineQuery)}.
+ * <p>
+ * Every added magazine gets a record id, which it keeps until deleted
+ * and which is never given to another magazine. {@link #getById(int)}
+ * and {@link #deleteById(int)} find a magazine by record id with a
+ * single array read. A register opened from a store numbers its
+ * magazines from 0, so record ids are kept while the register is in
+ * use, not between runs.
+ * <p>
+ * Deleting a magazine only marks it deleted. Its position in the store
+ * and its record id in the search indexes are reclaimed by compaction,
+ * which runs when deleted magazines take up a large share of the
+ * store, see {@link #compact()}.
  *
  * @author Christoffer A Træen
  * @version 1
  */
 public class MagazineRegister {
 
+    /**
+     * Message of the exception thrown when adding a duplicate
+     */
+    private static final String DUPLICATE_MESSAGE = "A magazine with that "
+            + "title and publisher already exists.";
+
+    /**
+     * Start time of an operation that is not measured
+     */
+    private static final long NOT_MEASURED = Long.MIN_VALUE;
+
+    /**
+     * Position of a deleted record id
+     */
+    private static final int DELETED = -1;
+
+    /**
+     * Least number of deleted magazines before the store is compacted
+     */
+    private static final int COMPACTION_MIN_DELETED = 1024;
+
+    /**
+     * Share of the store positions held by deleted magazines
+     * before the store is compacted
+     */
+    private static final double COMPACTION_DELETED_SHARE = 0.25;
+
+    /**
+     * Smallest number of stored magazines to check titles in parallel
+     * for, smaller registers are searched faster on one thread
+     */
+    private static final int PARALLEL_SEARCH_MIN_SIZE = 65536;
+
     /**
      * Holds a collection of magazines
      */
-    private ArrayList<Magazine> magazines;
+    private MagazineStore store;
+
+    /**
+     * The record id of each magazine, at the same position as the
+     * magazine in {@link #store}, deleted magazines included until the
+     * store is compacted. Record ids are never reused, so the list is
+     * sorted.
+     */
+    private IntList recordIds;
+
+    /**
+     * The position in {@link #store} of each record id handed out, by
+     * record id. {@link #DELETED} for deleted magazines. The size is the
+     * record id to give the next added magazine.
+     */
+    private IntList positions;
+
+    /**
+     * Number of deleted magazines still holding a position in the store
+     */
+    private int deletedCount;
+
+    /**
+     * Count of 1 for each store position holding a magazine that is not
+     * deleted, so the position of an index is found without counting
+     * from the start. Null while no deleted magazine holds a position.
+     */
+    private FenwickTree livePositions;
+
+    /**
+     * Number of times the register has been changed, used to detect
+     * changes while a search is consumed
+     */
+    private int modificationCount;
+
+    /**
+     * Record ids of the stored magazines by their key, the normalized
+     * title and publisher pair. Used for duplicate detection.
+     */
+    private KeyIndex recordIdsByKey;
+
+    /**
+     * Trigram index of the magazine titles, for title searches
+     */
+    private TrigramIndex titleIndex;
+
+    /**
+     * Dictionary of the publishers, for publisher searches
+     */
+    private PublisherIndex publisherIndex;
+
+    /**
+     * Index of the publications per year
+     */
+    private PublicationsPerYearIndex publicationsIndex;
+
+    /**
+     * Running totals of the magazines, for statistics
+     */
+    private CatalogAggregates aggregates;
+
+    /**
+     * Index of the distinct titles for fuzzy searches, null until
+     * the first fuzzy search
+     */
+    private volatile FuzzyTitleIndex fuzzyTitleIndex;
+
+    /**
+     * Index of the distinct publishers for completions, null until
+     * the first completion
+     */
+    private CompletionIndex publisherCompletions;
+
+    /**
+     * Index of the distinct titles for completions, null until the
+     * first completion. Set after {@link #publisherCompletions}, so
+     * both are built when it is set.
+     */
+    private volatile CompletionIndex titleCompletions;
+
+    /**
+     * True when the indexes hold every stored magazine. Volatile, as a
+     * read-only register may build its indexes while read by many threads.
+     */
+    private volatile boolean indexed;
+
+    /**
+     * True if the register is a read-only snapshot,
+     * see {@link ConcurrentMagazineRegister}
+     */
+    private boolean readOnly;
+
+    /**
+     * True if searches ignore accents
+     */
+    private boolean accentFolding;
+
+    /**
+     * Caches the results of title and publisher searches,
+     * null if not cached
+     */
+    private QueryCache queryCache;
+
+    /**
+     * The pool title searches are checked on, null to search on
+     * the calling thread
+     */
+    private ForkJoinPool searchPool;
+
+    /**
+     * Logs the changes to the register, null if not logged
+     */
+    private MagazineJournal journal;
+
+    /**
+     * Publishes the changes to the register, null if not published
+     */
+    private ChangeFeed changeFeed;
+
+    /**
+     * Changes held back until {@link #logDeferredChanges()} and
+     * {@link #publishDeferredChanges()}, null if changes are logged
+     * and published as they are made
+     */
+    private List<DeferredChange> deferredChanges;
+
+    /**
+     * Records the latencies and result sizes of the operations,
+     * null if not measured
+     */
+    private RegisterMetrics metrics;
 
     /**
      * Constructor
      * <p>
-     * Instantiate magazine ArrayList
+     * Instantiate magazine ArrayList and indexes
      */
     public MagazineRegister() {
 
-        this.magazines = new ArrayList<>();
+        this.store = new HeapMagazineStore();
+        this.recordIds = new IntList();
+        this.positions = new IntList();
+        this.deletedCount = 0;
+        this.modificationCount = 0;
+        this.recordIdsByKey = new KeyIndex();
+        this.titleIndex = new TrigramIndex();
+        this.publisherIndex = new PublisherIndex();
+        this.publicationsIndex = new PublicationsPerYearIndex();
+        this.aggregates = new CatalogAggregates();
+        this.indexed = true;
+        this.readOnly = false;
+        this.accentFolding = false;
+        this.queryCache = null;
+        this.journal = null;
+        this.changeFeed = null;
+        this.deferredChanges = null;
+        this.metrics = null;
+    }
+
+    /**
+     * Creates a register holding the magazines of the given store, which
+     * must not hold duplicates. The indexes are built on first use, from
+     * every magazine of the store, and are held on the heap. A read-only
+     * store is not copied when the register is changed, the changes are
+     * kept in an {@link OverlayMagazineStore} on top of it.
+     *
+     * @param store The store holding the magazines
+     * @throws IllegalArgumentException If argument is null
+     */
+    public MagazineRegister(MagazineStore store) {
+
+        if (store == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.store = store;
+        this.recordIds = new IntList(store.size());
+        for (int recordId = 0; recordId < store.size(); recordId++) {
+            this.recordIds.add(recordId);
+        }
+        this.positions = new IntList(this.recordIds);
+        this.deletedCount = 0;
+        this.modificationCount = 0;
+        this.indexed = false;
+        this.readOnly = false;
+        this.accentFolding = false;
+        this.queryCache = null;
+        this.journal = null;
+        this.changeFeed = null;
+        this.deferredChanges = null;
+        this.metrics = null;
+    }
+
+    /**
+     * Creates a writable copy of the given register, with its own
+     * copy of the magazine store and indexes. The magazines themselves
+     * are shared, as they can not be changed. Changes to the copy are
+     * logged to the journal of the given register and published on its
+     * change feed, operations are recorded in its metrics, and searched
+     * on its search pool. The query
+     * cache is not shared, as it only serves one register.
+     *
+     * @param other The register to copy
+     */
+    public MagazineRegister(MagazineRegister other) {
+
+        this.store = other.store.copy();
+        this.recordIds = new IntList(other.recordIds);
+        this.positions = new IntList(other.positions);
+        this.deletedCount = other.deletedCount;
+        this.livePositions = other.livePositions == null
+                ? null : new FenwickTree(other.livePositions);
+        this.modificationCount = 0;
+        // Readers of a shared register may build its indexes while it is
+        // copied, so each lazily built index is read once
+        boolean otherIndexed = other.indexed;
+        if (otherIndexed) {
+            this.recordIdsByKey = new KeyIndex(other.recordIdsByKey);
+            this.titleIndex = new TrigramIndex(other.titleIndex);
+            this.publisherIndex = new PublisherIndex(other.publisherIndex);
+            this.publicationsIndex = new PublicationsPerYearIndex(
+                    other.publicationsIndex);
+            this.aggregates = new CatalogAggregates(other.aggregates);
+        }
+        FuzzyTitleIndex fuzzyTitles = other.fuzzyTitleIndex;
+        if (fuzzyTitles != null) {
+            this.fuzzyTitleIndex = new FuzzyTitleIndex(fuzzyTitles);
+        }
+        CompletionIndex titles = other.titleCompletions;
+        if (titles != null) {
+            this.publisherCompletions = new CompletionIndex(
+                    other.publisherCompletions);
+            this.titleCompletions = new CompletionIndex(titles);
+        }
+        this.indexed = otherIndexed;
+        this.readOnly = false;
+        this.accentFolding = other.accentFolding;
+        this.queryCache = null;
+        this.searchPool = other.searchPool;
+        this.journal = other.journal;
+        this.changeFeed = other.changeFeed;
+        this.deferredChanges = null;
+        this.metrics = other.metrics;
     }
 
     /**
-     * Returns a magazine at given index
+     * Returns a magazine at given index, counting the magazines in the
+     * order they were added. Deleting a magazine moves the following
+     * magazines one index down, use {@link #getById(int)} to keep
+     * referring to the same magazine.
+     * <p>
+     * Until the deleted magazines are compacted away, the position of
+     * the index is found in a Fenwick tree of the positions holding
+     * magazines, in time logarithmic in the size of the store.
      *
      * @param index The index to get magazine from
-     * @return Returns a Magazine if found else null
+     * @return Returns the magazine at the index
+     * @throws IndexOutOfBoundsException If index is out of range
      */
     public Magazine getMagazineAtIndex(int index) {
-        return this.magazines.get(index);
+        if (this.deletedCount == 0) {
+            return this.store.get(index);
+        }
+        if (index < 0 || index >= this.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + this.size());
+        }
+        return this.store.get(this.livePositions.find(index));
+    }
+
+    /**
+     * Returns the magazine with the given record id
+     *
+     * @param recordId The record id of the magazine
+     * @return Returns the magazine, or null if there is no magazine
+     * with that record id
+     */
+    public Magazine getById(int recordId) {
+        int position = this.positionOf(recordId);
+        if (position == DELETED) {
+            return null;
+        }
+        return this.store.get(position);
+    }
+
+    /**
+     * Returns the record id of the stored magazine with the same
+     * title and publisher as the given magazine,
+     * see {@link #hasDuplicateOf(Magazine)}.
+     *
+     * @param magazine The magazine to find the record id of
+     * @return Returns the record id, or -1 if none is found
+     * @throws IllegalArgumentException If passed object is null
+     */
+    public int findIdOf(Magazine magazine) {
+        if (magazine == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.ensureIndexed();
+        int recordId = this.recordIdsByKey.get(magazine.getKey(), this::keyOf);
+        return recordId == LongIntMap.NO_VALUE ? -1 : recordId;
     }
 
     /**
      * Returns a list of magazines by a publisher
      * if no magazines are found return an empty list.
      * This is case insensitive
+     * <p>
+     * Only the distinct publishers are checked, the magazines of the
+     * matching publishers are then found in the publisher index.
      *
      * @param publisher The publisher of a magazine
      * @return Returns a List of {@link Magazine} or an empty list
      * if no elements is found
      */
     public Iterator<Magazine> searchMagazinesByPublisher(String publisher) {
+        return this.publisherMatches(publisher, 0);
+    }
 
-        if (publisher == null) {
-            throw new IllegalArgumentException("Null passed as argument.");
-        }
-
-        ArrayList<Magazine> foundMagazines = new ArrayList<>();
-
-        if (!publisher.isEmpty()) {
-            for (Magazine magazine : this.magazines) {
-                if (magazine.getPublisher().toLowerCase()
-                        .contains(publisher.toLowerCase())) {
-                    foundMagazines.add(magazine);
-                }
-            }
-        }
+    /**
+     * Returns a stream of the magazines by a publisher,
+     * see {@link #searchMagazinesByPublisher(String)}.
+     *
+     * @param publisher The publisher of a magazine
+     * @return Returns an ordered stream of the found magazines
+     * @throws IllegalArgumentException If argument is null
+     */
+    public Stream<Magazine> streamMagazinesByPublisher(String publisher) {
+        return toStream(this.publisherMatches(publisher, 0));
+    }
 
-        return foundMagazines.iterator();
+    /**
+     * Returns a page of the magazines by a publisher,
+     * see {@link #searchMagazinesByPublisher(String)}.
+     *
+     * @param publisher The publisher of a magazine
+     * @param offset Number of found magazines to skip
+     * @param limit Max number of magazines on the page
+     * @return Returns a page of the found magazines
+     * @throws IllegalArgumentException If publisher is null or offset
+     *                                  or limit is out of range
+     */
+    public MagazinePage searchMagazinesByPublisherPage(String publisher,
+                                                       int offset, int limit) {
+        return toPage(this.publisherMatches(publisher, 0), offset, limit);
+    }
 
+    /**
+     * Returns the page of the magazines by a publisher following
+     * the page the continuation token was returned with.
+     *
+     * @param publisher The publisher of a magazine
+     * @param continuationToken The token of the previous page, or null
+     *                          for the first page
+     * @param limit Max number of magazines on the page
+     * @return Returns a page of the found magazines
+     * @throws IllegalArgumentException If publisher is null, the token
+     *                                  is invalid or limit is out of range
+     */
+    public MagazinePage searchMagazinesByPublisherPage(String publisher,
+                                                       String continuationToken,
+                                                       int limit) {
+        return toPage(this.publisherMatches(publisher,
+                parseContinuationToken(continuationToken)), 0, limit);
     }
 
     /**
@@ -83,69 +515,405 @@ public class MagazineRegister {
      * @return Returns boolean for success / failure
      * @throws DuplicateEntryException  If there is a magazine with same title and publisher
      * @throws IllegalArgumentException If passed object is null
+     * @throws UnsupportedOperationException If the register is read-only
      */
     public boolean addMagazine(Magazine magazine) {
 
+        this.checkWritable();
+
         if (magazine == null) {
             throw new IllegalArgumentException("Null passed as argument");
         }
 
-        if (hasDuplicateOf(magazine)) {
-            throw new DuplicateEntryException("A magazine with that " +
-                    "title and publisher already exists.");
+        long start = this.startMeasuring();
+        if (this.containsKey(magazine)) {
+            throw new DuplicateEntryException(DUPLICATE_MESSAGE);
+        }
+        this.insert(magazine);
+        this.notifyChangesApplied();
+        this.recordMeasured(Operation.ADD, start, 1);
+        return true;
+    }
+
+    /**
+     * Adds many magazines at once. Unlike {@link #addMagazine(Magazine)}
+     * this does not stop on the first bad magazine, null entries and
+     * duplicates are rejected and reported in the result while the rest
+     * are added. Duplicates within the collection are found too, the
+     * first one is added.
+     *
+     * @param newMagazines The magazines to add
+     * @return Returns the number of added magazines and the rejections,
+     * where the row number is the index in the collection
+     * @throws IllegalArgumentException If passed collection is null
+     * @throws UnsupportedOperationException If the register is read-only
+     */
+    public BulkLoadResult addAll(Collection<Magazine> newMagazines) {
+
+        this.checkWritable();
+
+        if (newMagazines == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+
+        long start = this.startMeasuring();
+        this.ensureWritableStore();
+        int expectedSize = this.store.size() + newMagazines.size();
+        this.store.ensureCapacity(expectedSize);
+        this.recordIds.ensureCapacity(expectedSize);
+        this.positions.ensureCapacity(
+                this.positions.size() + newMagazines.size());
+
+        BulkLoadResult result = new BulkLoadResult();
+        long rowNumber = 0;
+        for (Magazine magazine : newMagazines) {
+            if (magazine == null) {
+                result.addRejection(rowNumber, "Null passed as magazine.");
+            } else if (this.containsKey(magazine)) {
+                result.addRejection(rowNumber, DUPLICATE_MESSAGE);
+            } else {
+                this.insert(magazine);
+                result.addAdded(1);
+            }
+            rowNumber++;
         }
-        return this.magazines.add(magazine);
+        if (result.getAddedCount() > 0) {
+            this.notifyChangesApplied();
+        }
+        this.recordMeasured(Operation.ADD_ALL, start, result.getAddedCount());
+        return result;
     }
 
     /**
      * Check if a magazine with title and publisher exists
-     * to check for duplicate entry
+     * to check for duplicate entry. Title and publisher are compared
+     * trimmed and case insensitive, see {@link Magazine#getKey()}.
      *
      * @param magazine The magazine to check for duplicate
      * @return Returns true if duplicate else false
      */
     public boolean hasDuplicateOf(Magazine magazine) {
-        boolean foundDuplicate = false;
-        Iterator<Magazine> foundMagazines = this.searchMagazinesTitles
-                (magazine.getTitle());
+        long start = this.startMeasuring();
+        boolean found = this.containsKey(magazine);
+        this.recordMeasured(Operation.HAS_DUPLICATE, start, found ? 1 : 0);
+        return found;
+    }
 
-        while (foundMagazines.hasNext() && !foundDuplicate) {
-            if (foundMagazines.next().getPublisher()
-                    .equalsIgnoreCase(magazine.getPublisher())) {
-                foundDuplicate = true;
-            }
+    /**
+     * Returns the stored magazine with the same title and publisher
+     * as the given magazine, see {@link #hasDuplicateOf(Magazine)}.
+     *
+     * @param magazine The magazine to find a duplicate of
+     * @return Returns the stored magazine, or null if none is found
+     */
+    public Magazine findDuplicateOf(Magazine magazine) {
+        this.ensureIndexed();
+        int recordId = this.recordIdsByKey.get(magazine.getKey(), this::keyOf);
+        if (recordId == LongIntMap.NO_VALUE) {
+            return null;
         }
-
-        return foundDuplicate;
+        return this.store.get(this.positions.get(recordId));
     }
 
     /**
      * Search all magazines titles by a string
      * and returns a list of all found magazines matching the string
      * or empty list if none are found. This is case insensitive
+     * <p>
+     * Searches of at least {@link TrigramIndex#GRAM_LENGTH} characters
+     * only checks the titles sharing all trigrams with the search string,
+     * shorter searches checks every title. With a search pool the titles
+     * of large registers are checked in parallel, see
+     * {@link #setSearchPool(ForkJoinPool)}.
      *
      * @param searchString The string to search for
      * @return Returns a list of <code>Magazine</code>s or empty list.
      * @throws IllegalArgumentException If argument is null
      */
     public Iterator<Magazine> searchMagazinesTitles(String searchString) {
+        return this.titleMatches(searchString, 0);
+    }
+
+    /**
+     * Returns a stream of the magazines with titles containing the
+     * search string, see {@link #searchMagazinesTitles(String)}.
+     *
+     * @param searchString The string to search for
+     * @return Returns an ordered stream of the found magazines
+     * @throws IllegalArgumentException If argument is null
+     */
+    public Stream<Magazine> streamMagazinesTitles(String searchString) {
+        return toStream(this.titleMatches(searchString, 0));
+    }
 
-        ArrayList<Magazine> foundMagazines = new ArrayList<>();
+    /**
+     * Returns a page of the magazines with titles containing the
+     * search string, see {@link #searchMagazinesTitles(String)}.
+     *
+     * @param searchString The string to search for
+     * @param offset Number of found magazines to skip
+     * @param limit Max number of magazines on the page
+     * @return Returns a page of the found magazines
+     * @throws IllegalArgumentException If searchString is null or offset
+     *                                  or limit is out of range
+     */
+    public MagazinePage searchMagazinesTitlesPage(String searchString,
+                                                  int offset, int limit) {
+        return toPage(this.titleMatches(searchString, 0), offset, limit);
+    }
+
+    /**
+     * Returns the page of the magazines with titles containing the
+     * search string following the page the continuation token
+     * was returned with.
+     *
+     * @param searchString The string to search for
+     * @param continuationToken The token of the previous page, or null
+     *                          for the first page
+     * @param limit Max number of magazines on the page
+     * @return Returns a page of the found magazines
+     * @throws IllegalArgumentException If searchString is null, the token
+     *                                  is invalid or limit is out of range
+     */
+    public MagazinePage searchMagazinesTitlesPage(String searchString,
+                                                  String continuationToken,
+                                                  int limit) {
+        return toPage(this.titleMatches(searchString,
+                parseContinuationToken(continuationToken)), 0, limit);
+    }
 
+    /**
+     * Returns the magazines with titles within the given number of edits
+     * of the search string, the closest first, and in the order they
+     * were added when equally close. An edit is an inserted, removed or
+     * changed character, or two neighbouring characters swapped. The
+     * whole title is compared, ignoring case and accents, so "the
+     * econimist" finds "The Economist" one edit away.
+     * <p>
+     * The distinct titles are indexed on the first fuzzy search, and
+     * only titles sharing a close enough prefix with the search string
+     * are compared in full.
+     *
+     * @param searchString The title to search for
+     * @param maxDistance The largest number of edits, at most
+     *                    {@link FuzzyTitleIndex#MAX_DISTANCE}
+     * @return Returns the found magazines, closest first, or an
+     * empty list
+     * @throws IllegalArgumentException If searchString is null or
+     *                                  maxDistance is out of range
+     */
+    public List<FuzzyMatch> searchMagazinesTitlesFuzzy(String searchString,
+                                                       int maxDistance) {
         if (searchString == null) {
             throw new IllegalArgumentException("Null passed as argument.");
         }
+        long start = this.startMeasuring();
+        String query = TextNormalizer.foldAccents(
+                TextNormalizer.normalize(searchString));
 
-        if (!searchString.isEmpty()) {
-            for (Magazine magazine : this.magazines) {
-                if (magazine.getTitle().toLowerCase()
-                        .contains(searchString.toLowerCase())) {
-                    foundMagazines.add(magazine);
-                }
-            }
+        ArrayList<FuzzyMatch> found = new ArrayList<>();
+        this.ensureFuzzyIndexed().search(query, maxDistance,
+                (recordId, distance) -> {
+                    int position = this.positions.get(recordId);
+                    if (position != DELETED) {
+                        found.add(new FuzzyMatch(this.store.get(position),
+                                recordId, distance));
+                    }
+                });
+        found.sort(Comparator.comparingInt(FuzzyMatch::getDistance)
+                .thenComparingInt(FuzzyMatch::getRecordId));
+        this.recordMeasured(Operation.SEARCH_TITLES_FUZZY, start, found.size());
+        return found;
+    }
+
+    /**
+     * Returns the magazines published between min and max times a year,
+     * both included, the least published first and in the order they
+     * were added when published equally often. The magazines are read
+     * from a sorted index as the iterator is consumed, so only the
+     * returned magazines are looked up.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns a lazy iterator of the found magazines, empty if
+     * min is larger than max
+     */
+    public Iterator<Magazine> searchByPublicationsPerYear(int min, int max) {
+        long start = this.startMeasuring();
+        this.ensureIndexed();
+        return new IndexOrderIterator(this.publicationsIndex.recordIds(min,
+                max, false), Integer.MAX_VALUE, null,
+                Operation.SEARCH_PUBLICATIONS_PER_YEAR, start);
+    }
+
+    /**
+     * Returns a stream of the magazines published between min and max
+     * times a year, see {@link #searchByPublicationsPerYear(int, int)}.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns an ordered stream of the found magazines
+     */
+    public Stream<Magazine> streamByPublicationsPerYear(int min, int max) {
+        return toStream(this.searchByPublicationsPerYear(min, max));
+    }
+
+    /**
+     * Returns the number of magazines published between min and max
+     * times a year, both included. Only the sizes of the posting lists
+     * of the index are added up.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns the number of magazines, 0 if min is larger
+     * than max
+     */
+    public int countByPublicationsPerYear(int min, int max) {
+        this.ensureIndexed();
+        return this.publicationsIndex.count(min, max);
+    }
+
+    /**
+     * Returns the most published magazines, the most published first
+     * and in the order they were added when published equally often.
+     * Read from the end of the sorted index, so nothing is sorted.
+     *
+     * @param limit Max number of magazines to return
+     * @return Returns a lazy iterator of up to limit magazines
+     * @throws IllegalArgumentException If limit is out of range
+     */
+    public Iterator<Magazine> getMostPublished(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        long start = this.startMeasuring();
+        this.ensureIndexed();
+        return new IndexOrderIterator(this.publicationsIndex.recordIds(
+                Integer.MIN_VALUE, Integer.MAX_VALUE, true), limit, null,
+                Operation.MOST_PUBLISHED, start);
+    }
+
+    /**
+     * Returns statistics of the magazines in the register: the number
+     * of magazines and distinct publishers, the magazines and yearly
+     * issues of each publisher, and the number of magazines by
+     * publications per year.
+     * <p>
+     * The statistics are kept as running totals, updated when a magazine
+     * is added or deleted, so the catalog is never scanned. The returned
+     * statistics do not change, and the same statistics are returned
+     * until the register changes.
+     *
+     * @return Returns the statistics
+     */
+    public CatalogStatistics getStatistics() {
+        this.ensureIndexed();
+        return this.aggregates.snapshot();
+    }
+
+    /**
+     * Returns the magazines meeting the criterion of a query, in its
+     * sort order and up to its limit.
+     * <p>
+     * The query is planned from the sizes of the indexes, see
+     * {@link #explain(MagazineQuery)}. The candidates are read from the
+     * index expected to read the fewest, and checked against the rest
+     * of the criterion as the iterator is consumed. In the order the
+     * magazines were added, or by publications per year when read in
+     * index order, only the returned magazines are found. Other orders
+     * find every match first, keeping the first limit of them.
+     *
+     * @param query The query
+     * @return Returns a lazy iterator of the found magazines
+     * @throws IllegalArgumentException If query is null
+     */
+    public Iterator<Magazine> query(MagazineQuery query) {
+        long start = this.startMeasuring();
+        QueryPlan plan = this.explain(query);
+        Criterion residual = plan.getResidual();
+        boolean foldAccents = this.accentFolding;
+        IntPredicate filter = null;
+        if (residual != null) {
+            filter = position -> residual.matches(this.store.get(position),
+                    foldAccents);
+        }
+
+        AccessPath path = plan.getAccessPath();
+        PrimitiveIterator.OfInt recordIds;
+        if (path.getKind() == AccessPath.Kind.PUBLICATIONS_INDEX_ORDER) {
+            recordIds = this.publicationsIndex.recordIds(path.getMin(),
+                    path.getMax(), path.isDescending());
+        } else if (plan.isSorted()) {
+            recordIds = this.sortMatches(this.open(path), filter,
+                    query.getSortOrder().getComparator(), query.getLimit());
+            filter = null;
+        } else {
+            recordIds = this.open(path).iterator();
+        }
+        return new IndexOrderIterator(recordIds, query.getLimit(), filter,
+                Operation.QUERY, start);
+    }
+
+    /**
+     * Returns a stream of the magazines meeting the criterion of a query,
+     * see {@link #query(MagazineQuery)}.
+     *
+     * @param query The query
+     * @return Returns an ordered stream of the found magazines
+     * @throws IllegalArgumentException If query is null
+     */
+    public Stream<Magazine> streamQuery(MagazineQuery query) {
+        return toStream(this.query(query));
+    }
+
+    /**
+     * Returns the plan {@link #query(MagazineQuery)} runs a query by,
+     * without running it. {@link QueryPlan#explain()} describes it
+     * as text.
+     *
+     * @param query The query
+     * @return Returns the plan
+     * @throws IllegalArgumentException If query is null
+     */
+    public QueryPlan explain(MagazineQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
         }
+        this.ensureIndexed();
+        return new QueryPlanner(new RegisterIndexStatistics(),
+                this.accentFolding).plan(query);
+    }
+
+    /**
+     * Returns up to limit titles starting with the prefix, in
+     * alphabetical order, to complete what a user has typed so far.
+     * Case and accents are ignored, and titles differing only in case
+     * or accents are returned once. Each completion is a single lookup
+     * in a sorted index of the distinct titles, built on the
+     * first completion.
+     *
+     * @param prefix The start of the title
+     * @param limit Max number of titles to return
+     * @return Returns the titles, or an empty list
+     * @throws IllegalArgumentException If prefix is null or limit is
+     *                                  out of range
+     */
+    public List<String> completeTitles(String prefix, int limit) {
+        return this.complete(prefix, limit, false);
+    }
 
-        return foundMagazines.iterator();
+    /**
+     * Returns up to limit publishers starting with the prefix, in
+     * alphabetical order, see {@link #completeTitles(String, int)}.
+     *
+     * @param prefix The start of the publisher
+     * @param limit Max number of publishers to return
+     * @return Returns the publishers, or an empty list
+     * @throws IllegalArgumentException If prefix is null or limit is
+     *                                  out of range
+     */
+    public List<String> completePublishers(String prefix, int limit) {
+        return this.complete(prefix, limit, true);
     }
 
     /**
@@ -154,18 +922,1334 @@ public class MagazineRegister {
      * @return Returns an ArrayList of all magazines stored
      */
     public Iterator<Magazine> getAllMagazines() {
-        return this.magazines.iterator();
+        return this.allMagazines(0);
     }
 
     /**
-     * Deletes the provided magazine, and
-     * call the logger to output status of the deletion.
+     * Returns a stream of all magazines stored in the collection
      *
-     * @param magazineToDelete The magazine to delete
-     * @return Returns boolean true if removed else false
+     * @return Returns an ordered stream of all magazines stored
      */
-    public boolean deleteMagazine(Magazine magazineToDelete) {
-        return this.magazines.remove(magazineToDelete);
+    public Stream<Magazine> streamAllMagazines() {
+        return toStream(this.allMagazines(0));
+    }
+
+    /**
+     * Returns a page of all magazines stored in the collection
+     *
+     * @param offset Number of magazines to skip
+     * @param limit Max number of magazines on the page
+     * @return Returns a page of the magazines
+     * @throws IllegalArgumentException If offset or limit is out of range
+     */
+    public MagazinePage getAllMagazinesPage(int offset, int limit) {
+        return toPage(this.allMagazines(0), offset, limit);
+    }
+
+    /**
+     * Returns the page of all magazines following the page the
+     * continuation token was returned with.
+     *
+     * @param continuationToken The token of the previous page, or null
+     *                          for the first page
+     * @param limit Max number of magazines on the page
+     * @return Returns a page of the magazines
+     * @throws IllegalArgumentException If the token is invalid or
+     *                                  limit is out of range
+     */
+    public MagazinePage getAllMagazinesPage(String continuationToken, int limit) {
+        return toPage(this.allMagazines(
+                parseContinuationToken(continuationToken)), 0, limit);
+    }
+
+    /**
+     * Deletes the provided magazine, and
+     * call the logger to output status of the deletion.
+     * The stored magazine with the same title and publisher is deleted,
+     * see {@link #hasDuplicateOf(Magazine)}, as a store may create a new
+     * magazine object every time one is read.
+     *
+     * @param magazineToDelete The magazine to delete
+     * @return Returns boolean true if removed else false
+     * @throws UnsupportedOperationException If the register is read-only
+     */
+    public boolean deleteMagazine(Magazine magazineToDelete) {
+        this.checkWritable();
+        if (magazineToDelete == null) {
+            return false;
+        }
+        long start = this.startMeasuring();
+        this.ensureIndexed();
+        int recordId = this.recordIdsByKey.get(magazineToDelete.getKey(),
+                this::keyOf);
+        if (recordId == LongIntMap.NO_VALUE) {
+            this.recordMeasured(Operation.DELETE, start, 0);
+            return false;
+        }
+        this.delete(recordId, this.positions.get(recordId));
+        this.recordMeasured(Operation.DELETE, start, 1);
+        return true;
+    }
+
+    /**
+     * Deletes the magazine with the given record id. The record id
+     * is not given to another magazine.
+     *
+     * @param recordId The record id of the magazine to delete
+     * @return Returns boolean true if removed else false
+     * @throws UnsupportedOperationException If the register is read-only
+     */
+    public boolean deleteById(int recordId) {
+        this.checkWritable();
+        long start = this.startMeasuring();
+        int position = this.positionOf(recordId);
+        if (position == DELETED) {
+            this.recordMeasured(Operation.DELETE, start, 0);
+            return false;
+        }
+        this.delete(recordId, position);
+        this.recordMeasured(Operation.DELETE, start, 1);
+        return true;
+    }
+
+    /**
+     * Reclaims the store positions of the deleted magazines, and removes
+     * them from the indexes. Runs by itself when the deleted magazines
+     * take up a quarter of the store, and at least
+     * {@value #COMPACTION_MIN_DELETED} are deleted. Record ids do
+     * not change.
+     *
+     * @throws UnsupportedOperationException If the register is read-only
+     */
+    public void compact() {
+        this.checkWritable();
+        if (this.deletedCount == 0) {
+            return;
+        }
+        this.ensureWritableStore();
+        int storedCount = this.store.size();
+        BitSet deletedPositions = new BitSet(storedCount);
+        for (int position = 0; position < storedCount; position++) {
+            if (this.isDeletedAt(position)) {
+                deletedPositions.set(position);
+            }
+        }
+        this.store.removeAll(deletedPositions);
+
+        IntPredicate deleted = recordId ->
+                this.positions.get(recordId) == DELETED;
+        this.recordIds.removeIf(deleted);
+        for (int position = 0; position < this.recordIds.size(); position++) {
+            this.positions.set(this.recordIds.get(position), position);
+        }
+        if (this.indexed) {
+            this.titleIndex.removeIf(deleted);
+            this.publisherIndex.removeIf(deleted);
+        }
+        if (this.fuzzyTitleIndex != null) {
+            this.fuzzyTitleIndex.removeIf(deleted);
+        }
+        this.deletedCount = 0;
+        this.livePositions = null;
+        this.modificationCount++;
+    }
+
+    /**
+     * Returns the number of magazines in the register
+     *
+     * @return Returns the number of magazines
+     */
+    public int size() {
+        return this.store.size() - this.deletedCount;
+    }
+
+    /**
+     * Returns true if the register is a read-only snapshot
+     *
+     * @return Returns true if read-only else false
+     */
+    public boolean isReadOnly() {
+        return this.readOnly;
+    }
+
+    /**
+     * Makes the register read-only. A read-only register is never
+     * changed again, so it can be searched by many threads at once.
+     */
+    void makeReadOnly() {
+        this.readOnly = true;
+    }
+
+    /**
+     * Holds back the changes made from now on, instead of logging them
+     * to the journal and publishing them on the change feed, until
+     * {@link #logDeferredChanges()} and {@link #publishDeferredChanges()}.
+     * Used when the changes are only seen once the register is, so the
+     * changes of a copy that is thrown away are never logged.
+     */
+    void deferChanges() {
+        if (this.deferredChanges == null) {
+            this.deferredChanges = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Logs the changes held back since {@link #deferChanges()} to the
+     * journal, in the order they were made, and tells the journal they
+     * have been applied. If logging fails, the changes logged before the
+     * failure stay in the journal.
+     */
+    void logDeferredChanges() {
+        if (this.journal == null || this.deferredChanges == null
+                || this.deferredChanges.isEmpty()) {
+            return;
+        }
+        for (DeferredChange change : this.deferredChanges) {
+            if (change.type == ChangeEvent.Type.ADDED) {
+                this.journal.logAdd(change.magazine);
+            } else {
+                this.journal.logDelete(change.magazine);
+            }
+        }
+        this.journal.changesApplied(this);
+    }
+
+    /**
+     * Publishes the changes held back since {@link #deferChanges()} on
+     * the change feed, and logs and publishes later changes as they
+     * are made
+     */
+    void publishDeferredChanges() {
+        List<DeferredChange> deferred = this.deferredChanges;
+        this.deferredChanges = null;
+        if (deferred != null && this.changeFeed != null) {
+            for (DeferredChange change : deferred) {
+                this.changeFeed.publish(change.type, change.recordId,
+                        change.magazine);
+            }
+        }
+    }
+
+    /**
+     * Stores a magazine that is known not to be a duplicate,
+     * and adds it to the indexes
+     *
+     * @param magazine The magazine to store
+     */
+    private void insert(Magazine magazine) {
+        if (this.journal != null && this.deferredChanges == null) {
+            this.journal.logAdd(magazine);
+        }
+        this.ensureWritableStore();
+        int recordId = this.positions.size();
+        this.positions.add(this.store.size());
+        this.store.add(magazine);
+        if (this.livePositions != null) {
+            this.livePositions.append(1);
+        }
+        this.recordIds.add(recordId);
+        this.recordIdsByKey.put(magazine.getKey(), recordId, this::keyOf);
+        this.titleIndex.add(recordId, magazine);
+        this.publisherIndex.add(recordId, magazine);
+        this.publicationsIndex.add(recordId, magazine);
+        this.aggregates.add(magazine);
+        if (this.fuzzyTitleIndex != null) {
+            this.fuzzyTitleIndex.add(recordId, magazine);
+        }
+        if (this.titleCompletions != null) {
+            this.titleCompletions.add(recordId, magazine);
+            this.publisherCompletions.add(recordId, magazine);
+        }
+        this.modificationCount++;
+        this.publishChange(ChangeEvent.Type.ADDED, recordId, magazine);
+    }
+
+    /**
+     * Marks a stored magazine deleted, and compacts the store if
+     * enough magazines are deleted. The indexes are built without
+     * deleted magazines, so they are only updated if already built.
+     *
+     * @param recordId The record id of the magazine
+     * @param position The position of the magazine in the store
+     */
+    private void delete(int recordId, int position) {
+        Magazine stored = this.store.get(position);
+        if (this.journal != null && this.deferredChanges == null) {
+            this.journal.logDelete(stored);
+        }
+        if (this.indexed) {
+            this.recordIdsByKey.remove(stored.getKey(), this::keyOf);
+            // Removed at once, so ranges are counted without
+            // checking the magazines
+            this.publicationsIndex.remove(recordId, stored);
+            this.aggregates.remove(stored);
+        }
+        // Completions do not look the magazines up, so deleted
+        // magazines are removed from them at once
+        if (this.titleCompletions != null) {
+            this.titleCompletions.remove(recordId, stored);
+            this.publisherCompletions.remove(recordId, stored);
+        }
+        this.positions.set(recordId, DELETED);
+        if (this.livePositions == null) {
+            this.livePositions = new FenwickTree(this.store.size());
+        }
+        this.livePositions.add(position, -1);
+        this.deletedCount++;
+        this.modificationCount++;
+        this.publishChange(ChangeEvent.Type.DELETED, recordId, stored);
+        if (this.deletedCount >= COMPACTION_MIN_DELETED
+                && this.deletedCount >= this.store.size()
+                * COMPACTION_DELETED_SHARE) {
+            this.compact();
+        }
+        this.notifyChangesApplied();
+    }
+
+    /**
+     * Returns the store position of a record id
+     *
+     * @param recordId The record id
+     * @return Returns the position, or {@link #DELETED} if there is no
+     * magazine with that record id
+     */
+    private int positionOf(int recordId) {
+        if (recordId < 0 || recordId >= this.positions.size()) {
+            return DELETED;
+        }
+        return this.positions.get(recordId);
+    }
+
+    /**
+     * Returns the key of a stored magazine, for the key index to tell
+     * apart keys sharing a hash
+     *
+     * @param recordId The record id of a stored magazine
+     * @return Returns the key of the magazine
+     */
+    private String keyOf(int recordId) {
+        return this.store.get(this.positions.get(recordId)).getKey();
+    }
+
+    /**
+     * Check if the magazine at a store position is deleted
+     *
+     * @param position The position in the store
+     * @return Returns true if deleted else false
+     */
+    private boolean isDeletedAt(int position) {
+        return this.positions.get(this.recordIds.get(position)) == DELETED;
+    }
+
+    /**
+     * Builds the indexes if they are not built yet. Synchronized, so
+     * threads reading a read-only register build them once.
+     */
+    private void ensureIndexed() {
+        if (this.indexed) {
+            return;
+        }
+        synchronized (this) {
+            if (this.indexed) {
+                return;
+            }
+            int size = this.store.size();
+            KeyIndex byKey = new KeyIndex();
+            TrigramIndex titles = new TrigramIndex();
+            PublisherIndex publishers = new PublisherIndex();
+            PublicationsPerYearIndex publications = new PublicationsPerYearIndex();
+            CatalogAggregates totals = new CatalogAggregates();
+            for (int position = 0; position < size; position++) {
+                if (this.isDeletedAt(position)) {
+                    continue;
+                }
+                int recordId = this.recordIds.get(position);
+                Magazine magazine = this.store.get(position);
+                byKey.put(magazine.getKey(), recordId, this::keyOf);
+                titles.add(recordId, magazine);
+                publishers.add(recordId, magazine);
+                publications.add(recordId, magazine);
+                totals.add(magazine);
+            }
+            this.recordIdsByKey = byKey;
+            this.titleIndex = titles;
+            this.publisherIndex = publishers;
+            this.publicationsIndex = publications;
+            this.aggregates = totals;
+            this.indexed = true;
+        }
+    }
+
+    /**
+     * Builds the fuzzy title index if it is not built yet. Synchronized,
+     * so threads reading a read-only register build it once.
+     *
+     * @return Returns the fuzzy title index
+     */
+    private FuzzyTitleIndex ensureFuzzyIndexed() {
+        FuzzyTitleIndex index = this.fuzzyTitleIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (this.fuzzyTitleIndex == null) {
+                FuzzyTitleIndex titles = new FuzzyTitleIndex();
+                int size = this.store.size();
+                for (int position = 0; position < size; position++) {
+                    if (!this.isDeletedAt(position)) {
+                        titles.add(this.recordIds.get(position),
+                                this.store.get(position));
+                    }
+                }
+                this.fuzzyTitleIndex = titles;
+            }
+            return this.fuzzyTitleIndex;
+        }
+    }
+
+    /**
+     * Builds the title and publisher completion indexes if they are not
+     * built yet. Synchronized, so threads reading a read-only register
+     * build them once.
+     */
+    private void ensureCompletionsIndexed() {
+        if (this.titleCompletions != null) {
+            return;
+        }
+        synchronized (this) {
+            if (this.titleCompletions != null) {
+                return;
+            }
+            CompletionIndex titles = CompletionIndex.forTitles();
+            CompletionIndex publishers = CompletionIndex.forPublishers();
+            int size = this.store.size();
+            for (int position = 0; position < size; position++) {
+                if (!this.isDeletedAt(position)) {
+                    int recordId = this.recordIds.get(position);
+                    Magazine magazine = this.store.get(position);
+                    titles.add(recordId, magazine);
+                    publishers.add(recordId, magazine);
+                }
+            }
+            this.publisherCompletions = publishers;
+            this.titleCompletions = titles;
+        }
+    }
+
+    /**
+     * Puts an overlay on top of a read-only store, so it can be changed
+     */
+    private void ensureWritableStore() {
+        if (this.store.isReadOnly()) {
+            this.store = new OverlayMagazineStore(this.store);
+        }
+    }
+
+    /**
+     * Sets if title and publisher searches ignore accents and other
+     * diacritics, see {@link TextNormalizer#foldAccents(String)}.
+     * Off by default.
+     *
+     * @param accentFolding True to ignore accents
+     */
+    public void setAccentFolding(boolean accentFolding) {
+        this.accentFolding = accentFolding;
+    }
+
+    /**
+     * Returns true if searches ignore accents
+     *
+     * @return Returns true if accents are ignored else false
+     */
+    public boolean isAccentFolding() {
+        return this.accentFolding;
+    }
+
+    /**
+     * Sets the cache to answer repeated title and publisher searches
+     * from. A search missing the cache stays lazy, and its result is
+     * cached as record ids once read to the end, unless it is too large
+     * for the cache. Pages after the first read the cached result, but
+     * do not fill the cache themselves. Any change to the register
+     * drops the cached results. The cache is emptied when set, and must
+     * not be set on another register.
+     *
+     * @param queryCache The cache, or null to stop caching
+     */
+    public void setQueryCache(QueryCache queryCache) {
+        if (queryCache != null) {
+            queryCache.clear();
+        }
+        this.queryCache = queryCache;
+    }
+
+    /**
+     * Sets the pool to check the titles of large registers on. The
+     * candidates of a title search are then read in growing batches,
+     * each checked on the threads of the pool, and the found magazines
+     * are returned in the same order as on one thread. Registers of
+     * fewer than {@value #PARALLEL_SEARCH_MIN_SIZE} magazines, and pools
+     * of one thread, are still searched on the calling thread.
+     *
+     * @param searchPool The pool, or null to search on the calling thread
+     */
+    public void setSearchPool(ForkJoinPool searchPool) {
+        this.searchPool = searchPool;
+    }
+
+    /**
+     * Sets the journal to log the changes of the register to.
+     * Changes made before the journal is set are not logged.
+     *
+     * @param journal The journal, or null to stop logging
+     */
+    public void setJournal(MagazineJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the feed to publish the added and deleted magazines on.
+     * A change is published once it is applied, so a listener sees it
+     * in the register. Publishing never waits for the listeners of
+     * the feed. Changes made before the feed is set are not published.
+     *
+     * @param changeFeed The feed, or null to stop publishing
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Sets the metrics to record the operations of the register in.
+     * Searches are recorded when their iterator is read to the end or
+     * a page is read, failed operations are not recorded.
+     *
+     * @param metrics The metrics, or null to stop measuring
+     */
+    public void setMetrics(RegisterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the start time of an operation to measure
+     *
+     * @return Returns the start time, or {@link #NOT_MEASURED} if
+     * operations are not measured
+     */
+    private long startMeasuring() {
+        RegisterMetrics current = this.metrics;
+        if (current == null || !current.isEnabled()) {
+            return NOT_MEASURED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a completed operation, if it is measured
+     *
+     * @param operation The operation
+     * @param start The start time from {@link #startMeasuring()}
+     * @param resultSize The result size
+     */
+    private void recordMeasured(Operation operation, long start,
+                                long resultSize) {
+        RegisterMetrics current = this.metrics;
+        if (start != NOT_MEASURED && current != null) {
+            current.record(operation, System.nanoTime() - start, resultSize);
+        }
+    }
+
+    /**
+     * Check if a magazine with the same key is stored, without
+     * measuring it
+     *
+     * @param magazine The magazine to check for
+     * @return Returns true if found else false
+     */
+    private boolean containsKey(Magazine magazine) {
+        this.ensureIndexed();
+        return this.recordIdsByKey.get(magazine.getKey(), this::keyOf)
+                != LongIntMap.NO_VALUE;
+    }
+
+    /**
+     * Publishes an applied change on the change feed, or holds it back
+     * for the journal and the change feed if changes are deferred
+     *
+     * @param type The kind of change
+     * @param recordId The record id of the magazine
+     * @param magazine The magazine added or deleted
+     */
+    private void publishChange(ChangeEvent.Type type, int recordId,
+                               Magazine magazine) {
+        if (this.deferredChanges != null) {
+            if (this.changeFeed != null || this.journal != null) {
+                this.deferredChanges.add(new DeferredChange(type, recordId,
+                        magazine));
+            }
+        } else if (this.changeFeed != null) {
+            this.changeFeed.publish(type, recordId, magazine);
+        }
+    }
+
+    /**
+     * Tells the journal that logged changes have been applied, unless
+     * changes are deferred and not logged yet
+     */
+    private void notifyChangesApplied() {
+        if (this.journal != null && this.deferredChanges == null) {
+            this.journal.changesApplied(this);
+        }
+    }
+
+    /**
+     * Checks that the register can be changed
+     *
+     * @throws UnsupportedOperationException If the register is read-only
+     */
+    private void checkWritable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException(
+                    "The register is a read-only snapshot.");
+        }
+    }
+
+    /**
+     * Returns the magazines with titles containing the search string,
+     * starting at the given record id.
+     *
+     * @param searchString The string to search for
+     * @param fromRecordId The smallest record id to return
+     * @return Returns a lazy iterator of the found magazines
+     * @throws IllegalArgumentException If searchString is null
+     */
+    private MatchIterator titleMatches(String searchString, int fromRecordId) {
+
+        if (searchString == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+
+        long start = this.startMeasuring();
+        String normalizedQuery = TextNormalizer.foldCase(searchString);
+        String foldedQuery = TextNormalizer.foldAccents(normalizedQuery);
+
+        // The stored titles are normalized up front, so checking
+        // a candidate does not allocate
+        IntPredicate titleFilter = this.store.titleFilter(this.accentFolding
+                ? foldedQuery : normalizedQuery, this.accentFolding);
+
+        Supplier<PostingCursor> indexed = () -> {
+            if (normalizedQuery.isEmpty()) {
+                return PostingCursor.EMPTY;
+            } else if (TrigramIndex.canSearch(foldedQuery)) {
+                this.ensureIndexed();
+                return this.titleIndex.candidates(foldedQuery);
+            }
+            return this.recordIds.cursor();
+        };
+
+        Supplier<PostingCursor> candidates = indexed;
+        IntPredicate filter = titleFilter;
+        ForkJoinPool pool = this.parallelSearchPool();
+        if (pool != null) {
+            // The titles are checked on the pool, so the iterator only
+            // reads the found magazines
+            candidates = () -> new ParallelFilterCursor(indexed.get(),
+                    recordId -> {
+                        int position = this.positions.get(recordId);
+                        return position != DELETED
+                                && titleFilter.test(position);
+                    }, pool);
+            filter = null;
+        }
+
+        String query = this.accentFolding ? foldedQuery : normalizedQuery;
+        IntList cached = this.cachedMatches(QueryCache.SearchType.TITLE,
+                query);
+        if (cached != null) {
+            return new MatchIterator(cached.cursor(), fromRecordId, null,
+                    Operation.SEARCH_TITLES, start);
+        }
+        MatchIterator matches = new MatchIterator(candidates.get(),
+                fromRecordId, filter, Operation.SEARCH_TITLES, start);
+        matches.cacheAs(QueryCache.SearchType.TITLE, query);
+        return matches;
+    }
+
+    /**
+     * Returns the pool to check the titles of a search on
+     *
+     * @return Returns the search pool, or null if the register should
+     * be searched on the calling thread
+     */
+    private ForkJoinPool parallelSearchPool() {
+        ForkJoinPool pool = this.searchPool;
+        if (pool == null || pool.getParallelism() < 2
+                || this.store.size() < PARALLEL_SEARCH_MIN_SIZE) {
+            return null;
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the magazines with publishers containing the search string,
+     * starting at the given record id.
+     *
+     * @param publisher The publisher to search for
+     * @param fromRecordId The smallest record id to return
+     * @return Returns a lazy iterator of the found magazines
+     * @throws IllegalArgumentException If publisher is null
+     */
+    private MatchIterator publisherMatches(String publisher, int fromRecordId) {
+
+        if (publisher == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+
+        long start = this.startMeasuring();
+        String normalizedQuery = TextNormalizer.foldCase(publisher);
+        String query = this.accentFolding
+                ? TextNormalizer.foldAccents(normalizedQuery) : normalizedQuery;
+        boolean foldAccents = this.accentFolding;
+        Supplier<PostingCursor> found = () -> {
+            if (publisher.isEmpty()) {
+                return PostingCursor.EMPTY;
+            }
+            this.ensureIndexed();
+            return this.publisherIndex.search(query, foldAccents);
+        };
+
+        IntList cached = this.cachedMatches(QueryCache.SearchType.PUBLISHER,
+                query);
+        if (cached != null) {
+            return new MatchIterator(cached.cursor(), fromRecordId, null,
+                    Operation.SEARCH_PUBLISHER, start);
+        }
+        MatchIterator matches = new MatchIterator(found.get(), fromRecordId,
+                null, Operation.SEARCH_PUBLISHER, start);
+        matches.cacheAs(QueryCache.SearchType.PUBLISHER, query);
+        return matches;
+    }
+
+    /**
+     * Returns the record ids of every match of a search from the query
+     * cache. A miss is not searched here, the search caches its matches
+     * itself once read to the end, see {@link MatchIterator#cacheAs}.
+     *
+     * @param type The type of search
+     * @param query The normalized query
+     * @return Returns the record ids of the matches, or null if there is
+     * no cache or the result is not cached
+     */
+    private IntList cachedMatches(QueryCache.SearchType type, String query) {
+        QueryCache cache = this.queryCache;
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(type, query, this.accentFolding,
+                this.modificationCount);
+    }
+
+    /**
+     * Returns the first titles or publishers starting with the prefix
+     *
+     * @param prefix The prefix to complete
+     * @param limit Max number of completions
+     * @param publishers True to complete publishers, false for titles
+     * @return Returns the completions
+     * @throws IllegalArgumentException If prefix is null or limit is
+     *                                  out of range
+     */
+    private List<String> complete(String prefix, int limit,
+                                  boolean publishers) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        this.ensureCompletionsIndexed();
+        String foldedPrefix = TextNormalizer.foldAccents(
+                TextNormalizer.foldCase(prefix));
+        CompletionIndex completions = publishers
+                ? this.publisherCompletions : this.titleCompletions;
+        return completions.complete(foldedPrefix, limit);
+    }
+
+    /**
+     * Returns a cursor over the record ids an access path reads
+     *
+     * @param path The access path of a query plan
+     * @return Returns the cursor, in record id order
+     */
+    private PostingCursor open(AccessPath path) {
+        switch (path.getKind()) {
+            case EMPTY:
+                return PostingCursor.EMPTY;
+            case TITLE_INDEX:
+                return this.titleIndex.candidates(path.getQuery());
+            case PUBLISHER_INDEX:
+                return this.publisherIndex.search(path.getQuery(),
+                        this.accentFolding);
+            case PUBLICATIONS_INDEX:
+                return this.publicationsIndex.cursor(path.getMin(),
+                        path.getMax());
+            case UNION:
+                List<PostingCursor> cursors = new ArrayList<>();
+                for (AccessPath child : path.getChildren()) {
+                    cursors.add(this.open(child));
+                }
+                return new UnionCursor(cursors);
+            default:
+                return this.recordIds.cursor();
+        }
+    }
+
+    /**
+     * Finds the first matches of a query in a sort order. Only the first
+     * limit matches are kept, in a heap with the last of them on top.
+     *
+     * @param candidates The record ids of the candidates
+     * @param filter Checks the store positions of the candidates,
+     *               null accepts all
+     * @param order Compares the magazines in the sort order
+     * @param limit Max number of matches to keep
+     * @return Returns the record ids of the kept matches, sorted
+     */
+    private PrimitiveIterator.OfInt sortMatches(PostingCursor candidates,
+                                                IntPredicate filter,
+                                                Comparator<Magazine> order,
+                                                int limit) {
+        // Ties keep the order the magazines were added
+        Comparator<RankedMagazine> ranking = Comparator
+                .comparing((RankedMagazine ranked) -> ranked.magazine, order)
+                .thenComparingInt(ranked -> ranked.recordId);
+        PriorityQueue<RankedMagazine> kept = new PriorityQueue<>(
+                Math.min(limit, 1024), ranking.reversed());
+        int recordId = candidates.advance(0);
+        while (recordId != PostingCursor.NO_MORE_IDS) {
+            int position = this.positions.get(recordId);
+            if (position != DELETED
+                    && (filter == null || filter.test(position))) {
+                RankedMagazine ranked = new RankedMagazine(
+                        this.store.get(position), recordId);
+                if (kept.size() < limit) {
+                    kept.add(ranked);
+                } else if (ranking.compare(ranked, kept.peek()) < 0) {
+                    kept.poll();
+                    kept.add(ranked);
+                }
+            }
+            recordId = candidates.advance(recordId + 1);
+        }
+        int[] sorted = new int[kept.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = kept.poll().recordId;
+        }
+        return Arrays.stream(sorted).iterator();
+    }
+
+    /**
+     * Returns all magazines, starting at the given record id.
+     *
+     * @param fromRecordId The smallest record id to return
+     * @return Returns a lazy iterator of the magazines
+     */
+    private MatchIterator allMagazines(int fromRecordId) {
+        return new MatchIterator(this.recordIds.cursor(), fromRecordId, null,
+                Operation.LIST_ALL, this.startMeasuring());
+    }
+
+    /**
+     * Wraps an iterator of magazines in an ordered, sequential stream.
+     *
+     * @param magazines The magazines to stream
+     * @return Returns a stream of the magazines
+     */
+    private static Stream<Magazine> toStream(Iterator<Magazine> magazines) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                magazines, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Reads a page of magazines from the iterator. If there are more
+     * magazines, the page gets a continuation token holding the record id
+     * of the next one.
+     *
+     * @param matches The magazines to read from
+     * @param offset Number of magazines to skip
+     * @param limit Max number of magazines on the page
+     * @return Returns the page
+     * @throws IllegalArgumentException If offset or limit is out of range
+     */
+    private static MagazinePage toPage(MatchIterator matches, int offset,
+                                       int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset can not be negative.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+
+        for (int skipped = 0; skipped < offset && matches.hasNext(); skipped++) {
+            matches.next();
+        }
+        ArrayList<Magazine> page = new ArrayList<>(Math.min(limit, 64));
+        IntList pageRecordIds = new IntList(Math.min(limit, 64));
+        while (page.size() < limit && matches.hasNext()) {
+            pageRecordIds.add(matches.nextRecordId());
+            page.add(matches.next());
+        }
+
+        String continuationToken = null;
+        if (matches.hasNext()) {
+            continuationToken = Integer.toString(matches.nextRecordId(),
+                    Character.MAX_RADIX);
+        }
+        matches.finish();
+        return new MagazinePage(page, pageRecordIds.toArray(),
+                continuationToken);
+    }
+
+    /**
+     * Reads the record id to continue from out of a continuation token
+     *
+     * @param continuationToken The token, or null to start from the beginning
+     * @return Returns the record id to continue from
+     * @throws IllegalArgumentException If the token is invalid
+     */
+    private static int parseContinuationToken(String continuationToken) {
+        if (continuationToken == null) {
+            return 0;
+        }
+        try {
+            int recordId = Integer.parseInt(continuationToken,
+                    Character.MAX_RADIX);
+            if (recordId < 0) {
+                throw new NumberFormatException();
+            }
+            return recordId;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token: "
+                    + continuationToken);
+        }
+    }
+
+    /**
+     * The sizes of the indexes of the register, for planning queries
+     */
+    private class RegisterIndexStatistics implements IndexStatistics {
+
+        @Override
+        public int getMagazineCount() {
+            return size();
+        }
+
+        @Override
+        public int estimateTitleCandidates(String foldedQuery) {
+            return titleIndex.estimateCandidates(foldedQuery);
+        }
+
+        @Override
+        public int countPublisherMatches(String query) {
+            return publisherIndex.count(query, accentFolding);
+        }
+
+        @Override
+        public int countPublicationsPerYear(int min, int max) {
+            return publicationsIndex.count(min, max);
+        }
+    }
+
+    /**
+     * A match of a sorted query with its record id, to break ties
+     */
+    private static class RankedMagazine {
+
+        /**
+         * The magazine
+         */
+        private final Magazine magazine;
+
+        /**
+         * The record id of the magazine
+         */
+        private final int recordId;
+
+        /**
+         * Creates a ranked match
+         *
+         * @param magazine The magazine
+         * @param recordId The record id of the magazine
+         */
+        RankedMagazine(Magazine magazine, int recordId) {
+            this.magazine = magazine;
+            this.recordId = recordId;
+        }
+    }
+
+    /**
+     * A change held back until the register is published
+     */
+    private static class DeferredChange {
+
+        /**
+         * The kind of change
+         */
+        private final ChangeEvent.Type type;
+
+        /**
+         * The record id of the magazine
+         */
+        private final int recordId;
+
+        /**
+         * The magazine added or deleted
+         */
+        private final Magazine magazine;
+
+        /**
+         * Creates a held back change
+         *
+         * @param type The kind of change
+         * @param recordId The record id of the magazine
+         * @param magazine The magazine added or deleted
+         */
+        DeferredChange(ChangeEvent.Type type, int recordId, Magazine magazine) {
+            this.type = type;
+            this.recordId = recordId;
+            this.magazine = magazine;
+        }
+    }
+
+    /**
+     * Lazy iterator of the magazines in a cursor of record ids, skipping
+     * deleted magazines and magazines not accepted by the filter. Magazines are looked up as
+     * the iterator is consumed, so nothing is copied up front. The filter
+     * checks store positions, so only accepted magazines are read.
+     * The search is measured when the iterator is read to the end,
+     * or when {@link #finish()} is called.
+     */
+    private class MatchIterator implements Iterator<Magazine> {
+
+        /**
+         * The record ids of the candidates
+         */
+        private final PostingCursor candidates;
+
+        /**
+         * Checks the store positions of the candidates, null accepts all
+         */
+        private final IntPredicate filter;
+
+        /**
+         * The modification count of the register when the search started
+         */
+        private final int expectedModificationCount;
+
+        /**
+         * The smallest record id the cursor should return next
+         */
+        private int nextTarget;
+
+        /**
+         * The next magazine to return, null if not found yet
+         */
+        private Magazine nextMagazine;
+
+        /**
+         * The record id of {@link #nextMagazine}
+         */
+        private int nextMagazineRecordId;
+
+        /**
+         * True when the cursor has no more candidates
+         */
+        private boolean exhausted;
+
+        /**
+         * The operation to record the search as
+         */
+        private final Operation operation;
+
+        /**
+         * Start time of the search, {@link #NOT_MEASURED} if not measured
+         * or already recorded
+         */
+        private long start;
+
+        /**
+         * Number of magazines returned
+         */
+        private long returned;
+
+        /**
+         * The cache to put the matches in when read to the end,
+         * null if they are not cached
+         */
+        private QueryCache cache;
+
+        /**
+         * The type of search the matches are cached as
+         */
+        private QueryCache.SearchType cacheType;
+
+        /**
+         * The normalized query the matches are cached as
+         */
+        private String cacheQuery;
+
+        /**
+         * True if the search ignores accents
+         */
+        private boolean cacheAccentFolded;
+
+        /**
+         * The record ids of the matches found so far, null if they are
+         * not collected or too many to cache
+         */
+        private IntList collected;
+
+        /**
+         * Creates an iterator over the candidates
+         *
+         * @param candidates The record ids of the candidates
+         * @param fromRecordId The smallest record id to return
+         * @param filter Checks the store positions of the candidates,
+         *               null accepts all
+         * @param operation The operation to record the search as
+         * @param start Start time of the search, see
+         *              {@link #startMeasuring()}
+         */
+        MatchIterator(PostingCursor candidates, int fromRecordId,
+                      IntPredicate filter, Operation operation, long start) {
+            this.candidates = candidates;
+            this.filter = filter;
+            this.operation = operation;
+            this.start = start;
+            this.returned = 0;
+            this.expectedModificationCount = modificationCount;
+            this.nextTarget = fromRecordId;
+            this.exhausted = false;
+            this.cache = null;
+            this.collected = null;
+        }
+
+        /**
+         * Collects the matches as they are read, and caches them in the
+         * query cache of the register if read to the end. Nothing is
+         * collected if there is no cache, if the search does not start
+         * at the first record id, or once there are more matches than
+         * the cache takes.
+         *
+         * @param type The type of search
+         * @param query The normalized query
+         */
+        void cacheAs(QueryCache.SearchType type, String query) {
+            QueryCache queryCache = MagazineRegister.this.queryCache;
+            if (queryCache == null || this.nextTarget > 0) {
+                return;
+            }
+            this.cache = queryCache;
+            this.cacheType = type;
+            this.cacheQuery = query;
+            this.cacheAccentFolded = accentFolding;
+            this.collected = new IntList();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (modificationCount != this.expectedModificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (this.nextMagazine == null && !this.exhausted) {
+                int recordId = this.candidates.advance(this.nextTarget);
+                if (recordId == PostingCursor.NO_MORE_IDS) {
+                    this.exhausted = true;
+                    this.putCollected();
+                    this.finish();
+                } else {
+                    this.nextTarget = recordId + 1;
+                    int position = positions.get(recordId);
+                    if (position != DELETED && (this.filter == null
+                            || this.filter.test(position))) {
+                        this.nextMagazine = store.get(position);
+                        this.nextMagazineRecordId = recordId;
+                        this.collect(recordId);
+                    }
+                }
+            }
+            return this.nextMagazine != null;
+        }
+
+        @Override
+        public Magazine next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Magazine magazine = this.nextMagazine;
+            this.nextMagazine = null;
+            this.returned++;
+            return magazine;
+        }
+
+        /**
+         * Adds a match to the collected matches, dropping them if there
+         * are more than the cache takes
+         *
+         * @param recordId The record id of the match
+         */
+        private void collect(int recordId) {
+            if (this.collected == null) {
+                return;
+            }
+            if (this.collected.size() >= this.cache.getMaxEntryWeight()) {
+                this.collected = null;
+            } else {
+                this.collected.add(recordId);
+            }
+        }
+
+        /**
+         * Caches the collected matches, if any
+         */
+        private void putCollected() {
+            if (this.collected != null) {
+                this.cache.put(this.cacheType, this.cacheQuery,
+                        this.cacheAccentFolded, this.expectedModificationCount,
+                        this.collected);
+                this.collected = null;
+            }
+        }
+
+        /**
+         * Records the search with the magazines returned so far,
+         * if not already recorded
+         */
+        void finish() {
+            if (this.start != NOT_MEASURED) {
+                recordMeasured(this.operation, this.start, this.returned);
+                this.start = NOT_MEASURED;
+            }
+        }
+
+        /**
+         * Returns the record id of the magazine returned by the next
+         * call to {@link #next()}
+         *
+         * @return Returns the record id of the next magazine
+         * @throws NoSuchElementException If there are no more magazines
+         */
+        int nextRecordId() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.nextMagazineRecordId;
+        }
+    }
+
+    /**
+     * Lazy iterator of the magazines with the record ids read from an
+     * index, in the order of the index, skipping deleted magazines and
+     * magazines not accepted by the filter. The search is measured when
+     * the iterator is read to the end or the limit.
+     */
+    private class IndexOrderIterator implements Iterator<Magazine> {
+
+        /**
+         * The record ids, in the order to return the magazines
+         */
+        private final PrimitiveIterator.OfInt recordIds;
+
+        /**
+         * The modification count of the register when the search started
+         */
+        private final int expectedModificationCount;
+
+        /**
+         * The operation to record the search as
+         */
+        private final Operation operation;
+
+        /**
+         * Max number of magazines to return
+         */
+        private final int limit;
+
+        /**
+         * Checks the store positions of the magazines, null accepts all
+         */
+        private final IntPredicate filter;
+
+        /**
+         * The next magazine to return, null if not found yet
+         */
+        private Magazine nextMagazine;
+
+        /**
+         * Start time of the search, {@link #NOT_MEASURED} if not measured
+         * or already recorded
+         */
+        private long start;
+
+        /**
+         * Number of magazines returned
+         */
+        private int returned;
+
+        /**
+         * Creates an iterator over the magazines with the record ids
+         *
+         * @param recordIds The record ids, in the order to return them
+         * @param limit Max number of magazines to return
+         * @param filter Checks the store positions of the magazines,
+         *               null accepts all
+         * @param operation The operation to record the search as
+         * @param start Start time of the search, see
+         *              {@link #startMeasuring()}
+         */
+        IndexOrderIterator(PrimitiveIterator.OfInt recordIds, int limit,
+                           IntPredicate filter, Operation operation,
+                           long start) {
+            this.recordIds = recordIds;
+            this.limit = limit;
+            this.filter = filter;
+            this.operation = operation;
+            this.start = start;
+            this.returned = 0;
+            this.expectedModificationCount = modificationCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (modificationCount != this.expectedModificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            while (this.nextMagazine == null && this.returned < this.limit
+                    && this.recordIds.hasNext()) {
+                int position = positions.get(this.recordIds.nextInt());
+                if (position != DELETED && (this.filter == null
+                        || this.filter.test(position))) {
+                    this.nextMagazine = store.get(position);
+                }
+            }
+            if (this.nextMagazine == null && this.start != NOT_MEASURED) {
+                recordMeasured(this.operation, this.start, this.returned);
+                this.start = NOT_MEASURED;
+            }
+            return this.nextMagazine != null;
+        }
+
+        @Override
+        public Magazine next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Magazine magazine = this.nextMagazine;
+            this.nextMagazine = null;
+            this.returned++;
+            return magazine;
+        }
     }
 
 }
@@ -0,0 +1,188 @@
+package com.bookstore;
+
+import com.bookstore.index.IntList;
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pages through the magazines found by a search, fetching one page at
+ * a time from the register as the pages are shown.
+ * <p>
+ * The magazines of the pages fetched so far are kept in a list, with
+ * their record ids in a list of ints alongside, so earlier pages are
+ * shown again without searching. Pages are fetched with continuation
+ * tokens, so the register can be changed while paging. Magazines
+ * deleted after their page was fetched are still returned, check the
+ * record id with {@link MagazineRegister#getById(int)}.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class ResultPager {
+
+    /**
+     * Fetches a page of found magazines from the register
+     */
+    @FunctionalInterface
+    public interface PageSource {
+
+        /**
+         * Fetches the page following the page of the continuation token
+         *
+         * @param continuationToken The token of the previous page, or
+         *                          null for the first page
+         * @param limit Max number of magazines on the page
+         * @return Returns the page
+         */
+        MagazinePage fetch(String continuationToken, int limit);
+    }
+
+    /**
+     * Fetches the pages
+     */
+    private final PageSource source;
+
+    /**
+     * Number of magazines on a page
+     */
+    private final int pageSize;
+
+    /**
+     * The found magazines fetched so far, in the order found
+     */
+    private final ArrayList<Magazine> found;
+
+    /**
+     * The record ids of {@link #found}, at the same index
+     */
+    private final IntList foundRecordIds;
+
+    /**
+     * The continuation token of the next page to fetch
+     */
+    private String continuationToken;
+
+    /**
+     * True when every page is fetched
+     */
+    private boolean complete;
+
+    /**
+     * Creates a pager, no page is fetched until asked for
+     *
+     * @param source Fetches the pages
+     * @param pageSize Number of magazines on a page
+     * @throws IllegalArgumentException If source is null or pageSize
+     *                                  is below 1
+     */
+    public ResultPager(PageSource source, int pageSize) {
+        if (source == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        this.source = source;
+        this.pageSize = pageSize;
+        this.found = new ArrayList<>();
+        this.foundRecordIds = new IntList();
+        this.continuationToken = null;
+        this.complete = false;
+    }
+
+    /**
+     * Returns true if the page exists, fetching it if needed.
+     * The first page always exists, it may be empty.
+     *
+     * @param pageNumber The page number, starting at 0
+     * @return Returns true if the page exists else false
+     */
+    public boolean hasPage(int pageNumber) {
+        if (pageNumber < 0) {
+            return false;
+        }
+        long firstIndex = (long) pageNumber * this.pageSize;
+        while (!this.complete && this.found.size() <= firstIndex) {
+            this.fetchNextPage();
+        }
+        return pageNumber == 0 || this.found.size() > firstIndex;
+    }
+
+    /**
+     * Returns true if no magazines were found
+     *
+     * @return Returns true if nothing was found else false
+     */
+    public boolean isEmpty() {
+        this.hasPage(0);
+        return this.found.isEmpty();
+    }
+
+    /**
+     * Returns the magazines of a page, fetching it if needed
+     *
+     * @param pageNumber The page number, starting at 0
+     * @return Returns the magazines of the page, empty if there is
+     * no such page
+     */
+    public List<Magazine> getPage(int pageNumber) {
+        if (!this.hasPage(pageNumber)) {
+            return Collections.emptyList();
+        }
+        int firstIndex = this.getFirstIndex(pageNumber);
+        int end = Math.min(this.found.size(), firstIndex + this.pageSize);
+        return Collections.unmodifiableList(this.found.subList(
+                Math.min(firstIndex, end), end));
+    }
+
+    /**
+     * Returns the index in the results of the first magazine of a page
+     *
+     * @param pageNumber The page number, starting at 0
+     * @return Returns the index of the first magazine
+     */
+    public int getFirstIndex(int pageNumber) {
+        return pageNumber * this.pageSize;
+    }
+
+    /**
+     * Returns true if there is a page after the given page, fetching
+     * it if needed
+     *
+     * @param pageNumber The page number, starting at 0
+     * @return Returns true if there is a next page else false
+     */
+    public boolean hasNextPage(int pageNumber) {
+        return this.hasPage(pageNumber + 1);
+    }
+
+    /**
+     * Returns the record id of a found magazine, its page must
+     * be fetched
+     *
+     * @param index The index of the magazine in the results
+     * @return Returns the record id of the magazine
+     * @throws IndexOutOfBoundsException If the magazine is not fetched
+     */
+    public int getRecordId(int index) {
+        return this.foundRecordIds.get(index);
+    }
+
+    /**
+     * Fetches the next page from the register
+     */
+    private void fetchNextPage() {
+        MagazinePage page = this.source.fetch(this.continuationToken,
+                this.pageSize);
+        this.found.addAll(page.getMagazines());
+        for (int i = 0; i < page.getMagazines().size(); i++) {
+            this.foundRecordIds.add(page.getRecordId(i));
+        }
+        this.continuationToken = page.getContinuationToken();
+        this.complete = !page.hasNextPage();
+    }
+
+}
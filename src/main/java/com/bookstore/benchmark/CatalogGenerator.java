@@ -0,0 +1,230 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates a synthetic catalog of magazines for benchmarks, with
+ * queries of known selectivity.
+ * <p>
+ * Titles are made of two topic words, a series word and a number making
+ * the title unique, like "Garden Music Chronicle 1234". The series words
+ * are used for title searches: the first series word is in half of the
+ * titles, the next in a quarter and so on. Publishers are drawn from a
+ * Zipf distribution, so a few publishers have most of the magazines,
+ * as in a real catalog. The same seed gives the same catalog.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class CatalogGenerator {
+
+    /**
+     * Words the titles start with
+     */
+    private static final String[] TOPICS = {
+        "Tech", "Home", "Garden", "Sport", "News", "Science", "Cars",
+        "Boats", "Fashion", "Food", "Travel", "History", "Music", "Games",
+        "Nature", "Health", "Money", "Design", "Photo", "Golf", "Fishing",
+        "Hunting", "Cooking", "Wine", "Film", "Aviation", "Trains", "Dogs",
+        "Horses", "Knitting"
+    };
+
+    /**
+     * Series words by selectivity, the word at index k is in a fraction
+     * 2^-(k+1) of the titles. No word is part of another word.
+     */
+    private static final String[] SERIES = {
+        "Monthly", "Review", "Journal", "Digest", "Gazette", "Herald",
+        "Courier", "Chronicle", "Quarterly", "Bulletin", "Observer",
+        "Tribune", "Sentinel", "Dispatch", "Almanac", "Compass", "Beacon",
+        "Ledger", "Pioneer", "Spectator"
+    };
+
+    /**
+     * Words the publisher names start with
+     */
+    private static final String[] PUBLISHER_NAMES = {
+        "Aller", "Egmont", "Schibsted", "Amedia", "Bonnier", "Hjemmet",
+        "Fagpressen", "Vigmostad", "Gyldendal", "Cappelen"
+    };
+
+    /**
+     * Words the publisher names continue with
+     */
+    private static final String[] PUBLISHER_KINDS = {
+        "Media", "Press", "Forlag", "Publishing"
+    };
+
+    /**
+     * Number of publishers used when none is given
+     */
+    public static final int DEFAULT_PUBLISHER_COUNT = 500;
+
+    /**
+     * The random generator of the catalog
+     */
+    private final Random random;
+
+    /**
+     * The probability of picking each publisher rank or a lower rank
+     */
+    private final double[] cumulativePublisherShares;
+
+    /**
+     * The number of the next magazine
+     */
+    private int nextNumber;
+
+    /**
+     * Creates a generator with {@link #DEFAULT_PUBLISHER_COUNT} publishers
+     *
+     * @param seed The seed of the random generator
+     */
+    public CatalogGenerator(long seed) {
+        this(seed, DEFAULT_PUBLISHER_COUNT);
+    }
+
+    /**
+     * Creates a generator
+     *
+     * @param seed The seed of the random generator
+     * @param publisherCount The number of distinct publishers
+     * @throws IllegalArgumentException If publisherCount is not
+     *                                  between 1 and 10000
+     */
+    public CatalogGenerator(long seed, int publisherCount) {
+        if (publisherCount < 1 || publisherCount > 10000) {
+            throw new IllegalArgumentException(
+                    "Publisher count must be between 1 and 10000.");
+        }
+        this.random = new Random(seed);
+        this.cumulativePublisherShares = new double[publisherCount];
+        double total = 0;
+        for (int rank = 0; rank < publisherCount; rank++) {
+            total += publisherWeight(rank);
+            this.cumulativePublisherShares[rank] = total;
+        }
+        for (int rank = 0; rank < publisherCount; rank++) {
+            this.cumulativePublisherShares[rank] /= total;
+        }
+        this.nextNumber = 0;
+    }
+
+    /**
+     * Returns the next magazine of the catalog. The titles of the
+     * returned magazines are all different.
+     *
+     * @return Returns the magazine
+     */
+    public Magazine next() {
+        int series = Math.min(Long.numberOfTrailingZeros(this.random.nextLong()),
+                SERIES.length - 1);
+        String title = TOPICS[this.random.nextInt(TOPICS.length)] + " "
+                + TOPICS[this.random.nextInt(TOPICS.length)] + " "
+                + SERIES[series] + " " + this.nextNumber++;
+        return new Magazine(title, publisherName(this.randomPublisherRank()),
+                1 + this.random.nextInt(52));
+    }
+
+    /**
+     * Returns a title query matching about the given fraction of the
+     * titles, rounded to the nearest power of two
+     *
+     * @param selectivity The fraction of the titles to match
+     * @return Returns the query
+     * @throws IllegalArgumentException If selectivity is not above 0
+     *                                  and at most 1
+     */
+    public static String titleQuery(double selectivity) {
+        checkSelectivity(selectivity);
+        long series = Math.round(Math.log(1 / selectivity) / Math.log(2)) - 1;
+        return SERIES[(int) Math.max(0, Math.min(series, SERIES.length - 1))];
+    }
+
+    /**
+     * Returns the publisher with the share of the magazines closest to
+     * the given fraction
+     *
+     * @param selectivity The fraction of the magazines to match
+     * @return Returns the publisher name
+     * @throws IllegalArgumentException If selectivity is not above 0
+     *                                  and at most 1
+     */
+    public String publisherQuery(double selectivity) {
+        checkSelectivity(selectivity);
+        int closest = 0;
+        double previous = 0;
+        double closestDistance = Double.MAX_VALUE;
+        for (int rank = 0; rank < this.cumulativePublisherShares.length; rank++) {
+            double share = this.cumulativePublisherShares[rank] - previous;
+            previous = this.cumulativePublisherShares[rank];
+            if (Math.abs(share - selectivity) < closestDistance) {
+                closestDistance = Math.abs(share - selectivity);
+                closest = rank;
+            }
+        }
+        return publisherName(closest);
+    }
+
+    /**
+     * Returns the name of the publisher with the given rank, rank 0 has
+     * the most magazines. No name is part of another name.
+     *
+     * @param rank The rank of the publisher
+     * @return Returns the publisher name
+     */
+    public static String publisherName(int rank) {
+        return String.format(Locale.ROOT, "%s %s %04d",
+                PUBLISHER_NAMES[rank % PUBLISHER_NAMES.length],
+                PUBLISHER_KINDS[(rank / PUBLISHER_NAMES.length)
+                        % PUBLISHER_KINDS.length], rank);
+    }
+
+    /**
+     * Returns the weight of a publisher rank in the Zipf distribution
+     *
+     * @param rank The rank of the publisher
+     * @return Returns the weight
+     */
+    private static double publisherWeight(int rank) {
+        return 1.0 / (rank + 1);
+    }
+
+    /**
+     * Draws a publisher rank from the Zipf distribution
+     *
+     * @return Returns the rank
+     */
+    private int randomPublisherRank() {
+        double draw = this.random.nextDouble();
+        int low = 0;
+        int high = this.cumulativePublisherShares.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.cumulativePublisherShares[middle] < draw) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks that a selectivity is a fraction above 0
+     *
+     * @param selectivity The selectivity to check
+     * @throws IllegalArgumentException If selectivity is not above 0
+     *                                  and at most 1
+     */
+    private static void checkSelectivity(double selectivity) {
+        if (!(selectivity > 0 && selectivity <= 1)) {
+            throw new IllegalArgumentException(
+                    "Selectivity must be above 0 and at most 1.");
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.bookstore.benchmark;
+
+/**
+ * The operations the {@link WorkloadSimulator} mixes
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public enum WorkloadOperation {
+
+    /**
+     * Searching the titles for two words of a magazine, consuming one
+     * screen of results
+     */
+    TITLE_SEARCH("titleSearch"),
+
+    /**
+     * Searching for the publisher of a magazine, consuming one screen
+     * of results
+     */
+    PUBLISHER_SEARCH("publisherSearch"),
+
+    /**
+     * Querying the first screen of magazines of a publisher with a word
+     * of a magazine in the title, sorted by title
+     */
+    QUERY("query"),
+
+    /**
+     * Adding a new magazine to the catalog
+     */
+    INSERT("insert"),
+
+    /**
+     * Deleting a magazine of the catalog
+     */
+    DELETE("delete");
+
+    /**
+     * The name of the operation in options and reports
+     */
+    private final String name;
+
+    /**
+     * Creates an operation
+     *
+     * @param name The name of the operation in options and reports
+     */
+    WorkloadOperation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the operation in options and reports
+     *
+     * @return Returns the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the operation with the given name
+     *
+     * @param name The name of the operation
+     * @return Returns the operation
+     * @throws IllegalArgumentException If no operation has the name
+     */
+    public static WorkloadOperation fromName(String name) {
+        for (WorkloadOperation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+
+}
@@ -0,0 +1,448 @@
+package com.bookstore.benchmark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Options of a {@link WorkloadSimulator} run, parsed from arguments of
+ * the form <code>name=value</code>:
+ * <ul>
+ * <li><code>threads</code>: number of concurrent clients, default 8</li>
+ * <li><code>duration</code>: seconds to run, default 60</li>
+ * <li><code>interval</code>: seconds between report rows, default 5</li>
+ * <li><code>catalog</code>: magazines added before the run, default 100000</li>
+ * <li><code>mix</code>: weights of the operations, like the default
+ * <code>titleSearch:55,publisherSearch:25,query:5,insert:10,delete:5</code>.
+ * Operations left out are not run.</li>
+ * <li><code>keys</code>: <code>uniform</code> or <code>zipf</code>, how the
+ * magazines searched and deleted are picked, default zipf</li>
+ * <li><code>zipfExponent</code>: exponent of the Zipf distribution, default 1</li>
+ * <li><code>register</code>: <code>concurrent</code> for a
+ * {@link com.bookstore.ConcurrentMagazineRegister} or
+ * <code>synchronized</code> for a
+ * {@link com.bookstore.MagazineRegister} behind one lock, default
+ * concurrent</li>
+ * <li><code>store</code>: where the register keeps the magazines,
+ * <code>heap</code>, <code>columnar</code> or <code>off-heap</code>,
+ * default heap</li>
+ * <li><code>output</code>: the CSV file to write, default workload.csv</li>
+ * <li><code>seed</code>: seed of the catalog and the clients, default 1</li>
+ * </ul>
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class WorkloadOptions {
+
+    /**
+     * How the magazines searched and deleted are picked
+     */
+    public enum KeyDistribution {
+
+        /**
+         * Every magazine in the catalog is equally likely
+         */
+        UNIFORM,
+
+        /**
+         * The most recently added magazines are the most likely, by a
+         * Zipf distribution over the age of the magazines
+         */
+        ZIPF
+    }
+
+    /**
+     * The register driven by the clients
+     */
+    public enum RegisterKind {
+
+        /**
+         * A {@link com.bookstore.ConcurrentMagazineRegister}, searching
+         * snapshots without locks
+         */
+        CONCURRENT,
+
+        /**
+         * A {@link com.bookstore.MagazineRegister} every operation locks
+         */
+        SYNCHRONIZED
+    }
+
+    /**
+     * Where the register keeps the magazines
+     */
+    public enum StoreKind {
+
+        /**
+         * A {@link com.bookstore.storage.HeapMagazineStore}
+         */
+        HEAP,
+
+        /**
+         * A {@link com.bookstore.storage.ColumnarMagazineStore}
+         */
+        COLUMNAR,
+
+        /**
+         * A {@link com.bookstore.storage.OffHeapMagazineStore}
+         */
+        OFF_HEAP
+    }
+
+    /**
+     * The operation weights used when no mix is given, 85% searches
+     */
+    private static final String DEFAULT_MIX =
+            "titleSearch:55,publisherSearch:25,query:5,insert:10,delete:5";
+
+    /**
+     * Number of concurrent clients
+     */
+    private final int threads;
+
+    /**
+     * Seconds to run
+     */
+    private final int durationSeconds;
+
+    /**
+     * Seconds between report rows
+     */
+    private final int intervalSeconds;
+
+    /**
+     * Number of magazines added before the run
+     */
+    private final int catalogSize;
+
+    /**
+     * The weight of each operation, by ordinal
+     */
+    private final int[] weights;
+
+    /**
+     * How the magazines searched and deleted are picked
+     */
+    private final KeyDistribution keyDistribution;
+
+    /**
+     * Exponent of the Zipf distribution
+     */
+    private final double zipfExponent;
+
+    /**
+     * The register driven by the clients
+     */
+    private final RegisterKind registerKind;
+
+    /**
+     * Where the register keeps the magazines
+     */
+    private final StoreKind storeKind;
+
+    /**
+     * The CSV file to write
+     */
+    private final Path output;
+
+    /**
+     * Seed of the catalog and the clients
+     */
+    private final long seed;
+
+    /**
+     * Creates options
+     *
+     * @param threads Number of concurrent clients
+     * @param durationSeconds Seconds to run
+     * @param intervalSeconds Seconds between report rows
+     * @param catalogSize Number of magazines added before the run
+     * @param weights The weight of each operation, by ordinal
+     * @param keyDistribution How the magazines searched and deleted are picked
+     * @param zipfExponent Exponent of the Zipf distribution
+     * @param registerKind The register driven by the clients
+     * @param storeKind Where the register keeps the magazines
+     * @param output The CSV file to write
+     * @param seed Seed of the catalog and the clients
+     */
+    private WorkloadOptions(int threads, int durationSeconds,
+                            int intervalSeconds, int catalogSize, int[] weights,
+                            KeyDistribution keyDistribution, double zipfExponent,
+                            RegisterKind registerKind, StoreKind storeKind,
+                            Path output, long seed) {
+        this.threads = threads;
+        this.durationSeconds = durationSeconds;
+        this.intervalSeconds = intervalSeconds;
+        this.catalogSize = catalogSize;
+        this.weights = weights;
+        this.keyDistribution = keyDistribution;
+        this.zipfExponent = zipfExponent;
+        this.registerKind = registerKind;
+        this.storeKind = storeKind;
+        this.output = output;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the options used when no arguments are given
+     *
+     * @return Returns the default options
+     */
+    public static WorkloadOptions defaults() {
+        return parse(new String[0]);
+    }
+
+    /**
+     * Parses options from arguments of the form <code>name=value</code>,
+     * options not given get their default value
+     *
+     * @param args The arguments
+     * @return Returns the options
+     * @throws IllegalArgumentException If args is null, or an argument
+     *                                  is unknown or has an invalid value
+     */
+    public static WorkloadOptions parse(String[] args) {
+        if (args == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        int threads = 8;
+        int durationSeconds = 60;
+        int intervalSeconds = 5;
+        int catalogSize = 100000;
+        int[] weights = parseMix(DEFAULT_MIX);
+        KeyDistribution keyDistribution = KeyDistribution.ZIPF;
+        double zipfExponent = 1;
+        RegisterKind registerKind = RegisterKind.CONCURRENT;
+        StoreKind storeKind = StoreKind.HEAP;
+        Path output = Paths.get("workload.csv");
+        long seed = 1;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException(
+                        "Expected name=value but got: " + arg);
+            }
+            String name = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            try {
+                switch (name) {
+                    case "threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "duration":
+                        durationSeconds = Integer.parseInt(value);
+                        break;
+                    case "interval":
+                        intervalSeconds = Integer.parseInt(value);
+                        break;
+                    case "catalog":
+                        catalogSize = Integer.parseInt(value);
+                        break;
+                    case "mix":
+                        weights = parseMix(value);
+                        break;
+                    case "keys":
+                        keyDistribution = KeyDistribution.valueOf(
+                                value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "zipfExponent":
+                        zipfExponent = Double.parseDouble(value);
+                        break;
+                    case "register":
+                        registerKind = RegisterKind.valueOf(
+                                value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "store":
+                        storeKind = StoreKind.valueOf(value.replace('-', '_')
+                                .toUpperCase(Locale.ROOT));
+                        break;
+                    case "output":
+                        output = Paths.get(value);
+                        break;
+                    case "seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unknown option: " + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "Invalid value of " + name + ": " + value, e);
+            }
+        }
+
+        if (threads < 1 || durationSeconds < 1 || intervalSeconds < 1) {
+            throw new IllegalArgumentException(
+                    "Threads, duration and interval must be at least 1.");
+        }
+        if (catalogSize < 0) {
+            throw new IllegalArgumentException("Catalog size can not be negative.");
+        }
+        if (!(zipfExponent > 0)) {
+            throw new IllegalArgumentException("Zipf exponent must be above 0.");
+        }
+        return new WorkloadOptions(threads, durationSeconds, intervalSeconds,
+                catalogSize, weights, keyDistribution, zipfExponent,
+                registerKind, storeKind, output, seed);
+    }
+
+    /**
+     * Parses operation weights of the form
+     * <code>name:weight,name:weight</code>
+     *
+     * @param mix The weights
+     * @return Returns the weight of each operation, by ordinal
+     * @throws IllegalArgumentException If an operation is unknown, a
+     *                                  weight is negative or all are 0
+     */
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[WorkloadOperation.values().length];
+        for (String part : mix.split(",")) {
+            int separator = part.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException(
+                        "Expected operation:weight but got: " + part);
+            }
+            WorkloadOperation operation = WorkloadOperation.fromName(
+                    part.substring(0, separator).trim());
+            int weight = Integer.parseInt(part.substring(separator + 1).trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException(
+                        "Weights can not be negative.");
+            }
+            weights[operation.ordinal()] = weight;
+        }
+        if (Arrays.stream(weights).sum() == 0) {
+            throw new IllegalArgumentException("The mix must have an operation.");
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the number of concurrent clients
+     *
+     * @return Returns the number of threads
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Returns the seconds to run
+     *
+     * @return Returns the duration in seconds
+     */
+    public int getDurationSeconds() {
+        return this.durationSeconds;
+    }
+
+    /**
+     * Returns the seconds between report rows
+     *
+     * @return Returns the interval in seconds
+     */
+    public int getIntervalSeconds() {
+        return this.intervalSeconds;
+    }
+
+    /**
+     * Returns the number of magazines added before the run
+     *
+     * @return Returns the catalog size
+     */
+    public int getCatalogSize() {
+        return this.catalogSize;
+    }
+
+    /**
+     * Returns the weight of an operation in the mix
+     *
+     * @param operation The operation
+     * @return Returns the weight, 0 if the operation is not run
+     */
+    public int getWeight(WorkloadOperation operation) {
+        return this.weights[operation.ordinal()];
+    }
+
+    /**
+     * Returns how the magazines searched and deleted are picked
+     *
+     * @return Returns the key distribution
+     */
+    public KeyDistribution getKeyDistribution() {
+        return this.keyDistribution;
+    }
+
+    /**
+     * Returns the exponent of the Zipf distribution
+     *
+     * @return Returns the exponent
+     */
+    public double getZipfExponent() {
+        return this.zipfExponent;
+    }
+
+    /**
+     * Returns the register driven by the clients
+     *
+     * @return Returns the register kind
+     */
+    public RegisterKind getRegisterKind() {
+        return this.registerKind;
+    }
+
+    /**
+     * Returns where the register keeps the magazines
+     *
+     * @return Returns the store kind
+     */
+    public StoreKind getStoreKind() {
+        return this.storeKind;
+    }
+
+    /**
+     * Returns the CSV file to write
+     *
+     * @return Returns the path
+     */
+    public Path getOutput() {
+        return this.output;
+    }
+
+    /**
+     * Returns the seed of the catalog and the clients
+     *
+     * @return Returns the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder mix = new StringBuilder();
+        for (WorkloadOperation operation : WorkloadOperation.values()) {
+            if (this.getWeight(operation) > 0) {
+                if (mix.length() > 0) {
+                    mix.append(',');
+                }
+                mix.append(operation.getName()).append(':')
+                        .append(this.getWeight(operation));
+            }
+        }
+        return "threads=" + this.threads + " duration=" + this.durationSeconds
+                + " interval=" + this.intervalSeconds + " catalog="
+                + this.catalogSize + " mix=" + mix + " keys="
+                + this.keyDistribution.name().toLowerCase(Locale.ROOT)
+                + " zipfExponent=" + this.zipfExponent + " register="
+                + this.registerKind.name().toLowerCase(Locale.ROOT)
+                + " store=" + this.storeKind.name().replace('_', '-')
+                .toLowerCase(Locale.ROOT)
+                + " output=" + this.output + " seed=" + this.seed;
+    }
+
+}
@@ -0,0 +1,805 @@
+package com.bookstore.benchmark;
+
+import com.bookstore.ConcurrentMagazineRegister;
+import com.bookstore.MagazineRegister;
+import com.bookstore.metrics.Histogram;
+import com.bookstore.query.Criterion;
+import com.bookstore.query.MagazineQuery;
+import com.bookstore.query.SortOrder;
+import com.bookstore.readables.Magazine;
+import com.bookstore.storage.ColumnarMagazineStore;
+import com.bookstore.storage.HeapMagazineStore;
+import com.bookstore.storage.MagazineStore;
+import com.bookstore.storage.OffHeapMagazineStore;
+import com.sun.management.GcInfo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a register with a mix of searches, inserts and deletes from
+ * concurrent clients, for minutes or hours, and reports how it holds up
+ * over time.
+ * <p>
+ * The catalog starts with generated magazines, see
+ * {@link CatalogGenerator}, and grows while the run lasts when inserts
+ * outweigh deletes. Each client picks an operation by the weights of the
+ * mix and a magazine to search for or delete by the key distribution, so
+ * a Zipf distribution keeps a few recent magazines hot. Only the call to
+ * the register is timed.
+ * <p>
+ * Every interval a CSV row is written for each operation, with its
+ * throughput and latency percentiles in the interval, and the catalog
+ * size, heap use and garbage collections at its end. Runs with the same
+ * options write the same columns, so runs can be compared side by side.
+ * See {@link WorkloadOptions} for the arguments.
+ * Run with <code>gradle workloadSimulator -PworkloadArgs="..."</code>.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class WorkloadSimulator {
+
+    /**
+     * The columns of the CSV report
+     */
+    private static final String CSV_HEADER = "elapsed_s,operation,ops,ops_per_s,"
+            + "misses,mean_us,p50_us,p90_us,p99_us,p999_us,max_us,catalog_size,"
+            + "heap_used_mb,heap_after_gc_mb,heap_committed_mb,gc_count,gc_ms";
+
+    /**
+     * Number of results a client consumes per search, one screen
+     */
+    private static final int RESULTS_PER_SEARCH = 20;
+
+    /**
+     * Number of draws a client makes to find a magazine still in the
+     * catalog before counting a miss
+     */
+    private static final int KEY_ATTEMPTS = 8;
+
+    /**
+     * Number of bytes in a megabyte
+     */
+    private static final double MEGABYTE = 1024 * 1024;
+
+    /**
+     * The options of the run
+     */
+    private final WorkloadOptions options;
+
+    /**
+     * The register driven
+     */
+    private final Target target;
+
+    /**
+     * Generates the magazines added, guarded by itself
+     */
+    private final CatalogGenerator generator;
+
+    /**
+     * The magazines in the catalog by key, keys are given in the order
+     * the magazines are added
+     */
+    private final ConcurrentHashMap<Integer, Magazine> magazines;
+
+    /**
+     * The key of the next magazine added
+     */
+    private final AtomicInteger nextKey;
+
+    /**
+     * Draws magazine ages for the Zipf key distribution, null if keys
+     * are uniform
+     */
+    private final ZipfSampler zipf;
+
+    /**
+     * The latencies of each operation in the current interval, by ordinal
+     */
+    private final AtomicReferenceArray<Histogram> intervalLatencies;
+
+    /**
+     * The latencies of each operation over the whole run, by ordinal
+     */
+    private final Histogram[] totalLatencies;
+
+    /**
+     * Operations in the current interval finding no magazine to search
+     * for or delete, by ordinal
+     */
+    private final LongAdder[] misses;
+
+    /**
+     * The first failure of a client, which stops the run
+     */
+    private final AtomicReference<RuntimeException> failure;
+
+    /**
+     * The sum of the weights of the operations in the mix
+     */
+    private final int totalWeight;
+
+    /**
+     * Creates a simulator
+     *
+     * @param options The options of the run
+     */
+    private WorkloadSimulator(WorkloadOptions options) {
+        this.options = options;
+        MagazineRegister register = new MagazineRegister(
+                newStore(options.getStoreKind()));
+        if (options.getRegisterKind() == WorkloadOptions.RegisterKind.CONCURRENT) {
+            this.target = new ConcurrentTarget(
+                    new ConcurrentMagazineRegister(register));
+        } else {
+            this.target = new SynchronizedTarget(register);
+        }
+        this.generator = new CatalogGenerator(options.getSeed());
+        this.magazines = new ConcurrentHashMap<>();
+        this.nextKey = new AtomicInteger();
+        this.zipf = options.getKeyDistribution()
+                == WorkloadOptions.KeyDistribution.ZIPF
+                ? new ZipfSampler(options.getZipfExponent()) : null;
+
+        int operationCount = WorkloadOperation.values().length;
+        this.intervalLatencies = new AtomicReferenceArray<>(operationCount);
+        this.totalLatencies = new Histogram[operationCount];
+        this.misses = new LongAdder[operationCount];
+        for (int i = 0; i < operationCount; i++) {
+            this.intervalLatencies.set(i, new Histogram());
+            this.totalLatencies[i] = new Histogram();
+            this.misses[i] = new LongAdder();
+        }
+        this.failure = new AtomicReference<>();
+
+        int weights = 0;
+        for (WorkloadOperation operation : WorkloadOperation.values()) {
+            weights += options.getWeight(operation);
+        }
+        this.totalWeight = weights;
+    }
+
+    /**
+     * Simulator entry
+     *
+     * @param args Options of the form name=value, see {@link WorkloadOptions}
+     * @throws IOException If the report can not be written
+     * @throws InterruptedException If interrupted while waiting for clients
+     */
+    public static void main(String[] args)
+            throws IOException, InterruptedException {
+        WorkloadOptions options;
+        try {
+            options = WorkloadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.out.println("Options: " + options);
+        new WorkloadSimulator(options).run();
+    }
+
+    /**
+     * Loads the catalog, runs the clients for the duration of the run
+     * and writes the report
+     *
+     * @throws IOException If the report can not be written
+     * @throws InterruptedException If interrupted while waiting for clients
+     */
+    private void run() throws IOException, InterruptedException {
+        List<Magazine> catalog = new ArrayList<>(this.options.getCatalogSize());
+        for (int i = 0; i < this.options.getCatalogSize(); i++) {
+            catalog.add(this.generator.next());
+        }
+        this.target.addAll(catalog);
+        for (Magazine magazine : catalog) {
+            this.magazines.put(this.nextKey.getAndIncrement(), magazine);
+        }
+        System.out.println("Loaded " + this.target.size() + " magazines");
+
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos
+                + TimeUnit.SECONDS.toNanos(this.options.getDurationSeconds());
+        List<Thread> clients = new ArrayList<>(this.options.getThreads());
+        for (int i = 0; i < this.options.getThreads(); i++) {
+            Random random = new Random(this.options.getSeed() + 1 + i);
+            Thread client = new Thread(() -> this.runClient(random, endNanos),
+                    "workload-client-" + i);
+            client.setDaemon(true);
+            clients.add(client);
+        }
+        clients.forEach(Thread::start);
+
+        try (PrintWriter report = new PrintWriter(Files.newBufferedWriter(
+                this.options.getOutput(), StandardCharsets.UTF_8))) {
+            report.println(CSV_HEADER);
+            this.report(report, startNanos, endNanos);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        this.printSummary(startNanos, endNanos);
+        if (this.failure.get() != null) {
+            throw this.failure.get();
+        }
+    }
+
+    /**
+     * Runs operations until the end of the run or a failure
+     *
+     * @param random The random generator of the client
+     * @param endNanos The end of the run, by {@link System#nanoTime()}
+     */
+    private void runClient(Random random, long endNanos) {
+        WorkloadOperation[] operations = WorkloadOperation.values();
+        try {
+            while (System.nanoTime() < endNanos && this.failure.get() == null) {
+                int draw = random.nextInt(this.totalWeight);
+                int next = 0;
+                while (draw >= this.options.getWeight(operations[next])) {
+                    draw -= this.options.getWeight(operations[next]);
+                    next++;
+                }
+                this.runOperation(operations[next], random);
+            }
+        } catch (RuntimeException e) {
+            this.failure.compareAndSet(null, e);
+        }
+    }
+
+    /**
+     * Runs one operation and records its latency
+     *
+     * @param operation The operation to run
+     * @param random The random generator of the client
+     */
+    private void runOperation(WorkloadOperation operation, Random random) {
+        if (operation == WorkloadOperation.INSERT) {
+            Magazine magazine;
+            synchronized (this.generator) {
+                magazine = this.generator.next();
+            }
+            long start = System.nanoTime();
+            this.target.add(magazine);
+            this.record(operation, start);
+            this.magazines.put(this.nextKey.getAndIncrement(), magazine);
+            return;
+        }
+
+        Magazine magazine = this.pickMagazine(random,
+                operation == WorkloadOperation.DELETE);
+        if (magazine == null) {
+            this.misses[operation.ordinal()].increment();
+            return;
+        }
+        long start;
+        switch (operation) {
+            case TITLE_SEARCH:
+                String words = titleWords(magazine, 2);
+                start = System.nanoTime();
+                consume(this.target.searchTitles(words));
+                break;
+            case PUBLISHER_SEARCH:
+                start = System.nanoTime();
+                consume(this.target.searchPublisher(magazine.getPublisher()));
+                break;
+            case QUERY:
+                MagazineQuery query = new MagazineQuery(Criterion.allOf(
+                        Criterion.titleContains(titleWords(magazine, 1)),
+                        Criterion.publisherContains(magazine.getPublisher())),
+                        SortOrder.TITLE, RESULTS_PER_SEARCH);
+                start = System.nanoTime();
+                consume(this.target.query(query));
+                break;
+            default:
+                start = System.nanoTime();
+                if (!this.target.delete(magazine)) {
+                    this.misses[operation.ordinal()].increment();
+                }
+        }
+        this.record(operation, start);
+    }
+
+    /**
+     * Records the latency of an operation
+     *
+     * @param operation The operation
+     * @param start When the operation started, by {@link System#nanoTime()}
+     */
+    private void record(WorkloadOperation operation, long start) {
+        long latency = System.nanoTime() - start;
+        this.intervalLatencies.get(operation.ordinal()).record(latency);
+        this.totalLatencies[operation.ordinal()].record(latency);
+    }
+
+    /**
+     * Picks a magazine in the catalog by the key distribution
+     *
+     * @param random The random generator of the client
+     * @param claim True to take the magazine out of the catalog, so no
+     *              other client deletes it
+     * @return Returns the magazine, or null if none was found
+     */
+    private Magazine pickMagazine(Random random, boolean claim) {
+        for (int attempt = 0; attempt < KEY_ATTEMPTS; attempt++) {
+            int keyCount = this.nextKey.get();
+            if (keyCount == 0) {
+                return null;
+            }
+            int key = this.zipf == null ? random.nextInt(keyCount)
+                    : keyCount - 1 - this.zipf.sample(random, keyCount);
+            Magazine magazine = claim ? this.magazines.remove(key)
+                    : this.magazines.get(key);
+            if (magazine != null) {
+                return magazine;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes a report row for each operation at the end of every
+     * interval, until the end of the run
+     *
+     * @param report The CSV report
+     * @param startNanos The start of the run, by {@link System#nanoTime()}
+     * @param endNanos The end of the run, by {@link System#nanoTime()}
+     * @throws InterruptedException If interrupted while waiting
+     */
+    private void report(PrintWriter report, long startNanos, long endNanos)
+            throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(
+                this.options.getIntervalSeconds());
+        long intervalStart = startNanos;
+        GcTotals previousGc = GcTotals.read();
+        while (intervalStart < endNanos) {
+            long intervalEnd = Math.min(intervalStart + intervalNanos, endNanos);
+            long wait;
+            while ((wait = intervalEnd - System.nanoTime()) > 0
+                    && this.failure.get() == null) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(wait,
+                        TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+            long now = System.nanoTime();
+            double seconds = (now - intervalStart) / 1e9;
+
+            Histogram[] latencies = new Histogram[this.totalLatencies.length];
+            long[] missed = new long[this.totalLatencies.length];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = this.intervalLatencies.getAndSet(i, new Histogram());
+                missed[i] = this.misses[i].sumThenReset();
+            }
+            GcTotals gc = GcTotals.read();
+            MemoryUsage heap = ManagementFactory.getMemoryMXBean()
+                    .getHeapMemoryUsage();
+            String memory = String.format(Locale.ROOT, "%d,%.1f,%.1f,%.1f,%d,%d",
+                    this.target.size(), heap.getUsed() / MEGABYTE,
+                    heapAfterGc() / MEGABYTE, heap.getCommitted() / MEGABYTE,
+                    gc.count - previousGc.count, gc.millis - previousGc.millis);
+            double elapsed = (now - startNanos) / 1e9;
+
+            long operations = 0;
+            for (WorkloadOperation operation : WorkloadOperation.values()) {
+                if (this.options.getWeight(operation) == 0) {
+                    continue;
+                }
+                Histogram histogram = latencies[operation.ordinal()];
+                operations += histogram.getCount();
+                report.println(String.format(Locale.ROOT, "%.1f,%s,%d,%.1f,%d,%s,%s",
+                        elapsed, operation.getName(), histogram.getCount(),
+                        histogram.getCount() / seconds,
+                        missed[operation.ordinal()], latencyColumns(histogram),
+                        memory));
+            }
+            report.flush();
+            System.out.println(String.format(Locale.ROOT,
+                    "%8.1f s | %10.0f ops/s | %9d magazines | %8.1f MB after GC | %4d ms GC",
+                    elapsed, operations / seconds, this.target.size(),
+                    heapAfterGc() / MEGABYTE, gc.millis - previousGc.millis));
+
+            previousGc = gc;
+            intervalStart = now;
+            if (this.failure.get() != null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prints the throughput and latencies of each operation over the
+     * whole run
+     *
+     * @param startNanos The start of the run, by {@link System#nanoTime()}
+     * @param endNanos The end of the run, by {@link System#nanoTime()}
+     */
+    private void printSummary(long startNanos, long endNanos) {
+        double seconds = (Math.min(System.nanoTime(), endNanos) - startNanos) / 1e9;
+        System.out.println("operation       |      ops/s | mean_us,p50_us,p90_us,"
+                + "p99_us,p999_us,max_us");
+        for (WorkloadOperation operation : WorkloadOperation.values()) {
+            if (this.options.getWeight(operation) > 0) {
+                Histogram histogram = this.totalLatencies[operation.ordinal()];
+                System.out.println(String.format(Locale.ROOT, "%-15s | %10.1f | %s",
+                        operation.getName(), histogram.getCount() / seconds,
+                        latencyColumns(histogram)));
+            }
+        }
+        System.out.println("Final catalog size: " + this.target.size());
+    }
+
+    /**
+     * Creates an empty store of the given kind
+     *
+     * @param kind The kind of store
+     * @return Returns the store
+     */
+    private static MagazineStore newStore(WorkloadOptions.StoreKind kind) {
+        switch (kind) {
+            case COLUMNAR:
+                return new ColumnarMagazineStore();
+            case OFF_HEAP:
+                return new OffHeapMagazineStore();
+            default:
+                return new HeapMagazineStore();
+        }
+    }
+
+    /**
+     * Returns the latency columns of a report row, in microseconds
+     *
+     * @param histogram The latencies in nanoseconds
+     * @return Returns the mean, the 50th, 90th, 99th and 99.9th
+     * percentiles and the max, separated by commas
+     */
+    private static String latencyColumns(Histogram histogram) {
+        return String.format(Locale.ROOT, "%.1f,%.1f,%.1f,%.1f,%.1f,%.1f",
+                histogram.getMean() / 1000,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMax() / 1000.0);
+    }
+
+    /**
+     * Returns the heap used just after the latest garbage collection,
+     * which follows the live data better than the heap used now
+     *
+     * @return Returns the number of bytes, or 0 if nothing is collected
+     * yet or the collectors do not report it
+     */
+    private static long heapAfterGc() {
+        Set<String> heapPools = new HashSet<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+        GcInfo latest = null;
+        for (GarbageCollectorMXBean collector
+                : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // The last collection is only known to the HotSpot beans
+            if (collector instanceof com.sun.management.GarbageCollectorMXBean) {
+                GcInfo info = ((com.sun.management.GarbageCollectorMXBean)
+                        collector).getLastGcInfo();
+                if (info != null && (latest == null
+                        || info.getEndTime() > latest.getEndTime())) {
+                    latest = info;
+                }
+            }
+        }
+        long used = 0;
+        if (latest != null) {
+            for (Map.Entry<String, MemoryUsage> pool
+                    : latest.getMemoryUsageAfterGc().entrySet()) {
+                if (heapPools.contains(pool.getKey())) {
+                    used += pool.getValue().getUsed();
+                }
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Returns the first words of the title of a magazine
+     *
+     * @param magazine The magazine
+     * @param count The number of words
+     * @return Returns the words, separated by spaces
+     */
+    private static String titleWords(Magazine magazine, int count) {
+        String title = magazine.getTitle();
+        int end = -1;
+        for (int i = 0; i < count; i++) {
+            int space = title.indexOf(' ', end + 1);
+            if (space < 0) {
+                return title;
+            }
+            end = space;
+        }
+        return title.substring(0, end);
+    }
+
+    /**
+     * Consumes one screen of results
+     *
+     * @param results The results
+     */
+    private static void consume(Iterator<Magazine> results) {
+        for (int i = 0; i < RESULTS_PER_SEARCH && results.hasNext(); i++) {
+            results.next();
+        }
+    }
+
+    /**
+     * The number and duration of garbage collections since the JVM
+     * started, summed over the collectors
+     */
+    private static class GcTotals {
+
+        /**
+         * Number of collections
+         */
+        private final long count;
+
+        /**
+         * Milliseconds spent collecting, as reported by the collectors
+         */
+        private final long millis;
+
+        /**
+         * Creates totals
+         *
+         * @param count Number of collections
+         * @param millis Milliseconds spent collecting
+         */
+        GcTotals(long count, long millis) {
+            this.count = count;
+            this.millis = millis;
+        }
+
+        /**
+         * Reads the totals of the collectors of this JVM
+         *
+         * @return Returns the totals
+         */
+        static GcTotals read() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean collector
+                    : ManagementFactory.getGarbageCollectorMXBeans()) {
+                // A collector reports -1 when it does not know
+                count += Math.max(0, collector.getCollectionCount());
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            return new GcTotals(count, millis);
+        }
+    }
+
+    /**
+     * The operations of a register the clients run. Searches return
+     * iterators, which may only be consumed by the client.
+     */
+    private interface Target {
+
+        /**
+         * Adds the initial catalog
+         *
+         * @param catalog The magazines to add
+         */
+        void addAll(List<Magazine> catalog);
+
+        /**
+         * Adds a magazine
+         *
+         * @param magazine The magazine to add
+         */
+        void add(Magazine magazine);
+
+        /**
+         * Deletes a magazine
+         *
+         * @param magazine The magazine to delete
+         * @return Returns true if deleted else false
+         */
+        boolean delete(Magazine magazine);
+
+        /**
+         * Searches the titles
+         *
+         * @param text The text to search for
+         * @return Returns the results
+         */
+        Iterator<Magazine> searchTitles(String text);
+
+        /**
+         * Searches the publishers
+         *
+         * @param publisher The publisher to search for
+         * @return Returns the results
+         */
+        Iterator<Magazine> searchPublisher(String publisher);
+
+        /**
+         * Runs a compound query
+         *
+         * @param query The query
+         * @return Returns the results
+         */
+        Iterator<Magazine> query(MagazineQuery query);
+
+        /**
+         * Returns the number of magazines
+         *
+         * @return Returns the size of the catalog
+         */
+        int size();
+    }
+
+    /**
+     * Runs the operations on a {@link ConcurrentMagazineRegister}
+     */
+    private static class ConcurrentTarget implements Target {
+
+        /**
+         * The register
+         */
+        private final ConcurrentMagazineRegister register;
+
+        /**
+         * Creates a target
+         *
+         * @param register The register
+         */
+        ConcurrentTarget(ConcurrentMagazineRegister register) {
+            this.register = register;
+        }
+
+        @Override
+        public void addAll(List<Magazine> catalog) {
+            this.register.addAll(catalog);
+        }
+
+        @Override
+        public void add(Magazine magazine) {
+            this.register.addMagazine(magazine);
+        }
+
+        @Override
+        public boolean delete(Magazine magazine) {
+            return this.register.deleteMagazine(magazine);
+        }
+
+        @Override
+        public Iterator<Magazine> searchTitles(String text) {
+            return this.register.searchMagazinesTitles(text);
+        }
+
+        @Override
+        public Iterator<Magazine> searchPublisher(String publisher) {
+            return this.register.searchMagazinesByPublisher(publisher);
+        }
+
+        @Override
+        public Iterator<Magazine> query(MagazineQuery query) {
+            return this.register.query(query);
+        }
+
+        @Override
+        public int size() {
+            return this.register.size();
+        }
+    }
+
+    /**
+     * Runs the operations on a {@link MagazineRegister} behind one lock.
+     * The results of a search are collected under the lock, as the
+     * iterators of the register read it lazily.
+     */
+    private static class SynchronizedTarget implements Target {
+
+        /**
+         * The register, guarded by itself
+         */
+        private final MagazineRegister register;
+
+        /**
+         * Creates a target
+         *
+         * @param register The register
+         */
+        SynchronizedTarget(MagazineRegister register) {
+            this.register = register;
+        }
+
+        @Override
+        public void addAll(List<Magazine> catalog) {
+            synchronized (this.register) {
+                this.register.addAll(catalog);
+            }
+        }
+
+        @Override
+        public void add(Magazine magazine) {
+            synchronized (this.register) {
+                this.register.addMagazine(magazine);
+            }
+        }
+
+        @Override
+        public boolean delete(Magazine magazine) {
+            synchronized (this.register) {
+                return this.register.deleteMagazine(magazine);
+            }
+        }
+
+        @Override
+        public Iterator<Magazine> searchTitles(String text) {
+            synchronized (this.register) {
+                return firstScreen(this.register.searchMagazinesTitles(text));
+            }
+        }
+
+        @Override
+        public Iterator<Magazine> searchPublisher(String publisher) {
+            synchronized (this.register) {
+                return firstScreen(this.register.searchMagazinesByPublisher(
+                        publisher));
+            }
+        }
+
+        @Override
+        public Iterator<Magazine> query(MagazineQuery query) {
+            synchronized (this.register) {
+                return firstScreen(this.register.query(query));
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (this.register) {
+                return this.register.size();
+            }
+        }
+
+        /**
+         * Collects one screen of results
+         *
+         * @param results The results
+         * @return Returns an iterator of the collected results
+         */
+        private static Iterator<Magazine> firstScreen(Iterator<Magazine> results) {
+            List<Magazine> screen = new ArrayList<>(RESULTS_PER_SEARCH);
+            while (screen.size() < RESULTS_PER_SEARCH && results.hasNext()) {
+                screen.add(results.next());
+            }
+            return screen.iterator();
+        }
+    }
+
+}
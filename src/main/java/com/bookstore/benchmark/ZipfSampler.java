@@ -0,0 +1,145 @@
+package com.bookstore.benchmark;
+
+import java.util.Random;
+
+/**
+ * Draws ranks from a Zipf distribution, where rank k is drawn with a
+ * probability proportional to 1 / k^exponent, so a few low ranks are
+ * drawn most of the time.
+ * <p>
+ * Uses rejection-inversion sampling (Hörmann and Derflinger, 1996),
+ * which needs no table of the ranks. A draw costs a few logarithms
+ * whatever the number of ranks, so the number can grow between draws,
+ * as the catalog of a long simulation does.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class ZipfSampler {
+
+    /**
+     * The exponent of the distribution
+     */
+    private final double exponent;
+
+    /**
+     * Integral of the hat function from 1.5, less one
+     */
+    private final double hIntegralOne;
+
+    /**
+     * Ranks drawn within this distance of the sampled point are
+     * accepted without testing
+     */
+    private final double acceptanceWidth;
+
+    /**
+     * Creates a sampler
+     *
+     * @param exponent The exponent of the distribution, 1 for the
+     *                 classic Zipf law
+     * @throws IllegalArgumentException If exponent is not above 0
+     */
+    public ZipfSampler(double exponent) {
+        if (!(exponent > 0)) {
+            throw new IllegalArgumentException("Exponent must be above 0.");
+        }
+        this.exponent = exponent;
+        this.hIntegralOne = this.hIntegral(1.5) - 1;
+        this.acceptanceWidth = 2 - this.hIntegralInverse(
+                this.hIntegral(2.5) - this.h(2));
+    }
+
+    /**
+     * Draws a rank
+     *
+     * @param random The random generator to draw from
+     * @param rankCount The number of ranks
+     * @return Returns a rank from 0, the most likely, to rankCount - 1
+     * @throws IllegalArgumentException If rankCount is not positive
+     */
+    public int sample(Random random, int rankCount) {
+        if (rankCount < 1) {
+            throw new IllegalArgumentException("Rank count must be at least 1.");
+        }
+        double hIntegralLast = this.hIntegral(rankCount + 0.5);
+        while (true) {
+            double u = hIntegralLast + random.nextDouble()
+                    * (this.hIntegralOne - hIntegralLast);
+            double x = this.hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > rankCount) {
+                k = rankCount;
+            }
+            if (k - x <= this.acceptanceWidth
+                    || u >= this.hIntegral(k + 0.5) - this.h(k)) {
+                return k - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the hat function, 1 / x^exponent
+     *
+     * @param x The point
+     * @return Returns the value
+     */
+    private double h(double x) {
+        return Math.exp(-this.exponent * Math.log(x));
+    }
+
+    /**
+     * Returns the integral of the hat function
+     *
+     * @param x The point
+     * @return Returns the value
+     */
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - this.exponent) * logX) * logX;
+    }
+
+    /**
+     * Returns the inverse of {@link #hIntegral(double)}
+     *
+     * @param x The point
+     * @return Returns the value
+     */
+    private double hIntegralInverse(double x) {
+        double t = x * (1 - this.exponent);
+        if (t < -1) {
+            // Rounding can take t just past the domain
+            t = -1;
+        }
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    /**
+     * Returns log(1 + x) / x, also for x near 0
+     *
+     * @param x The point
+     * @return Returns the value
+     */
+    private static double log1pOverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * Returns (e^x - 1) / x, also for x near 0
+     *
+     * @param x The point
+     * @return Returns the value
+     */
+    private static double expm1OverX(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.bookstore.cache;
+
+import com.bookstore.index.IntList;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of search results, see
+ * {@link com.bookstore.MagazineRegister#setQueryCache(QueryCache)}.
+ * A result is the record ids of every magazine found, kept by search
+ * type and normalized query.
+ * <p>
+ * The cache is weighed in record ids. When a new result does not fit,
+ * the least recently used results are evicted. A result heavier than
+ * a quarter of the cache is not cached, so one broad search can not
+ * evict all the others.
+ * <p>
+ * Results are only valid for the register version they were found in.
+ * The register passes its modification count with every lookup, and
+ * when it differs from the version of the cached results, all results
+ * are dropped. A cache must only serve one register.
+ * <p>
+ * All methods are synchronized, as read-only registers are searched
+ * by many threads at once.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class QueryCache implements QueryCacheMXBean {
+
+    /**
+     * The kinds of searches cached
+     */
+    public enum SearchType {
+
+        /**
+         * Search by title
+         */
+        TITLE,
+
+        /**
+         * Search by publisher
+         */
+        PUBLISHER
+    }
+
+    /**
+     * Share of the max weight a single result can have
+     */
+    private static final int MAX_ENTRY_SHARE = 4;
+
+    /**
+     * The max number of record ids held
+     */
+    private final long maxWeight;
+
+    /**
+     * The cached results by key, least recently used first
+     */
+    private final LinkedHashMap<String, IntList> results;
+
+    /**
+     * The register version the results were found in
+     */
+    private long version;
+
+    /**
+     * Number of record ids held by the results
+     */
+    private long weight;
+
+    /**
+     * Number of searches answered from the cache
+     */
+    private long hitCount;
+
+    /**
+     * Number of searches not found in the cache
+     */
+    private long missCount;
+
+    /**
+     * Number of results evicted to make room
+     */
+    private long evictionCount;
+
+    /**
+     * Number of times the results were dropped for a new version
+     */
+    private long invalidationCount;
+
+    /**
+     * Creates an empty cache
+     *
+     * @param maxWeight The max number of record ids to hold
+     * @throws IllegalArgumentException If maxWeight is below 1
+     */
+    public QueryCache(long maxWeight) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Max weight must be at least 1.");
+        }
+        this.maxWeight = maxWeight;
+        this.results = new LinkedHashMap<>(16, 0.75f, true);
+        this.version = 0;
+        this.weight = 0;
+    }
+
+    /**
+     * Returns the cached result of a search, and counts a hit or miss
+     *
+     * @param type The type of search
+     * @param query The normalized query
+     * @param accentFolded True if the search ignores accents
+     * @param version The current version of the register
+     * @return Returns the record ids of the found magazines, which must
+     * not be changed, or null if not cached
+     */
+    public synchronized IntList get(SearchType type, String query,
+                                    boolean accentFolded, long version) {
+        this.invalidateIfChanged(version);
+        IntList result = this.results.get(key(type, query, accentFolded));
+        if (result == null) {
+            this.missCount++;
+        } else {
+            this.hitCount++;
+        }
+        return result;
+    }
+
+    /**
+     * Caches the result of a search, evicting the least recently used
+     * results if needed. Results too heavy to cache are ignored.
+     *
+     * @param type The type of search
+     * @param query The normalized query
+     * @param accentFolded True if the search ignores accents
+     * @param version The version of the register the result was found in
+     * @param recordIds The record ids of the found magazines, which must
+     *                  not be changed after
+     */
+    public synchronized void put(SearchType type, String query,
+                                 boolean accentFolded, long version,
+                                 IntList recordIds) {
+        this.invalidateIfChanged(version);
+        int resultWeight = weightOf(recordIds);
+        if (resultWeight > this.getMaxEntryWeight()) {
+            return;
+        }
+        IntList replaced = this.results.put(key(type, query, accentFolded),
+                recordIds);
+        if (replaced != null) {
+            this.weight -= weightOf(replaced);
+        }
+        this.weight += resultWeight;
+
+        Iterator<Map.Entry<String, IntList>> leastRecent =
+                this.results.entrySet().iterator();
+        while (this.weight > this.maxWeight) {
+            this.weight -= weightOf(leastRecent.next().getValue());
+            leastRecent.remove();
+            this.evictionCount++;
+        }
+    }
+
+    /**
+     * Removes all cached results, keeping the statistics
+     */
+    public synchronized void clear() {
+        this.results.clear();
+        this.weight = 0;
+    }
+
+    /**
+     * Returns the max number of record ids a cached result can have.
+     * Searches can stop collecting a result past it.
+     *
+     * @return Returns the max weight of a result
+     */
+    public long getMaxEntryWeight() {
+        return Math.max(1, this.maxWeight / MAX_ENTRY_SHARE);
+    }
+
+    @Override
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    @Override
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long lookups = this.hitCount + this.missCount;
+        return lookups == 0 ? 0 : (double) this.hitCount / lookups;
+    }
+
+    @Override
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    @Override
+    public synchronized long getInvalidationCount() {
+        return this.invalidationCount;
+    }
+
+    @Override
+    public synchronized int getEntryCount() {
+        return this.results.size();
+    }
+
+    @Override
+    public synchronized long getWeight() {
+        return this.weight;
+    }
+
+    @Override
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.results.clear();
+        this.weight = 0;
+        this.hitCount = 0;
+        this.missCount = 0;
+        this.evictionCount = 0;
+        this.invalidationCount = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryCache[entries=%d, weight=%d/%d, hits=%d, "
+                        + "misses=%d, evictions=%d, invalidations=%d]",
+                this.results.size(), this.weight, this.maxWeight,
+                this.hitCount, this.missCount, this.evictionCount,
+                this.invalidationCount);
+    }
+
+    /**
+     * Drops all results if the register version has changed
+     *
+     * @param currentVersion The current version of the register
+     */
+    private void invalidateIfChanged(long currentVersion) {
+        if (currentVersion != this.version) {
+            if (!this.results.isEmpty()) {
+                this.results.clear();
+                this.weight = 0;
+                this.invalidationCount++;
+            }
+            this.version = currentVersion;
+        }
+    }
+
+    /**
+     * Returns the weight of a result, counting an empty result as one
+     *
+     * @param recordIds The record ids of the result
+     * @return Returns the weight
+     */
+    private static int weightOf(IntList recordIds) {
+        return Math.max(1, recordIds.size());
+    }
+
+    /**
+     * Returns the key of a search
+     *
+     * @param type The type of search
+     * @param query The normalized query
+     * @param accentFolded True if the search ignores accents
+     * @return Returns the key
+     */
+    private static String key(SearchType type, String query,
+                              boolean accentFolded) {
+        return (char) ('0' + type.ordinal()) + (accentFolded ? "+" : "-")
+                + query;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.bookstore.cache;
+
+/**
+ * Management interface of a {@link QueryCache}, giving its
+ * hit, miss and eviction statistics
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface QueryCacheMXBean {
+
+    /**
+     * Returns the number of searches answered from the cache
+     *
+     * @return Returns the number of hits
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of searches not found in the cache
+     *
+     * @return Returns the number of misses
+     */
+    long getMissCount();
+
+    /**
+     * Returns the share of the searches answered from the cache
+     *
+     * @return Returns the hit ratio between 0 and 1, 0 if nothing
+     * was searched
+     */
+    double getHitRatio();
+
+    /**
+     * Returns the number of results evicted to make room for others
+     *
+     * @return Returns the number of evictions
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of times the cache was emptied because
+     * the register changed
+     *
+     * @return Returns the number of invalidations
+     */
+    long getInvalidationCount();
+
+    /**
+     * Returns the number of cached results
+     *
+     * @return Returns the number of entries
+     */
+    int getEntryCount();
+
+    /**
+     * Returns the number of record ids held by the cached results
+     *
+     * @return Returns the weight of the cache
+     */
+    long getWeight();
+
+    /**
+     * Returns the max number of record ids the cache holds
+     *
+     * @return Returns the max weight of the cache
+     */
+    long getMaxWeight();
+
+    /**
+     * Removes all cached results and statistics
+     */
+    void reset();
+
+}
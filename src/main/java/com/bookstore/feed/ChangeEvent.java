@@ -0,0 +1,108 @@
+package com.bookstore.feed;
+
+import com.bookstore.readables.Magazine;
+
+/**
+ * A magazine added to or deleted from a register, as published on
+ * a {@link ChangeFeed}.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class ChangeEvent {
+
+    /**
+     * The kind of change
+     */
+    public enum Type {
+
+        /**
+         * The magazine was added
+         */
+        ADDED,
+
+        /**
+         * The magazine was deleted
+         */
+        DELETED
+    }
+
+    /**
+     * The number of the change in the feed, starting at 1
+     */
+    private final long sequence;
+
+    /**
+     * The kind of change
+     */
+    private final Type type;
+
+    /**
+     * The record id of the magazine in the register
+     */
+    private final int recordId;
+
+    /**
+     * The magazine added or deleted
+     */
+    private final Magazine magazine;
+
+    /**
+     * Creates a change event
+     *
+     * @param sequence The number of the change in the feed
+     * @param type The kind of change
+     * @param recordId The record id of the magazine in the register
+     * @param magazine The magazine added or deleted
+     */
+    ChangeEvent(long sequence, Type type, int recordId, Magazine magazine) {
+        this.sequence = sequence;
+        this.type = type;
+        this.recordId = recordId;
+        this.magazine = magazine;
+    }
+
+    /**
+     * Returns the number of the change in the feed. Changes are numbered
+     * 1, 2, 3 and so on in the order they were made.
+     *
+     * @return Returns the sequence number
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Returns the kind of change
+     *
+     * @return Returns the type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the record id of the magazine in the register
+     *
+     * @return Returns the record id
+     */
+    public int getRecordId() {
+        return this.recordId;
+    }
+
+    /**
+     * Returns the magazine added or deleted
+     *
+     * @return Returns the magazine
+     */
+    public Magazine getMagazine() {
+        return this.magazine;
+    }
+
+    @Override
+    public String toString() {
+        return this.sequence + " " + this.type + " " + this.recordId + " "
+                + this.magazine;
+    }
+
+}
@@ -0,0 +1,349 @@
+package com.bookstore.feed;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An ordered stream of the magazines added to and deleted from a
+ * register, see {@link com.bookstore.MagazineRegister#setChangeFeed(ChangeFeed)}.
+ * Every change is numbered, and delivered in batches to the listeners
+ * subscribed to the feed.
+ * <p>
+ * The changes are kept in a ring buffer of fixed capacity. Publishing a
+ * change writes it to the next slot and never waits for the listeners,
+ * so a slow listener can not slow down the register. Each subscription
+ * reads the buffer on its own thread, as many changes at a time as are
+ * waiting, up to its batch size. A subscription more than a buffer
+ * behind has its oldest changes overwritten; it is told the numbers of
+ * the changes it missed and carries on from the oldest change held.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class ChangeFeed implements Closeable {
+
+    /**
+     * Number of changes held if no capacity is given
+     */
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    /**
+     * The changes, the change numbered n in slot n &amp; mask
+     */
+    private final AtomicReferenceArray<ChangeEvent> buffer;
+
+    /**
+     * Mask of the slot of a sequence number, the capacity less one
+     */
+    private final int mask;
+
+    /**
+     * Sequence number of the last published change, 0 if none
+     */
+    private volatile long lastSequence;
+
+    /**
+     * The open subscriptions
+     */
+    private final CopyOnWriteArrayList<Subscription> subscriptions;
+
+    /**
+     * Numbers the delivery threads
+     */
+    private final AtomicInteger subscriptionCount;
+
+    /**
+     * Creates a feed holding {@value #DEFAULT_CAPACITY} changes
+     */
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a feed holding the given number of changes, rounded up
+     * to a power of two
+     *
+     * @param capacity Number of changes held for slow listeners
+     * @throws IllegalArgumentException If capacity is not positive or
+     *                                  above 2^30
+     */
+    public ChangeFeed(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+        }
+        int slots = Integer.highestOneBit(capacity);
+        if (slots < capacity) {
+            slots <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+        this.lastSequence = 0;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.subscriptionCount = new AtomicInteger();
+    }
+
+    /**
+     * Returns the number of changes held for slow listeners
+     *
+     * @return Returns the capacity
+     */
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Returns the sequence number of the last published change
+     *
+     * @return Returns the sequence number, 0 if nothing is published
+     */
+    public long getLastSequence() {
+        return this.lastSequence;
+    }
+
+    /**
+     * Publishes a change, overwriting the oldest change held if the
+     * buffer is full. Never waits for the listeners.
+     *
+     * @param type The kind of change
+     * @param recordId The record id of the magazine in the register
+     * @param magazine The magazine added or deleted
+     * @return Returns the sequence number of the change
+     * @throws IllegalArgumentException If type or magazine is null
+     */
+    public synchronized long publish(ChangeEvent.Type type, int recordId,
+                                     Magazine magazine) {
+        if (type == null || magazine == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        long sequence = this.lastSequence + 1;
+        this.buffer.set((int) sequence & this.mask,
+                new ChangeEvent(sequence, type, recordId, magazine));
+        this.lastSequence = sequence;
+        for (Subscription subscription : this.subscriptions) {
+            if (subscription.waiting) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Subscribes a listener to the changes published from now on. The
+     * changes are delivered on a new daemon thread, in batches of the
+     * changes waiting when the listener is ready, at most maxBatchSize.
+     *
+     * @param listener The listener to deliver the changes to
+     * @param maxBatchSize Max number of changes in one call to the listener
+     * @return Returns the subscription, to close when done
+     * @throws IllegalArgumentException If listener is null or
+     *                                  maxBatchSize is below 1
+     */
+    public Subscription subscribe(ChangeListener listener, int maxBatchSize) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        Subscription subscription = new Subscription(listener, maxBatchSize,
+                this.lastSequence + 1,
+                "change-feed-" + this.subscriptionCount.incrementAndGet());
+        this.subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Closes all subscriptions. Changes can still be published.
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : this.subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * A listener subscribed to the feed, with the thread delivering
+     * the changes to it
+     */
+    public class Subscription implements Closeable {
+
+        /**
+         * The listener to deliver the changes to
+         */
+        private final ChangeListener listener;
+
+        /**
+         * Max number of changes in one call to the listener
+         */
+        private final int maxBatchSize;
+
+        /**
+         * The thread delivering the changes
+         */
+        private final Thread thread;
+
+        /**
+         * Sequence number of the next change to deliver
+         */
+        private volatile long nextSequence;
+
+        /**
+         * Number of changes missed
+         */
+        private volatile long missedCount;
+
+        /**
+         * True while the delivery thread waits for changes
+         */
+        private volatile boolean waiting;
+
+        /**
+         * True once closed
+         */
+        private volatile boolean closed;
+
+        /**
+         * The exception the listener threw, null if none
+         */
+        private volatile RuntimeException failure;
+
+        /**
+         * Creates a subscription, the thread is not started
+         *
+         * @param listener The listener to deliver the changes to
+         * @param maxBatchSize Max number of changes in one call to the listener
+         * @param nextSequence Sequence number of the first change to deliver
+         * @param threadName The name of the delivery thread
+         */
+        Subscription(ChangeListener listener, int maxBatchSize,
+                     long nextSequence, String threadName) {
+            this.listener = listener;
+            this.maxBatchSize = maxBatchSize;
+            this.nextSequence = nextSequence;
+            this.missedCount = 0;
+            this.waiting = false;
+            this.closed = false;
+            this.failure = null;
+            this.thread = new Thread(this::deliver, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Returns the sequence number of the next change to deliver.
+         * All changes before it have been delivered or missed.
+         *
+         * @return Returns the sequence number
+         */
+        public long getNextSequence() {
+            return this.nextSequence;
+        }
+
+        /**
+         * Returns the number of changes overwritten before they
+         * were delivered
+         *
+         * @return Returns the number of missed changes
+         */
+        public long getMissedCount() {
+            return this.missedCount;
+        }
+
+        /**
+         * Returns the exception the listener threw, which closed
+         * the subscription
+         *
+         * @return Returns the exception, or null if none was thrown
+         */
+        public RuntimeException getFailure() {
+            return this.failure;
+        }
+
+        /**
+         * Returns true if the subscription is closed
+         *
+         * @return Returns true if closed else false
+         */
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+        /**
+         * Stops delivering changes. A batch being delivered is finished.
+         */
+        @Override
+        public void close() {
+            this.closed = true;
+            subscriptions.remove(this);
+            LockSupport.unpark(this.thread);
+        }
+
+        /**
+         * Delivers the changes until closed
+         */
+        private void deliver() {
+            List<ChangeEvent> batch = new ArrayList<>(
+                    Math.min(this.maxBatchSize, 1024));
+            while (!this.closed) {
+                long next = this.nextSequence;
+                long last = lastSequence;
+                if (next > last) {
+                    this.await(next);
+                    continue;
+                }
+                long oldest = last - mask;
+                try {
+                    if (next < oldest) {
+                        this.missedCount += oldest - next;
+                        this.nextSequence = oldest;
+                        this.listener.onChangesMissed(next, oldest - 1);
+                        continue;
+                    }
+                    long end = Math.min(last, next + this.maxBatchSize - 1);
+                    for (long sequence = next; sequence <= end; sequence++) {
+                        ChangeEvent change = buffer.get((int) sequence & mask);
+                        if (change.getSequence() != sequence) {
+                            // Overwritten while reading, reported as
+                            // missed in the next round
+                            break;
+                        }
+                        batch.add(change);
+                    }
+                    if (!batch.isEmpty()) {
+                        this.nextSequence = next + batch.size();
+                        this.listener.onChanges(new ArrayList<>(batch));
+                        batch.clear();
+                    }
+                } catch (RuntimeException e) {
+                    this.failure = e;
+                    this.close();
+                }
+            }
+        }
+
+        /**
+         * Waits until a change after the given one is published, or the
+         * subscription is closed
+         *
+         * @param next Sequence number of the next change to deliver
+         */
+        private void await(long next) {
+            this.waiting = true;
+            // Checked again after announcing the wait, so a change
+            // published meanwhile is not slept through
+            while (!this.closed && next > lastSequence) {
+                LockSupport.park(this);
+            }
+            this.waiting = false;
+        }
+    }
+
+}
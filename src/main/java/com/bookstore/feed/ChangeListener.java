@@ -0,0 +1,35 @@
+package com.bookstore.feed;
+
+import java.util.List;
+
+/**
+ * Receives the changes published on a {@link ChangeFeed}, see
+ * {@link ChangeFeed#subscribe(ChangeListener, int)}.
+ * <p>
+ * The methods are called on the delivery thread of the subscription,
+ * one call at a time. A listener that is slower than the writers falls
+ * behind; once the feed has overwritten changes it has not received,
+ * it is told which ones it missed and continues with the oldest change
+ * still held. It should then read the register again to catch up.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface ChangeListener {
+
+    /**
+     * Receives the next changes, in the order they were made
+     *
+     * @param changes The changes, numbered without gaps
+     */
+    void onChanges(List<ChangeEvent> changes);
+
+    /**
+     * Told that changes were overwritten before they were received
+     *
+     * @param firstSequence The sequence number of the first missed change
+     * @param lastSequence The sequence number of the last missed change
+     */
+    void onChangesMissed(long firstSequence, long lastSequence);
+
+}
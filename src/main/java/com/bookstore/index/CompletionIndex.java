@@ -0,0 +1,185 @@
+package com.bookstore.index;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted dictionary of the distinct titles or publishers in a register,
+ * for completing what a user has typed so far.
+ * <p>
+ * The dictionary is keyed on the case and accent folded text, so all
+ * texts starting with a prefix are neighbours. Completing a prefix finds
+ * the first of them with one lookup and reads the following ones, so
+ * it costs the same whether one or a million texts start with it.
+ * Completions are returned in alphabetical order, which keeps the list
+ * stable as more is typed. Texts differing only in case or accents
+ * are completed once, as the first one added.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class CompletionIndex implements RegisterIndex {
+
+    /**
+     * Returns the text of a magazine to complete
+     */
+    private final Function<Magazine, String> text;
+
+    /**
+     * Returns the case and accent folded text of a magazine
+     */
+    private final Function<Magazine, String> key;
+
+    /**
+     * The completions by case and accent folded text
+     */
+    private TreeMap<String, Completion> completions;
+
+    /**
+     * Creates an empty index
+     *
+     * @param text Returns the text of a magazine to complete
+     * @param key Returns the case and accent folded text of a magazine
+     */
+    private CompletionIndex(Function<Magazine, String> text,
+                            Function<Magazine, String> key) {
+        this.text = text;
+        this.key = key;
+        this.completions = new TreeMap<>();
+    }
+
+    /**
+     * Creates a copy of the given index
+     *
+     * @param other The index to copy
+     */
+    public CompletionIndex(CompletionIndex other) {
+        this.text = other.text;
+        this.key = other.key;
+        this.completions = new TreeMap<>();
+        for (Map.Entry<String, Completion> entry : other.completions.entrySet()) {
+            Completion completion = entry.getValue();
+            this.completions.put(entry.getKey(), new Completion(
+                    completion.text, new IntList(completion.recordIds)));
+        }
+    }
+
+    /**
+     * Creates an empty index of titles
+     *
+     * @return Returns the index
+     */
+    public static CompletionIndex forTitles() {
+        return new CompletionIndex(Magazine::getTitle,
+                Magazine::getAccentFoldedTitle);
+    }
+
+    /**
+     * Creates an empty index of publishers
+     *
+     * @return Returns the index
+     */
+    public static CompletionIndex forPublishers() {
+        return new CompletionIndex(Magazine::getPublisher,
+                Magazine::getAccentFoldedPublisher);
+    }
+
+    @Override
+    public void add(int recordId, Magazine magazine) {
+        String folded = this.key.apply(magazine);
+        Completion completion = this.completions.get(folded);
+        if (completion == null) {
+            completion = new Completion(this.text.apply(magazine).trim(),
+                    new IntList(1));
+            this.completions.put(folded, completion);
+        }
+        completion.recordIds.add(recordId);
+    }
+
+    @Override
+    public void remove(int recordId, Magazine magazine) {
+        String folded = this.key.apply(magazine);
+        Completion completion = this.completions.get(folded);
+        if (completion != null) {
+            completion.recordIds.removeSorted(recordId);
+            if (completion.recordIds.isEmpty()) {
+                this.completions.remove(folded);
+            }
+        }
+    }
+
+    @Override
+    public void removeIf(IntPredicate recordIds) {
+        Iterator<Completion> all = this.completions.values().iterator();
+        while (all.hasNext()) {
+            IntList posting = all.next().recordIds;
+            if (posting.removeIf(recordIds) > 0 && posting.isEmpty()) {
+                all.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct texts in the index
+     *
+     * @return Returns the number of texts
+     */
+    public int getTextCount() {
+        return this.completions.size();
+    }
+
+    /**
+     * Returns the first texts in alphabetical order starting with
+     * the prefix
+     *
+     * @param foldedPrefix The case and accent folded prefix
+     * @param limit Max number of texts to return
+     * @return Returns the texts as they were added
+     */
+    public List<String> complete(String foldedPrefix, int limit) {
+        ArrayList<String> found = new ArrayList<>(Math.min(limit, 16));
+        for (Map.Entry<String, Completion> entry
+                : this.completions.tailMap(foldedPrefix, true).entrySet()) {
+            if (found.size() == limit || !entry.getKey().startsWith(foldedPrefix)) {
+                break;
+            }
+            found.add(entry.getValue().text);
+        }
+        return found;
+    }
+
+    /**
+     * A text to complete with the record ids of its magazines
+     */
+    private static class Completion {
+
+        /**
+         * The text as it was first added
+         */
+        private final String text;
+
+        /**
+         * Record ids of the magazines with the text, sorted ascending
+         */
+        private final IntList recordIds;
+
+        /**
+         * Creates a completion
+         *
+         * @param text The text as it was first added
+         * @param recordIds Record ids of the magazines with the text
+         */
+        Completion(String text, IntList recordIds) {
+            this.text = text;
+            this.recordIds = recordIds;
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.bookstore.index;
+
+import java.util.Arrays;
+
+/**
+ * Counts by position in a Fenwick tree, also called a binary indexed
+ * tree, so the sum of the first counts and the position where the
+ * sum passes a rank are found in time logarithmic in the number of
+ * positions, as is changing a count.
+ * <p>
+ * With a count of 1 for each present item and 0 for each removed one,
+ * the tree finds the position of the n-th present item without counting
+ * the items before it.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class FenwickTree {
+
+    /**
+     * Number of positions made room for when none is given
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The tree, from index 1. Index i holds the sum of the counts of the
+     * lowestOneBit(i) positions ending at position i - 1.
+     */
+    private int[] tree;
+
+    /**
+     * Number of positions
+     */
+    private int size;
+
+    /**
+     * Creates a tree of the given number of positions, each counting 1
+     *
+     * @param size The number of positions
+     * @throws IllegalArgumentException If size is negative
+     */
+    public FenwickTree(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size can not be negative.");
+        }
+        this.tree = new int[Math.max(INITIAL_CAPACITY, size + 1)];
+        for (int i = 1; i <= size; i++) {
+            this.tree[i] = Integer.lowestOneBit(i);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Creates a copy of the given tree
+     *
+     * @param other The tree to copy
+     */
+    public FenwickTree(FenwickTree other) {
+        this.tree = Arrays.copyOf(other.tree, other.size + 1);
+        this.size = other.size;
+    }
+
+    /**
+     * Returns the number of positions
+     *
+     * @return Returns the number of positions
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a position after the last
+     *
+     * @param count The count of the new position
+     */
+    public void append(int count) {
+        int index = this.size + 1;
+        if (index == this.tree.length) {
+            this.tree = Arrays.copyOf(this.tree, this.tree.length * 2);
+        }
+        // The new node covers the positions before it in its range too
+        this.tree[index] = count + this.sum(index - 1)
+                - this.sum(index - Integer.lowestOneBit(index));
+        this.size = index;
+    }
+
+    /**
+     * Adds to the count of a position
+     *
+     * @param position The position
+     * @param delta The amount to add, negative to subtract
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    public void add(int position, int delta) {
+        this.checkPosition(position);
+        for (int i = position + 1; i <= this.size; i += Integer.lowestOneBit(i)) {
+            this.tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the counts of the first positions
+     *
+     * @param positions The number of positions to sum, from 0 to size
+     * @return Returns the sum
+     */
+    public int sum(int positions) {
+        int sum = 0;
+        for (int i = positions; i > 0; i -= Integer.lowestOneBit(i)) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the first position where the sum of the counts up to and
+     * including it passes the given rank. With counts of 0 and 1, the
+     * position of the item of the given rank. The counts must not be
+     * negative.
+     *
+     * @param rank The rank, from 0
+     * @return Returns the position, or the size if the sum of all
+     * counts does not pass the rank
+     */
+    public int find(int rank) {
+        int position = 0;
+        int remaining = rank + 1;
+        for (int step = Integer.highestOneBit(this.size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= this.size && this.tree[next] < remaining) {
+                position = next;
+                remaining -= this.tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Checks that the position is in the tree
+     *
+     * @param position The position to check
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    private void checkPosition(int position) {
+        if (position < 0 || position >= this.size) {
+            throw new IndexOutOfBoundsException("Position: " + position
+                    + ", size: " + this.size);
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.bookstore.index;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted dictionary of the distinct accent folded titles in a register,
+ * each with a posting list of the record ids of its magazines, for
+ * finding the titles within an edit distance of a query.
+ * <p>
+ * A search walks the dictionary in order as if it was a trie. Titles
+ * sharing a prefix share the rows of the edit distance table computed
+ * for it, and when no row value of a prefix is within the distance,
+ * every title starting with that prefix is skipped with one lookup.
+ * So only the titles close to the query are compared in full, instead
+ * of every title.
+ * <p>
+ * The distance is the optimal string alignment distance, counting an
+ * inserted, removed or changed character, or two neighbouring characters
+ * swapped, as one edit. Case and accents are ignored, as a fuzzy search
+ * is meant to forgive spelling.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class FuzzyTitleIndex implements RegisterIndex {
+
+    /**
+     * Largest edit distance a search can allow, larger distances
+     * match most short titles and visit most of the dictionary
+     */
+    public static final int MAX_DISTANCE = 3;
+
+    /**
+     * Posting lists of record ids, sorted ascending, by accent
+     * folded title
+     */
+    private TreeMap<String, IntList> postings;
+
+    /**
+     * Creates an empty index
+     */
+    public FuzzyTitleIndex() {
+        this.postings = new TreeMap<>();
+    }
+
+    /**
+     * Creates a copy of the given index
+     *
+     * @param other The index to copy
+     */
+    public FuzzyTitleIndex(FuzzyTitleIndex other) {
+        this.postings = new TreeMap<>();
+        for (Map.Entry<String, IntList> entry : other.postings.entrySet()) {
+            this.postings.put(entry.getKey(), new IntList(entry.getValue()));
+        }
+    }
+
+    @Override
+    public void add(int recordId, Magazine magazine) {
+        String title = magazine.getAccentFoldedTitle();
+        IntList posting = this.postings.get(title);
+        if (posting == null) {
+            // Most titles are distinct, so start with room for one id
+            posting = new IntList(1);
+            this.postings.put(title, posting);
+        }
+        posting.add(recordId);
+    }
+
+    @Override
+    public void remove(int recordId, Magazine magazine) {
+        String title = magazine.getAccentFoldedTitle();
+        IntList posting = this.postings.get(title);
+        if (posting != null) {
+            posting.removeSorted(recordId);
+            if (posting.isEmpty()) {
+                this.postings.remove(title);
+            }
+        }
+    }
+
+    @Override
+    public void removeIf(IntPredicate recordIds) {
+        Iterator<IntList> all = this.postings.values().iterator();
+        while (all.hasNext()) {
+            IntList posting = all.next();
+            if (posting.removeIf(recordIds) > 0 && posting.isEmpty()) {
+                all.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of distinct titles in the index
+     *
+     * @return Returns the number of titles
+     */
+    public int getTitleCount() {
+        return this.postings.size();
+    }
+
+    /**
+     * Finds the titles within the given edit distance of the query,
+     * and passes the record ids of their magazines with the distance
+     * to the consumer. Titles are found in sorted order, not by
+     * distance. The index must not be changed during the search.
+     *
+     * @param query The case and accent folded query
+     * @param maxDistance The largest edit distance to accept
+     * @param found Receives the record id and distance of each match
+     * @throws IllegalArgumentException If maxDistance is negative or
+     *                                  above {@link #MAX_DISTANCE}
+     */
+    public void search(String query, int maxDistance, MatchConsumer found) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and "
+                    + MAX_DISTANCE + ".");
+        }
+        int queryLength = query.length();
+
+        // rows[i] holds the distances between the first i characters of
+        // the current title and every prefix of the query. Rows are
+        // kept for the characters of computedPrefix, so the next title
+        // only computes the rows after the prefix it shares with it.
+        int[][] rows = new int[16][];
+        rows[0] = new int[queryLength + 1];
+        for (int j = 0; j <= queryLength; j++) {
+            rows[0][j] = j;
+        }
+        StringBuilder computedPrefix = new StringBuilder();
+
+        String title = this.postings.isEmpty() ? null : this.postings.firstKey();
+        while (title != null) {
+            int shared = 0;
+            int limit = Math.min(computedPrefix.length(), title.length());
+            while (shared < limit
+                    && computedPrefix.charAt(shared) == title.charAt(shared)) {
+                shared++;
+            }
+            computedPrefix.setLength(shared);
+
+            int pruneAt = -1;
+            for (int i = shared + 1; i <= title.length(); i++) {
+                if (i >= rows.length) {
+                    int[][] grown = new int[rows.length * 2][];
+                    System.arraycopy(rows, 0, grown, 0, rows.length);
+                    rows = grown;
+                }
+                if (rows[i] == null) {
+                    rows[i] = new int[queryLength + 1];
+                }
+                int rowMin = computeRow(rows, i, title, query);
+                computedPrefix.append(title.charAt(i - 1));
+                if (rowMin > maxDistance) {
+                    pruneAt = i;
+                    break;
+                }
+            }
+
+            if (pruneAt > 0) {
+                // No title starting with this prefix can be close enough
+                title = this.firstTitleAfterPrefix(title.substring(0, pruneAt));
+            } else {
+                int distance = rows[title.length()][queryLength];
+                if (distance <= maxDistance) {
+                    IntList posting = this.postings.get(title);
+                    for (int k = 0; k < posting.size(); k++) {
+                        found.accept(posting.get(k), distance);
+                    }
+                }
+                title = this.postings.higherKey(title);
+            }
+        }
+    }
+
+    /**
+     * Computes a row of the edit distance table
+     *
+     * @param rows The rows, the previous rows must be computed
+     * @param i The length of the title prefix of the row
+     * @param title The title
+     * @param query The query
+     * @return Returns the smallest value of the row
+     */
+    private static int computeRow(int[][] rows, int i, String title,
+                                  String query) {
+        int[] row = rows[i];
+        int[] previous = rows[i - 1];
+        char c = title.charAt(i - 1);
+        row[0] = i;
+        int rowMin = i;
+        for (int j = 1; j < row.length; j++) {
+            char q = query.charAt(j - 1);
+            int value = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1),
+                    previous[j - 1] + (c == q ? 0 : 1));
+            if (i > 1 && j > 1 && c == query.charAt(j - 2)
+                    && title.charAt(i - 2) == q) {
+                value = Math.min(value, rows[i - 2][j - 2] + 1);
+            }
+            row[j] = value;
+            rowMin = Math.min(rowMin, value);
+        }
+        return rowMin;
+    }
+
+    /**
+     * Returns the first title not starting with the given prefix
+     * that sorts after it
+     *
+     * @param prefix The prefix to skip
+     * @return Returns the title, or null if there is none
+     */
+    private String firstTitleAfterPrefix(String prefix) {
+        StringBuilder successor = new StringBuilder(prefix);
+        while (successor.length() > 0) {
+            int last = successor.length() - 1;
+            char c = successor.charAt(last);
+            if (c != Character.MAX_VALUE) {
+                successor.setCharAt(last, (char) (c + 1));
+                return this.postings.ceilingKey(successor.toString());
+            }
+            successor.setLength(last);
+        }
+        return null;
+    }
+
+    /**
+     * Receives the matches of a search
+     */
+    @FunctionalInterface
+    public interface MatchConsumer {
+
+        /**
+         * Receives a match
+         *
+         * @param recordId The record id of the matching magazine
+         * @param distance The edit distance of its title to the query
+         */
+        void accept(int recordId, int distance);
+    }
+
+}
@@ -0,0 +1,299 @@
+package com.bookstore.index;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A growable list of primitive ints. Used for posting lists and
+ * record id tables, where boxing every value in an
+ * {@link java.util.ArrayList} would waste memory.
+ * <p>
+ * The binary search and sorted removal methods expects the list
+ * to be sorted in ascending order.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class IntList {
+
+    /**
+     * Capacity of the list when no capacity is given
+     */
+    private static final int DEFAULT_CAPACITY = 4;
+
+    /**
+     * Holds the values, only the first {@link #size} are in use
+     */
+    private int[] values;
+
+    /**
+     * Number of values in the list
+     */
+    private int size;
+
+    /**
+     * Creates an empty list with default capacity
+     */
+    public IntList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with the given capacity
+     *
+     * @param capacity The initial capacity of the list
+     * @throws IllegalArgumentException If capacity is negative
+     */
+    public IntList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity can not be negative.");
+        }
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Creates a copy of the given list
+     *
+     * @param other The list to copy
+     */
+    public IntList(IntList other) {
+        this.values = Arrays.copyOf(other.values, other.size);
+        this.size = other.size;
+    }
+
+    /**
+     * Returns the number of values in the list
+     *
+     * @return Returns the number of values in the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns true if the list has no values
+     *
+     * @return Returns true if empty else false
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns the value at the given index
+     *
+     * @param index The index of the value
+     * @return Returns the value at the index
+     * @throws IndexOutOfBoundsException If index is out of range
+     */
+    public int get(int index) {
+        this.checkIndex(index);
+        return this.values[index];
+    }
+
+    /**
+     * Returns the last value of the list
+     *
+     * @return Returns the last value
+     * @throws IndexOutOfBoundsException If the list is empty
+     */
+    public int getLast() {
+        return this.get(this.size - 1);
+    }
+
+    /**
+     * Appends a value to the end of the list
+     *
+     * @param value The value to add
+     */
+    public void add(int value) {
+        if (this.size == this.values.length) {
+            this.grow(this.size + 1);
+        }
+        this.values[this.size] = value;
+        this.size++;
+    }
+
+    /**
+     * Replaces the value at the given index
+     *
+     * @param index The index of the value to replace
+     * @param value The new value
+     * @throws IndexOutOfBoundsException If index is out of range
+     */
+    public void set(int index, int value) {
+        this.checkIndex(index);
+        this.values[index] = value;
+    }
+
+    /**
+     * Removes the value at the given index, and shifts the
+     * following values one place to the left.
+     *
+     * @param index The index of the value to remove
+     * @return Returns the removed value
+     * @throws IndexOutOfBoundsException If index is out of range
+     */
+    public int removeAt(int index) {
+        this.checkIndex(index);
+        int value = this.values[index];
+        System.arraycopy(this.values, index + 1, this.values, index,
+                this.size - index - 1);
+        this.size--;
+        return value;
+    }
+
+    /**
+     * Removes a value from a sorted list.
+     *
+     * @param value The value to remove
+     * @return Returns true if the value was found and removed else false
+     */
+    public boolean removeSorted(int value) {
+        int index = this.binarySearch(value);
+        if (index < 0) {
+            return false;
+        }
+        this.removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes every value accepted by the filter in a single pass,
+     * keeping the order of the rest. A sorted list stays sorted.
+     *
+     * @param filter Returns true for the values to remove
+     * @return Returns the number of removed values
+     */
+    public int removeIf(IntPredicate filter) {
+        int kept = 0;
+        for (int i = 0; i < this.size; i++) {
+            int value = this.values[i];
+            if (!filter.test(value)) {
+                this.values[kept] = value;
+                kept++;
+            }
+        }
+        int removed = this.size - kept;
+        this.size = kept;
+        return removed;
+    }
+
+    /**
+     * Searches a sorted list for a value,
+     * see {@link Arrays#binarySearch(int[], int, int, int)}.
+     *
+     * @param value The value to search for
+     * @return Returns the index of the value if found, else
+     * <code>(-(insertion point) - 1)</code>
+     */
+    public int binarySearch(int value) {
+        return this.binarySearch(0, value);
+    }
+
+    /**
+     * Searches a sorted list for a value, starting at the given index.
+     * A value at the start index is found without searching.
+     *
+     * @param fromIndex The index to search from
+     * @param value The value to search for
+     * @return Returns the index of the value if found, else
+     * <code>(-(insertion point) - 1)</code>
+     */
+    public int binarySearch(int fromIndex, int value) {
+        if (fromIndex < this.size && this.values[fromIndex] == value) {
+            return fromIndex;
+        }
+        return Arrays.binarySearch(this.values, fromIndex, this.size, value);
+    }
+
+    /**
+     * Returns a cursor over the values of a sorted list. The list must
+     * not be changed while the cursor is in use.
+     *
+     * @return Returns a cursor over the values
+     */
+    public PostingCursor cursor() {
+        return new PostingCursor() {
+            private int index = 0;
+
+            @Override
+            public int advance(int target) {
+                if (this.index < IntList.this.size
+                        && IntList.this.values[this.index] < target) {
+                    int found = IntList.this.binarySearch(this.index, target);
+                    this.index = found >= 0 ? found : -found - 1;
+                }
+                return this.index < IntList.this.size
+                        ? IntList.this.values[this.index] : NO_MORE_IDS;
+            }
+        };
+    }
+
+    /**
+     * Returns true if a sorted list contains the value
+     *
+     * @param value The value to look for
+     * @return Returns true if found else false
+     */
+    public boolean containsSorted(int value) {
+        return this.binarySearch(value) >= 0;
+    }
+
+    /**
+     * Makes sure the list can hold the given number of values
+     * without growing.
+     *
+     * @param capacity The number of values to make room for
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > this.values.length) {
+            this.grow(capacity);
+        }
+    }
+
+    /**
+     * Removes all values from the list
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Returns a copy of the values in the list as an array
+     *
+     * @return Returns an array of the values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    /**
+     * Grows the backing array by half its size, or to the minimum
+     * capacity if that is larger.
+     *
+     * @param minCapacity The minimum capacity needed
+     */
+    private void grow(int minCapacity) {
+        int newCapacity = this.values.length + (this.values.length >> 1);
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        this.values = Arrays.copyOf(this.values, newCapacity);
+    }
+
+    /**
+     * Checks that the index is inside the list
+     *
+     * @param index The index to check
+     * @throws IndexOutOfBoundsException If index is out of range
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + this.size);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.bookstore.index;
+
+import java.util.List;
+
+/**
+ * Cursor over the ids found in all of a group of cursors.
+ * The first cursor leads, and the others are advanced to its id,
+ * so the cursor with fewest ids should be placed first.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class IntersectionCursor implements PostingCursor {
+
+    /**
+     * The cursors to intersect, the first one leads
+     */
+    private final PostingCursor[] cursors;
+
+    /**
+     * Creates a cursor over the intersection of the given cursors
+     *
+     * @param cursors The cursors to intersect, the shortest first
+     * @throws IllegalArgumentException If no cursors are given
+     */
+    public IntersectionCursor(List<PostingCursor> cursors) {
+        if (cursors.isEmpty()) {
+            throw new IllegalArgumentException("No cursors to intersect.");
+        }
+        this.cursors = cursors.toArray(new PostingCursor[0]);
+    }
+
+    @Override
+    public int advance(int target) {
+        int candidate = this.cursors[0].advance(target);
+        int i = 1;
+        while (candidate != NO_MORE_IDS && i < this.cursors.length) {
+            int id = this.cursors[i].advance(candidate);
+            if (id == candidate) {
+                i++;
+            } else {
+                // Not in this cursor, let the leader jump past it
+                candidate = this.cursors[0].advance(id);
+                i = 1;
+            }
+        }
+        return candidate;
+    }
+
+}
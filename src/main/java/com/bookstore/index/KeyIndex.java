@@ -0,0 +1,182 @@
+package com.bookstore.index;
+
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Index of the record ids of the magazines in a register by their key,
+ * see {@link com.bookstore.readables.Magazine#getKey()}, used for
+ * duplicate detection.
+ * <p>
+ * Only a 64 bit hash of each key is kept, in a {@link LongIntMap}, so
+ * the index holds no strings or boxed record ids. The keys themselves
+ * are read from the register through a function given to every call,
+ * to tell apart keys sharing a hash. A key whose hash is taken is put
+ * at the next free hash, the way an open addressing table probes for
+ * a free slot, and looking a key up follows the same probes.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class KeyIndex {
+
+    /**
+     * Record ids by the hash of their key, or the next free hash
+     * if the hash was taken
+     */
+    private final LongIntMap recordIds;
+
+    /**
+     * Hashes the keys
+     */
+    private final ToLongFunction<String> hash;
+
+    /**
+     * Creates an empty index
+     */
+    public KeyIndex() {
+        this(KeyIndex::hash);
+    }
+
+    /**
+     * Creates an empty index hashing the keys with the given function
+     *
+     * @param hash Hashes the keys
+     * @throws IllegalArgumentException If argument is null
+     */
+    public KeyIndex(ToLongFunction<String> hash) {
+        if (hash == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.recordIds = new LongIntMap();
+        this.hash = hash;
+    }
+
+    /**
+     * Creates a copy of the given index
+     *
+     * @param other The index to copy
+     */
+    public KeyIndex(KeyIndex other) {
+        this.recordIds = new LongIntMap(other.recordIds);
+        this.hash = other.hash;
+    }
+
+    /**
+     * Returns the number of keys in the index
+     *
+     * @return Returns the number of keys
+     */
+    public int size() {
+        return this.recordIds.size();
+    }
+
+    /**
+     * Returns the record id of the magazine with the given key
+     *
+     * @param key The key to look up
+     * @param keys Returns the key of a record id in the index
+     * @return Returns the record id, or {@link LongIntMap#NO_VALUE}
+     * if no magazine has the key
+     */
+    public int get(String key, IntFunction<String> keys) {
+        long slot = this.hash.applyAsLong(key);
+        while (true) {
+            int recordId = this.recordIds.get(slot);
+            if (recordId == LongIntMap.NO_VALUE
+                    || keys.apply(recordId).equals(key)) {
+                return recordId;
+            }
+            slot++;
+        }
+    }
+
+    /**
+     * Sets the record id of a key
+     *
+     * @param key The key of the magazine
+     * @param recordId The record id of the magazine
+     * @param keys Returns the key of a record id in the index
+     */
+    public void put(String key, int recordId, IntFunction<String> keys) {
+        long slot = this.hash.applyAsLong(key);
+        while (true) {
+            int stored = this.recordIds.get(slot);
+            if (stored == LongIntMap.NO_VALUE
+                    || keys.apply(stored).equals(key)) {
+                this.recordIds.put(slot, recordId);
+                return;
+            }
+            slot++;
+        }
+    }
+
+    /**
+     * Removes a key from the index. The record of the key must still
+     * be readable through the keys function.
+     *
+     * @param key The key to remove
+     * @param keys Returns the key of a record id in the index
+     * @return Returns the removed record id, or
+     * {@link LongIntMap#NO_VALUE} if not found
+     */
+    public int remove(String key, IntFunction<String> keys) {
+        long slot = this.hash.applyAsLong(key);
+        while (true) {
+            int recordId = this.recordIds.get(slot);
+            if (recordId == LongIntMap.NO_VALUE) {
+                return recordId;
+            }
+            if (keys.apply(recordId).equals(key)) {
+                this.recordIds.remove(slot);
+                this.putBackFollowing(slot + 1, keys);
+                return recordId;
+            }
+            slot++;
+        }
+    }
+
+    /**
+     * Takes out the keys at the hashes following a freed hash and puts
+     * them back, so no key put past a taken hash is separated from its
+     * own hash by the freed one. The run of taken hashes is almost
+     * always empty, as 64 bit hashes rarely collide.
+     *
+     * @param firstSlot The hash following the freed hash
+     * @param keys Returns the key of a record id in the index
+     */
+    private void putBackFollowing(long firstSlot, IntFunction<String> keys) {
+        long slot = firstSlot;
+        int recordId = this.recordIds.get(slot);
+        if (recordId == LongIntMap.NO_VALUE) {
+            return;
+        }
+        IntList following = new IntList();
+        while (recordId != LongIntMap.NO_VALUE) {
+            following.add(recordId);
+            this.recordIds.remove(slot);
+            slot++;
+            recordId = this.recordIds.get(slot);
+        }
+        for (int i = 0; i < following.size(); i++) {
+            int moved = following.get(i);
+            this.put(keys.apply(moved), moved, keys);
+        }
+    }
+
+    /**
+     * Returns the 64 bit FNV-1a hash of the characters of a key
+     *
+     * @param key The key to hash
+     * @return Returns the hash
+     */
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+}
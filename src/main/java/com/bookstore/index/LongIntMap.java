@@ -0,0 +1,222 @@
+package com.bookstore.index;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Hash map from long keys to non-negative int values, stored in
+ * primitive arrays with open addressing. Used where a
+ * {@link java.util.HashMap} would box every key on every lookup.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class LongIntMap {
+
+    /**
+     * Returned by {@link #get(long)} when the key is not in the map
+     */
+    public static final int NO_VALUE = -1;
+
+    /**
+     * Number of slots of an empty map
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The keys, by slot
+     */
+    private long[] keys;
+
+    /**
+     * The values, by slot. {@link #NO_VALUE} marks a free slot.
+     */
+    private int[] values;
+
+    /**
+     * Number of keys in the map
+     */
+    private int size;
+
+    /**
+     * Creates an empty map
+     */
+    public LongIntMap() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+        Arrays.fill(this.values, NO_VALUE);
+        this.size = 0;
+    }
+
+    /**
+     * Creates a copy of the given map
+     *
+     * @param other The map to copy
+     */
+    public LongIntMap(LongIntMap other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.size = other.size;
+    }
+
+    /**
+     * Returns the number of keys in the map
+     *
+     * @return Returns the number of keys
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the value of a key
+     *
+     * @param key The key to look up
+     * @return Returns the value, or {@link #NO_VALUE} if not found
+     */
+    public int get(long key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.values[slot] != NO_VALUE) {
+            if (this.keys[slot] == key) {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Sets the value of a key
+     *
+     * @param key The key
+     * @param value The value, can not be negative
+     * @throws IllegalArgumentException If value is negative
+     */
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value can not be negative.");
+        }
+        // Keep the table at most half full so probe sequences stay short
+        if ((this.size + 1) * 2 > this.keys.length) {
+            this.resize(this.keys.length * 2);
+        }
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.values[slot] != NO_VALUE) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        this.size++;
+    }
+
+    /**
+     * Removes a key from the map
+     *
+     * @param key The key to remove
+     * @return Returns the removed value, or {@link #NO_VALUE} if not found
+     */
+    public int remove(long key) {
+        int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.values[slot] != NO_VALUE) {
+            if (this.keys[slot] == key) {
+                int value = this.values[slot];
+                this.values[slot] = NO_VALUE;
+                this.size--;
+                this.closeGap(slot);
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes the keys with values accepted by the filter, in a
+     * single pass over the table
+     *
+     * @param values Returns true for the values to remove
+     * @return Returns the number of removed keys
+     */
+    public int removeIf(IntPredicate values) {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        int oldSize = this.size;
+        this.values = new int[oldKeys.length];
+        this.keys = new long[oldKeys.length];
+        Arrays.fill(this.values, NO_VALUE);
+        this.size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE && !values.test(oldValues[i])) {
+                this.put(oldKeys[i], oldValues[i]);
+            }
+        }
+        return oldSize - this.size;
+    }
+
+    /**
+     * Moves back the keys following a freed slot, so that no key is
+     * separated from its home slot by a free slot.
+     *
+     * @param freedSlot The slot that was freed
+     */
+    private void closeGap(int freedSlot) {
+        int mask = this.keys.length - 1;
+        int gap = freedSlot;
+        int slot = (gap + 1) & mask;
+        while (this.values[slot] != NO_VALUE) {
+            int home = hash(this.keys[slot]) & mask;
+            // Move the key if its home is not between the gap and its slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                this.keys[gap] = this.keys[slot];
+                this.values[gap] = this.values[slot];
+                this.values[slot] = NO_VALUE;
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Moves all keys into a table of the given capacity
+     *
+     * @param capacity The new number of slots, a power of two
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, NO_VALUE);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (this.values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key, so keys differing only in their
+     * high bits do not share slots
+     *
+     * @param key The key to hash
+     * @return Returns the hash of the key
+     */
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
@@ -0,0 +1,252 @@
+package com.bookstore.index;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
+
+/**
+ * Cursor over the ids of another cursor accepted by a filter, where
+ * the filter is run on a fork-join pool.
+ * <p>
+ * The ids are read from the candidates in batches. A batch is split
+ * into chunks which are checked in parallel, and the accepted ids are
+ * then returned in the order they were read. The first batch is small,
+ * so a search only reading a page of results does not check many more
+ * candidates than it needs, and every following batch is twice as large,
+ * up to {@link #MAX_CHUNKS_PER_THREAD} chunks per thread of the pool.
+ * Batches too small to be worth splitting are checked on the calling
+ * thread.
+ * <p>
+ * The filter is called by several threads at once, and must not change
+ * anything. The candidates are only read by the calling thread.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class ParallelFilterCursor implements PostingCursor {
+
+    /**
+     * Smallest number of ids checked by one task
+     */
+    public static final int MIN_CHUNK_SIZE = 4096;
+
+    /**
+     * Number of chunks per thread of the pool in the largest batch
+     */
+    private static final int MAX_CHUNKS_PER_THREAD = 16;
+
+    /**
+     * Marks a rejected id in {@link #batch}
+     */
+    private static final int REJECTED = -1;
+
+    /**
+     * The ids to filter
+     */
+    private final PostingCursor candidates;
+
+    /**
+     * Accepts the ids to return
+     */
+    private final IntPredicate filter;
+
+    /**
+     * The pool to run the filter on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Number of ids in the largest batch
+     */
+    private final int maxBatchSize;
+
+    /**
+     * The ids of the current batch, {@link #REJECTED} where the filter
+     * did not accept them
+     */
+    private int[] batch;
+
+    /**
+     * Number of ids in the current batch
+     */
+    private int batchLength;
+
+    /**
+     * Index of the next id of the current batch to return
+     */
+    private int batchIndex;
+
+    /**
+     * The smallest id to read from the candidates next
+     */
+    private int nextCandidate;
+
+    /**
+     * True when the candidates have no more ids
+     */
+    private boolean exhausted;
+
+    /**
+     * Creates a cursor over the ids of the candidates the filter accepts
+     *
+     * @param candidates The ids to filter
+     * @param filter Accepts the ids to return, called by the threads
+     *               of the pool
+     * @param pool The pool to run the filter on
+     * @throws IllegalArgumentException If an argument is null
+     */
+    public ParallelFilterCursor(PostingCursor candidates, IntPredicate filter,
+                                ForkJoinPool pool) {
+        if (candidates == null || filter == null || pool == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.candidates = candidates;
+        this.filter = filter;
+        this.pool = pool;
+        this.maxBatchSize = MIN_CHUNK_SIZE * MAX_CHUNKS_PER_THREAD
+                * Math.max(1, pool.getParallelism());
+        this.batch = new int[MIN_CHUNK_SIZE];
+        this.batchLength = 0;
+        this.batchIndex = 0;
+        this.nextCandidate = 0;
+        this.exhausted = false;
+    }
+
+    @Override
+    public int advance(int target) {
+        while (true) {
+            while (this.batchIndex < this.batchLength) {
+                int id = this.batch[this.batchIndex];
+                if (id != REJECTED && id >= target) {
+                    return id;
+                }
+                this.batchIndex++;
+            }
+            if (this.exhausted) {
+                return NO_MORE_IDS;
+            }
+            this.readBatch(Math.max(target, this.nextCandidate));
+            this.filterBatch();
+        }
+    }
+
+    /**
+     * Reads the next batch of ids from the candidates, growing the
+     * batch if the previous one was filled
+     *
+     * @param target The smallest id to read
+     */
+    private void readBatch(int target) {
+        if (this.batchLength == this.batch.length
+                && this.batch.length < this.maxBatchSize) {
+            this.batch = new int[Math.min(this.batch.length * 2,
+                    this.maxBatchSize)];
+        }
+        int length = 0;
+        int id = this.candidates.advance(target);
+        while (id != NO_MORE_IDS) {
+            this.batch[length++] = id;
+            if (length == this.batch.length) {
+                break;
+            }
+            id = this.candidates.advance(id + 1);
+        }
+        if (id == NO_MORE_IDS) {
+            this.exhausted = true;
+        } else {
+            this.nextCandidate = id + 1;
+        }
+        this.batchLength = length;
+        this.batchIndex = 0;
+    }
+
+    /**
+     * Runs the filter over the current batch, in parallel if it is
+     * large enough to split
+     */
+    private void filterBatch() {
+        if (this.batchLength < 2 * MIN_CHUNK_SIZE) {
+            new FilterTask(this.batch, 0, this.batchLength, this.filter,
+                    this.batchLength).compute();
+        } else {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                    this.batchLength / (4 * this.pool.getParallelism()));
+            this.pool.invoke(new FilterTask(this.batch, 0, this.batchLength,
+                    this.filter, chunkSize));
+        }
+    }
+
+    /**
+     * Checks a range of a batch, splitting it in two until the range is
+     * no larger than a chunk. Rejected ids are overwritten with
+     * {@link #REJECTED}, so the accepted ids keep their order.
+     */
+    private static class FilterTask extends RecursiveAction {
+
+        /**
+         * Version of the serialized form
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The batch to check
+         */
+        private final int[] batch;
+
+        /**
+         * Index of the first id to check
+         */
+        private final int from;
+
+        /**
+         * Index after the last id to check
+         */
+        private final int to;
+
+        /**
+         * Accepts the ids to keep
+         */
+        private final IntPredicate filter;
+
+        /**
+         * Largest number of ids to check without splitting
+         */
+        private final int chunkSize;
+
+        /**
+         * Creates a task checking a range of a batch
+         *
+         * @param batch The batch to check
+         * @param from Index of the first id to check
+         * @param to Index after the last id to check
+         * @param filter Accepts the ids to keep
+         * @param chunkSize Largest number of ids to check without splitting
+         */
+        FilterTask(int[] batch, int from, int to, IntPredicate filter,
+                   int chunkSize) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.chunkSize) {
+                for (int i = this.from; i < this.to; i++) {
+                    if (!this.filter.test(this.batch[i])) {
+                        this.batch[i] = REJECTED;
+                    }
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new FilterTask(this.batch, this.from, middle,
+                            this.filter, this.chunkSize),
+                    new FilterTask(this.batch, middle, this.to,
+                            this.filter, this.chunkSize));
+        }
+    }
+
+}
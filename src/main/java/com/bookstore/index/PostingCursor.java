@@ -0,0 +1,82 @@
+package com.bookstore.index;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Walks a sorted set of record ids in ascending order, without
+ * collecting them first. Used to read, intersect and merge posting
+ * lists lazily, so a search only pays for the results it consumes.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface PostingCursor {
+
+    /**
+     * Returned when the cursor has no more ids
+     */
+    int NO_MORE_IDS = Integer.MAX_VALUE;
+
+    /**
+     * Cursor without any ids
+     */
+    PostingCursor EMPTY = target -> NO_MORE_IDS;
+
+    /**
+     * Moves the cursor to the first id that is equal to or larger than
+     * the target, and returns it. The target must not be smaller than
+     * a target passed earlier.
+     *
+     * @param target The smallest id to return
+     * @return Returns the id, or {@link #NO_MORE_IDS} if there are no more
+     */
+    int advance(int target);
+
+    /**
+     * Reads all remaining ids of the cursor into a list
+     *
+     * @return Returns a sorted list of the remaining ids
+     */
+    default IntList collect() {
+        IntList ids = new IntList();
+        int id = this.advance(0);
+        while (id != NO_MORE_IDS) {
+            ids.add(id);
+            id = this.advance(id + 1);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns an iterator over the remaining ids of the cursor, which
+     * advances the cursor as it is consumed
+     *
+     * @return Returns a lazy iterator of the ids, in ascending order
+     */
+    default PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            /**
+             * The next id to return, {@link #NO_MORE_IDS} at the end
+             */
+            private int next = PostingCursor.this.advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return this.next != NO_MORE_IDS;
+            }
+
+            @Override
+            public int nextInt() {
+                if (this.next == NO_MORE_IDS) {
+                    throw new NoSuchElementException();
+                }
+                int id = this.next;
+                this.next = PostingCursor.this.advance(id + 1);
+                return id;
+            }
+        };
+    }
+
+}
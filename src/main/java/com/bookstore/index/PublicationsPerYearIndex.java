@@ -0,0 +1,213 @@
+package com.bookstore.index;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Sorted index of the publications per year of the magazines in a
+ * register, each number with a posting list of the record ids of its
+ * magazines.
+ * <p>
+ * A range query reads the posting lists of the numbers in the range in
+ * order, so magazines are found sorted by publications per year without
+ * checking or sorting the other magazines. Counting a range only adds up
+ * the sizes of its posting lists. There are few distinct numbers, most
+ * magazines are published between once and a few hundred times a year,
+ * so both cost time in the number of magazines read, not stored.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class PublicationsPerYearIndex implements RegisterIndex {
+
+    /**
+     * Posting lists of record ids, sorted ascending, by publications
+     * per year
+     */
+    private TreeMap<Integer, IntList> postings;
+
+    /**
+     * Creates an empty index
+     */
+    public PublicationsPerYearIndex() {
+        this.postings = new TreeMap<>();
+    }
+
+    /**
+     * Creates a copy of the given index
+     *
+     * @param other The index to copy
+     */
+    public PublicationsPerYearIndex(PublicationsPerYearIndex other) {
+        this.postings = new TreeMap<>();
+        for (Map.Entry<Integer, IntList> entry : other.postings.entrySet()) {
+            this.postings.put(entry.getKey(), new IntList(entry.getValue()));
+        }
+    }
+
+    @Override
+    public void add(int recordId, Magazine magazine) {
+        Integer publications = magazine.getPublicationsPerYear();
+        IntList posting = this.postings.get(publications);
+        if (posting == null) {
+            posting = new IntList();
+            this.postings.put(publications, posting);
+        }
+        posting.add(recordId);
+    }
+
+    @Override
+    public void remove(int recordId, Magazine magazine) {
+        Integer publications = magazine.getPublicationsPerYear();
+        IntList posting = this.postings.get(publications);
+        if (posting != null) {
+            posting.removeSorted(recordId);
+            if (posting.isEmpty()) {
+                this.postings.remove(publications);
+            }
+        }
+    }
+
+    @Override
+    public void removeIf(IntPredicate recordIds) {
+        Iterator<IntList> all = this.postings.values().iterator();
+        while (all.hasNext()) {
+            IntList posting = all.next();
+            if (posting.removeIf(recordIds) > 0 && posting.isEmpty()) {
+                all.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of magazines published between min and max
+     * times a year, both included
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns the number of magazines
+     */
+    public int count(int min, int max) {
+        int count = 0;
+        for (IntList posting : this.range(min, max).values()) {
+            count += posting.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the record ids of the magazines published between min and
+     * max times a year, both included, sorted by publications per year
+     * and then by record id. The ids are read as the iterator is
+     * consumed. The index must not be changed while the iterator is
+     * in use.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @param descending True to return the most published first
+     * @return Returns a lazy iterator of the record ids
+     */
+    public PrimitiveIterator.OfInt recordIds(int min, int max,
+                                             boolean descending) {
+        NavigableMap<Integer, IntList> range = this.range(min, max);
+        return new PostingIterator((descending ? range.descendingMap()
+                : range).values().iterator());
+    }
+
+    /**
+     * Returns a cursor over the record ids of the magazines published
+     * between min and max times a year, both included, in record id
+     * order. The index must not be changed while the cursor is in use.
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns a cursor over the record ids
+     */
+    public PostingCursor cursor(int min, int max) {
+        ArrayList<PostingCursor> cursors = new ArrayList<>();
+        for (IntList posting : this.range(min, max).values()) {
+            cursors.add(posting.cursor());
+        }
+        if (cursors.size() == 1) {
+            return cursors.get(0);
+        }
+        // Every magazine has one number, so the lists never share an id
+        return new UnionCursor(cursors);
+    }
+
+    /**
+     * Returns the posting lists of the numbers between min and max
+     *
+     * @param min The smallest number
+     * @param max The largest number
+     * @return Returns a view of the posting lists, empty if min is
+     * larger than max
+     */
+    private NavigableMap<Integer, IntList> range(int min, int max) {
+        if (min > max) {
+            return new TreeMap<>();
+        }
+        return this.postings.subMap(min, true, max, true);
+    }
+
+    /**
+     * Iterator over the ids of a sequence of posting lists
+     */
+    private static class PostingIterator implements PrimitiveIterator.OfInt {
+
+        /**
+         * The posting lists not read yet
+         */
+        private final Iterator<IntList> postings;
+
+        /**
+         * The posting list being read, null before the first
+         */
+        private IntList current;
+
+        /**
+         * Index of the next id of the current posting list
+         */
+        private int index;
+
+        /**
+         * Creates an iterator over the ids of the posting lists
+         *
+         * @param postings The posting lists, in the order to read them
+         */
+        PostingIterator(Iterator<IntList> postings) {
+            this.postings = postings;
+            this.current = null;
+            this.index = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.current == null || this.index >= this.current.size()) {
+                if (!this.postings.hasNext()) {
+                    return false;
+                }
+                this.current = this.postings.next();
+                this.index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.current.get(this.index++);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.bookstore.index;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Dictionary of the distinct normalized publishers in a register,
+ * each with a posting list of the record ids of its magazines.
+ * <p>
+ * There are far fewer publishers than magazines, so a publisher search
+ * checks the dictionary keys and merges the posting lists of the
+ * matching publishers, instead of checking every magazine.
+ * The accent folded form of each publisher is kept with it, so
+ * searches ignoring accents do not fold the publishers again.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class PublisherIndex implements RegisterIndex {
+
+    /**
+     * Posting lists of record ids, sorted ascending,
+     * by normalized publisher
+     */
+    private HashMap<String, IntList> postings;
+
+    /**
+     * The accent folded publishers, by normalized publisher
+     */
+    private HashMap<String, String> accentFoldedPublishers;
+
+    /**
+     * Creates an empty index
+     */
+    public PublisherIndex() {
+        this.postings = new HashMap<>();
+        this.accentFoldedPublishers = new HashMap<>();
+    }
+
+    /**
+     * Creates a copy of the given index
+     *
+     * @param other The index to copy
+     */
+    public PublisherIndex(PublisherIndex other) {
+        this.postings = new HashMap<>(other.postings.size() * 4 / 3 + 1);
+        for (Map.Entry<String, IntList> entry : other.postings.entrySet()) {
+            this.postings.put(entry.getKey(), new IntList(entry.getValue()));
+        }
+        this.accentFoldedPublishers = new HashMap<>(
+                other.accentFoldedPublishers);
+    }
+
+    @Override
+    public void add(int recordId, Magazine magazine) {
+        String publisher = magazine.getNormalizedPublisher();
+        IntList posting = this.postings.get(publisher);
+        if (posting == null) {
+            posting = new IntList();
+            this.postings.put(publisher, posting);
+            this.accentFoldedPublishers.put(publisher,
+                    magazine.getAccentFoldedPublisher());
+        }
+        posting.add(recordId);
+    }
+
+    @Override
+    public void remove(int recordId, Magazine magazine) {
+        String publisher = magazine.getNormalizedPublisher();
+        IntList posting = this.postings.get(publisher);
+        if (posting != null) {
+            posting.removeSorted(recordId);
+            if (posting.isEmpty()) {
+                this.postings.remove(publisher);
+                this.accentFoldedPublishers.remove(publisher);
+            }
+        }
+    }
+
+    @Override
+    public void removeIf(IntPredicate recordIds) {
+        this.postings.entrySet().removeIf(entry -> {
+            IntList posting = entry.getValue();
+            if (posting.removeIf(recordIds) > 0 && posting.isEmpty()) {
+                this.accentFoldedPublishers.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Returns the number of distinct publishers in the index
+     *
+     * @return Returns the number of publishers
+     */
+    public int getPublisherCount() {
+        return this.postings.size();
+    }
+
+    /**
+     * Returns the number of magazines whose publisher contains the
+     * query, optionally ignoring accents. Only the sizes of the posting
+     * lists of the matching publishers are added up.
+     *
+     * @param query The case folded query, accent folded too if
+     *              accents are ignored
+     * @param foldAccents True to compare the accent folded publishers
+     * @return Returns the number of matching magazines
+     */
+    public int count(String query, boolean foldAccents) {
+        int count = 0;
+        for (Map.Entry<String, IntList> entry : this.postings.entrySet()) {
+            String publisher = foldAccents
+                    ? this.accentFoldedPublishers.get(entry.getKey())
+                    : entry.getKey();
+            if (publisher.contains(query)) {
+                count += entry.getValue().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a cursor over the record ids of all magazines whose
+     * normalized publisher contains the query. The index must not be
+     * changed while the cursor is in use.
+     *
+     * @param normalizedQuery The case folded query
+     * @return Returns a cursor over the matching record ids
+     */
+    public PostingCursor search(String normalizedQuery) {
+        return this.search(normalizedQuery, false);
+    }
+
+    /**
+     * Returns a cursor over the record ids of all magazines whose
+     * publisher contains the query, optionally ignoring accents.
+     * The index must not be changed while the cursor is in use.
+     *
+     * @param query The case folded query, accent folded too if
+     *              accents are ignored
+     * @param foldAccents True to compare the accent folded publishers
+     * @return Returns a cursor over the matching record ids
+     */
+    public PostingCursor search(String query, boolean foldAccents) {
+        ArrayList<PostingCursor> matching = new ArrayList<>();
+        for (Map.Entry<String, IntList> entry : this.postings.entrySet()) {
+            String publisher = foldAccents
+                    ? this.accentFoldedPublishers.get(entry.getKey())
+                    : entry.getKey();
+            if (publisher.contains(query)) {
+                matching.add(entry.getValue().cursor());
+            }
+        }
+        if (matching.size() == 1) {
+            return matching.get(0);
+        }
+        // Every magazine has one publisher, so the lists never share an id
+        return new UnionCursor(matching);
+    }
+
+}
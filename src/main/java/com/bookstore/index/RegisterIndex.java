@@ -0,0 +1,48 @@
+package com.bookstore.index;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.function.IntPredicate;
+
+/**
+ * A secondary index over the magazines of a register. The register
+ * gives each stored magazine a record id, and tells its indexes
+ * about every magazine that is added or removed.
+ * <p>
+ * Record ids are handed out in increasing order and never reused,
+ * so indexes can keep their posting lists sorted by appending.
+ * <p>
+ * A register may leave deleted magazines in an index, skipping them
+ * when searching, and remove them in bulk with
+ * {@link #removeIf(IntPredicate)} when it compacts.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface RegisterIndex {
+
+    /**
+     * Adds a magazine to the index
+     *
+     * @param recordId The record id of the magazine in the register
+     * @param magazine The magazine added
+     */
+    void add(int recordId, Magazine magazine);
+
+    /**
+     * Removes a magazine from the index
+     *
+     * @param recordId The record id of the magazine in the register
+     * @param magazine The magazine removed
+     */
+    void remove(int recordId, Magazine magazine);
+
+    /**
+     * Removes the magazines with record ids accepted by the filter,
+     * in a single pass over the index
+     *
+     * @param recordIds Returns true for the record ids to remove
+     */
+    void removeIf(IntPredicate recordIds);
+
+}
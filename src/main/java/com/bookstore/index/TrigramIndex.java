@@ -0,0 +1,265 @@
+package com.bookstore.index;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Inverted index from every three character sequence (trigram) of
+ * the accent folded magazine titles to the record ids of the magazines
+ * having it. Folding keeps containment, so the index finds candidates
+ * for searches with and without accent folding, given the folded query.
+ * <p>
+ * A title contains a query only if it contains every trigram of the
+ * query, so the intersection of the posting lists of the query
+ * trigrams holds every match. The intersection can also hold false
+ * matches, so candidates must be verified by the caller.
+ * Queries shorter than {@link #GRAM_LENGTH} can not use the index.
+ * <p>
+ * Trigrams are packed into longs and looked up in a {@link LongIntMap},
+ * so indexing a title does not box or allocate per trigram.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class TrigramIndex implements RegisterIndex {
+
+    /**
+     * Number of characters in a gram
+     */
+    public static final int GRAM_LENGTH = 3;
+
+    /**
+     * The number of the posting list of each trigram
+     */
+    private LongIntMap postingNumbers;
+
+    /**
+     * Posting lists of record ids, sorted ascending, by number.
+     * Numbers of removed lists are null until reused.
+     */
+    private IntList[] postings;
+
+    /**
+     * Number of posting list numbers handed out
+     */
+    private int postingCount;
+
+    /**
+     * Numbers of removed posting lists, free to reuse
+     */
+    private IntList freePostingNumbers;
+
+    /**
+     * Creates an empty index
+     */
+    public TrigramIndex() {
+        this.postingNumbers = new LongIntMap();
+        this.postings = new IntList[16];
+        this.postingCount = 0;
+        this.freePostingNumbers = new IntList();
+    }
+
+    /**
+     * Creates a copy of the given index
+     *
+     * @param other The index to copy
+     */
+    public TrigramIndex(TrigramIndex other) {
+        this.postingNumbers = new LongIntMap(other.postingNumbers);
+        this.postings = new IntList[other.postings.length];
+        for (int i = 0; i < other.postingCount; i++) {
+            if (other.postings[i] != null) {
+                this.postings[i] = new IntList(other.postings[i]);
+            }
+        }
+        this.postingCount = other.postingCount;
+        this.freePostingNumbers = new IntList(other.freePostingNumbers);
+    }
+
+    /**
+     * Returns true if the query is long enough to be looked up
+     * in the index.
+     *
+     * @param normalizedQuery The normalized and accent folded query
+     * @return Returns true if the index can be used else false
+     */
+    public static boolean canSearch(String normalizedQuery) {
+        return normalizedQuery.length() >= GRAM_LENGTH;
+    }
+
+    @Override
+    public void add(int recordId, Magazine magazine) {
+        String title = magazine.getAccentFoldedTitle();
+        for (int i = 0; i + GRAM_LENGTH <= title.length(); i++) {
+            long trigram = trigramAt(title, i);
+            int number = this.postingNumbers.get(trigram);
+            if (number == LongIntMap.NO_VALUE) {
+                number = this.newPosting();
+                this.postingNumbers.put(trigram, number);
+            }
+            IntList posting = this.postings[number];
+            // A title may repeat a trigram, the id is only added once
+            if (posting.isEmpty() || posting.getLast() != recordId) {
+                posting.add(recordId);
+            }
+        }
+    }
+
+    @Override
+    public void remove(int recordId, Magazine magazine) {
+        String title = magazine.getAccentFoldedTitle();
+        for (int i = 0; i + GRAM_LENGTH <= title.length(); i++) {
+            long trigram = trigramAt(title, i);
+            int number = this.postingNumbers.get(trigram);
+            if (number != LongIntMap.NO_VALUE) {
+                IntList posting = this.postings[number];
+                posting.removeSorted(recordId);
+                if (posting.isEmpty()) {
+                    this.postingNumbers.remove(trigram);
+                    this.postings[number] = null;
+                    this.freePostingNumbers.add(number);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeIf(IntPredicate recordIds) {
+        boolean emptied = false;
+        for (int number = 0; number < this.postingCount; number++) {
+            IntList posting = this.postings[number];
+            if (posting != null && posting.removeIf(recordIds) > 0
+                    && posting.isEmpty()) {
+                this.postings[number] = null;
+                this.freePostingNumbers.add(number);
+                emptied = true;
+            }
+        }
+        if (emptied) {
+            this.postingNumbers.removeIf(number -> this.postings[number] == null);
+        }
+    }
+
+    /**
+     * Returns a cursor over the record ids of all magazines having every
+     * trigram of the query. The titles of the candidates must be checked
+     * to contain the query. The index must not be changed while the
+     * cursor is in use.
+     *
+     * @param normalizedQuery The normalized and accent folded query,
+     *                        at least {@link #GRAM_LENGTH} long
+     * @return Returns a cursor over the candidate record ids
+     * @throws IllegalArgumentException If the query is too short
+     */
+    public PostingCursor candidates(String normalizedQuery) {
+        if (!canSearch(normalizedQuery)) {
+            throw new IllegalArgumentException("Query must be at least "
+                    + GRAM_LENGTH + " characters.");
+        }
+
+        ArrayList<IntList> queryPostings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalizedQuery.length(); i++) {
+            int number = this.postingNumbers.get(
+                    trigramAt(normalizedQuery, i));
+            if (number == LongIntMap.NO_VALUE) {
+                return PostingCursor.EMPTY;
+            }
+            // A query may repeat a trigram, its list is only used once
+            if (!containsSame(queryPostings, this.postings[number])) {
+                queryPostings.add(this.postings[number]);
+            }
+        }
+        queryPostings.sort((first, second) ->
+                Integer.compare(first.size(), second.size()));
+
+        // The shortest list leads the intersection
+        ArrayList<PostingCursor> cursors = new ArrayList<>(queryPostings.size());
+        for (IntList posting : queryPostings) {
+            cursors.add(posting.cursor());
+        }
+        return new IntersectionCursor(cursors);
+    }
+
+    /**
+     * Returns the most candidates {@link #candidates(String)} can find
+     * for the query, the length of the shortest posting list of its
+     * trigrams. Used to estimate the cost of a search without running it.
+     *
+     * @param normalizedQuery The normalized and accent folded query,
+     *                        at least {@link #GRAM_LENGTH} long
+     * @return Returns the largest possible number of candidates
+     * @throws IllegalArgumentException If the query is too short
+     */
+    public int estimateCandidates(String normalizedQuery) {
+        if (!canSearch(normalizedQuery)) {
+            throw new IllegalArgumentException("Query must be at least "
+                    + GRAM_LENGTH + " characters.");
+        }
+
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM_LENGTH <= normalizedQuery.length(); i++) {
+            int number = this.postingNumbers.get(
+                    trigramAt(normalizedQuery, i));
+            if (number == LongIntMap.NO_VALUE) {
+                return 0;
+            }
+            fewest = Math.min(fewest, this.postings[number].size());
+        }
+        return fewest;
+    }
+
+    /**
+     * Returns a new, empty posting list and its number
+     *
+     * @return Returns the number of the new posting list
+     */
+    private int newPosting() {
+        int number;
+        if (this.freePostingNumbers.isEmpty()) {
+            if (this.postingCount == this.postings.length) {
+                this.postings = Arrays.copyOf(this.postings,
+                        this.postings.length * 2);
+            }
+            number = this.postingCount++;
+        } else {
+            number = this.freePostingNumbers.removeAt(
+                    this.freePostingNumbers.size() - 1);
+        }
+        this.postings[number] = new IntList();
+        return number;
+    }
+
+    /**
+     * Check if the list holds the given posting list, by identity
+     *
+     * @param lists The lists to look in
+     * @param posting The posting list to look for
+     * @return Returns true if found else false
+     */
+    private static boolean containsSame(ArrayList<IntList> lists,
+                                        IntList posting) {
+        for (IntList list : lists) {
+            if (list == posting) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Packs the three characters starting at index into a long
+     *
+     * @param text The text to read from
+     * @param index The index of the first character
+     * @return Returns the packed trigram
+     */
+    private static long trigramAt(String text, int index) {
+        return ((long) text.charAt(index) << 32)
+                | ((long) text.charAt(index + 1) << 16)
+                | text.charAt(index + 2);
+    }
+
+}
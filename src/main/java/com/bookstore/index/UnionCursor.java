@@ -0,0 +1,63 @@
+package com.bookstore.index;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Cursor over the ids found in any of a group of cursors. Keeps
+ * the cursors in a heap ordered by their current id.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class UnionCursor implements PostingCursor {
+
+    /**
+     * The cursors to merge
+     */
+    private final PostingCursor[] cursors;
+
+    /**
+     * The current id of each cursor
+     */
+    private final int[] currentIds;
+
+    /**
+     * Numbers of the cursors that are not exhausted, by current id
+     */
+    private final PriorityQueue<Integer> heads;
+
+    /**
+     * Creates a cursor over the union of the given cursors
+     *
+     * @param cursors The cursors to merge
+     */
+    public UnionCursor(List<PostingCursor> cursors) {
+        this.cursors = cursors.toArray(new PostingCursor[0]);
+        this.currentIds = new int[this.cursors.length];
+        this.heads = new PriorityQueue<>(Math.max(1, this.cursors.length),
+                (first, second) -> Integer.compare(
+                        this.currentIds[first], this.currentIds[second]));
+        for (int i = 0; i < this.cursors.length; i++) {
+            this.currentIds[i] = this.cursors[i].advance(0);
+            if (this.currentIds[i] != NO_MORE_IDS) {
+                this.heads.add(i);
+            }
+        }
+    }
+
+    @Override
+    public int advance(int target) {
+        while (!this.heads.isEmpty()
+                && this.currentIds[this.heads.peek()] < target) {
+            int cursor = this.heads.poll();
+            this.currentIds[cursor] = this.cursors[cursor].advance(target);
+            if (this.currentIds[cursor] != NO_MORE_IDS) {
+                this.heads.add(cursor);
+            }
+        }
+        return this.heads.isEmpty()
+                ? NO_MORE_IDS : this.currentIds[this.heads.peek()];
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.bookstore.io;
+
+import java.io.BufferedReader;
+import java.util.Locale;
+
+/**
+ * The catalog file formats the {@link CatalogLoader} can read.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public enum CatalogFormat {
+
+    /**
+     * Comma separated values, one magazine per row:
+     * <code>title,publisher,publicationsPerYear</code>.
+     * Fields may be quoted with <code>"</code>.
+     */
+    CSV,
+
+    /**
+     * One JSON object per line, with the fields
+     * <code>title</code>, <code>publisher</code>
+     * and <code>publicationsPerYear</code>.
+     */
+    JSON_LINES;
+
+    /**
+     * Returns the format of a file by its file extension,
+     * <code>.csv</code>, or <code>.jsonl</code> and <code>.ndjson</code>.
+     *
+     * @param fileName The name of the file
+     * @return Returns the format of the file
+     * @throws IllegalArgumentException If the extension is not known
+     */
+    public static CatalogFormat fromFileName(String fileName) {
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lowerCaseName.endsWith(".jsonl")
+                || lowerCaseName.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("Unknown catalog format: "
+                + fileName);
+    }
+
+    /**
+     * Creates a row reader for this format
+     *
+     * @param reader The reader to read rows from
+     * @return Returns the row reader
+     */
+    MagazineRowReader newRowReader(BufferedReader reader) {
+        if (this == CSV) {
+            return new CsvRowReader(reader);
+        }
+        return new JsonLinesRowReader(reader);
+    }
+
+}
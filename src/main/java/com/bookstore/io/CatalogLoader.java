@@ -0,0 +1,158 @@
+package com.bookstore.io;
+
+import com.bookstore.BulkLoadResult;
+import com.bookstore.readables.Magazine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Loads magazines from catalog files into a register, for example
+ * supplier feeds. The file is streamed, and magazines are added in
+ * batches through a bulk load method such as
+ * {@link com.bookstore.MagazineRegister#addAll(java.util.Collection)},
+ * so memory use is bounded by the batch size and not the file size.
+ * <p>
+ * Rows that can not be read or added are rejected with their line
+ * number, and loading goes on with the next row.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class CatalogLoader {
+
+    /**
+     * Number of magazines added at a time, when no batch size is given
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+
+    /**
+     * Adds a batch of magazines, row numbers of the result
+     * are indexes in the batch
+     */
+    private final Function<Collection<Magazine>, BulkLoadResult> bulkAdd;
+
+    /**
+     * Number of magazines added at a time
+     */
+    private final int batchSize;
+
+    /**
+     * Creates a loader adding magazines in batches of the default size
+     *
+     * @param bulkAdd Adds a batch of magazines, for example
+     *                <code>register::addAll</code>
+     */
+    public CatalogLoader(Function<Collection<Magazine>, BulkLoadResult> bulkAdd) {
+        this(bulkAdd, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a loader adding magazines in batches of the given size
+     *
+     * @param bulkAdd Adds a batch of magazines, for example
+     *                <code>register::addAll</code>
+     * @param batchSize Number of magazines added at a time
+     * @throws IllegalArgumentException If bulkAdd is null or batch size
+     *                                  is less than 1 or more than
+     *                                  {@link BulkLoadResult#MAX_STORED_REJECTIONS}
+     */
+    public CatalogLoader(Function<Collection<Magazine>, BulkLoadResult> bulkAdd,
+                         int batchSize) {
+        if (bulkAdd == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        if (batchSize > BulkLoadResult.MAX_STORED_REJECTIONS) {
+            // Every rejection of a batch must be kept to report its row
+            throw new IllegalArgumentException("Batch size can be at most "
+                    + BulkLoadResult.MAX_STORED_REJECTIONS + ".");
+        }
+        this.bulkAdd = bulkAdd;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Loads a UTF-8 catalog file, with the format given by the file
+     * extension, see {@link CatalogFormat#fromFileName(String)}.
+     *
+     * @param file The file to load
+     * @return Returns the number of added magazines and the rejected rows
+     * @throws IOException If reading the file fails
+     * @throws IllegalArgumentException If the file extension is not known
+     */
+    public BulkLoadResult load(Path file) throws IOException {
+        CatalogFormat format = CatalogFormat.fromFileName(
+                file.getFileName().toString());
+        try (BufferedReader reader = Files.newBufferedReader(file,
+                StandardCharsets.UTF_8)) {
+            return this.load(reader, format);
+        }
+    }
+
+    /**
+     * Loads a catalog of the given format. The reader is not closed.
+     *
+     * @param reader The catalog to load
+     * @param format The format of the catalog
+     * @return Returns the number of added magazines and the rejected rows
+     * @throws IOException If reading fails
+     */
+    public BulkLoadResult load(Reader reader, CatalogFormat format)
+            throws IOException {
+        BufferedReader bufferedReader = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+        MagazineRowReader rows = format.newRowReader(bufferedReader);
+
+        BulkLoadResult result = new BulkLoadResult();
+        ArrayList<Magazine> batch = new ArrayList<>(this.batchSize);
+        long[] batchRowNumbers = new long[this.batchSize];
+        boolean moreRows = true;
+        while (moreRows) {
+            try {
+                Magazine magazine = rows.readRow();
+                if (magazine == null) {
+                    moreRows = false;
+                } else {
+                    batchRowNumbers[batch.size()] = rows.getRowNumber();
+                    batch.add(magazine);
+                }
+            } catch (MalformedRowException e) {
+                result.addRejection(rows.getRowNumber(), e.getMessage());
+            }
+            if (batch.size() == this.batchSize || (!moreRows && !batch.isEmpty())) {
+                this.addBatch(batch, batchRowNumbers, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a batch of magazines, and adds the outcome to the result
+     * with the line numbers of the rows. The batch is cleared.
+     *
+     * @param batch The magazines to add
+     * @param rowNumbers The line number of each magazine in the batch
+     * @param result The result of the whole load
+     */
+    private void addBatch(ArrayList<Magazine> batch, long[] rowNumbers,
+                          BulkLoadResult result) {
+        BulkLoadResult batchResult = this.bulkAdd.apply(batch);
+        result.addAdded(batchResult.getAddedCount());
+        for (BulkLoadResult.Rejection rejection : batchResult.getRejections()) {
+            result.addRejection(rowNumbers[(int) rejection.getRowNumber()],
+                    rejection.getReason());
+        }
+        batch.clear();
+    }
+
+}
@@ -0,0 +1,324 @@
+package com.bookstore.io;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Reads magazines from comma separated values, one magazine per row:
+ * <code>title,publisher,publicationsPerYear</code>.
+ * <p>
+ * Fields containing commas, quotes or line breaks are quoted with
+ * <code>"</code>, and a quote in a quoted field is written twice.
+ * A first row of column names is skipped. Only one row is held in
+ * memory at a time, as a field longer than {@value #MAX_FIELD_LENGTH}
+ * characters is rejected. A quote that is never closed thus rejects the
+ * rows up to the line where the field passes that length, and reading
+ * goes on from the next line.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+class CsvRowReader implements MagazineRowReader {
+
+    /**
+     * Number of fields of a row
+     */
+    private static final int FIELD_COUNT = 3;
+
+    /**
+     * Most characters of a field, far more than any title or publisher
+     */
+    private static final int MAX_FIELD_LENGTH = 4096;
+
+    /**
+     * Size of the read buffer
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Marks the end of the input
+     */
+    private static final int END_OF_INPUT = -1;
+
+    /**
+     * The reader to read from
+     */
+    private final Reader reader;
+
+    /**
+     * Buffer of characters read from the reader
+     */
+    private final char[] buffer;
+
+    /**
+     * Number of characters in the buffer
+     */
+    private int bufferLength;
+
+    /**
+     * Position of the next character in the buffer
+     */
+    private int bufferPosition;
+
+    /**
+     * The fields of the current row, reused for every row
+     */
+    private final ArrayList<String> fields;
+
+    /**
+     * The current field, reused for every field
+     */
+    private final StringBuilder field;
+
+    /**
+     * The current line number
+     */
+    private long lineNumber;
+
+    /**
+     * The line number the last row started on
+     */
+    private long rowNumber;
+
+    /**
+     * True until the first row has been read
+     */
+    private boolean firstRow;
+
+    /**
+     * Creates a reader of the given input
+     *
+     * @param reader The input to read
+     */
+    CsvRowReader(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.fields = new ArrayList<>(FIELD_COUNT);
+        this.field = new StringBuilder();
+        this.lineNumber = 1;
+        this.firstRow = true;
+    }
+
+    @Override
+    public Magazine readRow() throws IOException, MalformedRowException {
+        while (this.readFields()) {
+            if (this.fields.size() == 1 && this.fields.get(0).trim().isEmpty()) {
+                continue;
+            }
+            if (this.firstRow) {
+                this.firstRow = false;
+                if (this.isHeader()) {
+                    continue;
+                }
+            }
+            return this.toMagazine();
+        }
+        return null;
+    }
+
+    @Override
+    public long getRowNumber() {
+        return this.rowNumber;
+    }
+
+    /**
+     * Reads the fields of the next row into {@link #fields}
+     *
+     * @return Returns false if there are no more rows else true
+     * @throws IOException If reading fails
+     * @throws MalformedRowException If a quoted field is not closed or
+     *                               followed by more than a separator,
+     *                               or a field is too long
+     */
+    private boolean readFields() throws IOException, MalformedRowException {
+        this.fields.clear();
+        this.rowNumber = this.lineNumber;
+        int character = this.read();
+        if (character == END_OF_INPUT) {
+            return false;
+        }
+
+        boolean endOfRow = false;
+        while (!endOfRow) {
+            this.field.setLength(0);
+            if (character == '"') {
+                character = this.readQuotedField();
+                if (character != ',' && !isEndOfRow(character)) {
+                    this.skipRow(character);
+                    throw new MalformedRowException("Unexpected character "
+                            + "after a closing quote: " + (char) character);
+                }
+            } else {
+                while (character != ',' && !isEndOfRow(character)) {
+                    if (this.field.length() >= MAX_FIELD_LENGTH) {
+                        this.skipRow(character);
+                        throw new MalformedRowException("Field is longer "
+                                + "than " + MAX_FIELD_LENGTH + " characters.");
+                    }
+                    this.field.append((char) character);
+                    character = this.read();
+                }
+            }
+            this.fields.add(this.field.toString());
+
+            if (character == ',') {
+                character = this.read();
+            } else {
+                endOfRow = true;
+                this.skipLineBreak(character);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a quoted field into {@link #field}, the opening quote
+     * already read.
+     *
+     * @return Returns the first character after the closing quote
+     * @throws IOException If reading fails
+     * @throws MalformedRowException If the field is not closed, or
+     *                               passes {@link #MAX_FIELD_LENGTH}
+     */
+    private int readQuotedField() throws IOException, MalformedRowException {
+        while (true) {
+            int character = this.read();
+            if (character == END_OF_INPUT) {
+                throw new MalformedRowException("Quoted field is not closed.");
+            }
+            if (this.field.length() >= MAX_FIELD_LENGTH) {
+                // Most likely a quote that is never closed, go on from
+                // the next line
+                this.skipRow(character);
+                throw new MalformedRowException("Quoted field is longer "
+                        + "than " + MAX_FIELD_LENGTH + " characters, "
+                        + "is a quote not closed?");
+            }
+            if (character == '\n') {
+                this.lineNumber++;
+            }
+            if (character == '"') {
+                int following = this.read();
+                if (following != '"') {
+                    return following;
+                }
+            }
+            this.field.append((char) character);
+        }
+    }
+
+    /**
+     * Skips the rest of a rejected row, up to and including the line break
+     *
+     * @param character The current character of the row
+     * @throws IOException If reading fails
+     */
+    private void skipRow(int character) throws IOException {
+        int skipped = character;
+        while (!isEndOfRow(skipped)) {
+            skipped = this.read();
+        }
+        this.skipLineBreak(skipped);
+    }
+
+    /**
+     * Returns true if a character ends a row outside quotes
+     *
+     * @param character The character
+     * @return Returns true if a line break or the end of the input
+     */
+    private static boolean isEndOfRow(int character) {
+        return character == '\n' || character == '\r'
+                || character == END_OF_INPUT;
+    }
+
+    /**
+     * Skips the line break ending a row, counting the line
+     *
+     * @param character The character ending the row
+     * @throws IOException If reading fails
+     */
+    private void skipLineBreak(int character) throws IOException {
+        if (character == '\r') {
+            this.fillBuffer();
+            if (this.bufferPosition < this.bufferLength
+                    && this.buffer[this.bufferPosition] == '\n') {
+                this.bufferPosition++;
+            }
+            this.lineNumber++;
+        } else if (character == '\n') {
+            this.lineNumber++;
+        }
+    }
+
+    /**
+     * Returns true if the fields are the column names
+     *
+     * @return Returns true if the row is a header row else false
+     */
+    private boolean isHeader() {
+        return this.fields.size() == FIELD_COUNT
+                && this.fields.get(0).trim().equalsIgnoreCase("title")
+                && this.fields.get(1).trim().equalsIgnoreCase("publisher")
+                && this.fields.get(2).trim()
+                .equalsIgnoreCase("publicationsPerYear");
+    }
+
+    /**
+     * Creates a magazine of the fields of the current row
+     *
+     * @return Returns the magazine
+     * @throws MalformedRowException If the fields are not a valid magazine
+     */
+    private Magazine toMagazine() throws MalformedRowException {
+        if (this.fields.size() != FIELD_COUNT) {
+            throw new MalformedRowException("Expected " + FIELD_COUNT
+                    + " fields but found " + this.fields.size() + ".");
+        }
+        String publications = this.fields.get(2).trim();
+        int publicationsPerYear;
+        try {
+            publicationsPerYear = Integer.parseInt(publications);
+        } catch (NumberFormatException e) {
+            throw new MalformedRowException("Publications per year is "
+                    + "not a whole number: " + publications);
+        }
+        try {
+            return new Magazine(this.fields.get(0), this.fields.get(1),
+                    publicationsPerYear);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedRowException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the next character
+     *
+     * @return Returns the character, or {@link #END_OF_INPUT}
+     * @throws IOException If reading fails
+     */
+    private int read() throws IOException {
+        this.fillBuffer();
+        if (this.bufferPosition >= this.bufferLength) {
+            return END_OF_INPUT;
+        }
+        return this.buffer[this.bufferPosition++];
+    }
+
+    /**
+     * Refills the buffer from the reader if it is used up
+     *
+     * @throws IOException If reading fails
+     */
+    private void fillBuffer() throws IOException {
+        if (this.bufferPosition >= this.bufferLength
+                && this.bufferLength != END_OF_INPUT) {
+            this.bufferLength = this.reader.read(this.buffer);
+            this.bufferPosition = 0;
+        }
+    }
+
+}
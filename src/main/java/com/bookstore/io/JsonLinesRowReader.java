@@ -0,0 +1,438 @@
+package com.bookstore.io;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads magazines from JSON lines, one flat JSON object per line:
+ * <pre>
+ * {"title": "Vi Menn", "publisher": "Aller", "publicationsPerYear": 52}
+ * </pre>
+ * Other fields are ignored, as long as their values are strings,
+ * numbers, booleans or null. Only one line is held in memory at a time,
+ * as a line longer than {@value #MAX_LINE_LENGTH} characters is rejected
+ * without being held, and reading goes on from the next line.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+class JsonLinesRowReader implements MagazineRowReader {
+
+    /**
+     * Most characters of a line, far more than any magazine object
+     */
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    /**
+     * Size of the read buffer
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Marks the end of the input
+     */
+    private static final int END_OF_INPUT = -1;
+
+    /**
+     * The reader to read lines from
+     */
+    private final Reader reader;
+
+    /**
+     * Buffer of characters read from the reader
+     */
+    private final char[] buffer;
+
+    /**
+     * Number of characters in the buffer
+     */
+    private int bufferLength;
+
+    /**
+     * Position of the next character in the buffer
+     */
+    private int bufferPosition;
+
+    /**
+     * Builds the current line, reused for every line
+     */
+    private final StringBuilder lineBuilder;
+
+    /**
+     * Builds string values, reused for every value
+     */
+    private final StringBuilder value;
+
+    /**
+     * The current line
+     */
+    private String line;
+
+    /**
+     * Position of the next character in the current line
+     */
+    private int position;
+
+    /**
+     * The current line number
+     */
+    private long lineNumber;
+
+    /**
+     * Creates a reader of the given input
+     *
+     * @param reader The input to read
+     */
+    JsonLinesRowReader(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.lineBuilder = new StringBuilder();
+        this.value = new StringBuilder();
+        this.lineNumber = 0;
+    }
+
+    @Override
+    public Magazine readRow() throws IOException, MalformedRowException {
+        this.lineNumber++;
+        this.line = this.readLine();
+        while (this.line != null && this.line.trim().isEmpty()) {
+            this.lineNumber++;
+            this.line = this.readLine();
+        }
+        if (this.line == null) {
+            return null;
+        }
+        this.position = 0;
+        return this.parseObject();
+    }
+
+    @Override
+    public long getRowNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Reads the next line, without the line break
+     *
+     * @return Returns the line, or null at the end of the input
+     * @throws IOException If reading fails
+     * @throws MalformedRowException If the line is longer than
+     *                               {@link #MAX_LINE_LENGTH}, which is
+     *                               then skipped
+     */
+    private String readLine() throws IOException, MalformedRowException {
+        this.lineBuilder.setLength(0);
+        boolean tooLong = false;
+        while (true) {
+            this.fillBuffer();
+            if (this.bufferPosition >= this.bufferLength) {
+                break;
+            }
+            int start = this.bufferPosition;
+            while (this.bufferPosition < this.bufferLength
+                    && !isLineBreak(this.buffer[this.bufferPosition])) {
+                this.bufferPosition++;
+            }
+            int length = this.bufferPosition - start;
+            if (this.lineBuilder.length() + length > MAX_LINE_LENGTH) {
+                // Skip the rest of the line instead of holding it
+                tooLong = true;
+                this.lineBuilder.setLength(0);
+            }
+            if (!tooLong) {
+                this.lineBuilder.append(this.buffer, start, length);
+            }
+            if (this.bufferPosition < this.bufferLength) {
+                this.skipLineBreak();
+                return this.checkedLine(tooLong);
+            }
+        }
+        if (this.lineBuilder.length() == 0 && !tooLong) {
+            return null;
+        }
+        return this.checkedLine(tooLong);
+    }
+
+    /**
+     * Returns the line read, unless it was too long
+     *
+     * @param tooLong True if the line was longer than
+     *                {@link #MAX_LINE_LENGTH}
+     * @return Returns the line
+     * @throws MalformedRowException If the line was too long
+     */
+    private String checkedLine(boolean tooLong) throws MalformedRowException {
+        if (tooLong) {
+            throw new MalformedRowException("Line is longer than "
+                    + MAX_LINE_LENGTH + " characters.");
+        }
+        return this.lineBuilder.toString();
+    }
+
+    /**
+     * Skips the line break at the buffer position, a carriage return
+     * followed by a line feed counting as one
+     *
+     * @throws IOException If reading fails
+     */
+    private void skipLineBreak() throws IOException {
+        char lineBreak = this.buffer[this.bufferPosition++];
+        if (lineBreak == '\r') {
+            this.fillBuffer();
+            if (this.bufferPosition < this.bufferLength
+                    && this.buffer[this.bufferPosition] == '\n') {
+                this.bufferPosition++;
+            }
+        }
+    }
+
+    /**
+     * Returns true if a character ends a line
+     *
+     * @param character The character
+     * @return Returns true if a line feed or carriage return
+     */
+    private static boolean isLineBreak(char character) {
+        return character == '\n' || character == '\r';
+    }
+
+    /**
+     * Refills the buffer from the reader if it is used up
+     *
+     * @throws IOException If reading fails
+     */
+    private void fillBuffer() throws IOException {
+        if (this.bufferPosition >= this.bufferLength
+                && this.bufferLength != END_OF_INPUT) {
+            this.bufferLength = this.reader.read(this.buffer);
+            this.bufferPosition = 0;
+        }
+    }
+
+    /**
+     * Parses the current line as a magazine object
+     *
+     * @return Returns the magazine
+     * @throws MalformedRowException If the line is not a valid magazine
+     */
+    private Magazine parseObject() throws MalformedRowException {
+        String title = null;
+        String publisher = null;
+        Integer publicationsPerYear = null;
+
+        this.expect('{');
+        if (this.peek() == '}') {
+            this.position++;
+        } else {
+            boolean moreFields = true;
+            while (moreFields) {
+                String name = this.parseString();
+                this.expect(':');
+                if ("title".equals(name)) {
+                    title = this.parseString();
+                } else if ("publisher".equals(name)) {
+                    publisher = this.parseString();
+                } else if ("publicationsPerYear".equals(name)) {
+                    publicationsPerYear = this.parseInteger();
+                } else {
+                    this.skipValue();
+                }
+                char next = this.next();
+                if (next == '}') {
+                    moreFields = false;
+                } else if (next != ',') {
+                    throw this.unexpected(next);
+                }
+            }
+        }
+        if (this.peek() != 0) {
+            throw new MalformedRowException("Unexpected text after object.");
+        }
+
+        if (publicationsPerYear == null) {
+            throw new MalformedRowException(
+                    "Missing field publicationsPerYear.");
+        }
+        try {
+            return new Magazine(title, publisher, publicationsPerYear);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedRowException(e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a string value
+     *
+     * @return Returns the string
+     * @throws MalformedRowException If there is no valid string
+     */
+    private String parseString() throws MalformedRowException {
+        this.expect('"');
+        this.value.setLength(0);
+        while (true) {
+            if (this.position >= this.line.length()) {
+                throw new MalformedRowException("String is not closed.");
+            }
+            char character = this.line.charAt(this.position++);
+            if (character == '"') {
+                return this.value.toString();
+            }
+            if (character == '\\') {
+                this.value.append(this.parseEscape());
+            } else {
+                this.value.append(character);
+            }
+        }
+    }
+
+    /**
+     * Parses the escaped character following a backslash
+     *
+     * @return Returns the escaped character
+     * @throws MalformedRowException If the escape is not valid
+     */
+    private char parseEscape() throws MalformedRowException {
+        if (this.position >= this.line.length()) {
+            throw new MalformedRowException("String is not closed.");
+        }
+        char escaped = this.line.charAt(this.position++);
+        switch (escaped) {
+            case '"':
+            case '\\':
+            case '/':
+                return escaped;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (this.position + 4 > this.line.length()) {
+                    throw new MalformedRowException("Invalid unicode escape.");
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(this.line.substring(
+                            this.position, this.position + 4), 16);
+                    this.position += 4;
+                    return unicode;
+                } catch (NumberFormatException e) {
+                    throw new MalformedRowException("Invalid unicode escape.");
+                }
+            default:
+                throw new MalformedRowException("Invalid escape: \\" + escaped);
+        }
+    }
+
+    /**
+     * Parses a whole number value
+     *
+     * @return Returns the number
+     * @throws MalformedRowException If there is no valid whole number
+     */
+    private int parseInteger() throws MalformedRowException {
+        this.skipWhitespace();
+        int start = this.position;
+        if (this.position < this.line.length()
+                && this.line.charAt(this.position) == '-') {
+            this.position++;
+        }
+        while (this.position < this.line.length()
+                && Character.isDigit(this.line.charAt(this.position))) {
+            this.position++;
+        }
+        try {
+            return Integer.parseInt(this.line.substring(start, this.position));
+        } catch (NumberFormatException e) {
+            throw new MalformedRowException("Publications per year is "
+                    + "not a whole number.");
+        }
+    }
+
+    /**
+     * Skips a string, number, boolean or null value
+     *
+     * @throws MalformedRowException If the value is not supported
+     */
+    private void skipValue() throws MalformedRowException {
+        char first = this.peek();
+        if (first == '"') {
+            this.parseString();
+        } else if (first == '-' || Character.isDigit(first)
+                || Character.isLetter(first)) {
+            while (this.position < this.line.length()
+                    && ",} \t".indexOf(this.line.charAt(this.position)) < 0) {
+                this.position++;
+            }
+        } else {
+            throw new MalformedRowException("Unsupported value in field.");
+        }
+    }
+
+    /**
+     * Reads the next character, that must be the expected one
+     *
+     * @param expected The expected character
+     * @throws MalformedRowException If the next character is another one
+     */
+    private void expect(char expected) throws MalformedRowException {
+        char next = this.next();
+        if (next != expected) {
+            throw this.unexpected(next);
+        }
+    }
+
+    /**
+     * Returns the next character that is not whitespace, without
+     * reading it
+     *
+     * @return Returns the character, or 0 at the end of the line
+     */
+    private char peek() {
+        this.skipWhitespace();
+        return this.position < this.line.length()
+                ? this.line.charAt(this.position) : 0;
+    }
+
+    /**
+     * Reads the next character that is not whitespace
+     *
+     * @return Returns the character, or 0 at the end of the line
+     */
+    private char next() {
+        char next = this.peek();
+        this.position++;
+        return next;
+    }
+
+    /**
+     * Skips whitespace in the line
+     */
+    private void skipWhitespace() {
+        while (this.position < this.line.length()
+                && Character.isWhitespace(this.line.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    /**
+     * Creates an exception for an unexpected character
+     *
+     * @param character The unexpected character, 0 for end of line
+     * @return Returns the exception
+     */
+    private MalformedRowException unexpected(char character) {
+        if (character == 0) {
+            return new MalformedRowException("Unexpected end of line.");
+        }
+        return new MalformedRowException("Unexpected character '"
+                + character + "' at column " + this.position + ".");
+    }
+
+}
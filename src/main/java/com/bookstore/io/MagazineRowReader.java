@@ -0,0 +1,32 @@
+package com.bookstore.io;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+
+/**
+ * Reads magazines one row at a time from a catalog file.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface MagazineRowReader {
+
+    /**
+     * Reads the next row as a magazine. Blank rows are skipped.
+     *
+     * @return Returns the magazine, or null if there are no more rows
+     * @throws IOException If reading fails
+     * @throws MalformedRowException If the row is not a valid magazine
+     */
+    Magazine readRow() throws IOException, MalformedRowException;
+
+    /**
+     * Returns the line number where the last read row started,
+     * counting from 1
+     *
+     * @return Returns the line number of the last row
+     */
+    long getRowNumber();
+
+}
@@ -0,0 +1,27 @@
+package com.bookstore.io;
+
+/**
+ * Thrown when a row of a catalog file can not be read as a magazine.
+ * The row has been consumed when this is thrown, so reading can go on
+ * with the next row.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class MalformedRowException extends Exception {
+
+    /**
+     * Version of the serialized form
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create exception and bind message and call super to bind
+     * message.
+     * @param message Why the row could not be read
+     */
+    public MalformedRowException(String message) {
+        super(message);
+    }
+
+}
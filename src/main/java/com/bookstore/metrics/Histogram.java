@@ -0,0 +1,191 @@
+package com.bookstore.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values, like latencies in
+ * nanoseconds or result sizes.
+ * <p>
+ * The buckets are log-linear, as in HdrHistogram: values below
+ * {@value #SUB_BUCKET_COUNT} get a bucket each, and every power of two
+ * above is split in {@value #SUB_BUCKET_COUNT} buckets of equal width.
+ * A recorded value is thus off by at most 1 / {@value #SUB_BUCKET_COUNT}
+ * (about 3%) of itself, over the whole range of long, using a fixed
+ * {@value #BUCKET_COUNT} counters.
+ * <p>
+ * Recording a value increments one counter and adds to the sum, and
+ * never blocks. Reading
+ * percentiles while values are recorded gives an approximation, as the
+ * counters are read one at a time.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class Histogram {
+
+    /**
+     * Number of bits of the position within a power of two
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Number of buckets each power of two is split in
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets, enough for {@link Long#MAX_VALUE}
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS)
+            * SUB_BUCKET_COUNT;
+
+    /**
+     * The number of values recorded in each bucket
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * The sum of the values recorded
+     */
+    private final LongAdder sum;
+
+    /**
+     * The largest value recorded
+     */
+    private final AtomicLong max;
+
+    /**
+     * Creates an empty histogram
+     */
+    public Histogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a value, negative values are recorded as 0
+     *
+     * @param value The value to record
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        this.counts.incrementAndGet(bucketOf(recorded));
+        this.sum.add(recorded);
+        long largest = this.max.get();
+        while (recorded > largest
+                && !this.max.compareAndSet(largest, recorded)) {
+            largest = this.max.get();
+        }
+    }
+
+    /**
+     * Returns the number of values recorded
+     *
+     * @return Returns the number of values
+     */
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            count += this.counts.get(bucket);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values recorded
+     *
+     * @return Returns the mean, or 0 if no value is recorded
+     */
+    public double getMean() {
+        long count = this.getCount();
+        return count == 0 ? 0 : (double) this.sum.sum() / count;
+    }
+
+    /**
+     * Returns the largest value recorded
+     *
+     * @return Returns the largest value, or 0 if no value is recorded
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the value at the given percentile, the largest value of
+     * the bucket holding it
+     *
+     * @param percentile The percentile, from 0 to 100
+     * @return Returns the value, or 0 if no value is recorded
+     * @throws IllegalArgumentException If percentile is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException(
+                    "Percentile must be from 0 to 100.");
+        }
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            snapshot[bucket] = this.counts.get(bucket);
+            count += snapshot[bucket];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(bucket), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Removes all recorded values. Values recorded while resetting
+     * may be partly kept.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            this.counts.set(bucket, 0);
+        }
+        this.sum.reset();
+        this.max.set(0);
+    }
+
+    /**
+     * Returns the bucket of a value
+     *
+     * @param value The non-negative value
+     * @return Returns the bucket
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value)
+                - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value of a bucket
+     *
+     * @param bucket The bucket
+     * @return Returns the largest value
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long mantissa = bucket - (long) shift * SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.bookstore.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@link RegisterMetrics} to a file at a fixed interval, on a
+ * background thread. The file is replaced on every write, so it always
+ * holds the latest complete report.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class MetricsReporter implements Closeable {
+
+    /**
+     * The format of a report
+     */
+    public enum Format {
+
+        /**
+         * A text table, see {@link RegisterMetrics#toText()}
+         */
+        TEXT,
+
+        /**
+         * A JSON object, see {@link RegisterMetrics#toJson()}
+         */
+        JSON
+    }
+
+    /**
+     * The metrics to report
+     */
+    private final RegisterMetrics metrics;
+
+    /**
+     * The file to write
+     */
+    private final Path target;
+
+    /**
+     * The format of the reports
+     */
+    private final Format format;
+
+    /**
+     * Runs the writes
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts writing the metrics to the file
+     *
+     * @param metrics The metrics to report
+     * @param target The file to write
+     * @param format The format of the reports
+     * @param intervalMillis Milliseconds between the writes
+     * @throws IllegalArgumentException If an argument is null or the
+     *                                  interval is not positive
+     */
+    public MetricsReporter(RegisterMetrics metrics, Path target,
+                           Format format, long intervalMillis) {
+        if (metrics == null || target == null || format == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Interval must be positive.");
+        }
+        this.metrics = metrics;
+        this.target = target;
+        this.format = format;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::writeQuietly, intervalMillis,
+                intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a report now
+     *
+     * @throws IOException If writing fails
+     */
+    public void write() throws IOException {
+        String report = this.format == Format.JSON
+                ? this.metrics.toJson() + System.lineSeparator()
+                : this.metrics.toText();
+        Path temporary = this.target.resolveSibling(
+                this.target.getFileName() + ".tmp");
+        Files.write(temporary, report.getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, this.target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops the periodic writes and writes a last report
+     *
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.write();
+    }
+
+    /**
+     * Writes a report, a failed write is skipped so the next is tried
+     */
+    private void writeQuietly() {
+        try {
+            this.write();
+        } catch (IOException e) {
+            // Skipped, the next report is tried at the next interval
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.bookstore.metrics;
+
+/**
+ * The register operations measured by {@link RegisterMetrics}
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public enum Operation {
+
+    /**
+     * Adding one magazine
+     */
+    ADD("addMagazine"),
+
+    /**
+     * Adding many magazines at once, the result size is the number added
+     */
+    ADD_ALL("addAll"),
+
+    /**
+     * Deleting a magazine, the result size is 1 if deleted else 0
+     */
+    DELETE("deleteMagazine"),
+
+    /**
+     * Checking for a duplicate, the result size is 1 if found else 0
+     */
+    HAS_DUPLICATE("hasDuplicateOf"),
+
+    /**
+     * Searching the titles
+     */
+    SEARCH_TITLES("searchMagazinesTitles"),
+
+    /**
+     * Searching the titles within an edit distance
+     */
+    SEARCH_TITLES_FUZZY("searchMagazinesTitlesFuzzy"),
+
+    /**
+     * Searching the publishers
+     */
+    SEARCH_PUBLISHER("searchMagazinesByPublisher"),
+
+    /**
+     * Searching a range of publications per year
+     */
+    SEARCH_PUBLICATIONS_PER_YEAR("searchByPublicationsPerYear"),
+
+    /**
+     * Listing the most published magazines
+     */
+    MOST_PUBLISHED("getMostPublished"),
+
+    /**
+     * Running a compound query
+     */
+    QUERY("query"),
+
+    /**
+     * Listing all magazines
+     */
+    LIST_ALL("getAllMagazines");
+
+    /**
+     * The name of the operation in reports
+     */
+    private final String name;
+
+    /**
+     * Creates an operation
+     *
+     * @param name The name of the operation in reports
+     */
+    Operation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the operation in reports, the name of the
+     * register method
+     *
+     * @return Returns the name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.bookstore.metrics;
+
+/**
+ * The latencies and result sizes of one register operation.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * The operation measured
+     */
+    private final Operation operation;
+
+    /**
+     * The latencies in nanoseconds
+     */
+    private final Histogram latencies;
+
+    /**
+     * The result sizes
+     */
+    private final Histogram resultSizes;
+
+    /**
+     * Creates empty metrics of an operation
+     *
+     * @param operation The operation measured
+     */
+    OperationMetrics(Operation operation) {
+        this.operation = operation;
+        this.latencies = new Histogram();
+        this.resultSizes = new Histogram();
+    }
+
+    /**
+     * Records a completed operation
+     *
+     * @param latencyNanos The latency in nanoseconds
+     * @param resultSize The result size
+     */
+    void record(long latencyNanos, long resultSize) {
+        this.latencies.record(latencyNanos);
+        this.resultSizes.record(resultSize);
+    }
+
+    /**
+     * Returns the operation measured
+     *
+     * @return Returns the operation
+     */
+    public Operation getOperation() {
+        return this.operation;
+    }
+
+    /**
+     * Returns the histogram of the latencies, in nanoseconds
+     *
+     * @return Returns the latencies
+     */
+    public Histogram getLatencies() {
+        return this.latencies;
+    }
+
+    /**
+     * Returns the histogram of the result sizes
+     *
+     * @return Returns the result sizes
+     */
+    public Histogram getResultSizes() {
+        return this.resultSizes;
+    }
+
+    @Override
+    public long getCount() {
+        return this.latencies.getCount();
+    }
+
+    @Override
+    public double getMeanLatencyNanos() {
+        return this.latencies.getMean();
+    }
+
+    @Override
+    public long getP50LatencyNanos() {
+        return this.latencies.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90LatencyNanos() {
+        return this.latencies.getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99LatencyNanos() {
+        return this.latencies.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999LatencyNanos() {
+        return this.latencies.getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return this.latencies.getMax();
+    }
+
+    @Override
+    public double getMeanResultSize() {
+        return this.resultSizes.getMean();
+    }
+
+    @Override
+    public long getP50ResultSize() {
+        return this.resultSizes.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP99ResultSize() {
+        return this.resultSizes.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getMaxResultSize() {
+        return this.resultSizes.getMax();
+    }
+
+    @Override
+    public void reset() {
+        this.latencies.reset();
+        this.resultSizes.reset();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.bookstore.metrics;
+
+/**
+ * Management interface of the metrics of one register operation,
+ * see {@link OperationMetrics}. Latencies are in nanoseconds.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * Returns the number of completed operations
+     *
+     * @return Returns the number of operations
+     */
+    long getCount();
+
+    /**
+     * Returns the mean latency
+     *
+     * @return Returns the mean latency in nanoseconds
+     */
+    double getMeanLatencyNanos();
+
+    /**
+     * Returns the median latency
+     *
+     * @return Returns the latency in nanoseconds
+     */
+    long getP50LatencyNanos();
+
+    /**
+     * Returns the 90th percentile latency
+     *
+     * @return Returns the latency in nanoseconds
+     */
+    long getP90LatencyNanos();
+
+    /**
+     * Returns the 99th percentile latency
+     *
+     * @return Returns the latency in nanoseconds
+     */
+    long getP99LatencyNanos();
+
+    /**
+     * Returns the 99.9th percentile latency
+     *
+     * @return Returns the latency in nanoseconds
+     */
+    long getP999LatencyNanos();
+
+    /**
+     * Returns the largest latency
+     *
+     * @return Returns the latency in nanoseconds
+     */
+    long getMaxLatencyNanos();
+
+    /**
+     * Returns the mean result size
+     *
+     * @return Returns the mean result size
+     */
+    double getMeanResultSize();
+
+    /**
+     * Returns the median result size
+     *
+     * @return Returns the result size
+     */
+    long getP50ResultSize();
+
+    /**
+     * Returns the 99th percentile result size
+     *
+     * @return Returns the result size
+     */
+    long getP99ResultSize();
+
+    /**
+     * Returns the largest result size
+     *
+     * @return Returns the result size
+     */
+    long getMaxResultSize();
+
+    /**
+     * Removes all recorded values
+     */
+    void reset();
+
+}
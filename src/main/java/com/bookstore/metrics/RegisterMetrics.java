@@ -0,0 +1,216 @@
+package com.bookstore.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of the operations of a register, see
+ * {@link com.bookstore.MagazineRegister#setMetrics(RegisterMetrics)}.
+ * <p>
+ * Recording takes two reads of the clock and a few uncontended atomic
+ * increments, so it can stay on in production. It can be switched off at
+ * runtime, the register then only checks the switch. A register without
+ * metrics records nothing.
+ * <p>
+ * The metrics can be read through JMX, see
+ * {@link #registerMBeans(MBeanServer)}, and written as text or JSON,
+ * see {@link MetricsReporter}.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class RegisterMetrics implements RegisterMetricsMXBean {
+
+    /**
+     * Domain of the JMX object names
+     */
+    private static final String JMX_DOMAIN = "com.bookstore";
+
+    /**
+     * The metrics of each operation, by ordinal
+     */
+    private final OperationMetrics[] operations;
+
+    /**
+     * True if operations are recorded
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Creates enabled metrics with nothing recorded
+     */
+    public RegisterMetrics() {
+        Operation[] all = Operation.values();
+        this.operations = new OperationMetrics[all.length];
+        for (Operation operation : all) {
+            this.operations[operation.ordinal()] = new OperationMetrics(operation);
+        }
+        this.enabled = true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a completed operation, if enabled
+     *
+     * @param operation The operation
+     * @param latencyNanos The latency in nanoseconds
+     * @param resultSize The result size
+     */
+    public void record(Operation operation, long latencyNanos, long resultSize) {
+        if (this.enabled) {
+            this.operations[operation.ordinal()].record(latencyNanos, resultSize);
+        }
+    }
+
+    /**
+     * Returns the metrics of an operation
+     *
+     * @param operation The operation
+     * @return Returns the metrics
+     */
+    public OperationMetrics get(Operation operation) {
+        return this.operations[operation.ordinal()];
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : this.operations) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Registers the switch and the metrics of every operation as MBeans
+     * named <code>com.bookstore:type=RegisterMetrics</code> and
+     * <code>com.bookstore:type=RegisterMetrics,operation=NAME</code>.
+     *
+     * @param server The server to register with, like
+     *               {@link ManagementFactory#getPlatformMBeanServer()}
+     * @throws JMException If an MBean can not be registered
+     */
+    public void registerMBeans(MBeanServer server) throws JMException {
+        server.registerMBean(this, switchName());
+        for (OperationMetrics metrics : this.operations) {
+            server.registerMBean(metrics,
+                    operationName(metrics.getOperation()));
+        }
+    }
+
+    /**
+     * Unregisters the MBeans registered by
+     * {@link #registerMBeans(MBeanServer)}
+     *
+     * @param server The server registered with
+     * @throws JMException If an MBean can not be unregistered
+     */
+    public void unregisterMBeans(MBeanServer server) throws JMException {
+        server.unregisterMBean(switchName());
+        for (OperationMetrics metrics : this.operations) {
+            server.unregisterMBean(operationName(metrics.getOperation()));
+        }
+    }
+
+    /**
+     * Returns the metrics as a text table, latencies in microseconds
+     *
+     * @return Returns the table
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT,
+                "%-27s %10s %10s %10s %10s %10s %10s %10s%n", "operation",
+                "count", "mean us", "p50 us", "p99 us", "max us",
+                "p50 size", "max size"));
+        for (OperationMetrics metrics : this.operations) {
+            text.append(String.format(Locale.ROOT,
+                    "%-27s %10d %10.1f %10.1f %10.1f %10.1f %10d %10d%n",
+                    metrics.getOperation().getName(), metrics.getCount(),
+                    metrics.getMeanLatencyNanos() / 1000,
+                    metrics.getP50LatencyNanos() / 1000.0,
+                    metrics.getP99LatencyNanos() / 1000.0,
+                    metrics.getMaxLatencyNanos() / 1000.0,
+                    metrics.getP50ResultSize(), metrics.getMaxResultSize()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the metrics as a JSON object, latencies in nanoseconds
+     *
+     * @return Returns the JSON text
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"timestamp\":\"").append(Instant.now())
+                .append("\",\"enabled\":").append(this.enabled)
+                .append(",\"operations\":{");
+        for (int i = 0; i < this.operations.length; i++) {
+            OperationMetrics metrics = this.operations[i];
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(metrics.getOperation().getName())
+                    .append("\":{\"count\":").append(metrics.getCount())
+                    .append(",\"latencyNanos\":");
+            appendHistogram(json, metrics.getLatencies());
+            json.append(",\"resultSize\":");
+            appendHistogram(json, metrics.getResultSizes());
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Appends a histogram as a JSON object of its mean, percentiles
+     * and max
+     *
+     * @param json The JSON to append to
+     * @param histogram The histogram
+     */
+    private static void appendHistogram(StringBuilder json, Histogram histogram) {
+        json.append(String.format(Locale.ROOT, "{\"mean\":%.1f", histogram.getMean()))
+                .append(",\"p50\":").append(histogram.getValueAtPercentile(50))
+                .append(",\"p90\":").append(histogram.getValueAtPercentile(90))
+                .append(",\"p99\":").append(histogram.getValueAtPercentile(99))
+                .append(",\"p999\":").append(histogram.getValueAtPercentile(99.9))
+                .append(",\"max\":").append(histogram.getMax()).append('}');
+    }
+
+    /**
+     * Returns the JMX name of the switch
+     *
+     * @return Returns the name
+     * @throws JMException If the name is invalid
+     */
+    private static ObjectName switchName() throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=RegisterMetrics");
+    }
+
+    /**
+     * Returns the JMX name of the metrics of an operation
+     *
+     * @param operation The operation
+     * @return Returns the name
+     * @throws JMException If the name is invalid
+     */
+    private static ObjectName operationName(Operation operation)
+            throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=RegisterMetrics,operation="
+                + operation.getName());
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.bookstore.metrics;
+
+/**
+ * Management interface of the {@link RegisterMetrics} switch
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface RegisterMetricsMXBean {
+
+    /**
+     * Returns true if operations are recorded
+     *
+     * @return Returns true if enabled else false
+     */
+    boolean isEnabled();
+
+    /**
+     * Turns recording on or off
+     *
+     * @param enabled True to record operations
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Removes all recorded values of all operations
+     */
+    void reset();
+
+}
@@ -0,0 +1,33 @@
+package com.bookstore.persistence;
+
+/**
+ * When the write-ahead log forces written records to the disk.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every record is written and forced to the disk before the change
+     * is applied. Nothing is lost on a crash, but every change waits
+     * for the disk.
+     */
+    ALWAYS,
+
+    /**
+     * Records are buffered and written and forced by a background
+     * thread at every group commit interval (group commit). Changes
+     * never wait for the disk, changes of the last interval can be
+     * lost on a crash.
+     */
+    BATCHED,
+
+    /**
+     * Records are buffered and written by a background thread at every
+     * group commit interval, and the operating system decides when
+     * they reach the disk.
+     */
+    NEVER
+
+}
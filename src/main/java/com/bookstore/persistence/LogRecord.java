@@ -0,0 +1,68 @@
+package com.bookstore.persistence;
+
+import com.bookstore.readables.Magazine;
+
+/**
+ * A change read back from the write-ahead log.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class LogRecord {
+
+    /**
+     * The kinds of changes in the log
+     */
+    public enum Type {
+
+        /**
+         * A magazine was added
+         */
+        ADD,
+
+        /**
+         * A magazine was deleted
+         */
+        DELETE
+    }
+
+    /**
+     * The kind of change
+     */
+    private final Type type;
+
+    /**
+     * The magazine added or deleted
+     */
+    private final Magazine magazine;
+
+    /**
+     * Creates a record
+     *
+     * @param type The kind of change
+     * @param magazine The magazine added or deleted
+     */
+    public LogRecord(Type type, Magazine magazine) {
+        this.type = type;
+        this.magazine = magazine;
+    }
+
+    /**
+     * Returns the kind of change
+     *
+     * @return Returns the type of the record
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the magazine added or deleted
+     *
+     * @return Returns the magazine
+     */
+    public Magazine getMagazine() {
+        return this.magazine;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.bookstore.persistence;
+
+/**
+ * Options of a {@link PersistentCatalog}.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class PersistenceOptions {
+
+    /**
+     * When records are forced to the disk
+     */
+    private final FsyncPolicy fsyncPolicy;
+
+    /**
+     * Milliseconds between group commits
+     */
+    private final long groupCommitIntervalMillis;
+
+    /**
+     * Size the log can grow to before it is compacted into a snapshot
+     */
+    private final long compactionThresholdBytes;
+
+    /**
+     * Creates the options
+     *
+     * @param fsyncPolicy When records are forced to the disk
+     * @param groupCommitIntervalMillis Milliseconds between group commits,
+     *                                  not used by {@link FsyncPolicy#ALWAYS}
+     * @param compactionThresholdBytes Size the log can grow to before it is
+     *                                 compacted into a snapshot
+     * @throws IllegalArgumentException If policy is null or a number is
+     *                                  less than 1
+     */
+    public PersistenceOptions(FsyncPolicy fsyncPolicy,
+                              long groupCommitIntervalMillis,
+                              long compactionThresholdBytes) {
+        if (fsyncPolicy == null) {
+            throw new IllegalArgumentException("Null passed as argument");
+        }
+        if (groupCommitIntervalMillis < 1 || compactionThresholdBytes < 1) {
+            throw new IllegalArgumentException("Interval and threshold "
+                    + "must be at least 1.");
+        }
+        this.fsyncPolicy = fsyncPolicy;
+        this.groupCommitIntervalMillis = groupCommitIntervalMillis;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+    }
+
+    /**
+     * Returns the default options: group commit every 10 milliseconds,
+     * and compaction when the log reaches 64 MB.
+     *
+     * @return Returns the default options
+     */
+    public static PersistenceOptions defaults() {
+        return new PersistenceOptions(FsyncPolicy.BATCHED, 10,
+                64L * 1024 * 1024);
+    }
+
+    /**
+     * Returns when records are forced to the disk
+     *
+     * @return Returns the fsync policy
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return this.fsyncPolicy;
+    }
+
+    /**
+     * Returns the milliseconds between group commits
+     *
+     * @return Returns the group commit interval
+     */
+    public long getGroupCommitIntervalMillis() {
+        return this.groupCommitIntervalMillis;
+    }
+
+    /**
+     * Returns the size the log can grow to before it is compacted
+     *
+     * @return Returns the compaction threshold in bytes
+     */
+    public long getCompactionThresholdBytes() {
+        return this.compactionThresholdBytes;
+    }
+
+}
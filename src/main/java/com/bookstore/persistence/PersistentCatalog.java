@@ -0,0 +1,462 @@
+package com.bookstore.persistence;
+
+import com.bookstore.MagazineJournal;
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+import com.bookstore.storage.CatalogFile;
+import com.bookstore.storage.MappedMagazineStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link MagazineRegister} on disk, so it survives a restart.
+ * <p>
+ * Every change to the register is appended to a write-ahead log before
+ * it is applied. When the log grows past the compaction threshold, the
+ * log continues in a new segment file and a copy of the register is
+ * written as a snapshot in the background. The snapshot replaces the
+ * older snapshot and log segments. Taking the copy pauses the thread
+ * changing the register for time linear in its size, as the magazines
+ * are collected in an array before the snapshot is written. A failed
+ * snapshot write is reported by the next change, or when the catalog
+ * is closed, and the log keeps growing until a snapshot succeeds.
+ * <p>
+ * Snapshots are {@link CatalogFile}s. Opening a catalog maps the newest
+ * snapshot, see {@link MappedMagazineStore}, and replays the log
+ * segments written after it. Mapping takes the same time whatever the
+ * size of the catalog, and replayed changes are kept in an overlay on
+ * top of the mapped magazines, which are not copied. The indexes are not
+ * kept in the snapshot, so replaying a change, or the first search,
+ * builds them from every magazine, and compaction keeps the log to
+ * replay short. The directory
+ * holds <code>snapshot-N.dat</code>, the register as it was before segment N,
+ * and the log segments <code>wal-N.log</code>.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class PersistentCatalog implements MagazineJournal, Closeable {
+
+    /**
+     * Start of the snapshot file names
+     */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    /**
+     * End of the snapshot file names
+     */
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    /**
+     * Start of the log segment file names
+     */
+    private static final String SEGMENT_PREFIX = "wal-";
+
+    /**
+     * End of the log segment file names
+     */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * The directory holding the files
+     */
+    private final Path directory;
+
+    /**
+     * The options of the catalog
+     */
+    private final PersistenceOptions options;
+
+    /**
+     * The register kept on disk, the last register whose changes were
+     * applied when copies of it share this journal
+     */
+    private volatile MagazineRegister register;
+
+    /**
+     * The log the changes are appended to
+     */
+    private final WriteAheadLog log;
+
+    /**
+     * Number of the current log segment
+     */
+    private long segmentNumber;
+
+    /**
+     * Writes snapshots in the background
+     */
+    private final ExecutorService compactor;
+
+    /**
+     * The snapshot being written, null if none
+     */
+    private Future<?> runningCompaction;
+
+    /**
+     * Creates a catalog from a recovered register
+     *
+     * @param directory The directory holding the files
+     * @param options The options of the catalog
+     * @param register The recovered register
+     * @param segmentNumber Number of the segment to append to
+     * @throws IOException If the log segment can not be opened
+     */
+    private PersistentCatalog(Path directory, PersistenceOptions options,
+                              MagazineRegister register, long segmentNumber)
+            throws IOException {
+        this.directory = directory;
+        this.options = options;
+        this.register = register;
+        this.segmentNumber = segmentNumber;
+        this.log = new WriteAheadLog(this.segmentPath(segmentNumber),
+                options.getFsyncPolicy(),
+                options.getGroupCommitIntervalMillis());
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.runningCompaction = null;
+        register.setJournal(this);
+    }
+
+    /**
+     * Opens the catalog in the given directory, creating it if missing.
+     * The newest complete snapshot is mapped, and the log segments
+     * written after it are replayed.
+     *
+     * @param directory The directory holding the catalog files
+     * @param options The options of the catalog
+     * @return Returns the opened catalog
+     * @throws IOException If the files can not be read
+     */
+    public static PersistentCatalog open(Path directory,
+                                         PersistenceOptions options)
+            throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> snapshots = fileNumbers(directory, SNAPSHOT_PREFIX,
+                SNAPSHOT_SUFFIX);
+        MagazineRegister register = null;
+        long firstSegment = 0;
+        for (int i = snapshots.size() - 1; i >= 0 && register == null; i--) {
+            try {
+                register = new MagazineRegister(MappedMagazineStore.open(
+                        snapshotPath(directory, snapshots.get(i))));
+                firstSegment = snapshots.get(i);
+            } catch (IOException e) {
+                // A damaged snapshot, fall back to the one before
+                register = null;
+            }
+        }
+        if (register == null) {
+            register = new MagazineRegister();
+        }
+
+        long lastSegment = firstSegment;
+        for (long segment : fileNumbers(directory, SEGMENT_PREFIX,
+                SEGMENT_SUFFIX)) {
+            if (segment >= firstSegment) {
+                replay(segmentPath(directory, segment), register);
+                lastSegment = segment;
+            }
+        }
+        return new PersistentCatalog(directory, options, register,
+                lastSegment + 1);
+    }
+
+    /**
+     * Returns the register kept on disk. Changes to the register are
+     * logged until the catalog is closed.
+     * <p>
+     * Copies of the register share its journal, see
+     * {@link MagazineRegister#MagazineRegister(MagazineRegister)}, so
+     * their changes are logged too. The catalog then keeps the copy last
+     * changed, such as the latest snapshot of a
+     * {@link com.bookstore.ConcurrentMagazineRegister}, and snapshots it
+     * on compaction.
+     *
+     * @return Returns the register
+     */
+    public MagazineRegister getRegister() {
+        return this.register;
+    }
+
+    /**
+     * Writes a snapshot of the register now and removes the older
+     * snapshot and log segments. Must be called from the thread
+     * changing the register.
+     *
+     * @throws IOException If writing the snapshot fails
+     */
+    public void checkpoint() throws IOException {
+        Future<?> compaction = this.startCompaction();
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing snapshot.", e);
+        } catch (ExecutionException e) {
+            // Reported by checkCompaction
+        }
+        this.checkCompaction();
+    }
+
+    /**
+     * Forces all logged changes to the disk, whatever the fsync policy
+     *
+     * @throws IOException If writing fails
+     */
+    public void sync() throws IOException {
+        this.log.sync();
+    }
+
+    /**
+     * Forces all logged changes to the disk and closes the catalog.
+     * The register is no longer logged.
+     *
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        this.register.setJournal(null);
+        this.compactor.shutdown();
+        try {
+            this.compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.checkCompaction();
+        } finally {
+            this.log.close();
+        }
+    }
+
+    @Override
+    public void logAdd(Magazine magazine) {
+        this.append(LogRecord.Type.ADD, magazine);
+    }
+
+    @Override
+    public void logDelete(Magazine magazine) {
+        this.append(LogRecord.Type.DELETE, magazine);
+    }
+
+    /**
+     * Keeps the changed register as the register kept on disk, as it
+     * holds every logged change, and starts a compaction when the log
+     * has reached the threshold and no snapshot is being written
+     *
+     * @param changedRegister The register that was changed
+     * @throws UncheckedIOException If the last snapshot write failed,
+     *                              or the new segment can not be opened
+     */
+    @Override
+    public void changesApplied(MagazineRegister changedRegister) {
+        this.register = changedRegister;
+        try {
+            if (this.runningCompaction != null
+                    && !this.runningCompaction.isDone()) {
+                return;
+            }
+            this.checkCompaction();
+            if (this.log.getSegmentBytes()
+                    >= this.options.getCompactionThresholdBytes()) {
+                this.startCompaction();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reports the failure of the last snapshot write once, if it failed.
+     * The log segments it would have replaced are kept, so no change is
+     * lost, and the next compaction writes the snapshot again.
+     *
+     * @throws IOException If the last snapshot write failed
+     */
+    private void checkCompaction() throws IOException {
+        Future<?> compaction = this.runningCompaction;
+        if (compaction == null || !compaction.isDone()) {
+            return;
+        }
+        this.runningCompaction = null;
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing snapshot.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Writing snapshot failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Continues the log in a new segment, and writes a snapshot of
+     * a copy of the register in the background. The copy is taken on
+     * the calling thread, so it matches the end of the old segment. Only
+     * the magazines are copied, not the indexes, but the copy still
+     * takes time linear in the size of the register.
+     *
+     * @return Returns the running snapshot write
+     * @throws IOException If the new segment can not be opened
+     */
+    private Future<?> startCompaction() throws IOException {
+        long nextSegment = this.segmentNumber + 1;
+        this.log.roll(this.segmentPath(nextSegment));
+        this.segmentNumber = nextSegment;
+
+        Magazine[] magazines = this.register.streamAllMagazines()
+                .toArray(Magazine[]::new);
+        this.runningCompaction = this.compactor.submit(() -> {
+            CatalogFile.write(snapshotPath(this.directory, nextSegment),
+                    magazines.length, Arrays.asList(magazines).iterator());
+            this.deleteFilesBefore(nextSegment);
+            return null;
+        });
+        return this.runningCompaction;
+    }
+
+    /**
+     * Deletes the snapshots and log segments older than
+     * the given segment
+     *
+     * @param segment The number of the newest snapshot
+     * @throws IOException If a file can not be deleted
+     */
+    private void deleteFilesBefore(long segment) throws IOException {
+        for (long number : fileNumbers(this.directory, SNAPSHOT_PREFIX,
+                SNAPSHOT_SUFFIX)) {
+            if (number < segment) {
+                Files.deleteIfExists(snapshotPath(this.directory, number));
+            }
+        }
+        for (long number : fileNumbers(this.directory, SEGMENT_PREFIX,
+                SEGMENT_SUFFIX)) {
+            if (number < segment) {
+                Files.deleteIfExists(segmentPath(this.directory, number));
+            }
+        }
+    }
+
+    /**
+     * Appends a change to the log
+     *
+     * @param type The kind of change
+     * @param magazine The magazine added or deleted
+     * @throws UncheckedIOException If appending fails, so the change
+     *                              is not applied
+     */
+    private void append(LogRecord.Type type, Magazine magazine) {
+        try {
+            this.log.append(type, magazine);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Applies the changes of a log segment to the register
+     *
+     * @param segmentFile The segment to replay
+     * @param register The register to apply the changes to
+     * @throws IOException If the segment can not be read
+     */
+    private static void replay(Path segmentFile, MagazineRegister register)
+            throws IOException {
+        WriteAheadLog.replay(segmentFile, record -> {
+            Magazine magazine = record.getMagazine();
+            if (record.getType() == LogRecord.Type.ADD) {
+                if (!register.hasDuplicateOf(magazine)) {
+                    register.addMagazine(magazine);
+                }
+            } else {
+                Magazine stored = register.findDuplicateOf(magazine);
+                if (stored != null) {
+                    register.deleteMagazine(stored);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the path of a log segment in this catalog
+     *
+     * @param number The number of the segment
+     * @return Returns the path of the segment
+     */
+    private Path segmentPath(long number) {
+        return segmentPath(this.directory, number);
+    }
+
+    /**
+     * Returns the path of a log segment
+     *
+     * @param directory The catalog directory
+     * @param number The number of the segment
+     * @return Returns the path of the segment
+     */
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%012d", number)
+                + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the path of a snapshot
+     *
+     * @param directory The catalog directory
+     * @param number The number of the segment following the snapshot
+     * @return Returns the path of the snapshot
+     */
+    private static Path snapshotPath(Path directory, long number) {
+        return directory.resolve(SNAPSHOT_PREFIX + String.format("%012d", number)
+                + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Returns the numbers of the files with the given prefix and suffix
+     * in the directory, sorted ascending
+     *
+     * @param directory The directory to list
+     * @param prefix The start of the file names
+     * @param suffix The end of the file names
+     * @return Returns the sorted file numbers
+     * @throws IOException If the directory can not be listed
+     */
+    private static List<Long> fileNumbers(Path directory, String prefix,
+                                          String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(),
+                            name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not a catalog file
+                }
+            }
+        }
+        Collections.sort(numbers);
+        return numbers;
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.bookstore.persistence;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Encodes magazines as compact binary records:
+ * publications per year, then the UTF-8 title and publisher,
+ * each prefixed with its length.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+final class RecordCodec {
+
+    /**
+     * Longest accepted string, in bytes. Guards against reading
+     * garbage lengths from a damaged file.
+     */
+    static final int MAX_STRING_BYTES = 1 << 20;
+
+    /**
+     * Utility class, should not be instantiated.
+     */
+    private RecordCodec() {
+    }
+
+    /**
+     * Growable byte buffer a record is encoded into,
+     * reused between records
+     */
+    static class Buffer {
+
+        /**
+         * The bytes, only the first {@link #length} are in use
+         */
+        private byte[] bytes = new byte[256];
+
+        /**
+         * Number of bytes in use
+         */
+        private int length;
+
+        /**
+         * Empties the buffer
+         */
+        void clear() {
+            this.length = 0;
+        }
+
+        /**
+         * Returns the bytes of the buffer, valid up to {@link #length()}
+         *
+         * @return Returns the backing array
+         */
+        byte[] bytes() {
+            return this.bytes;
+        }
+
+        /**
+         * Returns the number of bytes in use
+         *
+         * @return Returns the length
+         */
+        int length() {
+            return this.length;
+        }
+
+        /**
+         * Appends a byte
+         *
+         * @param value The byte
+         */
+        void writeByte(int value) {
+            this.ensureRoom(1);
+            this.bytes[this.length++] = (byte) value;
+        }
+
+        /**
+         * Appends an int, big endian
+         *
+         * @param value The int
+         */
+        void writeInt(int value) {
+            this.ensureRoom(4);
+            this.bytes[this.length++] = (byte) (value >>> 24);
+            this.bytes[this.length++] = (byte) (value >>> 16);
+            this.bytes[this.length++] = (byte) (value >>> 8);
+            this.bytes[this.length++] = (byte) value;
+        }
+
+        /**
+         * Appends bytes
+         *
+         * @param source The array holding the bytes
+         * @param offset Where the bytes start in source
+         * @param count Number of bytes to append
+         */
+        void write(byte[] source, int offset, int count) {
+            this.ensureRoom(count);
+            System.arraycopy(source, offset, this.bytes, this.length, count);
+            this.length += count;
+        }
+
+        /**
+         * Removes bytes from the start of the buffer, moving the rest down
+         *
+         * @param count Number of bytes to remove
+         */
+        void removeFirst(int count) {
+            System.arraycopy(this.bytes, count, this.bytes, 0, this.length - count);
+            this.length -= count;
+        }
+
+        /**
+         * Overwrites an int at the given position, big endian
+         *
+         * @param position The position to write at
+         * @param value The int
+         */
+        void setInt(int position, int value) {
+            this.bytes[position] = (byte) (value >>> 24);
+            this.bytes[position + 1] = (byte) (value >>> 16);
+            this.bytes[position + 2] = (byte) (value >>> 8);
+            this.bytes[position + 3] = (byte) value;
+        }
+
+        /**
+         * Appends a string as its UTF-8 length and bytes
+         *
+         * @param value The string
+         */
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            this.writeInt(encoded.length);
+            this.ensureRoom(encoded.length);
+            System.arraycopy(encoded, 0, this.bytes, this.length, encoded.length);
+            this.length += encoded.length;
+        }
+
+        /**
+         * Grows the buffer to make room for more bytes
+         *
+         * @param extra Number of bytes to make room for
+         */
+        private void ensureRoom(int extra) {
+            if (this.length + extra > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes,
+                        Math.max(this.bytes.length * 2, this.length + extra));
+            }
+        }
+    }
+
+    /**
+     * Appends a magazine to the buffer
+     *
+     * @param buffer The buffer to append to
+     * @param magazine The magazine to encode
+     */
+    static void writeMagazine(Buffer buffer, Magazine magazine) {
+        buffer.writeInt(magazine.getPublicationsPerYear());
+        buffer.writeString(magazine.getTitle());
+        buffer.writeString(magazine.getPublisher());
+    }
+
+    /**
+     * Reads a magazine written by {@link #writeMagazine(Buffer, Magazine)}
+     *
+     * @param input The input to read from
+     * @return Returns the magazine
+     * @throws IOException If reading fails or the record is damaged
+     */
+    static Magazine readMagazine(DataInput input) throws IOException {
+        int publicationsPerYear = input.readInt();
+        String title = readString(input);
+        String publisher = readString(input);
+        try {
+            return new Magazine(title, publisher, publicationsPerYear);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Damaged record: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link Buffer#writeString(String)}
+     *
+     * @param input The input to read from
+     * @return Returns the string
+     * @throws IOException If reading fails or the length is invalid
+     */
+    private static String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Damaged record, string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
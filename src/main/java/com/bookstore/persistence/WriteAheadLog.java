@@ -0,0 +1,369 @@
+package com.bookstore.persistence;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changes to a register, written to a segment
+ * file. Each record is framed as
+ * <code>[payload length][type][payload][CRC32 of type and payload]</code>,
+ * so a record torn by a crash is detected when the log is replayed.
+ * <p>
+ * With {@link FsyncPolicy#ALWAYS} a record is on the disk when
+ * {@link #append} returns. With the other policies records are
+ * collected in memory and written by a background thread at every
+ * group commit interval, so appending only costs the encoding.
+ * Two buffers are used, so appending never waits for the disk.
+ * <p>
+ * Records a failed write left unwritten are kept ahead of the records
+ * appended after them and written by the next write, so the segment
+ * never holds records out of order or twice.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * Pending bytes that make an append write the buffer at once
+     * instead of waiting for the next group commit
+     */
+    private static final int MAX_PENDING_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * Bytes of the frame around the payload
+     */
+    private static final int FRAME_BYTES = 4 + 1 + 4;
+
+    /**
+     * When records are forced to the disk
+     */
+    private final FsyncPolicy fsyncPolicy;
+
+    /**
+     * Guards {@link #pending} and {@link #segmentBytes}
+     */
+    private final Object appendLock;
+
+    /**
+     * Guards the channel, taken before {@link #appendLock} when both are needed
+     */
+    private final Object writeLock;
+
+    /**
+     * Records appended but not yet written
+     */
+    private RecordCodec.Buffer pending;
+
+    /**
+     * Records being written, swapped with {@link #pending}
+     */
+    private RecordCodec.Buffer writing;
+
+    /**
+     * Computes the record checksums
+     */
+    private final CRC32 checksum;
+
+    /**
+     * The current segment file
+     */
+    private FileChannel channel;
+
+    /**
+     * Bytes appended to the current segment
+     */
+    private long segmentBytes;
+
+    /**
+     * Writes and forces the records at every group commit, null for
+     * {@link FsyncPolicy#ALWAYS}
+     */
+    private final ScheduledExecutorService groupCommitter;
+
+    /**
+     * Failure of the last background write, reported once by the next append
+     */
+    private volatile IOException backgroundFailure;
+
+    /**
+     * Opens a log appending to the given segment file
+     *
+     * @param segmentFile The segment file, created if missing
+     * @param fsyncPolicy When records are forced to the disk
+     * @param groupCommitIntervalMillis Milliseconds between group commits
+     * @throws IOException If the file can not be opened
+     */
+    public WriteAheadLog(Path segmentFile, FsyncPolicy fsyncPolicy,
+                         long groupCommitIntervalMillis) throws IOException {
+        this.fsyncPolicy = fsyncPolicy;
+        this.appendLock = new Object();
+        this.writeLock = new Object();
+        this.pending = new RecordCodec.Buffer();
+        this.writing = new RecordCodec.Buffer();
+        this.checksum = new CRC32();
+        this.channel = this.openSegment(segmentFile);
+        this.segmentBytes = this.channel.size();
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            this.groupCommitter = null;
+        } else {
+            this.groupCommitter = Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "wal-group-commit");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.groupCommitter.scheduleWithFixedDelay(this::groupCommit,
+                    groupCommitIntervalMillis, groupCommitIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Appends a change to the log
+     *
+     * @param type The kind of change
+     * @param magazine The magazine added or deleted
+     * @throws IOException If writing fails, or a background write failed
+     */
+    public void append(LogRecord.Type type, Magazine magazine)
+            throws IOException {
+        IOException failure = this.backgroundFailure;
+        if (failure != null) {
+            this.backgroundFailure = null;
+            throw new IOException("Writing the log failed.", failure);
+        }
+
+        boolean writeNow = this.fsyncPolicy == FsyncPolicy.ALWAYS;
+        synchronized (this.appendLock) {
+            int start = this.pending.length();
+            this.pending.writeInt(0);
+            this.pending.writeByte(type.ordinal());
+            RecordCodec.writeMagazine(this.pending, magazine);
+            int payloadLength = this.pending.length() - start - 5;
+            this.pending.setInt(start, payloadLength);
+            this.checksum.reset();
+            this.checksum.update(this.pending.bytes(), start + 4,
+                    payloadLength + 1);
+            this.pending.writeInt((int) this.checksum.getValue());
+            this.segmentBytes += payloadLength + FRAME_BYTES;
+            writeNow |= this.pending.length() >= MAX_PENDING_BYTES;
+        }
+        if (writeNow) {
+            this.sync();
+        }
+    }
+
+    /**
+     * Writes all appended records and forces them to the disk
+     *
+     * @throws IOException If writing fails
+     */
+    public void sync() throws IOException {
+        synchronized (this.writeLock) {
+            this.writePending();
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Returns the number of bytes appended to the current segment
+     *
+     * @return Returns the size of the segment
+     */
+    public long getSegmentBytes() {
+        synchronized (this.appendLock) {
+            return this.segmentBytes;
+        }
+    }
+
+    /**
+     * Forces the current segment to the disk and continues
+     * the log in a new segment file
+     *
+     * @param segmentFile The new segment file
+     * @throws IOException If writing or opening fails
+     */
+    public void roll(Path segmentFile) throws IOException {
+        synchronized (this.writeLock) {
+            this.writePending();
+            this.channel.force(false);
+            this.channel.close();
+            this.channel = this.openSegment(segmentFile);
+            synchronized (this.appendLock) {
+                this.segmentBytes = this.channel.size();
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the appended records, and closes the log
+     *
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.groupCommitter != null) {
+            this.groupCommitter.shutdown();
+            try {
+                this.groupCommitter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this.writeLock) {
+            try {
+                this.writePending();
+                this.channel.force(false);
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the records of a segment file in order. Reading stops at the
+     * end of the file, or at the first damaged or incomplete record,
+     * which is left by a crash while appending.
+     *
+     * @param segmentFile The segment file to read
+     * @param handler Gets each record
+     * @return Returns the number of bytes of valid records
+     * @throws IOException If the file can not be read
+     */
+    public static long replay(Path segmentFile, Consumer<LogRecord> handler)
+            throws IOException {
+        long validBytes = 0;
+        CRC32 checksum = new CRC32();
+        try (InputStream file = Files.newInputStream(segmentFile);
+             DataInputStream input = new DataInputStream(
+                     new BufferedInputStream(file, 64 * 1024))) {
+            while (true) {
+                byte[] record;
+                int expectedChecksum;
+                try {
+                    int payloadLength = input.readInt();
+                    if (payloadLength < 0 || payloadLength
+                            > 4 + 8 + 2 * RecordCodec.MAX_STRING_BYTES) {
+                        return validBytes;
+                    }
+                    record = new byte[payloadLength + 1];
+                    input.readFully(record);
+                    expectedChecksum = input.readInt();
+                } catch (EOFException e) {
+                    return validBytes;
+                }
+                checksum.reset();
+                checksum.update(record, 0, record.length);
+                if ((int) checksum.getValue() != expectedChecksum
+                        || record[0] < 0
+                        || record[0] >= LogRecord.Type.values().length) {
+                    return validBytes;
+                }
+                Magazine magazine = RecordCodec.readMagazine(new DataInputStream(
+                        new ByteArrayInputStream(record, 1, record.length - 1)));
+                handler.accept(new LogRecord(
+                        LogRecord.Type.values()[record[0]], magazine));
+                validBytes += record.length + 8;
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the appended records, at each group commit.
+     * A failure is kept and reported by the next append.
+     */
+    private void groupCommit() {
+        try {
+            synchronized (this.writeLock) {
+                boolean written = this.writePending();
+                if (written && this.fsyncPolicy == FsyncPolicy.BATCHED) {
+                    this.channel.force(false);
+                }
+            }
+        } catch (IOException e) {
+            this.backgroundFailure = e;
+        }
+    }
+
+    /**
+     * Swaps the buffers and writes the appended records to the channel.
+     * Must be called holding {@link #writeLock}.
+     *
+     * @return Returns true if any records were written else false
+     * @throws IOException If writing fails
+     */
+    private boolean writePending() throws IOException {
+        synchronized (this.appendLock) {
+            RecordCodec.Buffer appended = this.pending;
+            this.pending = this.writing;
+            this.writing = appended;
+        }
+        if (this.writing.length() == 0) {
+            return false;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(this.writing.bytes(), 0,
+                this.writing.length());
+        try {
+            while (bytes.hasRemaining()) {
+                this.channel.write(bytes);
+            }
+        } catch (IOException e) {
+            this.keepUnwritten(bytes.position());
+            throw e;
+        }
+        this.writing.clear();
+        return true;
+    }
+
+    /**
+     * Puts the records a failed write left unwritten back in front of
+     * the records appended meanwhile, so the next write continues where
+     * the failed one stopped and the records stay in order.
+     * Must be called holding {@link #writeLock}.
+     *
+     * @param writtenBytes Number of bytes of {@link #writing} that were written
+     */
+    private void keepUnwritten(int writtenBytes) {
+        synchronized (this.appendLock) {
+            this.writing.removeFirst(writtenBytes);
+            this.writing.write(this.pending.bytes(), 0, this.pending.length());
+            this.pending.clear();
+            RecordCodec.Buffer unwritten = this.writing;
+            this.writing = this.pending;
+            this.pending = unwritten;
+        }
+    }
+
+    /**
+     * Opens a segment file for appending. Called by the constructor,
+     * so an override must not use fields of the subclass.
+     *
+     * @param segmentFile The file to open
+     * @return Returns the channel
+     * @throws IOException If the file can not be opened
+     */
+    protected FileChannel openSegment(Path segmentFile) throws IOException {
+        return FileChannel.open(segmentFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+}
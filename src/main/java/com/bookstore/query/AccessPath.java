@@ -0,0 +1,292 @@
+package com.bookstore.query;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How a {@link QueryPlan} reads the record ids of its candidates: from
+ * one of the indexes of the register, a union of such reads, or every
+ * record id. The register opens the path when the query is run.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class AccessPath {
+
+    /**
+     * The kinds of access path
+     */
+    public enum Kind {
+
+        /**
+         * No record ids, the criterion can not be met
+         */
+        EMPTY,
+
+        /**
+         * Every record id, in record id order
+         */
+        FULL_SCAN,
+
+        /**
+         * The candidates of the title index for {@link #getQuery()},
+         * which must be checked to contain it
+         */
+        TITLE_INDEX,
+
+        /**
+         * The magazines of the publishers containing {@link #getQuery()}
+         */
+        PUBLISHER_INDEX,
+
+        /**
+         * The magazines published between {@link #getMin()} and
+         * {@link #getMax()} times a year, in record id order
+         */
+        PUBLICATIONS_INDEX,
+
+        /**
+         * The magazines published between {@link #getMin()} and
+         * {@link #getMax()} times a year, in the order of
+         * {@link #isDescending()}, so the found magazines need no sorting
+         */
+        PUBLICATIONS_INDEX_ORDER,
+
+        /**
+         * The record ids read by any of {@link #getChildren()}
+         */
+        UNION
+    }
+
+    /**
+     * The kind of path
+     */
+    private final Kind kind;
+
+    /**
+     * The folded text looked up, null if none
+     */
+    private final String query;
+
+    /**
+     * The fewest publications per year read
+     */
+    private final int min;
+
+    /**
+     * The most publications per year read
+     */
+    private final int max;
+
+    /**
+     * True if the most published are read first
+     */
+    private final boolean descending;
+
+    /**
+     * The paths of a union, empty for other kinds
+     */
+    private final List<AccessPath> children;
+
+    /**
+     * Estimated number of record ids read
+     */
+    private final long estimatedRows;
+
+    /**
+     * Creates an access path
+     *
+     * @param kind The kind of path
+     * @param query The folded text looked up, null if none
+     * @param min The fewest publications per year read
+     * @param max The most publications per year read
+     * @param descending True if the most published are read first
+     * @param children The paths of a union, empty for other kinds
+     * @param estimatedRows Estimated number of record ids read
+     */
+    private AccessPath(Kind kind, String query, int min, int max,
+                       boolean descending, List<AccessPath> children,
+                       long estimatedRows) {
+        this.kind = kind;
+        this.query = query;
+        this.min = min;
+        this.max = max;
+        this.descending = descending;
+        this.children = Collections.unmodifiableList(children);
+        this.estimatedRows = estimatedRows;
+    }
+
+    /**
+     * Creates a path of the given kind, without a query or range
+     *
+     * @param kind The kind of path
+     * @param estimatedRows Estimated number of record ids read
+     * @return Returns the path
+     */
+    static AccessPath of(Kind kind, long estimatedRows) {
+        return new AccessPath(kind, null, 0, 0, false,
+                Collections.emptyList(), estimatedRows);
+    }
+
+    /**
+     * Creates a path looking up a text
+     *
+     * @param kind The index to look the text up in
+     * @param query The folded text
+     * @param estimatedRows Estimated number of record ids read
+     * @return Returns the path
+     */
+    static AccessPath lookup(Kind kind, String query, long estimatedRows) {
+        return new AccessPath(kind, query, 0, 0, false,
+                Collections.emptyList(), estimatedRows);
+    }
+
+    /**
+     * Creates a path reading a range of publications per year
+     *
+     * @param kind The order to read the range in
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @param descending True if the most published are read first
+     * @param estimatedRows Estimated number of record ids read
+     * @return Returns the path
+     */
+    static AccessPath range(Kind kind, int min, int max, boolean descending,
+                            long estimatedRows) {
+        return new AccessPath(kind, null, min, max, descending,
+                Collections.emptyList(), estimatedRows);
+    }
+
+    /**
+     * Creates a path reading the union of other paths
+     *
+     * @param children The paths to read
+     * @param estimatedRows Estimated number of record ids read
+     * @return Returns the path
+     */
+    static AccessPath union(List<AccessPath> children, long estimatedRows) {
+        return new AccessPath(Kind.UNION, null, 0, 0, false, children,
+                estimatedRows);
+    }
+
+    /**
+     * Returns the kind of path
+     *
+     * @return Returns the kind
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the folded text looked up in the title or publisher index
+     *
+     * @return Returns the text, null for other kinds
+     */
+    public String getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Returns the fewest publications per year read from the
+     * publications index
+     *
+     * @return Returns the smallest number of the range
+     */
+    public int getMin() {
+        return this.min;
+    }
+
+    /**
+     * Returns the most publications per year read from the
+     * publications index
+     *
+     * @return Returns the largest number of the range
+     */
+    public int getMax() {
+        return this.max;
+    }
+
+    /**
+     * Returns true if the publications index is read from the most
+     * published magazines
+     *
+     * @return Returns true if descending else false
+     */
+    public boolean isDescending() {
+        return this.descending;
+    }
+
+    /**
+     * Returns the paths read by a union
+     *
+     * @return Returns the paths, empty for other kinds
+     */
+    public List<AccessPath> getChildren() {
+        return this.children;
+    }
+
+    /**
+     * Returns the estimated number of record ids read
+     *
+     * @return Returns the estimated rows
+     */
+    public long getEstimatedRows() {
+        return this.estimatedRows;
+    }
+
+    /**
+     * Appends a line describing the path, and the lines of its
+     * children indented below it
+     *
+     * @param text The text to append to
+     * @param indent The indentation of the line
+     */
+    void explain(StringBuilder text, String indent) {
+        text.append(indent);
+        switch (this.kind) {
+            case EMPTY:
+                text.append("Empty");
+                break;
+            case FULL_SCAN:
+                text.append("Full scan");
+                break;
+            case TITLE_INDEX:
+                text.append("Title index \"").append(this.query).append('"');
+                break;
+            case PUBLISHER_INDEX:
+                text.append("Publisher index \"").append(this.query)
+                        .append('"');
+                break;
+            case PUBLICATIONS_INDEX:
+            case PUBLICATIONS_INDEX_ORDER:
+                text.append("Publications index ").append(rangeText(
+                        this.min, this.max));
+                if (this.kind == Kind.PUBLICATIONS_INDEX_ORDER) {
+                    text.append(this.descending
+                            ? ", most first" : ", least first");
+                }
+                break;
+            default:
+                text.append("Union");
+        }
+        text.append(" (estimated ").append(this.estimatedRows)
+                .append(" rows)").append(System.lineSeparator());
+        for (AccessPath child : this.children) {
+            child.explain(text, indent + "  ");
+        }
+    }
+
+    /**
+     * Returns a range of publications per year as text
+     *
+     * @param min The smallest number
+     * @param max The largest number
+     * @return Returns the range
+     */
+    private static String rangeText(int min, int max) {
+        return (min == Integer.MIN_VALUE ? "" : Integer.toString(min))
+                + ".." + (max == Integer.MAX_VALUE ? "" : Integer.toString(max));
+    }
+
+}
@@ -0,0 +1,427 @@
+package com.bookstore.query;
+
+import com.bookstore.readables.Magazine;
+import com.bookstore.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A condition a magazine must meet to be found by a {@link MagazineQuery}.
+ * Conditions on the title, publisher and publications per year are
+ * combined with {@link #and(Criterion)}, {@link #or(Criterion)} and
+ * {@link #not(Criterion)}, for example
+ * <pre>
+ * titleContains("tech").and(publisherContains("Egmont"))
+ *         .and(publicationsPerYearAtLeast(12))
+ * </pre>
+ * Texts are matched like the searches of the register, ignoring case,
+ * and accents too if the register folds accents.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public abstract class Criterion {
+
+    /**
+     * Creates a criterion
+     */
+    Criterion() {
+    }
+
+    /**
+     * Returns a criterion met by magazines whose title contains the text.
+     * An empty text is met by no magazine.
+     *
+     * @param text The text to search for
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If text is null
+     */
+    public static Criterion titleContains(String text) {
+        return new TitleContains(text);
+    }
+
+    /**
+     * Returns a criterion met by magazines whose publisher contains the
+     * text. An empty text is met by no magazine.
+     *
+     * @param text The text to search for
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If text is null
+     */
+    public static Criterion publisherContains(String text) {
+        return new PublisherContains(text);
+    }
+
+    /**
+     * Returns a criterion met by magazines published between min and max
+     * times a year, both included
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns the criterion, met by no magazine if min is larger
+     * than max
+     */
+    public static Criterion publicationsPerYearBetween(int min, int max) {
+        return new PublicationsPerYearBetween(min, max);
+    }
+
+    /**
+     * Returns a criterion met by magazines published at least min times
+     * a year
+     *
+     * @param min The fewest publications per year
+     * @return Returns the criterion
+     */
+    public static Criterion publicationsPerYearAtLeast(int min) {
+        return new PublicationsPerYearBetween(min, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a criterion met by magazines published at most max times
+     * a year
+     *
+     * @param max The most publications per year
+     * @return Returns the criterion
+     */
+    public static Criterion publicationsPerYearAtMost(int max) {
+        return new PublicationsPerYearBetween(Integer.MIN_VALUE, max);
+    }
+
+    /**
+     * Returns a criterion met by magazines meeting all the criteria
+     *
+     * @param criteria The criteria to meet
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If no criteria are given or
+     *                                  one is null
+     */
+    public static Criterion allOf(Criterion... criteria) {
+        return combine(true, criteria);
+    }
+
+    /**
+     * Returns a criterion met by magazines meeting any of the criteria
+     *
+     * @param criteria The criteria to meet
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If no criteria are given or
+     *                                  one is null
+     */
+    public static Criterion anyOf(Criterion... criteria) {
+        return combine(false, criteria);
+    }
+
+    /**
+     * Returns a criterion met by the magazines not meeting the criterion
+     *
+     * @param criterion The criterion not to meet
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If criterion is null
+     */
+    public static Criterion not(Criterion criterion) {
+        if (criterion == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (criterion instanceof Not) {
+            return ((Not) criterion).criterion;
+        }
+        return new Not(criterion);
+    }
+
+    /**
+     * Returns a criterion met by magazines meeting both this and the
+     * other criterion
+     *
+     * @param other The other criterion
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If other is null
+     */
+    public Criterion and(Criterion other) {
+        return allOf(this, other);
+    }
+
+    /**
+     * Returns a criterion met by magazines meeting this or the other
+     * criterion
+     *
+     * @param other The other criterion
+     * @return Returns the criterion
+     * @throws IllegalArgumentException If other is null
+     */
+    public Criterion or(Criterion other) {
+        return anyOf(this, other);
+    }
+
+    /**
+     * Returns true if the magazine meets the criterion
+     *
+     * @param magazine The magazine to check
+     * @param foldAccents True to ignore accents in texts
+     * @return Returns true if met else false
+     */
+    public abstract boolean matches(Magazine magazine, boolean foldAccents);
+
+    /**
+     * Returns the criteria combined by all or any, flattening criteria
+     * combined the same way
+     *
+     * @param all True to combine by all, false by any
+     * @param criteria The criteria to combine
+     * @return Returns the combined criterion
+     * @throws IllegalArgumentException If no criteria are given or
+     *                                  one is null
+     */
+    private static Criterion combine(boolean all, Criterion[] criteria) {
+        if (criteria == null || criteria.length == 0) {
+            throw new IllegalArgumentException("No criteria to combine.");
+        }
+        ArrayList<Criterion> flattened = new ArrayList<>(criteria.length);
+        for (Criterion criterion : criteria) {
+            if (criterion == null) {
+                throw new IllegalArgumentException("Null passed as argument.");
+            }
+            if (criterion instanceof Combined
+                    && ((Combined) criterion).all == all) {
+                flattened.addAll(((Combined) criterion).criteria);
+            } else {
+                flattened.add(criterion);
+            }
+        }
+        if (flattened.size() == 1) {
+            return flattened.get(0);
+        }
+        return new Combined(all, flattened);
+    }
+
+    /**
+     * Met by magazines whose title contains a text
+     */
+    static class TitleContains extends Criterion {
+
+        /**
+         * The text as given
+         */
+        final String text;
+
+        /**
+         * The case folded text
+         */
+        final String normalizedText;
+
+        /**
+         * The case and accent folded text
+         */
+        final String foldedText;
+
+        /**
+         * Creates the criterion
+         *
+         * @param text The text to search for
+         * @throws IllegalArgumentException If text is null
+         */
+        TitleContains(String text) {
+            this.text = text;
+            this.normalizedText = TextNormalizer.foldCase(text);
+            this.foldedText = TextNormalizer.foldAccents(this.normalizedText);
+        }
+
+        @Override
+        public boolean matches(Magazine magazine, boolean foldAccents) {
+            if (this.normalizedText.isEmpty()) {
+                return false;
+            }
+            return foldAccents
+                    ? magazine.getAccentFoldedTitle().contains(this.foldedText)
+                    : magazine.getNormalizedTitle().contains(this.normalizedText);
+        }
+
+        @Override
+        public String toString() {
+            return "title contains \"" + this.text + "\"";
+        }
+    }
+
+    /**
+     * Met by magazines whose publisher contains a text
+     */
+    static class PublisherContains extends Criterion {
+
+        /**
+         * The text as given
+         */
+        final String text;
+
+        /**
+         * The case folded text
+         */
+        final String normalizedText;
+
+        /**
+         * The case and accent folded text
+         */
+        final String foldedText;
+
+        /**
+         * Creates the criterion
+         *
+         * @param text The text to search for
+         * @throws IllegalArgumentException If text is null
+         */
+        PublisherContains(String text) {
+            this.text = text;
+            this.normalizedText = TextNormalizer.foldCase(text);
+            this.foldedText = TextNormalizer.foldAccents(this.normalizedText);
+        }
+
+        /**
+         * Returns the text to look up in the publisher index
+         *
+         * @param foldAccents True if accents are ignored
+         * @return Returns the folded text
+         */
+        String query(boolean foldAccents) {
+            return foldAccents ? this.foldedText : this.normalizedText;
+        }
+
+        @Override
+        public boolean matches(Magazine magazine, boolean foldAccents) {
+            if (this.text.isEmpty()) {
+                return false;
+            }
+            return foldAccents
+                    ? magazine.getAccentFoldedPublisher().contains(this.foldedText)
+                    : magazine.getNormalizedPublisher().contains(this.normalizedText);
+        }
+
+        @Override
+        public String toString() {
+            return "publisher contains \"" + this.text + "\"";
+        }
+    }
+
+    /**
+     * Met by magazines published between min and max times a year
+     */
+    static class PublicationsPerYearBetween extends Criterion {
+
+        /**
+         * The fewest publications per year
+         */
+        final int min;
+
+        /**
+         * The most publications per year
+         */
+        final int max;
+
+        /**
+         * Creates the criterion
+         *
+         * @param min The fewest publications per year
+         * @param max The most publications per year
+         */
+        PublicationsPerYearBetween(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean matches(Magazine magazine, boolean foldAccents) {
+            int publications = magazine.getPublicationsPerYear();
+            return publications >= this.min && publications <= this.max;
+        }
+
+        @Override
+        public String toString() {
+            if (this.max == Integer.MAX_VALUE) {
+                return "publications per year >= " + this.min;
+            } else if (this.min == Integer.MIN_VALUE) {
+                return "publications per year <= " + this.max;
+            }
+            return "publications per year between " + this.min + " and "
+                    + this.max;
+        }
+    }
+
+    /**
+     * Met by magazines meeting all or any of a list of criteria
+     */
+    static class Combined extends Criterion {
+
+        /**
+         * True if all criteria must be met, false if any
+         */
+        final boolean all;
+
+        /**
+         * The criteria, at least two
+         */
+        final List<Criterion> criteria;
+
+        /**
+         * Creates the criterion
+         *
+         * @param all True if all criteria must be met, false if any
+         * @param criteria The criteria, at least two
+         */
+        Combined(boolean all, List<Criterion> criteria) {
+            this.all = all;
+            this.criteria = Collections.unmodifiableList(criteria);
+        }
+
+        @Override
+        public boolean matches(Magazine magazine, boolean foldAccents) {
+            for (Criterion criterion : this.criteria) {
+                if (criterion.matches(magazine, foldAccents) != this.all) {
+                    return !this.all;
+                }
+            }
+            return this.all;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("(");
+            for (Criterion criterion : this.criteria) {
+                if (text.length() > 1) {
+                    text.append(this.all ? " AND " : " OR ");
+                }
+                text.append(criterion);
+            }
+            return text.append(')').toString();
+        }
+    }
+
+    /**
+     * Met by magazines not meeting a criterion
+     */
+    static class Not extends Criterion {
+
+        /**
+         * The criterion not to meet
+         */
+        final Criterion criterion;
+
+        /**
+         * Creates the criterion
+         *
+         * @param criterion The criterion not to meet
+         */
+        Not(Criterion criterion) {
+            this.criterion = criterion;
+        }
+
+        @Override
+        public boolean matches(Magazine magazine, boolean foldAccents) {
+            return !this.criterion.matches(magazine, foldAccents);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + this.criterion;
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.bookstore.query;
+
+/**
+ * The sizes the {@link QueryPlanner} reads from the indexes of a register
+ * to estimate how many magazines each way of finding them reads.
+ * Every method answers from the index without reading magazines.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface IndexStatistics {
+
+    /**
+     * Returns the number of magazines in the register
+     *
+     * @return Returns the number of magazines
+     */
+    int getMagazineCount();
+
+    /**
+     * Returns the most candidates the title index finds for a query
+     *
+     * @param foldedQuery The case and accent folded query, at least
+     *                    three characters long
+     * @return Returns the largest possible number of candidates
+     */
+    int estimateTitleCandidates(String foldedQuery);
+
+    /**
+     * Returns the number of magazines whose publisher contains the query
+     *
+     * @param query The case folded query, accent folded too if accents
+     *              are ignored
+     * @return Returns the number of magazines
+     */
+    int countPublisherMatches(String query);
+
+    /**
+     * Returns the number of magazines published between min and max
+     * times a year, both included
+     *
+     * @param min The fewest publications per year
+     * @param max The most publications per year
+     * @return Returns the number of magazines
+     */
+    int countPublicationsPerYear(int min, int max);
+
+}
@@ -0,0 +1,99 @@
+package com.bookstore.query;
+
+/**
+ * A query for the magazines meeting a {@link Criterion}, in a
+ * {@link SortOrder} and up to a limit, see
+ * {@link com.bookstore.MagazineRegister#query(MagazineQuery)}.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class MagazineQuery {
+
+    /**
+     * Limit of a query returning every match
+     */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * The criterion the magazines must meet
+     */
+    private final Criterion criterion;
+
+    /**
+     * The order of the found magazines
+     */
+    private final SortOrder sortOrder;
+
+    /**
+     * Max number of magazines to return
+     */
+    private final int limit;
+
+    /**
+     * Creates a query for every magazine meeting the criterion, in the
+     * order they were added
+     *
+     * @param criterion The criterion the magazines must meet
+     * @throws IllegalArgumentException If criterion is null
+     */
+    public MagazineQuery(Criterion criterion) {
+        this(criterion, SortOrder.ADDED, NO_LIMIT);
+    }
+
+    /**
+     * Creates a query
+     *
+     * @param criterion The criterion the magazines must meet
+     * @param sortOrder The order of the found magazines
+     * @param limit Max number of magazines to return, or {@link #NO_LIMIT}
+     * @throws IllegalArgumentException If an argument is null or limit
+     *                                  is out of range
+     */
+    public MagazineQuery(Criterion criterion, SortOrder sortOrder, int limit) {
+        if (criterion == null || sortOrder == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        this.criterion = criterion;
+        this.sortOrder = sortOrder;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the criterion the magazines must meet
+     *
+     * @return Returns the criterion
+     */
+    public Criterion getCriterion() {
+        return this.criterion;
+    }
+
+    /**
+     * Returns the order of the found magazines
+     *
+     * @return Returns the sort order
+     */
+    public SortOrder getSortOrder() {
+        return this.sortOrder;
+    }
+
+    /**
+     * Returns the max number of magazines to return
+     *
+     * @return Returns the limit, {@link #NO_LIMIT} if every match
+     * is returned
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public String toString() {
+        return this.criterion + ", " + this.sortOrder
+                + (this.limit == NO_LIMIT ? "" : ", limit " + this.limit);
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.bookstore.query;
+
+/**
+ * How a register runs a {@link MagazineQuery}, as chosen by the
+ * {@link QueryPlanner}: the {@link AccessPath} the candidates are read
+ * from, the rest of the criterion each candidate is checked against,
+ * and whether the found magazines must be sorted.
+ * {@link #explain()} describes the plan as text.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class QueryPlan {
+
+    /**
+     * The query planned
+     */
+    private final MagazineQuery query;
+
+    /**
+     * Where the candidates are read from
+     */
+    private final AccessPath accessPath;
+
+    /**
+     * The criterion the candidates are checked against, null if every
+     * candidate matches
+     */
+    private final Criterion residual;
+
+    /**
+     * Estimated number of magazines matching the criterion
+     */
+    private final long estimatedMatches;
+
+    /**
+     * Creates a plan
+     *
+     * @param query The query planned
+     * @param accessPath Where the candidates are read from
+     * @param residual The criterion the candidates are checked against,
+     *                 null if every candidate matches
+     * @param estimatedMatches Estimated number of magazines matching
+     *                         the criterion
+     */
+    QueryPlan(MagazineQuery query, AccessPath accessPath, Criterion residual,
+              long estimatedMatches) {
+        this.query = query;
+        this.accessPath = accessPath;
+        this.residual = residual;
+        this.estimatedMatches = estimatedMatches;
+    }
+
+    /**
+     * Returns the query planned
+     *
+     * @return Returns the query
+     */
+    public MagazineQuery getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Returns where the candidates are read from
+     *
+     * @return Returns the access path
+     */
+    public AccessPath getAccessPath() {
+        return this.accessPath;
+    }
+
+    /**
+     * Returns the criterion each candidate is checked against
+     *
+     * @return Returns the criterion, or null if every candidate matches
+     */
+    public Criterion getResidual() {
+        return this.residual;
+    }
+
+    /**
+     * Returns the estimated number of magazines matching the criterion
+     * of the query, before the limit
+     *
+     * @return Returns the estimated matches
+     */
+    public long getEstimatedMatches() {
+        return this.estimatedMatches;
+    }
+
+    /**
+     * Returns true if the matches must be sorted after they are found,
+     * false if they are found in the order of the query
+     *
+     * @return Returns true if sorted else false
+     */
+    public boolean isSorted() {
+        return this.query.getSortOrder() != SortOrder.ADDED
+                && this.accessPath.getKind()
+                != AccessPath.Kind.PUBLICATIONS_INDEX_ORDER;
+    }
+
+    /**
+     * Describes the plan, one step on each line with the steps it reads
+     * from indented below it, for example
+     * <pre>
+     * Limit 10
+     *   Sort by title
+     *     Filter (title contains "tech" AND publications per year &gt;= 12)
+     *       Publisher index "egmont" (estimated 120 rows)
+     * Estimated matches: 8
+     * </pre>
+     *
+     * @return Returns the description
+     */
+    public String explain() {
+        StringBuilder text = new StringBuilder();
+        String newLine = System.lineSeparator();
+        String indent = "";
+        if (this.query.getLimit() != MagazineQuery.NO_LIMIT) {
+            text.append("Limit ").append(this.query.getLimit()).append(newLine);
+            indent += "  ";
+        }
+        if (this.isSorted()) {
+            text.append(indent).append("Sort ")
+                    .append(this.query.getSortOrder()).append(newLine);
+            indent += "  ";
+        }
+        if (this.residual != null) {
+            text.append(indent).append("Filter ").append(this.residual)
+                    .append(newLine);
+            indent += "  ";
+        }
+        this.accessPath.explain(text, indent);
+        text.append("Estimated matches: ").append(this.estimatedMatches)
+                .append(newLine);
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.explain();
+    }
+
+}
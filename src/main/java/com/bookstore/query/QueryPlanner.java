@@ -0,0 +1,365 @@
+package com.bookstore.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chooses how a register runs a {@link MagazineQuery}.
+ * <p>
+ * The planner estimates how many record ids each index would read for
+ * the parts of the criterion it can answer, from the sizes of the
+ * posting lists, see {@link IndexStatistics}. A query is driven from the
+ * access path reading the fewest record ids: for criteria that must all
+ * be met, the most selective of them; for criteria of which any must be
+ * met, the union of their paths if every one has a path. The rest of the
+ * criterion is checked on each candidate as it is read, so nothing is
+ * collected up front. A criterion with no usable path, like a negation
+ * or a title text shorter than three characters, is answered by a full
+ * scan.
+ * <p>
+ * Queries sorted by publications per year can also read the sorted
+ * publications index in order, checking the criterion and stopping at
+ * the limit. That path is chosen when it is expected to read fewer
+ * record ids than the best other path, which must read and sort every
+ * match.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class QueryPlanner {
+
+    /**
+     * Share of magazines assumed to contain a text that is too short to
+     * look up in the title index
+     */
+    private static final double UNINDEXED_SELECTIVITY = 0.1;
+
+    /**
+     * The sizes of the indexes
+     */
+    private final IndexStatistics statistics;
+
+    /**
+     * True if the register ignores accents in texts
+     */
+    private final boolean foldAccents;
+
+    /**
+     * Creates a planner
+     *
+     * @param statistics The sizes of the indexes of the register
+     * @param foldAccents True if the register ignores accents in texts
+     * @throws IllegalArgumentException If statistics is null
+     */
+    public QueryPlanner(IndexStatistics statistics, boolean foldAccents) {
+        if (statistics == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.statistics = statistics;
+        this.foldAccents = foldAccents;
+    }
+
+    /**
+     * Plans a query
+     *
+     * @param query The query to plan
+     * @return Returns the plan
+     * @throws IllegalArgumentException If query is null
+     */
+    public QueryPlan plan(MagazineQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        Criterion criterion = query.getCriterion();
+        int magazineCount = this.statistics.getMagazineCount();
+        Estimate estimate = this.estimate(criterion, magazineCount);
+        long estimatedMatches = Math.round(estimate.selectivity * magazineCount);
+
+        AccessPath path = estimate.path;
+        Criterion answered = estimate.answered;
+        if (path == null) {
+            path = AccessPath.of(AccessPath.Kind.FULL_SCAN, magazineCount);
+            answered = null;
+        }
+
+        SortOrder sortOrder = query.getSortOrder();
+        if (path.getKind() != AccessPath.Kind.EMPTY
+                && (sortOrder == SortOrder.LEAST_PUBLISHED
+                || sortOrder == SortOrder.MOST_PUBLISHED)) {
+            Criterion range = publicationsRange(criterion);
+            int min = Integer.MIN_VALUE;
+            int max = Integer.MAX_VALUE;
+            if (range != null) {
+                min = ((Criterion.PublicationsPerYearBetween) range).min;
+                max = ((Criterion.PublicationsPerYearBetween) range).max;
+            }
+            long rangeRows = this.statistics.countPublicationsPerYear(min, max);
+            long orderedRows = rangeRows;
+            if (query.getLimit() != MagazineQuery.NO_LIMIT
+                    && estimatedMatches > 0) {
+                // The matches are assumed spread evenly over the range
+                orderedRows = Math.min(rangeRows, (long) Math.ceil(
+                        (double) query.getLimit() * rangeRows / estimatedMatches));
+            }
+            if (orderedRows <= path.getEstimatedRows()) {
+                path = AccessPath.range(AccessPath.Kind.PUBLICATIONS_INDEX_ORDER,
+                        min, max, sortOrder == SortOrder.MOST_PUBLISHED,
+                        orderedRows);
+                answered = range;
+            }
+        }
+
+        return new QueryPlan(query, path, residual(criterion, answered),
+                estimatedMatches);
+    }
+
+    /**
+     * Estimates the share of magazines meeting a criterion, and finds
+     * its access path reading the fewest record ids
+     *
+     * @param criterion The criterion
+     * @param magazineCount Number of magazines in the register
+     * @return Returns the estimate
+     */
+    private Estimate estimate(Criterion criterion, int magazineCount) {
+        if (criterion instanceof Criterion.TitleContains) {
+            Criterion.TitleContains title = (Criterion.TitleContains) criterion;
+            if (title.normalizedText.isEmpty()) {
+                return Estimate.empty(criterion);
+            }
+            if (title.foldedText.length() < 3) {
+                return new Estimate(null, null, UNINDEXED_SELECTIVITY);
+            }
+            int candidates = this.statistics.estimateTitleCandidates(
+                    title.foldedText);
+            // The candidates still have to be checked, so the path
+            // answers nothing exactly
+            return new Estimate(AccessPath.lookup(AccessPath.Kind.TITLE_INDEX,
+                    title.foldedText, candidates), null,
+                    share(candidates, magazineCount));
+        }
+        if (criterion instanceof Criterion.PublisherContains) {
+            Criterion.PublisherContains publisher =
+                    (Criterion.PublisherContains) criterion;
+            if (publisher.text.isEmpty()) {
+                return Estimate.empty(criterion);
+            }
+            String query = publisher.query(this.foldAccents);
+            int count = this.statistics.countPublisherMatches(query);
+            return new Estimate(AccessPath.lookup(
+                    AccessPath.Kind.PUBLISHER_INDEX, query, count), criterion,
+                    share(count, magazineCount));
+        }
+        if (criterion instanceof Criterion.PublicationsPerYearBetween) {
+            Criterion.PublicationsPerYearBetween range =
+                    (Criterion.PublicationsPerYearBetween) criterion;
+            if (range.min > range.max) {
+                return Estimate.empty(criterion);
+            }
+            int count = this.statistics.countPublicationsPerYear(range.min,
+                    range.max);
+            return new Estimate(AccessPath.range(
+                    AccessPath.Kind.PUBLICATIONS_INDEX, range.min, range.max,
+                    false, count), criterion, share(count, magazineCount));
+        }
+        if (criterion instanceof Criterion.Not) {
+            Estimate negated = this.estimate(((Criterion.Not) criterion).criterion,
+                    magazineCount);
+            return new Estimate(null, null, 1 - negated.selectivity);
+        }
+
+        Criterion.Combined combined = (Criterion.Combined) criterion;
+        List<Estimate> estimates = new ArrayList<>(combined.criteria.size());
+        for (Criterion part : combined.criteria) {
+            estimates.add(this.estimate(part, magazineCount));
+        }
+        return combined.all ? estimateAll(estimates)
+                : estimateAny(combined, estimates, magazineCount);
+    }
+
+    /**
+     * Combines the estimates of criteria that must all be met. The most
+     * selective path drives the query, and the criteria are assumed to
+     * be independent.
+     *
+     * @param estimates The estimates of the criteria
+     * @return Returns the estimate of the combined criterion
+     */
+    private static Estimate estimateAll(List<Estimate> estimates) {
+        Estimate best = null;
+        double selectivity = 1;
+        for (Estimate estimate : estimates) {
+            selectivity *= estimate.selectivity;
+            if (estimate.path != null && (best == null
+                    || estimate.path.getEstimatedRows()
+                    < best.path.getEstimatedRows())) {
+                best = estimate;
+            }
+        }
+        if (best == null) {
+            return new Estimate(null, null, selectivity);
+        }
+        return new Estimate(best.path, best.answered, selectivity);
+    }
+
+    /**
+     * Combines the estimates of criteria of which any must be met. The
+     * query reads the union of their paths, so every criterion must
+     * have one.
+     *
+     * @param combined The combined criterion
+     * @param estimates The estimates of the criteria
+     * @param magazineCount Number of magazines in the register
+     * @return Returns the estimate of the combined criterion
+     */
+    private static Estimate estimateAny(Criterion.Combined combined,
+                                        List<Estimate> estimates,
+                                        int magazineCount) {
+        double noneMet = 1;
+        boolean indexed = true;
+        boolean exact = true;
+        long rows = 0;
+        List<AccessPath> paths = new ArrayList<>(estimates.size());
+        for (int i = 0; i < estimates.size(); i++) {
+            Estimate estimate = estimates.get(i);
+            noneMet *= 1 - estimate.selectivity;
+            if (estimate.path == null) {
+                indexed = false;
+            } else if (estimate.path.getKind() != AccessPath.Kind.EMPTY) {
+                paths.add(estimate.path);
+                rows += estimate.path.getEstimatedRows();
+            }
+            exact &= estimate.answered == combined.criteria.get(i);
+        }
+        double selectivity = 1 - noneMet;
+        if (!indexed) {
+            return new Estimate(null, null, selectivity);
+        }
+        Criterion answered = exact ? combined : null;
+        if (paths.isEmpty()) {
+            return new Estimate(AccessPath.of(AccessPath.Kind.EMPTY, 0),
+                    answered, 0);
+        }
+        if (paths.size() == 1) {
+            return new Estimate(paths.get(0), answered, selectivity);
+        }
+        return new Estimate(AccessPath.union(paths, Math.min(rows,
+                magazineCount)), answered, selectivity);
+    }
+
+    /**
+     * Returns the publications per year range of a criterion, which
+     * limits the range of the sorted publications index to read
+     *
+     * @param criterion The criterion
+     * @return Returns the range, the narrowest if all of several ranges
+     * must be met, or null if the criterion has no range to meet
+     */
+    private Criterion publicationsRange(Criterion criterion) {
+        if (criterion instanceof Criterion.PublicationsPerYearBetween) {
+            return criterion;
+        }
+        Criterion narrowest = null;
+        long narrowestCount = Long.MAX_VALUE;
+        if (criterion instanceof Criterion.Combined
+                && ((Criterion.Combined) criterion).all) {
+            for (Criterion part : ((Criterion.Combined) criterion).criteria) {
+                if (part instanceof Criterion.PublicationsPerYearBetween) {
+                    Criterion.PublicationsPerYearBetween range =
+                            (Criterion.PublicationsPerYearBetween) part;
+                    long count = this.statistics.countPublicationsPerYear(
+                            range.min, range.max);
+                    if (count < narrowestCount) {
+                        narrowest = part;
+                        narrowestCount = count;
+                    }
+                }
+            }
+        }
+        return narrowest;
+    }
+
+    /**
+     * Returns the part of a criterion the candidates of a path must
+     * still be checked against
+     *
+     * @param criterion The criterion of the query
+     * @param answered The part of the criterion the path answers
+     *                 exactly, null if none
+     * @return Returns the criterion to check, or null if none
+     */
+    private static Criterion residual(Criterion criterion, Criterion answered) {
+        if (answered == criterion) {
+            return null;
+        }
+        if (answered != null && criterion instanceof Criterion.Combined
+                && ((Criterion.Combined) criterion).all) {
+            List<Criterion> rest = new ArrayList<>(
+                    ((Criterion.Combined) criterion).criteria);
+            rest.remove(answered);
+            return Criterion.allOf(rest.toArray(new Criterion[0]));
+        }
+        return criterion;
+    }
+
+    /**
+     * Returns the share of the magazines a number of them makes up
+     *
+     * @param count The number of magazines
+     * @param magazineCount Number of magazines in the register
+     * @return Returns the share, between 0 and 1
+     */
+    private static double share(long count, int magazineCount) {
+        return magazineCount == 0 ? 0 : Math.min(1, (double) count / magazineCount);
+    }
+
+    /**
+     * The estimated selectivity and best access path of a criterion
+     */
+    private static class Estimate {
+
+        /**
+         * The path reading the fewest record ids, null if the criterion
+         * can only be answered by a full scan
+         */
+        private final AccessPath path;
+
+        /**
+         * The part of the criterion the path answers exactly, null if
+         * its record ids must be checked against the criterion
+         */
+        private final Criterion answered;
+
+        /**
+         * Estimated share of the magazines meeting the criterion
+         */
+        private final double selectivity;
+
+        /**
+         * Creates an estimate
+         *
+         * @param path The path reading the fewest record ids, or null
+         * @param answered The part of the criterion the path answers
+         *                 exactly, or null
+         * @param selectivity Estimated share of the magazines meeting
+         *                    the criterion
+         */
+        Estimate(AccessPath path, Criterion answered, double selectivity) {
+            this.path = path;
+            this.answered = answered;
+            this.selectivity = selectivity;
+        }
+
+        /**
+         * Returns the estimate of a criterion no magazine meets
+         *
+         * @param criterion The criterion
+         * @return Returns the estimate
+         */
+        static Estimate empty(Criterion criterion) {
+            return new Estimate(AccessPath.of(AccessPath.Kind.EMPTY, 0),
+                    criterion, 0);
+        }
+    }
+
+}
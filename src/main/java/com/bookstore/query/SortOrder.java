@@ -0,0 +1,82 @@
+package com.bookstore.query;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.Comparator;
+
+/**
+ * The order of the magazines found by a {@link MagazineQuery}. Magazines
+ * equal in the order are returned in the order they were added.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public enum SortOrder {
+
+    /**
+     * In the order the magazines were added
+     */
+    ADDED("as added", null),
+
+    /**
+     * By title, ignoring case, then by publisher
+     */
+    TITLE("by title", Comparator.comparing(Magazine::getNormalizedTitle)
+            .thenComparing(Magazine::getNormalizedPublisher)),
+
+    /**
+     * By publisher, ignoring case, then by title
+     */
+    PUBLISHER("by publisher", Comparator.comparing(Magazine::getNormalizedPublisher)
+            .thenComparing(Magazine::getNormalizedTitle)),
+
+    /**
+     * The least published first
+     */
+    LEAST_PUBLISHED("by publications per year, least first",
+            Comparator.comparingInt(Magazine::getPublicationsPerYear)),
+
+    /**
+     * The most published first
+     */
+    MOST_PUBLISHED("by publications per year, most first",
+            Comparator.comparingInt(Magazine::getPublicationsPerYear).reversed());
+
+    /**
+     * Description of the order, for query plans
+     */
+    private final String description;
+
+    /**
+     * Compares the magazines in the order, null for the order added
+     */
+    private final Comparator<Magazine> comparator;
+
+    /**
+     * Creates a sort order
+     *
+     * @param description Description of the order
+     * @param comparator Compares the magazines in the order, null for
+     *                   the order added
+     */
+    SortOrder(String description, Comparator<Magazine> comparator) {
+        this.description = description;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Returns a comparator of magazines in the order
+     *
+     * @return Returns the comparator, or null for {@link #ADDED}, where
+     * the magazines are not compared
+     */
+    public Comparator<Magazine> getComparator() {
+        return this.comparator;
+    }
+
+    @Override
+    public String toString() {
+        return this.description;
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.bookstore.readables;
 
+import com.bookstore.util.TextNormalizer;
+
 /**
  * Holds information about a magazine,
  * It contains of a title, publisher and publications per year
@@ -9,6 +11,12 @@ package com.bookstore.readables;
  */
 public class Magazine {
 
+    /**
+     * Separates the title and publisher in the magazine key. A control
+     * character so it can not be typed as part of a title.
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
     /**
      * The magazine title
      */
@@ -24,6 +32,34 @@ public class Magazine {
      */
     private int publicationsPerYear;
 
+    /**
+     * The trimmed and case folded title, for searching
+     */
+    private String normalizedTitle;
+
+    /**
+     * The trimmed and case folded publisher, for searching
+     */
+    private String normalizedPublisher;
+
+    /**
+     * The normalized title with accents folded, the same string as
+     * {@link #normalizedTitle} if it has no accents
+     */
+    private String accentFoldedTitle;
+
+    /**
+     * The normalized publisher with accents folded, the same string as
+     * {@link #normalizedPublisher} if it has no accents
+     */
+    private String accentFoldedPublisher;
+
+    /**
+     * The normalized title and publisher pair, used to identify
+     * duplicates of this magazine
+     */
+    private String key;
+
     /**
      * Assign the passed variables to local fields
      *
@@ -35,6 +71,14 @@ public class Magazine {
         this.setTitle(title);
         this.setPublisher(publisher);
         this.setPublicationsPerYear(publicationsPerYear);
+        this.normalizedTitle = TextNormalizer.normalize(this.title);
+        this.normalizedPublisher = TextNormalizer.normalize(this.publisher);
+        this.accentFoldedTitle = TextNormalizer.foldAccents(
+                this.normalizedTitle);
+        this.accentFoldedPublisher = TextNormalizer.foldAccents(
+                this.normalizedPublisher);
+        this.key = this.normalizedTitle + KEY_SEPARATOR
+                + this.normalizedPublisher;
     }
 
     private void setTitle(String title) {
@@ -90,4 +134,61 @@ public class Magazine {
 
         return this.publicationsPerYear;
     }
+
+    /**
+     * Returns the title trimmed and case folded, independent of the
+     * default locale, see {@link TextNormalizer#normalize(String)}.
+     * Computed once, so searches do not fold the title again.
+     *
+     * @return Returns the normalized title
+     */
+    public String getNormalizedTitle() {
+
+        return this.normalizedTitle;
+    }
+
+    /**
+     * Returns the publisher trimmed and case folded, independent of the
+     * default locale, see {@link TextNormalizer#normalize(String)}
+     *
+     * @return Returns the normalized publisher
+     */
+    public String getNormalizedPublisher() {
+
+        return this.normalizedPublisher;
+    }
+
+    /**
+     * Returns the normalized title with accents folded too,
+     * see {@link TextNormalizer#foldAccents(String)}
+     *
+     * @return Returns the accent folded title
+     */
+    public String getAccentFoldedTitle() {
+
+        return this.accentFoldedTitle;
+    }
+
+    /**
+     * Returns the normalized publisher with accents folded too,
+     * see {@link TextNormalizer#foldAccents(String)}
+     *
+     * @return Returns the accent folded publisher
+     */
+    public String getAccentFoldedPublisher() {
+
+        return this.accentFoldedPublisher;
+    }
+
+    /**
+     * Returns the key of the magazine. The key is the trimmed and case
+     * folded title and publisher, and is equal for two magazines
+     * if they count as duplicates of each other.
+     *
+     * @return Returns the magazine key
+     */
+    public String getKey() {
+
+        return this.key;
+    }
 }
@@ -0,0 +1,214 @@
+package com.bookstore.stats;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals over the magazines of a register, updated as magazines
+ * are added and removed, so statistics never scan the catalog.
+ * <p>
+ * Adding or removing a magazine updates the totals with two hash lookups.
+ * A {@link CatalogStatistics} snapshot copies the totals, in time
+ * linear in the number of distinct publishers and publications per
+ * year, and is kept until the totals change again.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class CatalogAggregates {
+
+    /**
+     * The totals of each publisher, by normalized publisher
+     */
+    private HashMap<String, PublisherTotals> publishers;
+
+    /**
+     * Number of magazines by publications per year
+     */
+    private HashMap<Integer, int[]> publicationsHistogram;
+
+    /**
+     * Number of magazines
+     */
+    private int magazineCount;
+
+    /**
+     * Sum of the publications per year of all magazines
+     */
+    private long totalPublicationsPerYear;
+
+    /**
+     * The last snapshot, null if the totals have changed since
+     */
+    private volatile CatalogStatistics snapshot;
+
+    /**
+     * Creates totals of no magazines
+     */
+    public CatalogAggregates() {
+        this.publishers = new HashMap<>();
+        this.publicationsHistogram = new HashMap<>();
+        this.magazineCount = 0;
+        this.totalPublicationsPerYear = 0;
+        this.snapshot = null;
+    }
+
+    /**
+     * Creates a copy of the given totals
+     *
+     * @param other The totals to copy
+     */
+    public CatalogAggregates(CatalogAggregates other) {
+        this.publishers = new HashMap<>(other.publishers.size() * 4 / 3 + 1);
+        for (Map.Entry<String, PublisherTotals> entry
+                : other.publishers.entrySet()) {
+            this.publishers.put(entry.getKey(),
+                    new PublisherTotals(entry.getValue()));
+        }
+        this.publicationsHistogram = new HashMap<>(
+                other.publicationsHistogram.size() * 4 / 3 + 1);
+        for (Map.Entry<Integer, int[]> entry
+                : other.publicationsHistogram.entrySet()) {
+            this.publicationsHistogram.put(entry.getKey(),
+                    entry.getValue().clone());
+        }
+        this.magazineCount = other.magazineCount;
+        this.totalPublicationsPerYear = other.totalPublicationsPerYear;
+        this.snapshot = other.snapshot;
+    }
+
+    /**
+     * Adds a magazine to the totals
+     *
+     * @param magazine The magazine added
+     */
+    public void add(Magazine magazine) {
+        String publisher = magazine.getNormalizedPublisher();
+        PublisherTotals totals = this.publishers.get(publisher);
+        if (totals == null) {
+            totals = new PublisherTotals(magazine.getPublisher().trim());
+            this.publishers.put(publisher, totals);
+        }
+        int publications = magazine.getPublicationsPerYear();
+        totals.magazineCount++;
+        totals.publicationsPerYear += publications;
+
+        int[] count = this.publicationsHistogram.get(publications);
+        if (count == null) {
+            count = new int[1];
+            this.publicationsHistogram.put(publications, count);
+        }
+        count[0]++;
+
+        this.magazineCount++;
+        this.totalPublicationsPerYear += publications;
+        this.snapshot = null;
+    }
+
+    /**
+     * Removes a magazine from the totals. The magazine must have
+     * been added.
+     *
+     * @param magazine The magazine removed
+     */
+    public void remove(Magazine magazine) {
+        String publisher = magazine.getNormalizedPublisher();
+        PublisherTotals totals = this.publishers.get(publisher);
+        if (totals == null) {
+            return;
+        }
+        int publications = magazine.getPublicationsPerYear();
+        totals.magazineCount--;
+        totals.publicationsPerYear -= publications;
+        if (totals.magazineCount == 0) {
+            this.publishers.remove(publisher);
+        }
+
+        int[] count = this.publicationsHistogram.get(publications);
+        if (count != null && --count[0] == 0) {
+            this.publicationsHistogram.remove(publications);
+        }
+
+        this.magazineCount--;
+        this.totalPublicationsPerYear -= publications;
+        this.snapshot = null;
+    }
+
+    /**
+     * Returns a snapshot of the totals, the same one until the
+     * totals change
+     *
+     * @return Returns the statistics
+     */
+    public CatalogStatistics snapshot() {
+        CatalogStatistics current = this.snapshot;
+        if (current == null) {
+            HashMap<String, CatalogStatistics.PublisherStatistics> byPublisher =
+                    new HashMap<>(this.publishers.size() * 4 / 3 + 1);
+            for (Map.Entry<String, PublisherTotals> entry
+                    : this.publishers.entrySet()) {
+                PublisherTotals totals = entry.getValue();
+                byPublisher.put(entry.getKey(),
+                        new CatalogStatistics.PublisherStatistics(
+                                totals.publisher, totals.magazineCount,
+                                totals.publicationsPerYear));
+            }
+            TreeMap<Integer, Integer> histogram = new TreeMap<>();
+            for (Map.Entry<Integer, int[]> entry
+                    : this.publicationsHistogram.entrySet()) {
+                histogram.put(entry.getKey(), entry.getValue()[0]);
+            }
+            current = new CatalogStatistics(this.magazineCount,
+                    this.totalPublicationsPerYear, byPublisher, histogram);
+            this.snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * The running totals of one publisher
+     */
+    private static class PublisherTotals {
+
+        /**
+         * The publisher as first added
+         */
+        private final String publisher;
+
+        /**
+         * Number of magazines by the publisher
+         */
+        private int magazineCount;
+
+        /**
+         * Sum of the publications per year of the magazines
+         */
+        private long publicationsPerYear;
+
+        /**
+         * Creates totals of no magazines
+         *
+         * @param publisher The publisher as first added
+         */
+        PublisherTotals(String publisher) {
+            this.publisher = publisher;
+            this.magazineCount = 0;
+            this.publicationsPerYear = 0;
+        }
+
+        /**
+         * Creates a copy of the given totals
+         *
+         * @param other The totals to copy
+         */
+        PublisherTotals(PublisherTotals other) {
+            this.publisher = other.publisher;
+            this.magazineCount = other.magazineCount;
+            this.publicationsPerYear = other.publicationsPerYear;
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.bookstore.stats;
+
+import com.bookstore.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Statistics of the magazines of a register at one point in time,
+ * see {@link com.bookstore.MagazineRegister#getStatistics()}. The
+ * statistics never change, so they can be read while the register
+ * is changed.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class CatalogStatistics {
+
+    /**
+     * Number of magazines
+     */
+    private final int magazineCount;
+
+    /**
+     * Sum of the publications per year of all magazines
+     */
+    private final long totalPublicationsPerYear;
+
+    /**
+     * The statistics of each publisher, by normalized publisher
+     */
+    private final Map<String, PublisherStatistics> publishers;
+
+    /**
+     * Number of magazines by publications per year
+     */
+    private final SortedMap<Integer, Integer> publicationsHistogram;
+
+    /**
+     * Creates statistics
+     *
+     * @param magazineCount Number of magazines
+     * @param totalPublicationsPerYear Sum of the publications per year
+     * @param publishers The statistics of each publisher, by normalized
+     *                   publisher
+     * @param publicationsHistogram Number of magazines by publications
+     *                              per year
+     */
+    CatalogStatistics(int magazineCount, long totalPublicationsPerYear,
+                      Map<String, PublisherStatistics> publishers,
+                      SortedMap<Integer, Integer> publicationsHistogram) {
+        this.magazineCount = magazineCount;
+        this.totalPublicationsPerYear = totalPublicationsPerYear;
+        this.publishers = Collections.unmodifiableMap(publishers);
+        this.publicationsHistogram =
+                Collections.unmodifiableSortedMap(publicationsHistogram);
+    }
+
+    /**
+     * Returns the number of magazines
+     *
+     * @return Returns the number of magazines
+     */
+    public int getMagazineCount() {
+        return this.magazineCount;
+    }
+
+    /**
+     * Returns the number of distinct publishers, publishers differing
+     * only in case or surrounding whitespace counted once
+     *
+     * @return Returns the number of publishers
+     */
+    public int getPublisherCount() {
+        return this.publishers.size();
+    }
+
+    /**
+     * Returns the number of issues all magazines publish in a year,
+     * the sum of their publications per year
+     *
+     * @return Returns the sum of the publications per year
+     */
+    public long getTotalPublicationsPerYear() {
+        return this.totalPublicationsPerYear;
+    }
+
+    /**
+     * Returns the mean publications per year of the magazines
+     *
+     * @return Returns the mean, 0 if there are no magazines
+     */
+    public double getMeanPublicationsPerYear() {
+        if (this.magazineCount == 0) {
+            return 0;
+        }
+        return (double) this.totalPublicationsPerYear / this.magazineCount;
+    }
+
+    /**
+     * Returns the statistics of a publisher, ignoring case and
+     * surrounding whitespace
+     *
+     * @param publisher The publisher
+     * @return Returns the statistics, or null if the publisher has
+     * no magazines
+     * @throws IllegalArgumentException If publisher is null
+     */
+    public PublisherStatistics getPublisher(String publisher) {
+        return this.publishers.get(TextNormalizer.normalize(publisher));
+    }
+
+    /**
+     * Returns the statistics of every publisher, the publishers with
+     * most magazines first
+     *
+     * @return Returns the statistics of the publishers
+     */
+    public List<PublisherStatistics> getPublishers() {
+        List<PublisherStatistics> all = new ArrayList<>(this.publishers.values());
+        all.sort(Comparator.comparingInt(PublisherStatistics::getMagazineCount)
+                .reversed().thenComparing(PublisherStatistics::getPublisher));
+        return all;
+    }
+
+    /**
+     * Returns the number of magazines by publications per year
+     *
+     * @return Returns an unmodifiable map from publications per year to
+     * the number of magazines, sorted by publications per year
+     */
+    public SortedMap<Integer, Integer> getPublicationsHistogram() {
+        return this.publicationsHistogram;
+    }
+
+    /**
+     * Statistics of the magazines of one publisher
+     */
+    public static class PublisherStatistics {
+
+        /**
+         * The publisher as first added
+         */
+        private final String publisher;
+
+        /**
+         * Number of magazines by the publisher
+         */
+        private final int magazineCount;
+
+        /**
+         * Sum of the publications per year of the magazines
+         */
+        private final long totalPublicationsPerYear;
+
+        /**
+         * Creates the statistics of a publisher
+         *
+         * @param publisher The publisher as first added
+         * @param magazineCount Number of magazines by the publisher
+         * @param totalPublicationsPerYear Sum of the publications per
+         *                                 year of the magazines
+         */
+        PublisherStatistics(String publisher, int magazineCount,
+                            long totalPublicationsPerYear) {
+            this.publisher = publisher;
+            this.magazineCount = magazineCount;
+            this.totalPublicationsPerYear = totalPublicationsPerYear;
+        }
+
+        /**
+         * Returns the publisher as it was first added
+         *
+         * @return Returns the publisher
+         */
+        public String getPublisher() {
+            return this.publisher;
+        }
+
+        /**
+         * Returns the number of magazines by the publisher
+         *
+         * @return Returns the number of magazines
+         */
+        public int getMagazineCount() {
+            return this.magazineCount;
+        }
+
+        /**
+         * Returns the number of issues the publisher publishes in a year
+         *
+         * @return Returns the sum of the publications per year
+         */
+        public long getTotalPublicationsPerYear() {
+            return this.totalPublicationsPerYear;
+        }
+    }
+
+}
@@ -0,0 +1,306 @@
+package com.bookstore.storage;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * Writes catalog files, the binary file format read by
+ * {@link MappedMagazineStore}.
+ * <p>
+ * A catalog file holds, in big-endian byte order:
+ * <ul>
+ * <li>A header of {@value #HEADER_BYTES} bytes: the magic number, the
+ * format version, the magazine count, the offsets of the record table
+ * and string heap, the length of the string heap and a CRC32 of the
+ * header fields.</li>
+ * <li>The record table, one record of {@value #RECORD_BYTES} bytes per
+ * magazine: the offset and length of the title, the offset and length
+ * of the publisher and the publications per year. Offsets are counted
+ * from the start of the string heap.</li>
+ * <li>The string heap, the UTF-8 bytes of the titles and publishers.
+ * Every distinct publisher is stored once.</li>
+ * </ul>
+ * As every record has the same width, the magazine at a position is
+ * found without reading the ones before it. The file is written to a
+ * temporary file, forced to the disk and then moved in place, so a
+ * catalog file is either complete or missing.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public final class CatalogFile {
+
+    /**
+     * Marks the start of a catalog file, "MAGCAT01" in ASCII
+     */
+    static final long MAGIC = 0x4D41474341543031L;
+
+    /**
+     * Version of the catalog format
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Length of the header in bytes
+     */
+    static final int HEADER_BYTES = 48;
+
+    /**
+     * Length of the header fields covered by the header checksum
+     */
+    static final int CHECKED_HEADER_BYTES = 40;
+
+    /**
+     * Length of a record in the record table in bytes
+     */
+    static final int RECORD_BYTES = 20;
+
+    /**
+     * Size of the write buffers in bytes
+     */
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Utility class, should not be instantiated.
+     */
+    private CatalogFile() {
+    }
+
+    /**
+     * Writes the magazines to a catalog file
+     *
+     * @param target The catalog file to write
+     * @param count The number of magazines
+     * @param magazines The magazines to write, exactly count of them
+     * @throws IOException If writing fails or the string heap would
+     *                     not fit in the file format
+     * @throws IllegalArgumentException If an argument is null or the
+     *                                  count does not match
+     */
+    public static void write(Path target, int count, Iterator<Magazine> magazines)
+            throws IOException {
+        if (target == null || magazines == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Count can not be negative.");
+        }
+
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            writeTemporary(temporary, count, magazines);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the magazines to the temporary file and forces it to the disk
+     *
+     * @param temporary The file to write
+     * @param count The number of magazines
+     * @param magazines The magazines to write, exactly count of them
+     * @throws IOException If writing fails or the string heap would
+     *                     not fit in the file format
+     * @throws IllegalArgumentException If the count does not match
+     */
+    private static void writeTemporary(Path temporary, int count,
+                                       Iterator<Magazine> magazines)
+            throws IOException {
+        long heapOffset = HEADER_BYTES + (long) count * RECORD_BYTES;
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelWriter records = new ChannelWriter(channel, HEADER_BYTES);
+            ChannelWriter heap = new ChannelWriter(channel, heapOffset);
+            HashMap<String, Long> publisherOffsets = new HashMap<>();
+
+            int written = 0;
+            while (magazines.hasNext()) {
+                if (written == count) {
+                    throw new IllegalArgumentException(
+                            "More magazines than the given count.");
+                }
+                Magazine magazine = magazines.next();
+
+                byte[] title = magazine.getTitle().getBytes(StandardCharsets.UTF_8);
+                records.writeInt(heapPosition(heap, heapOffset));
+                records.writeInt(title.length);
+                heap.write(title);
+
+                String publisher = magazine.getPublisher();
+                Long publisherOffset = publisherOffsets.get(publisher);
+                if (publisherOffset == null) {
+                    byte[] bytes = publisher.getBytes(StandardCharsets.UTF_8);
+                    publisherOffset = ((long) heapPosition(heap, heapOffset) << 32)
+                            | bytes.length;
+                    heap.write(bytes);
+                    publisherOffsets.put(publisher, publisherOffset);
+                }
+                records.writeInt((int) (publisherOffset >>> 32));
+                records.writeInt((int) (long) publisherOffset);
+                records.writeInt(magazine.getPublicationsPerYear());
+                written++;
+            }
+            if (written != count) {
+                throw new IllegalArgumentException(
+                        "Fewer magazines than the given count.");
+            }
+            records.flush();
+            heap.flush();
+            long heapLength = heapPosition(heap, heapOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putLong(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(count);
+            header.putLong(HEADER_BYTES);
+            header.putLong(heapOffset);
+            header.putLong(heapLength);
+            header.putInt(headerChecksum(header, 0));
+            header.putInt(0);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Returns the CRC32 of the checked header fields
+     *
+     * @param buffer The buffer holding the header
+     * @param start The position of the header in the buffer
+     * @return Returns the checksum
+     */
+    static int headerChecksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < CHECKED_HEADER_BYTES; i++) {
+            crc.update(buffer.get(start + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the offset of the next string in the string heap
+     *
+     * @param heap The writer of the string heap
+     * @param heapOffset The position of the string heap in the file
+     * @return Returns the offset from the start of the string heap
+     * @throws IOException If the string heap has grown too large
+     */
+    private static int heapPosition(ChannelWriter heap, long heapOffset)
+            throws IOException {
+        long position = heap.position() - heapOffset;
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("The string heap is too large for "
+                    + "the catalog format.");
+        }
+        return (int) position;
+    }
+
+    /**
+     * Buffered writer to a region of a file channel, so the record
+     * table and string heap can be written at the same time
+     */
+    private static final class ChannelWriter {
+
+        /**
+         * The channel to write to
+         */
+        private final FileChannel channel;
+
+        /**
+         * The bytes not written to the channel yet
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * The file position of the first buffered byte
+         */
+        private long flushedPosition;
+
+        /**
+         * Creates a writer starting at the given file position
+         *
+         * @param channel The channel to write to
+         * @param position The file position to start at
+         */
+        ChannelWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            this.flushedPosition = position;
+        }
+
+        /**
+         * Returns the file position of the next written byte
+         *
+         * @return Returns the file position
+         */
+        long position() {
+            return this.flushedPosition + this.buffer.position();
+        }
+
+        /**
+         * Writes an int
+         *
+         * @param value The value to write
+         * @throws IOException If writing fails
+         */
+        void writeInt(int value) throws IOException {
+            if (this.buffer.remaining() < Integer.BYTES) {
+                this.flush();
+            }
+            this.buffer.putInt(value);
+        }
+
+        /**
+         * Writes the bytes
+         *
+         * @param bytes The bytes to write
+         * @throws IOException If writing fails
+         */
+        void write(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!this.buffer.hasRemaining()) {
+                    this.flush();
+                }
+                int length = Math.min(this.buffer.remaining(),
+                        bytes.length - offset);
+                this.buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Writes the buffered bytes to the channel
+         *
+         * @throws IOException If writing fails
+         */
+        void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.flushedPosition += this.channel.write(this.buffer,
+                        this.flushedPosition);
+            }
+            this.buffer.clear();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.bookstore.storage;
+
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Store holding the {@link Magazine} objects in a list on the heap.
+ * The normalized titles are read from the magazines, so searching
+ * the store does not allocate.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class HeapMagazineStore implements MagazineStore {
+
+    /**
+     * Holds a collection of magazines
+     */
+    private final ArrayList<Magazine> magazines;
+
+    /**
+     * Creates an empty store
+     */
+    public HeapMagazineStore() {
+        this.magazines = new ArrayList<>();
+    }
+
+    /**
+     * Creates a store holding the magazines of another store
+     *
+     * @param other The store to copy
+     */
+    public HeapMagazineStore(MagazineStore other) {
+        this.magazines = new ArrayList<>(other.size());
+        for (int i = 0; i < other.size(); i++) {
+            this.magazines.add(other.get(i));
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.magazines.size();
+    }
+
+    @Override
+    public Magazine get(int position) {
+        return this.magazines.get(position);
+    }
+
+    @Override
+    public String getTitle(int position) {
+        return this.magazines.get(position).getTitle();
+    }
+
+    @Override
+    public String getNormalizedTitle(int position) {
+        return this.magazines.get(position).getNormalizedTitle();
+    }
+
+    @Override
+    public String getAccentFoldedTitle(int position) {
+        return this.magazines.get(position).getAccentFoldedTitle();
+    }
+
+    @Override
+    public String getPublisher(int position) {
+        return this.magazines.get(position).getPublisher();
+    }
+
+    @Override
+    public int getPublicationsPerYear(int position) {
+        return this.magazines.get(position).getPublicationsPerYear();
+    }
+
+    @Override
+    public void add(Magazine magazine) {
+        this.magazines.add(magazine);
+    }
+
+    @Override
+    public void remove(int position) {
+        this.magazines.remove(position);
+    }
+
+    @Override
+    public void removeAll(BitSet positions) {
+        int size = this.magazines.size();
+        int kept = 0;
+        for (int position = 0; position < size; position++) {
+            if (!positions.get(position)) {
+                this.magazines.set(kept, this.magazines.get(position));
+                kept++;
+            }
+        }
+        this.magazines.subList(kept, size).clear();
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        this.magazines.ensureCapacity(capacity);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public MagazineStore copy() {
+        return new HeapMagazineStore(this);
+    }
+
+}
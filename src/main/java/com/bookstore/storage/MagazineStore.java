@@ -0,0 +1,162 @@
+package com.bookstore.storage;
+
+import com.bookstore.readables.Magazine;
+import com.bookstore.util.TextNormalizer;
+
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Holds the magazines of a register, by position in the order they
+ * were added. Deleting a magazine moves the following magazines one
+ * position down.
+ * <p>
+ * The fields of a magazine can be read without creating a
+ * {@link Magazine}, so stores not holding {@link Magazine} objects
+ * can be searched without creating one for every position. Searches
+ * read the normalized titles, which stores holding {@link Magazine}
+ * objects return without computing them.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public interface MagazineStore {
+
+    /**
+     * Returns the number of magazines in the store
+     *
+     * @return Returns the number of magazines
+     */
+    int size();
+
+    /**
+     * Returns the magazine at the given position
+     *
+     * @param position The position of the magazine
+     * @return Returns the magazine
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    Magazine get(int position);
+
+    /**
+     * Returns the title of the magazine at the given position
+     *
+     * @param position The position of the magazine
+     * @return Returns the title
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    String getTitle(int position);
+
+    /**
+     * Returns the normalized title of the magazine at the given
+     * position, see {@link Magazine#getNormalizedTitle()}
+     *
+     * @param position The position of the magazine
+     * @return Returns the normalized title
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    default String getNormalizedTitle(int position) {
+        return TextNormalizer.normalize(this.getTitle(position));
+    }
+
+    /**
+     * Returns the accent folded title of the magazine at the given
+     * position, see {@link Magazine#getAccentFoldedTitle()}
+     *
+     * @param position The position of the magazine
+     * @return Returns the accent folded title
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    default String getAccentFoldedTitle(int position) {
+        return TextNormalizer.foldAccents(this.getNormalizedTitle(position));
+    }
+
+    /**
+     * Returns a filter accepting the positions of the magazines with
+     * titles containing the given text. Stores not holding
+     * {@link Magazine} objects can check the titles without decoding them.
+     *
+     * @param text The normalized text to find, accent folded if
+     *             accentFolded is true
+     * @param accentFolded True to check the accent folded titles, false
+     *                     to check the normalized titles
+     * @return Returns the filter, which can be used by many threads
+     */
+    default IntPredicate titleFilter(String text, boolean accentFolded) {
+        if (accentFolded) {
+            return position -> this.getAccentFoldedTitle(position)
+                    .contains(text);
+        }
+        return position -> this.getNormalizedTitle(position).contains(text);
+    }
+
+    /**
+     * Returns the publisher of the magazine at the given position
+     *
+     * @param position The position of the magazine
+     * @return Returns the publisher
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    String getPublisher(int position);
+
+    /**
+     * Returns the publications per year of the magazine at the
+     * given position
+     *
+     * @param position The position of the magazine
+     * @return Returns the publications per year
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    int getPublicationsPerYear(int position);
+
+    /**
+     * Adds a magazine after the last position
+     *
+     * @param magazine The magazine to add
+     * @throws UnsupportedOperationException If the store is read-only
+     */
+    void add(Magazine magazine);
+
+    /**
+     * Removes the magazine at the given position, moving the
+     * following magazines one position down
+     *
+     * @param position The position of the magazine
+     * @throws IndexOutOfBoundsException If position is out of range
+     * @throws UnsupportedOperationException If the store is read-only
+     */
+    void remove(int position);
+
+    /**
+     * Removes the magazines at the set positions in a single pass,
+     * moving the rest down while keeping their order
+     *
+     * @param positions The positions of the magazines to remove
+     * @throws UnsupportedOperationException If the store is read-only
+     */
+    void removeAll(BitSet positions);
+
+    /**
+     * Makes sure the store can hold the given number of magazines
+     * without growing
+     *
+     * @param capacity The number of magazines to make room for
+     */
+    void ensureCapacity(int capacity);
+
+    /**
+     * Returns true if magazines can not be added or removed
+     *
+     * @return Returns true if read-only else false
+     */
+    boolean isReadOnly();
+
+    /**
+     * Returns a copy of the store that can be changed without changing
+     * this store. A read-only store can return itself.
+     *
+     * @return Returns the copy
+     */
+    MagazineStore copy();
+
+}
@@ -0,0 +1,239 @@
+package com.bookstore.storage;
+
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Read-only store reading the magazines straight from a memory mapped
+ * catalog file, see {@link CatalogFile}.
+ * <p>
+ * Opening only maps the file and checks the header, nothing is parsed
+ * up front, so opening takes the same time whatever the size of the
+ * catalog. A {@link Magazine} is created every time one is read, and
+ * the fields of a magazine can be read without creating one. The
+ * operating system pages the file in as it is read.
+ * <p>
+ * The store is never changed, so it can be read by many threads at once
+ * and shared by copies of a register. The file must not be changed while
+ * it is mapped, catalog files are replaced by moving a new file in place.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class MappedMagazineStore implements MagazineStore {
+
+    /**
+     * The mapped catalog file, only read with absolute gets so it can be
+     * shared by threads
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Number of magazines in the catalog
+     */
+    private final int count;
+
+    /**
+     * File position of the record table
+     */
+    private final int recordTableOffset;
+
+    /**
+     * File position of the string heap
+     */
+    private final int heapOffset;
+
+    /**
+     * Creates a store reading from a checked mapping
+     *
+     * @param buffer The mapped catalog file
+     * @param count The number of magazines
+     * @param recordTableOffset File position of the record table
+     * @param heapOffset File position of the string heap
+     */
+    private MappedMagazineStore(MappedByteBuffer buffer, int count,
+                                int recordTableOffset, int heapOffset) {
+        this.buffer = buffer;
+        this.count = count;
+        this.recordTableOffset = recordTableOffset;
+        this.heapOffset = heapOffset;
+    }
+
+    /**
+     * Maps a catalog file
+     *
+     * @param catalogFile The catalog file to map
+     * @return Returns a store reading from the file
+     * @throws IOException If the file can not be mapped, is not a
+     *                     catalog file or is damaged
+     * @throws IllegalArgumentException If argument is null
+     */
+    public static MappedMagazineStore open(Path catalogFile) throws IOException {
+        if (catalogFile == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        try (FileChannel channel = FileChannel.open(catalogFile,
+                StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < CatalogFile.HEADER_BYTES) {
+                throw new IOException("Not a catalog file: " + catalogFile);
+            }
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Catalog file is too large to map: "
+                        + catalogFile);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, fileSize);
+
+            if (buffer.getLong(0) != CatalogFile.MAGIC) {
+                throw new IOException("Not a catalog file: " + catalogFile);
+            }
+            int version = buffer.getInt(8);
+            if (version != CatalogFile.VERSION) {
+                throw new IOException("Unsupported catalog version "
+                        + version + ": " + catalogFile);
+            }
+            int count = buffer.getInt(12);
+            long recordTableOffset = buffer.getLong(16);
+            long heapOffset = buffer.getLong(24);
+            long heapLength = buffer.getLong(32);
+            if (buffer.getInt(CatalogFile.CHECKED_HEADER_BYTES)
+                    != CatalogFile.headerChecksum(buffer, 0)
+                    || count < 0
+                    || recordTableOffset < CatalogFile.HEADER_BYTES
+                    || recordTableOffset + (long) count
+                    * CatalogFile.RECORD_BYTES > heapOffset
+                    || heapLength < 0
+                    || heapOffset + heapLength != fileSize) {
+                throw new IOException("Damaged catalog file: " + catalogFile);
+            }
+            return new MappedMagazineStore(buffer, count,
+                    (int) recordTableOffset, (int) heapOffset);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.count;
+    }
+
+    @Override
+    public Magazine get(int position) {
+        int record = this.recordPosition(position);
+        return new Magazine(this.readString(record),
+                this.readString(record + 2 * Integer.BYTES),
+                this.buffer.getInt(record + 4 * Integer.BYTES));
+    }
+
+    @Override
+    public String getTitle(int position) {
+        return this.readString(this.recordPosition(position));
+    }
+
+    @Override
+    public String getPublisher(int position) {
+        return this.readString(this.recordPosition(position)
+                + 2 * Integer.BYTES);
+    }
+
+    @Override
+    public int getPublicationsPerYear(int position) {
+        return this.buffer.getInt(this.recordPosition(position)
+                + 4 * Integer.BYTES);
+    }
+
+    /**
+     * Not supported, the store is read-only
+     *
+     * @param magazine The magazine to add
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void add(Magazine magazine) {
+        throw new UnsupportedOperationException("The store is read-only.");
+    }
+
+    /**
+     * Not supported, the store is read-only
+     *
+     * @param position The position of the magazine
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void remove(int position) {
+        throw new UnsupportedOperationException("The store is read-only.");
+    }
+
+    /**
+     * Not supported, the store is read-only
+     *
+     * @param positions The positions of the magazines to remove
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void removeAll(BitSet positions) {
+        throw new UnsupportedOperationException("The store is read-only.");
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        // Never grows
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /**
+     * Returns this store, as it is never changed
+     *
+     * @return Returns this store
+     */
+    @Override
+    public MagazineStore copy() {
+        return this;
+    }
+
+    /**
+     * Returns the file position of the record at the given position
+     *
+     * @param position The position of the magazine
+     * @return Returns the file position of the record
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    private int recordPosition(int position) {
+        if (position < 0 || position >= this.count) {
+            throw new IndexOutOfBoundsException("Position: " + position
+                    + ", size: " + this.count);
+        }
+        return this.recordTableOffset + position * CatalogFile.RECORD_BYTES;
+    }
+
+    /**
+     * Decodes the string the offset and length at the given file
+     * position points to
+     *
+     * @param field The file position of the offset and length
+     * @return Returns the string
+     */
+    private String readString(int field) {
+        int offset = this.heapOffset + this.buffer.getInt(field);
+        int length = this.buffer.getInt(field + Integer.BYTES);
+        byte[] bytes = new byte[length];
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,666 @@
+package com.bookstore.storage;
+
+import com.bookstore.readables.Magazine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Store holding the magazines outside the heap, in direct buffers the
+ * garbage collector never traces, so a catalog of tens of millions of
+ * magazines adds no objects to collect.
+ * <p>
+ * Each magazine is a record in a slab, a direct buffer of a fixed
+ * size: its publications per year, then the title, the publisher, the
+ * normalized title and the accent folded title as UTF-8 bytes, each
+ * after its length. The accent folded title is left out when it is the
+ * same as the normalized title. Records take a whole number of
+ * {@value #UNIT_BYTES} byte units. A removed record's slot goes on a
+ * free list by its number of units and is reused by the next record of
+ * that size. A free slot holds the next free slot of its list, so the
+ * free lists take no heap either. The address of the record at each
+ * position is kept in direct buffers too.
+ * <p>
+ * Reading a field decodes only that field, the publications per year
+ * are read without decoding any text. Title searches compare the UTF-8
+ * bytes of the stored normalized titles with the encoded search text,
+ * so checking a title neither decodes nor normalizes it. A
+ * {@link Magazine} is created every time one is read, as the slot of a
+ * removed magazine is reused.
+ * <p>
+ * The heap holds one buffer object per slab and per
+ * {@value #ADDRESSES_PER_CHUNK} positions, whatever the size of the
+ * catalog. Measured with 2 000 000 magazines like those of
+ * {@link ColumnarMagazineStore}, the store took no measurable heap and
+ * about 100 bytes of direct memory per magazine, where the columnar
+ * store took about 45 bytes of heap. The indexes of a register using
+ * the store are still kept on the heap, about 170 bytes per magazine,
+ * most of it the trigram posting lists. The direct memory of a store
+ * is released when the store is garbage collected, and limited by
+ * <code>-XX:MaxDirectMemorySize</code>.
+ * Copying the store copies every slab, so it suits a
+ * {@link com.bookstore.MagazineRegister} changed in place better than a
+ * {@link com.bookstore.ConcurrentMagazineRegister}, which copies its
+ * register on every change.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class OffHeapMagazineStore implements MagazineStore {
+
+    /**
+     * Size of the slabs when none is given, 4 MiB
+     */
+    public static final int DEFAULT_SLAB_BYTES = 1 << 22;
+
+    /**
+     * Smallest slab size accepted
+     */
+    private static final int MIN_SLAB_BYTES = 1 << 12;
+
+    /**
+     * Largest slab size accepted
+     */
+    private static final int MAX_SLAB_BYTES = 1 << 30;
+
+    /**
+     * Number of bytes records are allocated in
+     */
+    private static final int UNIT_BYTES = 8;
+
+    /**
+     * Number of bits of {@link #UNIT_BYTES}
+     */
+    private static final int UNIT_SHIFT = 3;
+
+    /**
+     * Largest slot, in units, with a free list of its own. Larger free
+     * slots are split in slots of this size.
+     */
+    private static final int MAX_FREE_UNITS = 128;
+
+    /**
+     * Bytes of a record besides the texts: the publications per year
+     * and the four lengths
+     */
+    private static final int RECORD_OVERHEAD = 5 * Integer.BYTES;
+
+    /**
+     * Number of the title among the texts of a record
+     */
+    private static final int TITLE = 0;
+
+    /**
+     * Number of the publisher among the texts of a record
+     */
+    private static final int PUBLISHER = 1;
+
+    /**
+     * Number of the normalized title among the texts of a record
+     */
+    private static final int NORMALIZED_TITLE = 2;
+
+    /**
+     * Number of the accent folded title among the texts of a record
+     */
+    private static final int ACCENT_FOLDED_TITLE = 3;
+
+    /**
+     * Length of the accent folded title when it is left out, as it is
+     * the same as the normalized title
+     */
+    private static final int SAME_AS_NORMALIZED = -1;
+
+    /**
+     * Number of record addresses in each buffer of the position table
+     */
+    private static final int ADDRESSES_PER_CHUNK = 1 << 18;
+
+    /**
+     * Marks the end of a free list
+     */
+    private static final int NO_SLOT = -1;
+
+    /**
+     * Size of each slab in bytes
+     */
+    private final int slabBytes;
+
+    /**
+     * Number of bits of the unit within a slab in a record address
+     */
+    private final int slabShift;
+
+    /**
+     * The slabs, records are addressed by slab index and unit within
+     * the slab, see {@link #address(int, int)}
+     */
+    private final ArrayList<ByteBuffer> slabs;
+
+    /**
+     * The first byte of the last slab no record has been given
+     */
+    private int slabTop;
+
+    /**
+     * The address of the first free slot of each size in units, or
+     * {@link #NO_SLOT}
+     */
+    private final int[] freeSlots;
+
+    /**
+     * Number of bytes in free slots
+     */
+    private long freeBytes;
+
+    /**
+     * The address of the record at each position, in chunks of
+     * {@link #ADDRESSES_PER_CHUNK}
+     */
+    private final ArrayList<IntBuffer> addressChunks;
+
+    /**
+     * Number of magazines in the store
+     */
+    private int size;
+
+    /**
+     * Creates an empty store with slabs of {@link #DEFAULT_SLAB_BYTES}
+     */
+    public OffHeapMagazineStore() {
+        this(DEFAULT_SLAB_BYTES);
+    }
+
+    /**
+     * Creates an empty store
+     *
+     * @param slabBytes The size of each slab in bytes, which limits the
+     *                  size of a record
+     * @throws IllegalArgumentException If slabBytes is not a power of
+     *                                  two from 4096 to 2^30
+     */
+    public OffHeapMagazineStore(int slabBytes) {
+        if (slabBytes < MIN_SLAB_BYTES || slabBytes > MAX_SLAB_BYTES
+                || Integer.bitCount(slabBytes) != 1) {
+            throw new IllegalArgumentException("Slab size must be a power "
+                    + "of two from 4096 to 2^30 bytes.");
+        }
+        this.slabBytes = slabBytes;
+        this.slabShift = Integer.numberOfTrailingZeros(slabBytes) - UNIT_SHIFT;
+        this.slabs = new ArrayList<>();
+        this.slabTop = slabBytes;
+        this.freeSlots = new int[MAX_FREE_UNITS + 1];
+        Arrays.fill(this.freeSlots, NO_SLOT);
+        this.freeBytes = 0;
+        this.addressChunks = new ArrayList<>();
+        this.size = 0;
+    }
+
+    /**
+     * Creates a store holding the magazines of another store, with slabs
+     * of {@link #DEFAULT_SLAB_BYTES}
+     *
+     * @param other The store to copy
+     */
+    public OffHeapMagazineStore(MagazineStore other) {
+        this();
+        this.ensureCapacity(other.size());
+        for (int i = 0; i < other.size(); i++) {
+            this.add(other.getTitle(i), other.getPublisher(i),
+                    other.getPublicationsPerYear(i),
+                    other.getNormalizedTitle(i), other.getAccentFoldedTitle(i));
+        }
+    }
+
+    /**
+     * Creates an exact copy of another off-heap store
+     *
+     * @param other The store to copy
+     */
+    private OffHeapMagazineStore(OffHeapMagazineStore other) {
+        this.slabBytes = other.slabBytes;
+        this.slabShift = other.slabShift;
+        this.slabs = new ArrayList<>(other.slabs.size());
+        for (ByteBuffer slab : other.slabs) {
+            ByteBuffer copy = newSlab(this.slabBytes);
+            copy.put(slab.duplicate()).clear();
+            this.slabs.add(copy);
+        }
+        this.slabTop = other.slabTop;
+        this.freeSlots = other.freeSlots.clone();
+        this.freeBytes = other.freeBytes;
+        this.addressChunks = new ArrayList<>(other.addressChunks.size());
+        for (IntBuffer chunk : other.addressChunks) {
+            IntBuffer copy = newAddressChunk();
+            copy.put(chunk.duplicate()).clear();
+            this.addressChunks.add(copy);
+        }
+        this.size = other.size;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Magazine get(int position) {
+        int address = this.addressOf(position);
+        ByteBuffer slab = this.slab(address);
+        int record = this.offset(address);
+        int title = textAt(slab, record, TITLE);
+        int publisher = textAt(slab, record, PUBLISHER);
+        return new Magazine(decode(slab, title), decode(slab, publisher),
+                slab.getInt(record));
+    }
+
+    @Override
+    public String getTitle(int position) {
+        int address = this.addressOf(position);
+        ByteBuffer slab = this.slab(address);
+        return decode(slab, textAt(slab, this.offset(address), TITLE));
+    }
+
+    @Override
+    public String getNormalizedTitle(int position) {
+        int address = this.addressOf(position);
+        ByteBuffer slab = this.slab(address);
+        return decode(slab, textAt(slab, this.offset(address),
+                NORMALIZED_TITLE));
+    }
+
+    @Override
+    public String getAccentFoldedTitle(int position) {
+        int address = this.addressOf(position);
+        ByteBuffer slab = this.slab(address);
+        return decode(slab, foldedTitleAt(slab, this.offset(address)));
+    }
+
+    @Override
+    public IntPredicate titleFilter(String text, boolean accentFolded) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        // UTF-8 never encodes a character as part of another, so a
+        // title contains the text if its bytes contain the encoded text
+        return position -> {
+            int address = this.addressOf(position);
+            ByteBuffer slab = this.slab(address);
+            int record = this.offset(address);
+            int title = accentFolded ? foldedTitleAt(slab, record)
+                    : textAt(slab, record, NORMALIZED_TITLE);
+            return contains(slab, title, encoded);
+        };
+    }
+
+    @Override
+    public String getPublisher(int position) {
+        int address = this.addressOf(position);
+        ByteBuffer slab = this.slab(address);
+        return decode(slab, textAt(slab, this.offset(address), PUBLISHER));
+    }
+
+    @Override
+    public int getPublicationsPerYear(int position) {
+        int address = this.addressOf(position);
+        return this.slab(address).getInt(this.offset(address));
+    }
+
+    @Override
+    public void add(Magazine magazine) {
+        if (magazine == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.add(magazine.getTitle(), magazine.getPublisher(),
+                magazine.getPublicationsPerYear(),
+                magazine.getNormalizedTitle(), magazine.getAccentFoldedTitle());
+    }
+
+    @Override
+    public void remove(int position) {
+        this.free(this.addressOf(position));
+        for (int i = position + 1; i < this.size; i++) {
+            this.setAddress(i - 1, this.addressOf(i));
+        }
+        this.size--;
+    }
+
+    @Override
+    public void removeAll(BitSet positions) {
+        int kept = 0;
+        for (int position = 0; position < this.size; position++) {
+            int address = this.addressOf(position);
+            if (positions.get(position)) {
+                this.free(address);
+            } else {
+                this.setAddress(kept, address);
+                kept++;
+            }
+        }
+        this.size = kept;
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        while ((long) this.addressChunks.size() * ADDRESSES_PER_CHUNK < capacity) {
+            this.addressChunks.add(newAddressChunk());
+        }
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public MagazineStore copy() {
+        return new OffHeapMagazineStore(this);
+    }
+
+    /**
+     * Returns the number of bytes of direct memory taken by the slabs
+     *
+     * @return Returns the number of bytes
+     */
+    public long getSlabBytes() {
+        return (long) this.slabs.size() * this.slabBytes;
+    }
+
+    /**
+     * Returns the number of bytes in free slots, waiting to be reused
+     *
+     * @return Returns the number of bytes
+     */
+    public long getFreeBytes() {
+        return this.freeBytes;
+    }
+
+    /**
+     * Adds a magazine after the last position
+     *
+     * @param title The title of the magazine
+     * @param publisher The publisher of the magazine
+     * @param publications The publications per year of the magazine
+     * @param normalizedTitle The normalized title of the magazine
+     * @param accentFoldedTitle The accent folded title of the magazine
+     * @throws IllegalArgumentException If the record is larger than a slab
+     * @throws IllegalStateException If the slabs can not be addressed
+     */
+    private void add(String title, String publisher, int publications,
+                     String normalizedTitle, String accentFoldedTitle) {
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        byte[] publisherBytes = publisher.getBytes(StandardCharsets.UTF_8);
+        byte[] normalizedBytes = normalizedTitle.getBytes(StandardCharsets.UTF_8);
+        byte[] foldedBytes = accentFoldedTitle.equals(normalizedTitle)
+                ? null : accentFoldedTitle.getBytes(StandardCharsets.UTF_8);
+        long recordBytes = (long) RECORD_OVERHEAD + titleBytes.length
+                + publisherBytes.length + normalizedBytes.length
+                + (foldedBytes == null ? 0 : foldedBytes.length);
+        if (recordBytes > this.slabBytes) {
+            throw new IllegalArgumentException("The magazine does not fit "
+                    + "in a slab.");
+        }
+        this.ensureCapacity(this.size + 1);
+
+        int address = this.allocate((int) ((recordBytes + UNIT_BYTES - 1)
+                >>> UNIT_SHIFT));
+        ByteBuffer slab = this.slab(address);
+        int record = this.offset(address);
+        slab.putInt(record, publications);
+        int text = putText(slab, record + Integer.BYTES, titleBytes);
+        text = putText(slab, text, publisherBytes);
+        text = putText(slab, text, normalizedBytes);
+        if (foldedBytes == null) {
+            slab.putInt(text, SAME_AS_NORMALIZED);
+        } else {
+            putText(slab, text, foldedBytes);
+        }
+
+        this.setAddress(this.size, address);
+        this.size++;
+    }
+
+    /**
+     * Returns a slot of the given size, from its free list if it has one,
+     * else from the end of the last slab
+     *
+     * @param units The size of the slot in units
+     * @return Returns the address of the slot
+     * @throws IllegalStateException If the slabs can not be addressed
+     */
+    private int allocate(int units) {
+        if (units <= MAX_FREE_UNITS && this.freeSlots[units] != NO_SLOT) {
+            int address = this.freeSlots[units];
+            this.freeSlots[units] = this.slab(address)
+                    .getInt(this.offset(address));
+            this.freeBytes -= (long) units << UNIT_SHIFT;
+            return address;
+        }
+
+        int bytes = units << UNIT_SHIFT;
+        if (this.slabTop + bytes > this.slabBytes) {
+            if (this.slabs.size() >= 1 << (Integer.SIZE - 1 - this.slabShift)) {
+                throw new IllegalStateException("The store can not hold "
+                        + "more magazines.");
+            }
+            if (!this.slabs.isEmpty() && this.slabTop < this.slabBytes) {
+                // Keep the end of the full slab for smaller records
+                this.release(this.address(this.slabs.size() - 1, this.slabTop),
+                        (this.slabBytes - this.slabTop) >>> UNIT_SHIFT);
+            }
+            this.slabs.add(newSlab(this.slabBytes));
+            this.slabTop = 0;
+        }
+        int address = this.address(this.slabs.size() - 1, this.slabTop);
+        this.slabTop += bytes;
+        return address;
+    }
+
+    /**
+     * Puts the slot of a record on the free lists
+     *
+     * @param address The address of the record
+     */
+    private void free(int address) {
+        ByteBuffer slab = this.slab(address);
+        int record = this.offset(address);
+        int folded = textAt(slab, record, ACCENT_FOLDED_TITLE);
+        int recordBytes = folded + Integer.BYTES
+                + Math.max(0, slab.getInt(folded)) - record;
+        this.release(address, (recordBytes + UNIT_BYTES - 1) >>> UNIT_SHIFT);
+    }
+
+    /**
+     * Puts a slot on the free lists, split in slots of
+     * {@link #MAX_FREE_UNITS} if larger
+     *
+     * @param address The address of the slot
+     * @param units The size of the slot in units
+     */
+    private void release(int address, int units) {
+        int slot = address;
+        int left = units;
+        while (left > 0) {
+            int slotUnits = Math.min(left, MAX_FREE_UNITS);
+            this.slab(slot).putInt(this.offset(slot), this.freeSlots[slotUnits]);
+            this.freeSlots[slotUnits] = slot;
+            this.freeBytes += (long) slotUnits << UNIT_SHIFT;
+            slot += slotUnits;
+            left -= slotUnits;
+        }
+    }
+
+    /**
+     * Returns the address of a record
+     *
+     * @param slab The index of the slab
+     * @param offset The first byte of the record in the slab
+     * @return Returns the address
+     */
+    private int address(int slab, int offset) {
+        return (slab << this.slabShift) | (offset >>> UNIT_SHIFT);
+    }
+
+    /**
+     * Returns the slab of a record
+     *
+     * @param address The address of the record
+     * @return Returns the slab
+     */
+    private ByteBuffer slab(int address) {
+        return this.slabs.get(address >>> this.slabShift);
+    }
+
+    /**
+     * Returns the first byte of a record in its slab
+     *
+     * @param address The address of the record
+     * @return Returns the offset in the slab
+     */
+    private int offset(int address) {
+        return (address & ((1 << this.slabShift) - 1)) << UNIT_SHIFT;
+    }
+
+    /**
+     * Returns the address of the record at the given position
+     *
+     * @param position The position of the magazine
+     * @return Returns the address
+     * @throws IndexOutOfBoundsException If position is out of range
+     */
+    private int addressOf(int position) {
+        if (position < 0 || position >= this.size) {
+            throw new IndexOutOfBoundsException("Position: " + position
+                    + ", size: " + this.size);
+        }
+        return this.addressChunks.get(position / ADDRESSES_PER_CHUNK)
+                .get(position % ADDRESSES_PER_CHUNK);
+    }
+
+    /**
+     * Sets the address of the record at the given position, which must
+     * be within the capacity of the position table
+     *
+     * @param position The position of the magazine
+     * @param address The address of the record
+     */
+    private void setAddress(int position, int address) {
+        this.addressChunks.get(position / ADDRESSES_PER_CHUNK)
+                .put(position % ADDRESSES_PER_CHUNK, address);
+    }
+
+    /**
+     * Creates a slab, in the byte order of the platform so numbers are
+     * read without swapping their bytes
+     *
+     * @param slabBytes The size of the slab in bytes
+     * @return Returns the slab
+     */
+    private static ByteBuffer newSlab(int slabBytes) {
+        return ByteBuffer.allocateDirect(slabBytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Creates a direct buffer for {@link #ADDRESSES_PER_CHUNK} addresses
+     *
+     * @return Returns the buffer
+     */
+    private static IntBuffer newAddressChunk() {
+        return ByteBuffer.allocateDirect(ADDRESSES_PER_CHUNK * Integer.BYTES)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Returns where a text of a record starts, skipping the texts before it
+     *
+     * @param slab The slab of the record
+     * @param record The first byte of the record
+     * @param text The number of the text, like {@link #PUBLISHER}
+     * @return Returns the offset of the length of the text
+     */
+    private static int textAt(ByteBuffer slab, int record, int text) {
+        int offset = record + Integer.BYTES;
+        for (int i = 0; i < text; i++) {
+            offset += Integer.BYTES + slab.getInt(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Returns where the accent folded title of a record starts, which
+     * is the normalized title if the folded one is left out
+     *
+     * @param slab The slab of the record
+     * @param record The first byte of the record
+     * @return Returns the offset of the length of the title
+     */
+    private static int foldedTitleAt(ByteBuffer slab, int record) {
+        int normalized = textAt(slab, record, NORMALIZED_TITLE);
+        int folded = normalized + Integer.BYTES + slab.getInt(normalized);
+        return slab.getInt(folded) == SAME_AS_NORMALIZED ? normalized : folded;
+    }
+
+    /**
+     * Decodes a text of a slab
+     *
+     * @param slab The slab, only read with absolute gets so it can be
+     *             read by many threads
+     * @param text The offset of the length of the text, followed by
+     *             its UTF-8 bytes
+     * @return Returns the string
+     */
+    private static String decode(ByteBuffer slab, int text) {
+        byte[] bytes = new byte[slab.getInt(text)];
+        ByteBuffer view = slab.duplicate();
+        view.position(text + Integer.BYTES);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns true if a text of a slab contains the given bytes
+     *
+     * @param slab The slab, only read with absolute gets so it can be
+     *             read by many threads
+     * @param text The offset of the length of the text, followed by
+     *             its UTF-8 bytes
+     * @param bytes The bytes to find
+     * @return Returns true if found else false
+     */
+    private static boolean contains(ByteBuffer slab, int text, byte[] bytes) {
+        int start = text + Integer.BYTES;
+        int last = start + slab.getInt(text) - bytes.length;
+        for (int offset = start; offset <= last; offset++) {
+            int matched = 0;
+            while (matched < bytes.length
+                    && slab.get(offset + matched) == bytes[matched]) {
+                matched++;
+            }
+            if (matched == bytes.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes a text to a slab as its length and bytes
+     *
+     * @param slab The slab
+     * @param offset The first byte to write
+     * @param bytes The UTF-8 bytes of the text
+     * @return Returns the offset following the text
+     */
+    private static int putText(ByteBuffer slab, int offset, byte[] bytes) {
+        slab.putInt(offset, bytes.length);
+        ByteBuffer view = slab.duplicate();
+        view.position(offset + Integer.BYTES);
+        view.put(bytes);
+        return offset + Integer.BYTES + bytes.length;
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.bookstore.storage;
+
+import com.bookstore.index.IntList;
+import com.bookstore.readables.Magazine;
+
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Writable store on top of a read-only base store, such as a
+ * {@link MappedMagazineStore}. The magazines of the base come first,
+ * followed by the magazines added to the overlay, which are held in a
+ * {@link HeapMagazineStore}.
+ * <p>
+ * The base is never copied. Removing a magazine of the base only drops
+ * its position from a list of the base positions still in the store,
+ * made on the first such removal, so a change costs four bytes per
+ * magazine of the base at most, instead of a copy of every magazine.
+ * Copies of the overlay share the base.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public class OverlayMagazineStore implements MagazineStore {
+
+    /**
+     * The read-only store below the overlay
+     */
+    private final MagazineStore base;
+
+    /**
+     * Positions in the base of the base magazines still in the store,
+     * in order, null while none has been removed
+     */
+    private IntList basePositions;
+
+    /**
+     * The magazines added after the base
+     */
+    private final HeapMagazineStore added;
+
+    /**
+     * Creates a writable store on top of the given store
+     *
+     * @param base The read-only store below the overlay
+     * @throws IllegalArgumentException If argument is null
+     */
+    public OverlayMagazineStore(MagazineStore base) {
+        if (base == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        this.base = base;
+        this.basePositions = null;
+        this.added = new HeapMagazineStore();
+    }
+
+    /**
+     * Creates a copy of the given overlay, sharing its base
+     *
+     * @param other The overlay to copy
+     */
+    private OverlayMagazineStore(OverlayMagazineStore other) {
+        this.base = other.base;
+        this.basePositions = other.basePositions == null
+                ? null : new IntList(other.basePositions);
+        this.added = new HeapMagazineStore(other.added);
+    }
+
+    @Override
+    public int size() {
+        return this.baseSize() + this.added.size();
+    }
+
+    @Override
+    public Magazine get(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            return this.added.get(position - baseSize);
+        }
+        return this.base.get(this.basePosition(position));
+    }
+
+    @Override
+    public String getTitle(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            return this.added.getTitle(position - baseSize);
+        }
+        return this.base.getTitle(this.basePosition(position));
+    }
+
+    @Override
+    public String getNormalizedTitle(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            return this.added.getNormalizedTitle(position - baseSize);
+        }
+        return this.base.getNormalizedTitle(this.basePosition(position));
+    }
+
+    @Override
+    public String getAccentFoldedTitle(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            return this.added.getAccentFoldedTitle(position - baseSize);
+        }
+        return this.base.getAccentFoldedTitle(this.basePosition(position));
+    }
+
+    @Override
+    public IntPredicate titleFilter(String text, boolean accentFolded) {
+        IntPredicate baseFilter = this.base.titleFilter(text, accentFolded);
+        IntPredicate addedFilter = this.added.titleFilter(text, accentFolded);
+        return position -> {
+            int baseSize = this.baseSize();
+            if (position >= baseSize) {
+                return addedFilter.test(position - baseSize);
+            }
+            return baseFilter.test(this.basePosition(position));
+        };
+    }
+
+    @Override
+    public String getPublisher(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            return this.added.getPublisher(position - baseSize);
+        }
+        return this.base.getPublisher(this.basePosition(position));
+    }
+
+    @Override
+    public int getPublicationsPerYear(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            return this.added.getPublicationsPerYear(position - baseSize);
+        }
+        return this.base.getPublicationsPerYear(this.basePosition(position));
+    }
+
+    @Override
+    public void add(Magazine magazine) {
+        this.added.add(magazine);
+    }
+
+    @Override
+    public void remove(int position) {
+        int baseSize = this.baseSize();
+        if (position >= baseSize) {
+            this.added.remove(position - baseSize);
+            return;
+        }
+        if (position < 0) {
+            throw new IndexOutOfBoundsException("Position: " + position);
+        }
+        this.ensureBasePositions().removeAt(position);
+    }
+
+    @Override
+    public void removeAll(BitSet positions) {
+        int baseSize = this.baseSize();
+        int firstRemoved = positions.nextSetBit(0);
+        if (firstRemoved >= 0 && firstRemoved < baseSize) {
+            IntList kept = this.ensureBasePositions();
+            int keptCount = 0;
+            for (int position = 0; position < baseSize; position++) {
+                if (!positions.get(position)) {
+                    kept.set(keptCount, kept.get(position));
+                    keptCount++;
+                }
+            }
+            while (kept.size() > keptCount) {
+                kept.removeAt(kept.size() - 1);
+            }
+        }
+        this.added.removeAll(positions.get(baseSize,
+                baseSize + this.added.size()));
+    }
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        this.added.ensureCapacity(capacity - this.baseSize());
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public MagazineStore copy() {
+        return new OverlayMagazineStore(this);
+    }
+
+    /**
+     * Returns the number of base magazines still in the store
+     *
+     * @return Returns the number of base magazines
+     */
+    private int baseSize() {
+        return this.basePositions == null
+                ? this.base.size() : this.basePositions.size();
+    }
+
+    /**
+     * Returns the position in the base of a base magazine
+     *
+     * @param position The position in this store, below {@link #baseSize()}
+     * @return Returns the position in the base
+     * @throws IndexOutOfBoundsException If position is negative
+     */
+    private int basePosition(int position) {
+        return this.basePositions == null
+                ? position : this.basePositions.get(position);
+    }
+
+    /**
+     * Returns the list of base positions still in the store,
+     * making it on the first removal from the base
+     *
+     * @return Returns the base positions
+     */
+    private IntList ensureBasePositions() {
+        if (this.basePositions == null) {
+            IntList positions = new IntList(this.base.size());
+            for (int position = 0; position < this.base.size(); position++) {
+                positions.add(position);
+            }
+            this.basePositions = positions;
+        }
+        return this.basePositions;
+    }
+
+}
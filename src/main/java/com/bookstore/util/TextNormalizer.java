@@ -0,0 +1,164 @@
+package com.bookstore.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Normalizes text so that strings can be compared and indexed
+ * without caring about surrounding whitespace or letter case.
+ * <p>
+ * Accents can be folded too, see {@link #foldAccents(String)}. Every
+ * character is folded on its own, so if a text contains a query, the
+ * folded text contains the folded query.
+ *
+ * @author Christoffer A Træen
+ * @version 1
+ */
+public final class TextNormalizer {
+
+    /**
+     * Utility class, should not be instantiated.
+     */
+    private TextNormalizer() {
+    }
+
+    /**
+     * Returns the normalized form of a string. The string is trimmed
+     * and case folded, independent of the default locale of the JVM.
+     *
+     * @param text The text to normalize
+     * @return Returns the normalized text
+     * @throws IllegalArgumentException If text is null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        return foldCase(text.trim());
+    }
+
+    /**
+     * Returns the case folded form of a string, without trimming it.
+     * Used for search queries, where whitespace is part of the query.
+     *
+     * @param text The text to case fold
+     * @return Returns the case folded text
+     * @throws IllegalArgumentException If text is null
+     */
+    public static String foldCase(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        return text.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the string with accents and other diacritics removed,
+     * so that "Træen" folds to "Traeen" and "Café" to "Cafe". Letters
+     * that do not decompose, like æ, ø and ß, are spelled out in ASCII.
+     * Letter case is kept.
+     *
+     * @param text The text to fold
+     * @return Returns the folded text, the same string if nothing is
+     * folded
+     * @throws IllegalArgumentException If text is null
+     */
+    public static String foldAccents(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null passed as argument.");
+        }
+        int length = text.length();
+        int index = 0;
+        while (index < length && text.charAt(index) < 0x80) {
+            index++;
+        }
+        if (index == length) {
+            return text;
+        }
+
+        StringBuilder folded = new StringBuilder(length + 4);
+        folded.append(text, 0, index);
+        for (; index < length; index++) {
+            char character = text.charAt(index);
+            if (character < 0x80) {
+                folded.append(character);
+            } else {
+                folded.append(foldAccent(character));
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Returns the folded form of a character outside ASCII
+     *
+     * @param character The character to fold
+     * @return Returns the folded character, empty for a lone diacritic
+     */
+    private static String foldAccent(char character) {
+        switch (character) {
+            case 'æ':
+                return "ae";
+            case 'Æ':
+                return "AE";
+            case 'ø':
+                return "o";
+            case 'Ø':
+                return "O";
+            case 'œ':
+                return "oe";
+            case 'Œ':
+                return "OE";
+            case 'ß':
+                return "ss";
+            case 'ð':
+            case 'đ':
+                return "d";
+            case 'Ð':
+            case 'Đ':
+                return "D";
+            case 'þ':
+                return "th";
+            case 'Þ':
+                return "TH";
+            case 'ł':
+                return "l";
+            case 'Ł':
+                return "L";
+            case 'ı':
+                return "i";
+            default:
+                break;
+        }
+        if (isDiacritic(character)) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(String.valueOf(character),
+                Normalizer.Form.NFD);
+        StringBuilder base = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            if (!isDiacritic(decomposed.charAt(i))) {
+                base.append(decomposed.charAt(i));
+            }
+        }
+        // Only letters with diacritics are folded, not other decompositions
+        if (base.length() == decomposed.length()) {
+            return String.valueOf(character);
+        }
+        return base.toString();
+    }
+
+    /**
+     * Check if a character is a combining diacritical mark
+     *
+     * @param character The character to check
+     * @return Returns true if a diacritic else false
+     */
+    private static boolean isDiacritic(char character) {
+        int type = Character.getType(character);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+}
@@ -0,0 +1,100 @@
+import com.bookstore.BatchRunner;
+import com.bookstore.MagazineRegister;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRunnerTests {
+
+    private MagazineRegister register;
+    private StringWriter output;
+
+    @BeforeEach
+    public void beforeEach() {
+        register = new MagazineRegister();
+        output = new StringWriter();
+    }
+
+    private int run(String commands) throws IOException {
+        return new BatchRunner(register, new StringReader(commands), output).run();
+    }
+
+    private String[] outputLines() {
+        return output.toString().split(System.lineSeparator());
+    }
+
+    @Test
+    public void commandsShouldBeRunInOrder() throws IOException {
+        int failed = run("# catalog\n"
+                + "add Vi Menn | Aller Media | 52\n"
+                + "\n"
+                + "add Wired | Condé Nast | 12\n"
+                + "search-title menn\n"
+                + "delete vi menn | aller media\n"
+                + "list\n");
+
+        assertEquals(0, failed);
+        assertArrayEquals(new String[]{
+            "added", "added",
+            "Vi Menn | Aller Media | 52", "found 1",
+            "deleted",
+            "Wired | Condé Nast | 12", "found 1"
+        }, outputLines());
+    }
+
+    @Test
+    public void failedCommandsShouldBeReportedAndSkipped() throws IOException {
+        int failed = run("add Vi Menn | Aller Media | 52\n"
+                + "add Vi Menn | Aller Media | 52\n"
+                + "add Wired | Condé Nast\n"
+                + "add Wired | Condé Nast | often\n"
+                + "rename Wired\n"
+                + "search-publisher aller\n");
+
+        assertEquals(4, failed);
+        String[] lines = outputLines();
+        assertEquals("added", lines[0]);
+        assertTrue(lines[1].startsWith("error line 2: "));
+        assertTrue(lines[2].startsWith("error line 3: "));
+        assertTrue(lines[3].startsWith("error line 4: "));
+        assertEquals("error line 5: Unknown command: rename", lines[4]);
+        assertEquals("found 1", lines[6]);
+    }
+
+    @Test
+    public void quitShouldStopReading() throws IOException {
+        run("add Vi Menn | Aller Media | 52\nquit\nadd Wired | Condé Nast | 12\n");
+
+        assertEquals(1, register.size());
+    }
+
+    @Test
+    public void deletingMissingMagazineShouldReportNotFound() throws IOException {
+        run("delete Wired | Condé Nast\n");
+
+        assertEquals("not found", outputLines()[0]);
+    }
+
+    @Test
+    public void completeCommandsShouldWriteTheCompletions() throws IOException {
+        int failed = run("add Vi Menn | Aller Media | 52\n"
+                + "add Vi Menn Ekstra | Aller Media | 12\n"
+                + "add Wired | Condé Nast | 12\n"
+                + "complete-title vi m\n"
+                + "complete-publisher conde\n");
+
+        assertEquals(0, failed);
+        assertArrayEquals(new String[]{
+            "added", "added", "added",
+            "Vi Menn", "Vi Menn Ekstra", "found 2",
+            "Condé Nast", "found 1"
+        }, outputLines());
+    }
+
+}
@@ -0,0 +1,93 @@
+import com.bookstore.readables.Magazine;
+import com.bookstore.stats.CatalogAggregates;
+import com.bookstore.stats.CatalogStatistics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogAggregatesTests {
+
+    private CatalogAggregates aggregates;
+    private Magazine weekly;
+
+    @BeforeEach
+    public void beforeEach() {
+        aggregates = new CatalogAggregates();
+        weekly = new Magazine("Vi Menn", " Aller ", 52);
+        aggregates.add(new Magazine("Wired", "Condé Nast", 12));
+        aggregates.add(weekly);
+        aggregates.add(new Magazine("Her og Nå", "aller", 52));
+        aggregates.add(new Magazine("Bonytt", "Egmont", 12));
+        aggregates.add(new Magazine("Økonomisk Rapport", "Aller", 4));
+    }
+
+    @Test
+    public void snapshotShouldHoldTheTotals() {
+        CatalogStatistics statistics = aggregates.snapshot();
+        assertEquals(5, statistics.getMagazineCount());
+        assertEquals(3, statistics.getPublisherCount());
+        assertEquals(132, statistics.getTotalPublicationsPerYear());
+        assertEquals(26.4, statistics.getMeanPublicationsPerYear(), 1e-9);
+
+        CatalogStatistics.PublisherStatistics aller = statistics.getPublisher("ALLER");
+        assertEquals("Aller", aller.getPublisher());
+        assertEquals(3, aller.getMagazineCount());
+        assertEquals(108, aller.getTotalPublicationsPerYear());
+        assertNull(statistics.getPublisher("Schibsted"));
+
+        List<String> publishers = statistics.getPublishers().stream()
+                .map(CatalogStatistics.PublisherStatistics::getPublisher)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("Aller", "Condé Nast", "Egmont"), publishers);
+
+        SortedMap<Integer, Integer> histogram = new TreeMap<>();
+        histogram.put(4, 1);
+        histogram.put(12, 2);
+        histogram.put(52, 2);
+        assertEquals(histogram, statistics.getPublicationsHistogram());
+    }
+
+    @Test
+    public void snapshotShouldBeKeptUntilTheTotalsChange() {
+        CatalogStatistics before = aggregates.snapshot();
+        assertSame(before, aggregates.snapshot());
+
+        aggregates.remove(weekly);
+        CatalogStatistics after = aggregates.snapshot();
+        assertNotSame(before, after);
+        assertEquals(5, before.getMagazineCount());
+        assertEquals(4, after.getMagazineCount());
+        assertEquals(1, (int) after.getPublicationsHistogram().get(52));
+        assertEquals(2, after.getPublisher("Aller").getMagazineCount());
+    }
+
+    @Test
+    public void emptiedEntriesShouldBeRemoved() {
+        Magazine daily = new Magazine("Aftenposten", "Schibsted", 312);
+        aggregates.add(daily);
+        assertEquals(4, aggregates.snapshot().getPublisherCount());
+
+        aggregates.remove(daily);
+        CatalogStatistics statistics = aggregates.snapshot();
+        assertEquals(3, statistics.getPublisherCount());
+        assertFalse(statistics.getPublicationsHistogram().containsKey(312));
+    }
+
+    @Test
+    public void copyShouldNotShareTotals() {
+        CatalogAggregates copy = new CatalogAggregates(aggregates);
+        copy.remove(weekly);
+        assertEquals(5, aggregates.snapshot().getMagazineCount());
+        assertEquals(3, aggregates.snapshot().getPublisher("Aller").getMagazineCount());
+        assertEquals(4, copy.snapshot().getMagazineCount());
+    }
+
+}
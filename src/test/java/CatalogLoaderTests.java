@@ -0,0 +1,140 @@
+import com.bookstore.BulkLoadResult;
+import com.bookstore.MagazineRegister;
+import com.bookstore.io.CatalogFormat;
+import com.bookstore.io.CatalogLoader;
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogLoaderTests {
+
+    private MagazineRegister magazineRegister;
+    private CatalogLoader catalogLoader;
+
+    @BeforeEach
+    public void beforeEach() {
+        magazineRegister = new MagazineRegister();
+        catalogLoader = new CatalogLoader(magazineRegister::addAll, 2);
+    }
+
+    @Test
+    public void shouldLoadCsvWithQuotedFieldsAndSkipHeader() throws IOException {
+        String csv = "title,publisher,publicationsPerYear\r\n"
+                + "Vi Menn,Aller,52\r\n"
+                + "\"Hello, \"\"World\"\"\",Egmont,12\n"
+                + "\n"
+                + "\"Two\nLines\",Egmont,4";
+        BulkLoadResult result = catalogLoader.load(new StringReader(csv), CatalogFormat.CSV);
+
+        assertEquals(3, result.getAddedCount());
+        assertEquals(0, result.getRejectedCount());
+        Magazine quoted = magazineRegister.searchMagazinesTitles("world").next();
+        assertEquals("Hello, \"World\"", quoted.getTitle());
+        assertEquals("Two\nLines", magazineRegister.searchMagazinesTitles("two").next().getTitle());
+    }
+
+    @Test
+    public void shouldRejectBadCsvRowsWithLineNumberAndLoadTheRest() throws IOException {
+        String csv = "Vi Menn,Aller,52\n"
+                + "Missing field,Aller\n"
+                + "Weekly,Aller,often\n"
+                + "VI MENN,aller,52\n"
+                + "Wired,Condé Nast,12\n";
+        BulkLoadResult result = catalogLoader.load(new StringReader(csv), CatalogFormat.CSV);
+
+        assertEquals(2, result.getAddedCount());
+        assertEquals(3, result.getRejectedCount());
+        assertEquals(2, result.getRejections().get(0).getRowNumber());
+        assertEquals(3, result.getRejections().get(1).getRowNumber());
+        assertEquals(4, result.getRejections().get(2).getRowNumber());
+    }
+
+    @Test
+    public void shouldRejectTextAfterClosingQuoteAndLoadTheNextRow() throws IOException {
+        String csv = "\"Vi Menn\"x,Aller,52\n"
+                + "Wired,Condé Nast,12\n";
+        BulkLoadResult result = catalogLoader.load(new StringReader(csv), CatalogFormat.CSV);
+
+        assertEquals(1, result.getAddedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(1, result.getRejections().get(0).getRowNumber());
+        assertEquals(12, magazineRegister.searchMagazinesTitles("wired").next().getPublicationsPerYear());
+    }
+
+    @Test
+    public void shouldRejectUnclosedQuoteWithoutReadingTheRestOfTheFile() throws IOException {
+        StringBuilder csv = new StringBuilder("\"Stray,Aller,52\n");
+        for (int i = 0; i < 1000; i++) {
+            csv.append("Magazine ").append(i).append(",Aller,12\n");
+        }
+        csv.append("Wired,Condé Nast,12\n");
+        BulkLoadResult result = catalogLoader.load(new StringReader(csv.toString()), CatalogFormat.CSV);
+
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(1, result.getRejections().get(0).getRowNumber());
+        assertTrue(result.getAddedCount() > 700);
+        assertTrue(magazineRegister.searchMagazinesTitles("wired").hasNext());
+    }
+
+    @Test
+    public void shouldLoadJsonLinesAndRejectBadLines() throws IOException {
+        String jsonLines = "{\"title\": \"Vi Menn\", \"publisher\": \"Aller\", \"publicationsPerYear\": 52}\n"
+                + "{\"id\": 7, \"title\": \"Caf\\u00e9 \\\"Noir\\\"\", \"publisher\": \"Egmont\", "
+                + "\"publicationsPerYear\": 12, \"active\": true}\n"
+                + "\n"
+                + "{\"title\": \"No publisher\", \"publicationsPerYear\": 12}\n"
+                + "{\"title\": \"Broken\"\n";
+        BulkLoadResult result = catalogLoader.load(new StringReader(jsonLines), CatalogFormat.JSON_LINES);
+
+        assertEquals(2, result.getAddedCount());
+        assertEquals(2, result.getRejectedCount());
+        assertEquals(4, result.getRejections().get(0).getRowNumber());
+        assertEquals(5, result.getRejections().get(1).getRowNumber());
+        assertEquals("Café \"Noir\"", magazineRegister.searchMagazinesByPublisher("egmont").next().getTitle());
+    }
+
+    @Test
+    public void shouldRejectTooLongJsonLineWithoutHoldingItAndLoadTheNextLine() throws IOException {
+        StringBuilder jsonLines = new StringBuilder("{\"title\": \"Vi Menn\", \"publisher\": \"Aller\", "
+                + "\"publicationsPerYear\": 52}\r\n{\"title\": \"");
+        for (int i = 0; i < 200000; i++) {
+            jsonLines.append('x');
+        }
+        jsonLines.append("\", \"publisher\": \"Aller\", \"publicationsPerYear\": 4}\r\n")
+                .append("{\"title\": \"Wired\", \"publisher\": \"Condé Nast\", \"publicationsPerYear\": 12}");
+        BulkLoadResult result = catalogLoader.load(new StringReader(jsonLines.toString()), CatalogFormat.JSON_LINES);
+
+        assertEquals(2, result.getAddedCount());
+        assertEquals(1, result.getRejectedCount());
+        assertEquals(2, result.getRejections().get(0).getRowNumber());
+        assertTrue(magazineRegister.searchMagazinesTitles("wired").hasNext());
+    }
+
+    @Test
+    public void addAllShouldRejectDuplicatesAndNullWithoutThrowing() {
+        BulkLoadResult result = magazineRegister.addAll(java.util.Arrays.asList(
+                new Magazine("Vi Menn", "Aller", 52),
+                null,
+                new Magazine("vi menn", "ALLER", 52),
+                new Magazine("Wired", "Condé Nast", 12)));
+
+        assertEquals(2, result.getAddedCount());
+        assertEquals(1, result.getRejections().get(0).getRowNumber());
+        assertEquals(2, result.getRejections().get(1).getRowNumber());
+        assertEquals(2, magazineRegister.size());
+    }
+
+    @Test
+    public void shouldKnowFormatByFileExtension() {
+        assertEquals(CatalogFormat.CSV, CatalogFormat.fromFileName("feed.CSV"));
+        assertEquals(CatalogFormat.JSON_LINES, CatalogFormat.fromFileName("feed.jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogFormat.fromFileName("feed.xml"));
+    }
+
+}
@@ -0,0 +1,171 @@
+import com.bookstore.feed.ChangeEvent;
+import com.bookstore.feed.ChangeFeed;
+import com.bookstore.feed.ChangeListener;
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTests {
+
+    private ChangeFeed changeFeed;
+    private Magazine magazine;
+
+    @BeforeEach
+    public void beforeEach() {
+        changeFeed = new ChangeFeed(4);
+        magazine = new Magazine("Vi Menn", "Aller", 52);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        changeFeed.close();
+    }
+
+    /**
+     * Records the batches and missed ranges it receives, and can be
+     * held in its first call until released
+     */
+    private static class RecordingListener implements ChangeListener {
+
+        private final BlockingQueue<List<ChangeEvent>> batches = new LinkedBlockingQueue<>();
+        private final BlockingQueue<long[]> missed = new LinkedBlockingQueue<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released;
+
+        RecordingListener(boolean held) {
+            released = new CountDownLatch(held ? 1 : 0);
+        }
+
+        @Override
+        public void onChanges(List<ChangeEvent> changes) {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(changes);
+        }
+
+        @Override
+        public void onChangesMissed(long firstSequence, long lastSequence) {
+            missed.add(new long[]{firstSequence, lastSequence});
+        }
+
+        List<Long> takeSequences(int count) throws InterruptedException {
+            List<Long> sequences = new ArrayList<>();
+            while (sequences.size() < count) {
+                List<ChangeEvent> batch = batches.poll(10, TimeUnit.SECONDS);
+                assertNotNull(batch, "Timed out waiting for changes");
+                for (ChangeEvent change : batch) {
+                    sequences.add(change.getSequence());
+                }
+            }
+            return sequences;
+        }
+    }
+
+    @Test
+    public void capacityShouldBeRoundedUpToAPowerOfTwo() {
+        assertEquals(4, changeFeed.getCapacity());
+        assertEquals(8, new ChangeFeed(5).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new ChangeFeed(0));
+    }
+
+    @Test
+    public void changesShouldBeNumberedAndDeliveredInOrder() throws InterruptedException {
+        RecordingListener listener = new RecordingListener(false);
+        changeFeed.subscribe(listener, 10);
+        assertEquals(1, changeFeed.publish(ChangeEvent.Type.ADDED, 0, magazine));
+        assertEquals(2, changeFeed.publish(ChangeEvent.Type.DELETED, 0, magazine));
+
+        List<ChangeEvent> changes = new ArrayList<>();
+        while (changes.size() < 2) {
+            changes.addAll(listener.batches.poll(10, TimeUnit.SECONDS));
+        }
+        assertEquals(ChangeEvent.Type.ADDED, changes.get(0).getType());
+        assertEquals(ChangeEvent.Type.DELETED, changes.get(1).getType());
+        assertEquals(2, changes.get(1).getSequence());
+        assertSame(magazine, changes.get(1).getMagazine());
+        assertEquals(2, changeFeed.getLastSequence());
+    }
+
+    @Test
+    public void waitingChangesShouldBeDeliveredInBatches() throws InterruptedException {
+        changeFeed = new ChangeFeed(64);
+        RecordingListener listener = new RecordingListener(true);
+        changeFeed.subscribe(listener, 3);
+        changeFeed.publish(ChangeEvent.Type.ADDED, 0, magazine);
+        assertTrue(listener.entered.await(10, TimeUnit.SECONDS));
+        for (int recordId = 1; recordId < 10; recordId++) {
+            changeFeed.publish(ChangeEvent.Type.ADDED, recordId, magazine);
+        }
+        listener.released.countDown();
+
+        List<Integer> batchSizes = new ArrayList<>();
+        long expected = 1;
+        while (expected <= 10) {
+            List<ChangeEvent> batch = listener.batches.poll(10, TimeUnit.SECONDS);
+            batchSizes.add(batch.size());
+            for (ChangeEvent change : batch) {
+                assertEquals(expected++, change.getSequence());
+            }
+        }
+        assertEquals(Arrays.asList(1, 3, 3, 3), batchSizes);
+    }
+
+    @Test
+    public void slowListenerShouldBeToldWhatItMissed() throws InterruptedException {
+        RecordingListener listener = new RecordingListener(true);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(listener, 10);
+        changeFeed.publish(ChangeEvent.Type.ADDED, 0, magazine);
+        assertTrue(listener.entered.await(10, TimeUnit.SECONDS));
+        // Publishing does not wait for the held listener
+        for (int recordId = 1; recordId < 20; recordId++) {
+            changeFeed.publish(ChangeEvent.Type.ADDED, recordId, magazine);
+        }
+        listener.released.countDown();
+
+        assertEquals(5, listener.takeSequences(5).size());
+        long[] missed = listener.missed.poll(10, TimeUnit.SECONDS);
+        assertArrayEquals(new long[]{2, 16}, missed);
+        assertEquals(15, subscription.getMissedCount());
+        assertEquals(21, subscription.getNextSequence());
+    }
+
+    @Test
+    public void failingListenerShouldCloseItsSubscription() throws InterruptedException {
+        RuntimeException failure = new IllegalStateException("Shelf label printer offline");
+        CountDownLatch failed = new CountDownLatch(1);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(new ChangeListener() {
+            @Override
+            public void onChanges(List<ChangeEvent> changes) {
+                failed.countDown();
+                throw failure;
+            }
+
+            @Override
+            public void onChangesMissed(long firstSequence, long lastSequence) {
+            }
+        }, 1);
+        changeFeed.publish(ChangeEvent.Type.ADDED, 0, magazine);
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        while (!subscription.isClosed()) {
+            Thread.sleep(1);
+        }
+        assertSame(failure, subscription.getFailure());
+    }
+
+}
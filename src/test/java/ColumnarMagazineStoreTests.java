@@ -0,0 +1,115 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+import com.bookstore.storage.ColumnarMagazineStore;
+import com.bookstore.storage.HeapMagazineStore;
+import com.bookstore.storage.MagazineStore;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarMagazineStoreTests {
+
+    private ColumnarMagazineStore store;
+
+    @BeforeEach
+    public void beforeEach() {
+        store = new ColumnarMagazineStore();
+        store.add(new Magazine("Vi Menn", "Aller Media", 52));
+        store.add(new Magazine("Træningsblad", "Egmont", 12));
+        store.add(new Magazine("Se og Hør", "Aller Media", 51));
+    }
+
+    @Test
+    public void storeShouldReturnTheAddedFields() {
+        assertEquals(3, store.size());
+        assertEquals("Træningsblad", store.getTitle(1));
+        assertEquals("Aller Media", store.getPublisher(2));
+        assertEquals(51, store.getPublicationsPerYear(2));
+        assertEquals("Vi Menn", store.get(0).getTitle());
+    }
+
+    @Test
+    public void publishersShouldBeStoredOnce() {
+        assertEquals(2, store.getPublisherCount());
+    }
+
+    @Test
+    public void removeShouldMoveTheFollowingMagazinesDown() {
+        store.remove(1);
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+
+        assertEquals(3, store.size());
+        assertEquals("Se og Hør", store.getTitle(1));
+        assertEquals(51, store.getPublicationsPerYear(1));
+        assertEquals("Wired", store.getTitle(2));
+        assertEquals("Condé Nast", store.getPublisher(2));
+    }
+
+    @Test
+    public void removeAllShouldKeepTheOrderOfTheRest() {
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+        BitSet removed = new BitSet();
+        removed.set(0);
+        removed.set(2);
+        store.removeAll(removed);
+
+        assertEquals(2, store.size());
+        assertEquals("Træningsblad", store.getTitle(0));
+        assertEquals("Wired", store.getTitle(1));
+        assertEquals("Condé Nast", store.getPublisher(1));
+        assertEquals(12, store.getPublicationsPerYear(1));
+    }
+
+    @Test
+    public void storeShouldThrowWhenPositionIsOutOfRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getTitle(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.remove(-1));
+    }
+
+    @Test
+    public void copyShouldNotChangeWithTheStore() {
+        MagazineStore copy = store.copy();
+        store.remove(0);
+        copy.add(new Magazine("Wired", "Condé Nast", 12));
+
+        assertEquals(2, store.size());
+        assertEquals(4, copy.size());
+        assertEquals("Vi Menn", copy.getTitle(0));
+        assertEquals("Wired", copy.getTitle(3));
+    }
+
+    @Test
+    public void storeShouldGrowPastItsCapacity() {
+        HeapMagazineStore expected = new HeapMagazineStore();
+        ColumnarMagazineStore grown = new ColumnarMagazineStore();
+        for (int i = 0; i < 1000; i++) {
+            Magazine magazine = new Magazine("Magazine nummer " + i + " æøå", "Publisher " + (i % 7), i);
+            expected.add(magazine);
+            grown.add(magazine);
+        }
+        assertEquals(1000, grown.size());
+        assertEquals(7, grown.getPublisherCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.getTitle(i), grown.getTitle(i));
+            assertEquals(expected.getPublisher(i), grown.getPublisher(i));
+        }
+    }
+
+    @Test
+    public void registerShouldUseColumnarStore() {
+        MagazineRegister register = new MagazineRegister(new ColumnarMagazineStore());
+        register.addMagazine(new Magazine("Vi Menn", "Aller Media", 52));
+        register.addMagazine(new Magazine("Wired", "Condé Nast", 12));
+
+        assertTrue(register.hasDuplicateOf(new Magazine("VI MENN", "aller media", 1)));
+        assertEquals("Wired", register.searchMagazinesByPublisher("condé").next().getTitle());
+        assertTrue(register.deleteMagazine(register.getMagazineAtIndex(0)));
+        assertEquals(1, register.size());
+        assertFalse(register.searchMagazinesTitles("menn").hasNext());
+    }
+
+}
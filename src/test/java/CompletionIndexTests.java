@@ -0,0 +1,73 @@
+import com.bookstore.index.CompletionIndex;
+import com.bookstore.readables.Magazine;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompletionIndexTests {
+
+    private CompletionIndex titleCompletions;
+    private CompletionIndex publisherCompletions;
+    private Magazine technology;
+    private Magazine teknikk;
+    private Magazine traeen;
+
+    @BeforeEach
+    public void beforeEach() {
+        titleCompletions = CompletionIndex.forTitles();
+        publisherCompletions = CompletionIndex.forPublishers();
+        technology = new Magazine("Technology Today", "Egmont", 12);
+        teknikk = new Magazine("Teknisk Ukeblad", "Egmont", 52);
+        traeen = new Magazine("Træen", "Aller", 4);
+        int recordId = 0;
+        for (Magazine magazine : Arrays.asList(technology, teknikk, traeen,
+                new Magazine("Tech", "Aller", 1))) {
+            titleCompletions.add(recordId, magazine);
+            publisherCompletions.add(recordId, magazine);
+            recordId++;
+        }
+    }
+
+    @Test
+    public void completionsShouldBeInAlphabeticalOrderAndLimited() {
+        assertEquals(Arrays.asList("Tech", "Technology Today", "Teknisk Ukeblad"),
+                titleCompletions.complete("te", 10));
+        assertEquals(Arrays.asList("Tech", "Technology Today"),
+                titleCompletions.complete("tec", 2));
+        assertEquals(Collections.emptyList(), titleCompletions.complete("tex", 10));
+    }
+
+    @Test
+    public void completionsShouldIgnoreAccentsAndReturnTheTextAsAdded() {
+        assertEquals(Arrays.asList("Træen"), titleCompletions.complete("trae", 10));
+    }
+
+    @Test
+    public void publishersShouldBeCompletedOnce() {
+        assertEquals(Arrays.asList("Aller", "Egmont"),
+                publisherCompletions.complete("", 10));
+        assertEquals(2, publisherCompletions.getTextCount());
+    }
+
+    @Test
+    public void textShouldBeCompletedUntilItsLastMagazineIsRemoved() {
+        publisherCompletions.remove(0, technology);
+        assertEquals(Arrays.asList("Egmont"), publisherCompletions.complete("eg", 10));
+        publisherCompletions.removeIf(recordId -> recordId == 1);
+        assertTrue(publisherCompletions.complete("eg", 10).isEmpty());
+    }
+
+    @Test
+    public void copyShouldNotChangeWithTheOriginal() {
+        CompletionIndex copy = new CompletionIndex(titleCompletions);
+        titleCompletions.remove(2, traeen);
+        assertTrue(titleCompletions.complete("tr", 10).isEmpty());
+        assertEquals(Arrays.asList("Træen"), copy.complete("tr", 10));
+    }
+
+}
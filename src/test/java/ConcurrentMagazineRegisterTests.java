@@ -0,0 +1,164 @@
+import com.bookstore.ConcurrentMagazineRegister;
+import com.bookstore.DuplicateEntryException;
+import com.bookstore.MagazineJournal;
+import com.bookstore.MagazineRegister;
+import com.bookstore.feed.ChangeEvent;
+import com.bookstore.feed.ChangeFeed;
+import com.bookstore.feed.ChangeListener;
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentMagazineRegisterTests {
+
+    private ConcurrentMagazineRegister magazineRegister;
+    private Magazine magazineProper;
+    private Magazine magazineProper2;
+
+    @BeforeEach
+    public void beforeEach() {
+        magazineRegister = new ConcurrentMagazineRegister();
+        magazineProper = new Magazine("Magazine", "Publisher", 2);
+        magazineProper2 = new Magazine("Magazine2", "Publisher2", 2);
+    }
+
+    @Test
+    public void searchStartedBeforeAChangeShouldNotSeeTheChange() {
+        magazineRegister.addMagazine(magazineProper);
+        Iterator<Magazine> foundMagazines = magazineRegister.searchMagazinesTitles("maga");
+        magazineRegister.addMagazine(magazineProper2);
+        magazineRegister.deleteMagazine(magazineProper);
+
+        assertSame(magazineProper, foundMagazines.next());
+        assertFalse(foundMagazines.hasNext());
+        assertSame(magazineProper2, magazineRegister.searchMagazinesTitles("maga").next());
+    }
+
+    @Test
+    public void canNotAddDuplicateMagazineToRegister() {
+        magazineRegister.addMagazine(magazineProper);
+        assertThrows(DuplicateEntryException.class, () -> magazineRegister.addMagazine(magazineProper));
+    }
+
+    @Test
+    public void snapshotShouldBeReadOnly() {
+        MagazineRegister snapshot = magazineRegister.snapshot();
+        assertTrue(snapshot.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.addMagazine(magazineProper));
+    }
+
+    @Test
+    public void failedUpdateShouldNotPublishAnyChanges() {
+        magazineRegister.addMagazine(magazineProper);
+        assertThrows(DuplicateEntryException.class, () -> magazineRegister.update(writable -> {
+            writable.addMagazine(magazineProper2);
+            writable.addMagazine(magazineProper);
+        }));
+        assertEquals(1, magazineRegister.size());
+    }
+
+    @Test
+    public void failedUpdateShouldNotLogAnyChanges() {
+        List<String> logged = new ArrayList<>();
+        MagazineRegister journaled = new MagazineRegister();
+        journaled.setJournal(new MagazineJournal() {
+            @Override
+            public void logAdd(Magazine magazine) {
+                logged.add("add " + magazine.getTitle());
+            }
+
+            @Override
+            public void logDelete(Magazine magazine) {
+                logged.add("delete " + magazine.getTitle());
+            }
+
+            @Override
+            public void changesApplied(MagazineRegister register) {
+                logged.add("applied");
+            }
+        });
+        magazineRegister = new ConcurrentMagazineRegister(journaled);
+
+        magazineRegister.addMagazine(magazineProper);
+        assertThrows(DuplicateEntryException.class, () -> magazineRegister.update(writable -> {
+            writable.addMagazine(magazineProper2);
+            writable.addMagazine(magazineProper);
+        }));
+        magazineRegister.update(writable -> {
+            writable.addMagazine(magazineProper2);
+            writable.deleteMagazine(magazineProper);
+        });
+
+        assertEquals(Arrays.asList("add Magazine", "applied",
+                "add Magazine2", "delete Magazine", "applied"), logged);
+    }
+
+    @Test
+    public void changesFromManyThreadsShouldAllBeApplied() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int thread = i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    magazineRegister.addMagazine(new Magazine("Magazine " + j, "Publisher " + thread, 1));
+                    magazineRegister.searchMagazinesByPublisher("publisher").forEachRemaining(magazine -> { });
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200, magazineRegister.size());
+    }
+
+    @Test
+    public void changesShouldOnlyBePublishedWithTheirSnapshot() throws InterruptedException {
+        ChangeFeed changeFeed = new ChangeFeed();
+        BlockingQueue<ChangeEvent> changes = new LinkedBlockingQueue<>();
+        List<Integer> sizesSeen = new ArrayList<>();
+        changeFeed.subscribe(new ChangeListener() {
+            @Override
+            public void onChanges(List<ChangeEvent> published) {
+                sizesSeen.add(magazineRegister.size());
+                changes.addAll(published);
+            }
+
+            @Override
+            public void onChangesMissed(long firstSequence, long lastSequence) {
+            }
+        }, 16);
+        magazineRegister.setChangeFeed(changeFeed);
+
+        magazineRegister.addMagazine(magazineProper);
+        assertThrows(DuplicateEntryException.class, () -> magazineRegister.update(writable -> {
+            writable.addMagazine(magazineProper2);
+            writable.addMagazine(magazineProper);
+        }));
+        assertEquals(1, changeFeed.getLastSequence());
+        magazineRegister.deleteMagazine(magazineProper);
+
+        ChangeEvent added = changes.poll(10, TimeUnit.SECONDS);
+        ChangeEvent deleted = changes.poll(10, TimeUnit.SECONDS);
+        assertEquals(ChangeEvent.Type.ADDED, added.getType());
+        assertSame(magazineProper, added.getMagazine());
+        assertEquals(ChangeEvent.Type.DELETED, deleted.getType());
+        assertEquals(added.getRecordId(), deleted.getRecordId());
+        assertEquals(2, deleted.getSequence());
+        changeFeed.close();
+    }
+
+}
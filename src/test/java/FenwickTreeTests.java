@@ -0,0 +1,82 @@
+import com.bookstore.index.FenwickTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenwickTreeTests {
+
+    private static int naiveFind(List<Integer> counts, int rank) {
+        int sum = 0;
+        for (int position = 0; position < counts.size(); position++) {
+            sum += counts.get(position);
+            if (sum > rank) {
+                return position;
+            }
+        }
+        return counts.size();
+    }
+
+    @Test
+    public void newTreeShouldCountOneForEachPosition() {
+        FenwickTree tree = new FenwickTree(10);
+
+        assertEquals(10, tree.size());
+        assertEquals(10, tree.sum(10));
+        assertEquals(4, tree.sum(4));
+        assertEquals(7, tree.find(7));
+        assertEquals(10, tree.find(10));
+    }
+
+    @Test
+    public void shouldFindTheSameAsCountingFromTheStart() {
+        Random random = new Random(11);
+        List<Integer> counts = new ArrayList<>();
+        FenwickTree tree = new FenwickTree(100);
+        for (int i = 0; i < 100; i++) {
+            counts.add(1);
+        }
+        for (int step = 0; step < 2000; step++) {
+            if (random.nextInt(3) == 0) {
+                tree.append(1);
+                counts.add(1);
+            } else {
+                int position = random.nextInt(counts.size());
+                if (counts.get(position) == 1) {
+                    tree.add(position, -1);
+                    counts.set(position, 0);
+                }
+            }
+            int live = counts.stream().mapToInt(Integer::intValue).sum();
+            assertEquals(live, tree.sum(tree.size()));
+            int rank = random.nextInt(live + 1);
+            assertEquals(naiveFind(counts, rank), tree.find(rank));
+        }
+    }
+
+    @Test
+    public void copyShouldNotChangeWithTheOriginal() {
+        FenwickTree tree = new FenwickTree(3);
+        FenwickTree copy = new FenwickTree(tree);
+        tree.add(0, -1);
+        copy.append(1);
+
+        assertEquals(2, tree.sum(3));
+        assertEquals(3, tree.size());
+        assertEquals(4, copy.sum(4));
+        assertEquals(0, copy.find(0));
+    }
+
+    @Test
+    public void shouldThrowForAPositionOutOfRange() {
+        FenwickTree tree = new FenwickTree(3);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(3, -1));
+        assertThrows(IllegalArgumentException.class, () -> new FenwickTree(-1));
+    }
+
+}
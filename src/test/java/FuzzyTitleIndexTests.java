@@ -0,0 +1,125 @@
+import com.bookstore.index.FuzzyTitleIndex;
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzyTitleIndexTests {
+
+    private FuzzyTitleIndex fuzzyIndex;
+
+    @BeforeEach
+    public void beforeEach() {
+        fuzzyIndex = new FuzzyTitleIndex();
+        fuzzyIndex.add(0, new Magazine("The Economist", "Economist Group", 51));
+        fuzzyIndex.add(1, new Magazine("The Ecologist", "Ecosystems", 6));
+        fuzzyIndex.add(2, new Magazine("Økonomisk Rapport", "Aller", 12));
+        fuzzyIndex.add(3, new Magazine("Wired", "Condé Nast", 12));
+    }
+
+    private TreeMap<Integer, Integer> search(String query, int maxDistance) {
+        TreeMap<Integer, Integer> found = new TreeMap<>();
+        fuzzyIndex.search(query, maxDistance, found::put);
+        return found;
+    }
+
+    @Test
+    public void searchShouldFindTitlesWithinTheDistance() {
+        TreeMap<Integer, Integer> found = search("the econimist", 2);
+        assertEquals(1, found.size());
+        assertEquals(Integer.valueOf(1), found.get(0));
+
+        found = search("the ecomonist", 2);
+        assertEquals(Integer.valueOf(2), found.get(0));
+        assertEquals(Integer.valueOf(2), found.get(1));
+    }
+
+    @Test
+    public void swappedCharactersShouldCountAsOneEdit() {
+        assertEquals(Integer.valueOf(1), search("wried", 1).get(3));
+    }
+
+    @Test
+    public void searchShouldIgnoreAccents() {
+        assertEquals(Integer.valueOf(0), search("okonomisk rapport", 0).get(2));
+    }
+
+    @Test
+    public void removedMagazinesShouldNotBeFound() {
+        fuzzyIndex.remove(3, new Magazine("Wired", "Condé Nast", 12));
+        fuzzyIndex.removeIf(recordId -> recordId == 0);
+        assertTrue(search("wired", 1).isEmpty());
+        assertTrue(search("the economist", 0).isEmpty());
+        assertEquals(2, fuzzyIndex.getTitleCount());
+    }
+
+    @Test
+    public void searchShouldFindTheSameTitlesAsComparingEveryTitle() {
+        Random random = new Random(3);
+        FuzzyTitleIndex index = new FuzzyTitleIndex();
+        List<String> titles = new ArrayList<>();
+        for (int recordId = 0; recordId < 2000; recordId++) {
+            String title = randomText(random);
+            titles.add(title);
+            index.add(recordId, new Magazine(title, "Publisher", 4));
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = randomText(random);
+            int maxDistance = i % (FuzzyTitleIndex.MAX_DISTANCE + 1);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int recordId = 0; recordId < titles.size(); recordId++) {
+                int distance = distance(titles.get(recordId), query);
+                if (distance <= maxDistance) {
+                    expected.put(recordId, distance);
+                }
+            }
+            TreeMap<Integer, Integer> found = new TreeMap<>();
+            index.search(query, maxDistance, found::put);
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenDistanceIsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> search("wired", -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> search("wired", FuzzyTitleIndex.MAX_DISTANCE + 1));
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(4)));
+        }
+        return text.toString();
+    }
+
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                    continue;
+                }
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+                        && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+}
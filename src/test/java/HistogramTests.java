@@ -0,0 +1,83 @@
+import com.bookstore.metrics.Histogram;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTests {
+
+    @Test
+    public void emptyHistogramShouldReturnZero() {
+        Histogram histogram = new Histogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean());
+    }
+
+    @Test
+    public void smallValuesShouldBeExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(5.5, histogram.getMean(), 0.0001);
+    }
+
+    @Test
+    public void percentilesShouldBeWithinThreePercent() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 30);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long found = histogram.getValueAtPercentile(percentile);
+            assertTrue(found >= expected);
+            assertTrue(found <= expected + expected / 32 + 1);
+        }
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void largestValuesShouldBeRecorded() {
+        Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void resetShouldRemoveAllValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(100);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void outOfRangePercentileShouldThrow() {
+        Histogram histogram = new Histogram();
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(-1));
+    }
+
+}
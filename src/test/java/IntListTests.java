@@ -0,0 +1,62 @@
+import com.bookstore.index.IntList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntListTests {
+
+    private IntList intList;
+
+    @BeforeEach
+    public void beforeEach() {
+        intList = new IntList(1);
+        for (int i = 0; i < 10; i++) {
+            intList.add(i * 2);
+        }
+    }
+
+    @Test
+    public void shouldGrowWhenAddingBeyondCapacity() {
+        assertEquals(10, intList.size());
+        assertEquals(18, intList.getLast());
+    }
+
+    @Test
+    public void shouldFindValuesBySearchingSortedList() {
+        assertEquals(3, intList.binarySearch(6));
+        assertTrue(intList.containsSorted(8));
+        assertFalse(intList.containsSorted(7));
+    }
+
+    @Test
+    public void shouldShiftValuesWhenRemoving() {
+        assertTrue(intList.removeSorted(4));
+        assertFalse(intList.removeSorted(5));
+        assertEquals(9, intList.size());
+        assertEquals(6, intList.get(2));
+    }
+
+    @Test
+    public void shouldKeepOrderWhenRemovingByFilter() {
+        assertEquals(5, intList.removeIf(value -> value % 4 == 0));
+        assertArrayEquals(new int[]{2, 6, 10, 14, 18}, intList.toArray());
+        intList.set(0, 3);
+        assertEquals(3, intList.get(0));
+    }
+
+    @Test
+    public void shouldThrowIndexOutOfBoundsExceptionWhenGettingOutsideList() {
+        assertThrows(IndexOutOfBoundsException.class, () -> intList.get(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> new IntList().getLast());
+    }
+
+    @Test
+    public void copyShouldNotChangeWhenOriginalChanges() {
+        IntList copy = new IntList(intList);
+        intList.add(100);
+        assertEquals(10, copy.size());
+    }
+
+}
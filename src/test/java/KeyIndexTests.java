@@ -0,0 +1,63 @@
+import com.bookstore.index.KeyIndex;
+import com.bookstore.index.LongIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyIndexTests {
+
+    private List<String> keys;
+    private IntFunction<String> keyOf;
+
+    @BeforeEach
+    public void beforeEach() {
+        keys = new ArrayList<>();
+        keyOf = recordId -> keys.get(recordId);
+    }
+
+    private void put(KeyIndex index, String key) {
+        keys.add(key);
+        index.put(key, keys.size() - 1, keyOf);
+    }
+
+    @Test
+    public void shouldFindTheRecordIdOfAKey() {
+        KeyIndex index = new KeyIndex();
+        put(index, "vi menn\u0000aller");
+        put(index, "wired\u0000condé nast");
+
+        assertEquals(1, index.get("wired\u0000condé nast", keyOf));
+        assertEquals(LongIntMap.NO_VALUE, index.get("wired\u0000aller", keyOf));
+        assertEquals(0, index.remove("vi menn\u0000aller", keyOf));
+        assertEquals(LongIntMap.NO_VALUE, index.get("vi menn\u0000aller", keyOf));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void keysSharingAHashShouldBeToldApart() {
+        // Every key of the same length shares a hash
+        KeyIndex index = new KeyIndex(String::length);
+        put(index, "aa");
+        put(index, "bb");
+        put(index, "ccc");
+        put(index, "dd");
+
+        assertEquals(1, index.get("bb", keyOf));
+        assertEquals(3, index.get("dd", keyOf));
+        assertEquals(2, index.get("ccc", keyOf));
+        assertEquals(LongIntMap.NO_VALUE, index.get("ee", keyOf));
+
+        assertEquals(0, index.remove("aa", keyOf));
+        assertEquals(1, index.get("bb", keyOf));
+        assertEquals(2, index.get("ccc", keyOf));
+        assertEquals(3, index.get("dd", keyOf));
+        assertEquals(3, index.size());
+    }
+
+}
@@ -0,0 +1,52 @@
+import com.bookstore.index.LongIntMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongIntMapTests {
+
+    @Test
+    public void shouldBehaveLikeAHashMapWhenPuttingAndRemovingRandomKeys() {
+        LongIntMap longIntMap = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(500) * 0x10001L;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? LongIntMap.NO_VALUE : removed, longIntMap.remove(key));
+            } else {
+                expected.put(key, i);
+                longIntMap.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), longIntMap.size());
+        for (long key = 0; key < 500; key++) {
+            Integer value = expected.get(key * 0x10001L);
+            assertEquals(value == null ? LongIntMap.NO_VALUE : value, longIntMap.get(key * 0x10001L));
+        }
+    }
+
+    @Test
+    public void shouldKeepOtherKeysWhenRemovingByValue() {
+        LongIntMap longIntMap = new LongIntMap();
+        for (int i = 0; i < 1000; i++) {
+            longIntMap.put(i * 31L, i);
+        }
+        assertEquals(500, longIntMap.removeIf(value -> value % 2 == 1));
+        assertEquals(500, longIntMap.size());
+        assertEquals(998, longIntMap.get(998 * 31L));
+        assertEquals(LongIntMap.NO_VALUE, longIntMap.get(999 * 31L));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenValueIsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new LongIntMap().put(1, -1));
+    }
+
+}
@@ -0,0 +1,154 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.query.AccessPath;
+import com.bookstore.query.Criterion;
+import com.bookstore.query.MagazineQuery;
+import com.bookstore.query.QueryPlan;
+import com.bookstore.query.SortOrder;
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.bookstore.query.Criterion.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MagazineQueryTests {
+
+    private static final String[] WORDS = {"tech", "home", "car", "garden", "news", "økonomi", "sport"};
+    private static final String[] PUBLISHERS = {"Egmont", "Aller", "Schibsted", "Bonnier", "Hjemmet Mortensen"};
+
+    private MagazineRegister magazineRegister;
+    private List<Magazine> magazines;
+
+    @BeforeEach
+    public void beforeEach() {
+        magazineRegister = new MagazineRegister();
+        magazines = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            Magazine magazine = new Magazine(
+                    WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i,
+                    PUBLISHERS[random.nextInt(PUBLISHERS.length)],
+                    1 + random.nextInt(365));
+            magazineRegister.addMagazine(magazine);
+            magazines.add(magazine);
+        }
+        // Deleted magazines are still in the lazily cleaned title index
+        for (int i = 0; i < 2000; i += 7) {
+            magazineRegister.deleteMagazine(magazines.get(i));
+        }
+        for (int i = 0; i < 2000; i += 7) {
+            magazines.set(i, null);
+        }
+        magazines.removeIf(magazine -> magazine == null);
+    }
+
+    private List<Magazine> expected(MagazineQuery query) {
+        Comparator<Magazine> order = query.getSortOrder().getComparator();
+        List<Magazine> found = magazines.stream()
+                .filter(magazine -> query.getCriterion().matches(magazine, false))
+                .collect(Collectors.toList());
+        if (order != null) {
+            found.sort(order);
+        }
+        return found.subList(0, Math.min(found.size(), query.getLimit()));
+    }
+
+    private List<Magazine> run(MagazineQuery query) {
+        List<Magazine> found = new ArrayList<>();
+        magazineRegister.query(query).forEachRemaining(found::add);
+        return found;
+    }
+
+    @Test
+    public void queriesShouldFindTheSameMagazinesAsCheckingEveryMagazine() {
+        List<Criterion> criteria = Arrays.asList(
+                titleContains("tech").and(publisherContains("egmont")).and(publicationsPerYearAtLeast(12)),
+                titleContains("car").or(publisherContains("aller")),
+                not(titleContains("news")).and(publicationsPerYearBetween(50, 60)),
+                titleContains("ga").and(publisherContains("mort")),
+                anyOf(publicationsPerYearAtMost(3), publicationsPerYearAtLeast(360), titleContains("sport 1")),
+                titleContains("home").and(not(publisherContains("bonnier").or(publicationsPerYearAtMost(100)))),
+                titleContains("").or(publisherContains("schib")),
+                publicationsPerYearBetween(20, 10).and(titleContains("tech")),
+                titleContains("øko").and(publisherContains("aller")));
+        for (Criterion criterion : criteria) {
+            for (SortOrder sortOrder : SortOrder.values()) {
+                for (int limit : new int[]{1, 5, 100, MagazineQuery.NO_LIMIT}) {
+                    MagazineQuery query = new MagazineQuery(criterion, sortOrder, limit);
+                    assertEquals(expected(query), run(query), query + System.lineSeparator()
+                            + magazineRegister.explain(query));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void queryShouldBeDrivenFromTheMostSelectivePath() {
+        Magazine rare = new Magazine("Tech Review", "Rare Press", 12);
+        magazineRegister.addMagazine(rare);
+        MagazineQuery query = new MagazineQuery(titleContains("tech")
+                .and(publisherContains("rare press")).and(publicationsPerYearAtLeast(12)));
+
+        QueryPlan plan = magazineRegister.explain(query);
+        assertEquals(AccessPath.Kind.PUBLISHER_INDEX, plan.getAccessPath().getKind());
+        assertEquals(1, plan.getAccessPath().getEstimatedRows());
+        assertEquals("(title contains \"tech\" AND publications per year >= 12)",
+                plan.getResidual().toString());
+        assertEquals(Arrays.asList(rare), run(query));
+
+        String explained = plan.explain();
+        assertTrue(explained.contains("Filter (title contains \"tech\" AND publications per year >= 12)"), explained);
+        assertTrue(explained.contains("  Publisher index \"rare press\" (estimated 1 rows)"), explained);
+    }
+
+    @Test
+    public void unindexedCriteriaShouldBeAnsweredByAFullScan() {
+        QueryPlan plan = magazineRegister.explain(new MagazineQuery(
+                not(publisherContains("aller")).or(titleContains("ca"))));
+        assertEquals(AccessPath.Kind.FULL_SCAN, plan.getAccessPath().getKind());
+
+        plan = magazineRegister.explain(new MagazineQuery(
+                publisherContains("aller").or(publicationsPerYearAtLeast(300))));
+        assertEquals(AccessPath.Kind.UNION, plan.getAccessPath().getKind());
+        assertNull(plan.getResidual());
+    }
+
+    @Test
+    public void mostPublishedFirstPageShouldReadThePublicationsIndexInOrder() {
+        MagazineQuery query = new MagazineQuery(publisherContains("e"), SortOrder.MOST_PUBLISHED, 10);
+        QueryPlan plan = magazineRegister.explain(query);
+        assertEquals(AccessPath.Kind.PUBLICATIONS_INDEX_ORDER, plan.getAccessPath().getKind());
+        assertFalse(plan.isSorted());
+        assertEquals(expected(query), run(query));
+
+        MagazineQuery byTitle = new MagazineQuery(publisherContains("rare"), SortOrder.TITLE, 10);
+        assertTrue(magazineRegister.explain(byTitle).isSorted());
+        assertTrue(magazineRegister.explain(byTitle).explain().startsWith("Limit 10"));
+    }
+
+    @Test
+    public void changingTheRegisterWhileQueryingShouldThrow() {
+        Iterator<Magazine> found = magazineRegister.query(new MagazineQuery(titleContains("tech")));
+        found.next();
+        magazineRegister.addMagazine(new Magazine("Tech Today", "Egmont", 12));
+        assertThrows(java.util.ConcurrentModificationException.class, found::hasNext);
+    }
+
+    @Test
+    public void invalidQueriesShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> magazineRegister.query(null));
+        assertThrows(IllegalArgumentException.class, () -> new MagazineQuery(titleContains("a"), SortOrder.TITLE, 0));
+        assertThrows(IllegalArgumentException.class, () -> allOf());
+        assertThrows(IllegalArgumentException.class, () -> titleContains(null));
+    }
+
+}
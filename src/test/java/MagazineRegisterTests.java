@@ -1,6 +1,21 @@
 import com.bookstore.DuplicateEntryException;
+import com.bookstore.FuzzyMatch;
+import com.bookstore.MagazinePage;
 import com.bookstore.MagazineRegister;
+import com.bookstore.feed.ChangeEvent;
+import com.bookstore.feed.ChangeFeed;
 import com.bookstore.readables.Magazine;
+import com.bookstore.stats.CatalogStatistics;
+import com.bookstore.storage.HeapMagazineStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -107,4 +122,387 @@ public class MagazineRegisterTests {
         assertNotNull(magazineRegister.getAllMagazines());
     }
 
+    @Test
+    public void canNotAddDuplicateMagazineWithDifferentCaseOrWhitespace() {
+        magazineRegister.addMagazine(magazineProper);
+        Magazine sameMagazine = new Magazine("  mAGAZINE ", "PUBLISHER  ", 12);
+        assertTrue(magazineRegister.hasDuplicateOf(sameMagazine));
+        assertThrows(DuplicateEntryException.class, () -> magazineRegister.addMagazine(sameMagazine));
+    }
+
+    @Test
+    public void magazineWithTitleContainingAnotherTitleIsNotADuplicate() {
+        magazineRegister.addMagazine(new Magazine("Magazine2", "Publisher", 2));
+        assertFalse(magazineRegister.hasDuplicateOf(magazineProper));
+        assertDoesNotThrow(() -> magazineRegister.addMagazine(magazineProper));
+    }
+
+    @Test
+    public void canAddMagazineAgainAfterItIsDeleted() {
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.deleteMagazine(magazineProper);
+        assertFalse(magazineRegister.hasDuplicateOf(magazineProper));
+        assertTrue(magazineRegister.addMagazine(magazineProper));
+    }
+
+    @Test
+    public void searchByTitleShouldFindSameMagazinesAsAFullScan() {
+        Random random = new Random(42);
+        String letters = "abcde ";
+        List<Magazine> added = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder title = new StringBuilder("T");
+            int length = 1 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                title.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            Magazine magazine = new Magazine(title.toString(), "Publisher" + i, 1);
+            magazineRegister.addMagazine(magazine);
+            added.add(magazine);
+        }
+        for (int i = 0; i < added.size(); i += 3) {
+            magazineRegister.deleteMagazine(added.get(i));
+        }
+
+        for (String query : new String[]{"a", "Ab", "abc", "BCD e", "tab", "e a", "zzz"}) {
+            List<Magazine> expected = new ArrayList<>();
+            for (int i = 0; i < added.size(); i++) {
+                if (i % 3 != 0 && added.get(i).getTitle().toLowerCase()
+                        .contains(query.toLowerCase())) {
+                    expected.add(added.get(i));
+                }
+            }
+            List<Magazine> found = new ArrayList<>();
+            Iterator<Magazine> foundMagazines = magazineRegister.searchMagazinesTitles(query);
+            foundMagazines.forEachRemaining(found::add);
+            assertEquals(expected, found, "Searching for '" + query + "'");
+        }
+    }
+
+    @Test
+    public void searchByTitleShouldNotFindDeletedMagazine() {
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.addMagazine(magazineProper2);
+        magazineRegister.deleteMagazine(magazineProper);
+        Iterator<Magazine> foundMagazines = magazineRegister.searchMagazinesTitles("magazine");
+        assertSame(magazineProper2, foundMagazines.next());
+        assertFalse(foundMagazines.hasNext());
+    }
+
+    @Test
+    public void searchByPublisherShouldFindMagazinesInTheOrderTheyWereAdded() {
+        Magazine first = new Magazine("First", "Egmont", 1);
+        Magazine second = new Magazine("Second", "Aller", 1);
+        Magazine third = new Magazine("Third", "EGMONT", 1);
+        Magazine fourth = new Magazine("Fourth", "Allers Familie", 1);
+        magazineRegister.addMagazine(first);
+        magazineRegister.addMagazine(second);
+        magazineRegister.addMagazine(third);
+        magazineRegister.addMagazine(fourth);
+        magazineRegister.deleteMagazine(third);
+
+        List<Magazine> found = new ArrayList<>();
+        magazineRegister.searchMagazinesByPublisher("e").forEachRemaining(found::add);
+        assertEquals(Arrays.asList(first, second, fourth), found);
+    }
+
+    @Test
+    public void streamShouldStopSearchingWhenLimited() {
+        for (int i = 0; i < 100; i++) {
+            magazineRegister.addMagazine(new Magazine("Magazine " + i, "Publisher", 1));
+        }
+        List<String> titles = magazineRegister.streamMagazinesTitles("magazine")
+                .limit(2).map(Magazine::getTitle).collect(Collectors.toList());
+        assertEquals(Arrays.asList("Magazine 0", "Magazine 1"), titles);
+        assertTrue(magazineRegister.streamMagazinesByPublisher("pub")
+                .anyMatch(magazine -> magazine.getTitle().equals("Magazine 50")));
+        assertEquals(100, magazineRegister.streamAllMagazines().count());
+    }
+
+    @Test
+    public void pagesShouldContinueWhereThePreviousPageEnded() {
+        for (int i = 0; i < 25; i++) {
+            magazineRegister.addMagazine(new Magazine("Magazine " + i, "Publisher", 1));
+        }
+        MagazinePage firstPage = magazineRegister.searchMagazinesTitlesPage("magazine", null, 10);
+        assertEquals(10, firstPage.getMagazines().size());
+        assertTrue(firstPage.hasNextPage());
+
+        magazineRegister.deleteMagazine(firstPage.getMagazines().get(0));
+        MagazinePage secondPage = magazineRegister.searchMagazinesTitlesPage(
+                "magazine", firstPage.getContinuationToken(), 10);
+        assertEquals("Magazine 10", secondPage.getMagazines().get(0).getTitle());
+
+        MagazinePage lastPage = magazineRegister.getAllMagazinesPage(20, 10);
+        assertEquals(4, lastPage.getMagazines().size());
+        assertFalse(lastPage.hasNextPage());
+    }
+
+    @Test
+    public void recordIdsShouldNotChangeWhenOtherMagazinesAreDeleted() {
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.addMagazine(magazineProper2);
+        magazineRegister.addMagazine(magazineProper3);
+        int id = magazineRegister.findIdOf(magazineProper3);
+
+        assertTrue(magazineRegister.deleteById(magazineRegister.findIdOf(magazineProper)));
+        assertSame(magazineProper3, magazineRegister.getById(id));
+        assertSame(magazineProper3, magazineRegister.getMagazineAtIndex(1));
+        assertEquals(2, magazineRegister.size());
+    }
+
+    @Test
+    public void deletedRecordIdShouldNotBeFoundOrReused() {
+        magazineRegister.addMagazine(magazineProper);
+        int id = magazineRegister.findIdOf(magazineProper);
+        assertTrue(magazineRegister.deleteById(id));
+        assertFalse(magazineRegister.deleteById(id));
+        assertNull(magazineRegister.getById(id));
+        assertEquals(-1, magazineRegister.findIdOf(magazineProper));
+
+        magazineRegister.addMagazine(magazineProper);
+        assertNotEquals(id, magazineRegister.findIdOf(magazineProper));
+        assertNull(magazineRegister.getById(-1));
+        assertNull(magazineRegister.getById(100));
+    }
+
+    @Test
+    public void pageShouldHoldTheRecordIdsOfItsMagazines() {
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.addMagazine(magazineProper2);
+        magazineRegister.deleteMagazine(magazineProper);
+        MagazinePage page = magazineRegister.getAllMagazinesPage(null, 10);
+        assertSame(magazineProper2, magazineRegister.getById(page.getRecordId(0)));
+    }
+
+    @Test
+    public void magazineAtIndexShouldSkipDeletedMagazines() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Magazine magazine = new Magazine("Magazine " + i, "Publisher", 1);
+            magazineRegister.addMagazine(magazine);
+            ids.add(magazineRegister.findIdOf(magazine));
+        }
+        // Too few deletions to be compacted away
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            magazineRegister.deleteById(ids.get(random.nextInt(ids.size())));
+        }
+        magazineRegister.addMagazine(new Magazine("Magazine 600", "Publisher", 1));
+
+        Iterator<Magazine> magazines = magazineRegister.getAllMagazines();
+        for (int index = 0; index < magazineRegister.size(); index++) {
+            assertSame(magazines.next(), magazineRegister.getMagazineAtIndex(index));
+        }
+        assertFalse(magazines.hasNext());
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> magazineRegister.getMagazineAtIndex(magazineRegister.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> magazineRegister.getMagazineAtIndex(-1));
+    }
+
+    @Test
+    public void searchesShouldBeUnchangedWhenDeletedMagazinesAreCompacted() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Magazine magazine = new Magazine("Magazine " + i, "Publisher " + (i % 7), 1);
+            magazineRegister.addMagazine(magazine);
+            ids.add(magazineRegister.findIdOf(magazine));
+        }
+        // Enough deletions to pass the compaction threshold
+        for (int i = 0; i < 5000; i += 2) {
+            assertTrue(magazineRegister.deleteById(ids.get(i)));
+        }
+        magazineRegister.compact();
+
+        assertEquals(2500, magazineRegister.size());
+        assertEquals("Magazine 4999", magazineRegister.getById(ids.get(4999)).getTitle());
+        assertEquals("Magazine 3", magazineRegister.getMagazineAtIndex(1).getTitle());
+        assertEquals(1, magazineRegister.streamMagazinesTitles("magazine 4999").count());
+        assertEquals(0, magazineRegister.streamMagazinesTitles("magazine 4998").count());
+        assertEquals(357, magazineRegister.streamMagazinesByPublisher("publisher 0").count());
+        assertNull(magazineRegister.getById(ids.get(0)));
+    }
+
+    @Test
+    public void searchesShouldIgnoreAccentsWhenAccentFoldingIsOn() {
+        Magazine traeen = new Magazine("Træen Tidsskrift", "Ærø Forlag", 4);
+        Magazine cafe = new Magazine("Café", "Bonnier", 12);
+        magazineRegister.addMagazine(traeen);
+        magazineRegister.addMagazine(cafe);
+        assertFalse(magazineRegister.searchMagazinesTitles("traeen").hasNext());
+
+        magazineRegister.setAccentFolding(true);
+        assertSame(traeen, magazineRegister.searchMagazinesTitles("traeen").next());
+        assertSame(traeen, magazineRegister.searchMagazinesTitles("TRÆ").next());
+        assertSame(cafe, magazineRegister.searchMagazinesTitles("cafe").next());
+        assertSame(cafe, magazineRegister.searchMagazinesTitles("fe").next());
+        assertSame(traeen, magazineRegister.searchMagazinesByPublisher("aero").next());
+    }
+
+    @Test
+    public void searchWithAccentsShouldOnlyFindExactAccentsWhenAccentFoldingIsOff() {
+        Magazine traeen = new Magazine("Træen", "Aller", 4);
+        magazineRegister.addMagazine(traeen);
+        magazineRegister.addMagazine(new Magazine("Traeen", "Aller", 4));
+
+        List<Magazine> found = new ArrayList<>();
+        magazineRegister.searchMagazinesTitles("træ").forEachRemaining(found::add);
+        assertEquals(Arrays.asList(traeen), found);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenContinuationTokenIsInvalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> magazineRegister.searchMagazinesByPublisherPage("pub", "not a token!", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> magazineRegister.getAllMagazinesPage(0, 0));
+    }
+
+    @Test
+    public void searchShouldThrowConcurrentModificationExceptionWhenRegisterChangesDuringSearch() {
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.addMagazine(magazineProper2);
+        Iterator<Magazine> foundMagazines = magazineRegister.searchMagazinesTitles("maga");
+        foundMagazines.next();
+        magazineRegister.addMagazine(magazineProper3);
+        assertThrows(ConcurrentModificationException.class, foundMagazines::hasNext);
+    }
+
+    @Test
+    public void parallelTitleSearchShouldFindTheSameMagazinesInTheSameOrder() {
+        HeapMagazineStore store = new HeapMagazineStore();
+        for (int i = 0; i < 100000; i++) {
+            store.add(new Magazine("Magazine " + i, "Publisher " + (i % 10), 4));
+        }
+        MagazineRegister sequential = new MagazineRegister(store);
+        MagazineRegister parallel = new MagazineRegister(sequential);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.setSearchPool(pool);
+        sequential.deleteById(7);
+        parallel.deleteById(7);
+        try {
+            for (String query : Arrays.asList("7", "99", "ine 123", "none")) {
+                assertEquals(sequential.streamMagazinesTitles(query)
+                                .collect(Collectors.toList()),
+                        parallel.streamMagazinesTitles(query)
+                                .collect(Collectors.toList()));
+            }
+            MagazinePage page = parallel.searchMagazinesTitlesPage("7", null, 3);
+            assertEquals("Magazine 17", page.getMagazines().get(0).getTitle());
+            MagazinePage next = parallel.searchMagazinesTitlesPage("7",
+                    page.getContinuationToken(), 3);
+            assertEquals("Magazine 47", next.getMagazines().get(0).getTitle());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void fuzzyTitleSearchShouldRankTheClosestTitlesFirst() {
+        Magazine economist = new Magazine("The Economist", "Economist Group", 51);
+        Magazine ecologist = new Magazine("The Ecologist", "Ecosystems", 6);
+        Magazine wired = new Magazine("Wired", "Condé Nast", 12);
+        magazineRegister.addMagazine(ecologist);
+        magazineRegister.addMagazine(economist);
+        magazineRegister.addMagazine(wired);
+
+        List<FuzzyMatch> found = magazineRegister.searchMagazinesTitlesFuzzy(" The Ecomomist ", 2);
+        assertEquals(2, found.size());
+        assertSame(economist, found.get(0).getMagazine());
+        assertEquals(1, found.get(0).getDistance());
+        assertSame(ecologist, found.get(1).getMagazine());
+        assertEquals(2, found.get(1).getDistance());
+        assertEquals(magazineRegister.findIdOf(ecologist), found.get(1).getRecordId());
+
+        magazineRegister.deleteMagazine(economist);
+        Magazine newsweek = new Magazine("Newsweek", "IBT Media", 52);
+        magazineRegister.addMagazine(newsweek);
+        assertSame(ecologist, magazineRegister.searchMagazinesTitlesFuzzy("the ecomomist", 2).get(0).getMagazine());
+        assertSame(newsweek, magazineRegister.searchMagazinesTitlesFuzzy("newswek", 1).get(0).getMagazine());
+        assertThrows(IllegalArgumentException.class,
+                () -> magazineRegister.searchMagazinesTitlesFuzzy(null, 1));
+    }
+
+    @Test
+    public void completionsShouldFollowAddedAndDeletedMagazines() {
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.addMagazine(new Magazine("Magnet", "Aller", 4));
+        assertEquals(Arrays.asList("Magnet"), magazineRegister.completeTitles("MAGN", 5));
+        assertEquals(Arrays.asList("Aller"), magazineRegister.completePublishers("al", 5));
+
+        magazineRegister.addMagazine(new Magazine("Magnum", "Allers", 12));
+        assertEquals(Arrays.asList("Magnet", "Magnum"), magazineRegister.completeTitles("magn", 5));
+        assertEquals(Arrays.asList("Aller", "Allers"), magazineRegister.completePublishers("al", 5));
+
+        magazineRegister.deleteMagazine(new Magazine("Magnet", "Aller", 4));
+        assertEquals(Arrays.asList("Magnum"), magazineRegister.completeTitles("magn", 5));
+        assertEquals(Arrays.asList("Allers"), magazineRegister.completePublishers("al", 5));
+        assertThrows(IllegalArgumentException.class, () -> magazineRegister.completeTitles("magn", 0));
+    }
+
+    @Test
+    public void magazinesShouldBeFoundAndCountedByPublicationsPerYear() {
+        Magazine monthly = new Magazine("Wired", "Condé Nast", 12);
+        Magazine weekly = new Magazine("Vi Menn", "Aller", 52);
+        Magazine daily = new Magazine("Aftenposten", "Schibsted", 312);
+        Magazine otherWeekly = new Magazine("Her og Nå", "Egmont", 52);
+        for (Magazine magazine : Arrays.asList(monthly, weekly, daily, otherWeekly)) {
+            magazineRegister.addMagazine(magazine);
+        }
+
+        List<Magazine> weeklies = new ArrayList<>();
+        magazineRegister.searchByPublicationsPerYear(52, Integer.MAX_VALUE).forEachRemaining(weeklies::add);
+        assertEquals(Arrays.asList(weekly, otherWeekly, daily), weeklies);
+        assertEquals(3, magazineRegister.countByPublicationsPerYear(52, Integer.MAX_VALUE));
+        assertEquals(Arrays.asList(monthly), magazineRegister.streamByPublicationsPerYear(0, 51)
+                .collect(Collectors.toList()));
+
+        Iterator<Magazine> mostPublished = magazineRegister.getMostPublished(2);
+        assertSame(daily, mostPublished.next());
+        assertSame(weekly, mostPublished.next());
+        assertFalse(mostPublished.hasNext());
+
+        magazineRegister.deleteMagazine(weekly);
+        assertEquals(2, magazineRegister.countByPublicationsPerYear(52, 52 * 7));
+        assertSame(otherWeekly, magazineRegister.searchByPublicationsPerYear(52, 52).next());
+        assertThrows(IllegalArgumentException.class, () -> magazineRegister.getMostPublished(0));
+    }
+
+    @Test
+    public void statisticsShouldFollowAddsAndDeletes() {
+        Magazine weekly = new Magazine("Vi Menn", "Aller", 52);
+        magazineRegister.addMagazine(new Magazine("Wired", "Condé Nast", 12));
+        magazineRegister.addMagazine(weekly);
+        magazineRegister.addMagazine(new Magazine("Her og Nå", "Aller", 52));
+
+        CatalogStatistics statistics = magazineRegister.getStatistics();
+        assertEquals(3, statistics.getMagazineCount());
+        assertEquals(2, statistics.getPublisherCount());
+        assertEquals(2, statistics.getPublisher("aller").getMagazineCount());
+        assertEquals(116, statistics.getTotalPublicationsPerYear());
+        assertSame(statistics, magazineRegister.getStatistics());
+
+        magazineRegister.deleteMagazine(weekly);
+        CatalogStatistics afterDelete = magazineRegister.getStatistics();
+        assertEquals(2, afterDelete.getMagazineCount());
+        assertEquals(64, afterDelete.getTotalPublicationsPerYear());
+        assertEquals(1, (int) afterDelete.getPublicationsHistogram().get(52));
+        assertEquals(3, statistics.getMagazineCount());
+    }
+
+    @Test
+    public void changesShouldBePublishedOnTheChangeFeed() {
+        ChangeFeed changeFeed = new ChangeFeed();
+        magazineRegister.addMagazine(magazineProper);
+        magazineRegister.setChangeFeed(changeFeed);
+        magazineRegister.addMagazine(magazineProper2);
+        magazineRegister.addAll(Arrays.asList(magazineProper3, magazineProper));
+        magazineRegister.deleteMagazine(magazineProper2);
+        assertEquals(3, changeFeed.getLastSequence());
+
+        magazineRegister.setChangeFeed(null);
+        magazineRegister.deleteMagazine(magazineProper3);
+        assertEquals(3, changeFeed.getLastSequence());
+    }
+
 }
@@ -53,4 +53,31 @@ public class MagazineTest {
     public void shouldReturnAnIntWhenGettingPublicationsPerYear(){
         assertEquals(2, magazineProper.getPublicationsPerYear());
     }
+
+    @Test
+    public void magazinesWithSameTitleAndPublisherIgnoringCaseShouldHaveSameKey(){
+        Magazine magazine = new Magazine(" TITLE", "publisher ", 5);
+        assertEquals(magazineProper.getKey(), magazine.getKey());
+    }
+
+    @Test
+    public void magazinesWithDifferentPublisherShouldHaveDifferentKey(){
+        Magazine magazine = new Magazine("Title", "Another publisher", 2);
+        assertNotEquals(magazineProper.getKey(), magazine.getKey());
+    }
+
+    @Test
+    public void shouldPrecomputeNormalizedFormsWhenCreated(){
+        Magazine magazine = new Magazine(" Træen Café ", "ÆRØ FORLAG", 2);
+        assertEquals("træen café", magazine.getNormalizedTitle());
+        assertEquals("ærø forlag", magazine.getNormalizedPublisher());
+        assertEquals("traeen cafe", magazine.getAccentFoldedTitle());
+        assertEquals("aero forlag", magazine.getAccentFoldedPublisher());
+    }
+
+    @Test
+    public void accentFoldedFormsShouldBeSharedWhenThereAreNoAccents(){
+        assertSame(magazineProper.getNormalizedTitle(), magazineProper.getAccentFoldedTitle());
+        assertSame(magazineProper.getNormalizedPublisher(), magazineProper.getAccentFoldedPublisher());
+    }
 }
@@ -0,0 +1,121 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+import com.bookstore.storage.CatalogFile;
+import com.bookstore.storage.MappedMagazineStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedMagazineStoreTests {
+
+    private Path directory;
+    private Path catalogFile;
+    private List<Magazine> magazines;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("mapped-store-test");
+        catalogFile = directory.resolve("catalog.dat");
+        magazines = Arrays.asList(
+                new Magazine("Vi Menn", "Aller Media", 52),
+                new Magazine("Træningsblad", "Egmont", 12),
+                new Magazine("Se og Hør", "Aller Media", 51),
+                new Magazine("Wired", "Condé Nast", 12));
+        CatalogFile.write(catalogFile, magazines.size(), magazines.iterator());
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        Files.deleteIfExists(catalogFile);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void storeShouldReadTheWrittenMagazines() throws IOException {
+        MappedMagazineStore store = MappedMagazineStore.open(catalogFile);
+
+        assertEquals(4, store.size());
+        assertTrue(store.isReadOnly());
+        for (int i = 0; i < magazines.size(); i++) {
+            assertEquals(magazines.get(i).getTitle(), store.getTitle(i));
+            assertEquals(magazines.get(i).getPublisher(), store.getPublisher(i));
+            assertEquals(magazines.get(i).getPublicationsPerYear(), store.getPublicationsPerYear(i));
+            assertEquals(magazines.get(i).getKey(), store.get(i).getKey());
+        }
+    }
+
+    @Test
+    public void storeShouldThrowWhenPositionIsOutOfRange() throws IOException {
+        MappedMagazineStore store = MappedMagazineStore.open(catalogFile);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getTitle(-1));
+    }
+
+    @Test
+    public void openShouldThrowWhenFileIsDamaged() throws IOException {
+        byte[] bytes = Files.readAllBytes(catalogFile);
+        bytes[13] ^= 1;
+        Files.write(catalogFile, bytes);
+
+        assertThrows(IOException.class, () -> MappedMagazineStore.open(catalogFile));
+    }
+
+    @Test
+    public void openShouldThrowWhenFileIsTruncated() throws IOException {
+        byte[] bytes = Files.readAllBytes(catalogFile);
+        Files.write(catalogFile, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> MappedMagazineStore.open(catalogFile));
+    }
+
+    @Test
+    public void writeShouldThrowWhenCountDoesNotMatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogFile.write(catalogFile, 5, magazines.iterator()));
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogFile.write(catalogFile, 3, magazines.iterator()));
+    }
+
+    @Test
+    public void registerShouldSearchMappedStore() throws IOException {
+        MagazineRegister register = new MagazineRegister(MappedMagazineStore.open(catalogFile));
+
+        assertEquals("Træningsblad", register.getMagazineAtIndex(1).getTitle());
+        assertEquals("Se og Hør", register.searchMagazinesTitles("og").next().getTitle());
+        assertEquals("Wired", register.searchMagazinesTitles("WIRED").next().getTitle());
+
+        List<String> titles = new ArrayList<>();
+        Iterator<Magazine> found = register.searchMagazinesByPublisher("aller");
+        found.forEachRemaining(magazine -> titles.add(magazine.getTitle()));
+        assertEquals(Arrays.asList("Vi Menn", "Se og Hør"), titles);
+
+        assertTrue(register.hasDuplicateOf(new Magazine("vi menn", "ALLER MEDIA", 1)));
+    }
+
+    @Test
+    public void registerShouldChangeMappedStoreThroughAnOverlay() throws IOException {
+        MagazineRegister register = new MagazineRegister(MappedMagazineStore.open(catalogFile));
+
+        assertTrue(register.deleteMagazine(new Magazine("Vi Menn", "Aller Media", 52)));
+        register.addMagazine(new Magazine("Donald Duck", "Egmont", 52));
+
+        assertEquals(4, register.size());
+        assertEquals("Træningsblad", register.getMagazineAtIndex(0).getTitle());
+        assertEquals("Donald Duck", register.getMagazineAtIndex(3).getTitle());
+        assertFalse(register.searchMagazinesTitles("menn").hasNext());
+        assertEquals(2, register.streamMagazinesByPublisher("egmont").count());
+    }
+
+}
@@ -0,0 +1,161 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.readables.Magazine;
+import com.bookstore.storage.HeapMagazineStore;
+import com.bookstore.storage.MagazineStore;
+import com.bookstore.storage.OffHeapMagazineStore;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapMagazineStoreTests {
+
+    private OffHeapMagazineStore store;
+
+    @BeforeEach
+    public void beforeEach() {
+        store = new OffHeapMagazineStore();
+        store.add(new Magazine("Vi Menn", "Aller Media", 52));
+        store.add(new Magazine("Træningsblad", "Egmont", 12));
+        store.add(new Magazine("Se og Hør", "Aller Media", 51));
+    }
+
+    @Test
+    public void storeShouldReturnTheAddedFields() {
+        assertEquals(3, store.size());
+        assertEquals("Træningsblad", store.getTitle(1));
+        assertEquals("Aller Media", store.getPublisher(2));
+        assertEquals(51, store.getPublicationsPerYear(2));
+        assertEquals("Vi Menn", store.get(0).getTitle());
+        assertEquals("se og hør", store.get(2).getNormalizedTitle());
+    }
+
+    @Test
+    public void removeShouldMoveTheFollowingMagazinesDown() {
+        store.remove(1);
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+
+        assertEquals(3, store.size());
+        assertEquals("Se og Hør", store.getTitle(1));
+        assertEquals(51, store.getPublicationsPerYear(1));
+        assertEquals("Wired", store.getTitle(2));
+        assertEquals("Condé Nast", store.getPublisher(2));
+    }
+
+    @Test
+    public void removeAllShouldKeepTheOrderOfTheRest() {
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+        BitSet removed = new BitSet();
+        removed.set(0);
+        removed.set(2);
+        store.removeAll(removed);
+
+        assertEquals(2, store.size());
+        assertEquals("Træningsblad", store.getTitle(0));
+        assertEquals("Wired", store.getTitle(1));
+        assertEquals("Condé Nast", store.getPublisher(1));
+        assertEquals(12, store.getPublicationsPerYear(1));
+    }
+
+    @Test
+    public void storeShouldKeepTheNormalizedTitles() {
+        assertEquals("træningsblad", store.getNormalizedTitle(1));
+        assertEquals("traeningsblad", store.getAccentFoldedTitle(1));
+        assertEquals("vi menn", store.getAccentFoldedTitle(0));
+    }
+
+    @Test
+    public void titleFilterShouldMatchTheEncodedTitles() {
+        assertTrue(store.titleFilter("og h", false).test(2));
+        assertTrue(store.titleFilter("æn", false).test(1));
+        assertFalse(store.titleFilter("æn", true).test(1));
+        assertTrue(store.titleFilter("aen", true).test(1));
+        assertTrue(store.titleFilter("hor", true).test(2));
+        assertFalse(store.titleFilter("Vi", false).test(0));
+        assertTrue(store.titleFilter("", false).test(0));
+    }
+
+    @Test
+    public void removedSlotsShouldBeReused() {
+        long slabBytes = store.getSlabBytes();
+        store.remove(0);
+        assertTrue(store.getFreeBytes() > 0);
+
+        store.add(new Magazine("Vi Damer", "Aller Media", 52));
+        assertEquals(0, store.getFreeBytes());
+        assertEquals(slabBytes, store.getSlabBytes());
+        assertEquals("Vi Damer", store.getTitle(2));
+        assertEquals("Træningsblad", store.getTitle(0));
+    }
+
+    @Test
+    public void storeShouldThrowWhenPositionIsOutOfRange() {
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getTitle(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.remove(-1));
+    }
+
+    @Test
+    public void storeShouldRejectInvalidSlabSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapMagazineStore(1000));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapMagazineStore(5000));
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            title.append('x');
+        }
+        OffHeapMagazineStore small = new OffHeapMagazineStore(4096);
+        assertThrows(IllegalArgumentException.class,
+                () -> small.add(new Magazine(title.toString(), "Aller Media", 1)));
+    }
+
+    @Test
+    public void copyShouldNotChangeWithTheStore() {
+        MagazineStore copy = store.copy();
+        store.remove(0);
+        copy.add(new Magazine("Wired", "Condé Nast", 12));
+
+        assertEquals(2, store.size());
+        assertEquals(4, copy.size());
+        assertEquals("Vi Menn", copy.getTitle(0));
+        assertEquals("Wired", copy.getTitle(3));
+        assertEquals("Træningsblad", store.getTitle(0));
+    }
+
+    @Test
+    public void storeShouldFollowTheHeapStoreAcrossSlabs() {
+        HeapMagazineStore expected = new HeapMagazineStore();
+        OffHeapMagazineStore grown = new OffHeapMagazineStore(4096);
+        for (int i = 0; i < 3000; i++) {
+            Magazine magazine = new Magazine("Magazine nummer " + i + " æøå", "Publisher " + (i % 7), i);
+            expected.add(magazine);
+            grown.add(magazine);
+            if (i % 3 == 0) {
+                expected.remove(i / 2);
+                grown.remove(i / 2);
+            }
+        }
+        assertTrue(grown.getSlabBytes() > 4096);
+        assertEquals(expected.size(), grown.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getTitle(i), grown.getTitle(i));
+            assertEquals(expected.getPublisher(i), grown.getPublisher(i));
+            assertEquals(expected.getPublicationsPerYear(i), grown.getPublicationsPerYear(i));
+        }
+    }
+
+    @Test
+    public void registerShouldUseOffHeapStore() {
+        MagazineRegister register = new MagazineRegister(new OffHeapMagazineStore());
+        register.addMagazine(new Magazine("Vi Menn", "Aller Media", 52));
+        register.addMagazine(new Magazine("Wired", "Condé Nast", 12));
+
+        assertTrue(register.hasDuplicateOf(new Magazine("VI MENN", "aller media", 1)));
+        assertEquals("Wired", register.searchMagazinesByPublisher("condé").next().getTitle());
+        assertTrue(register.deleteMagazine(register.getMagazineAtIndex(0)));
+        assertEquals(1, register.size());
+        assertFalse(register.searchMagazinesTitles("menn").hasNext());
+    }
+
+}
@@ -0,0 +1,81 @@
+import com.bookstore.readables.Magazine;
+import com.bookstore.storage.HeapMagazineStore;
+import com.bookstore.storage.MagazineStore;
+import com.bookstore.storage.OverlayMagazineStore;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OverlayMagazineStoreTests {
+
+    private HeapMagazineStore base;
+    private OverlayMagazineStore store;
+
+    @BeforeEach
+    public void beforeEach() {
+        base = new HeapMagazineStore();
+        base.add(new Magazine("Vi Menn", "Aller Media", 52));
+        base.add(new Magazine("Træningsblad", "Egmont", 12));
+        base.add(new Magazine("Se og Hør", "Aller Media", 51));
+        store = new OverlayMagazineStore(base);
+    }
+
+    @Test
+    public void addedMagazinesShouldFollowTheBase() {
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+
+        assertEquals(4, store.size());
+        assertEquals("Træningsblad", store.getTitle(1));
+        assertEquals("Wired", store.getTitle(3));
+        assertEquals("Condé Nast", store.getPublisher(3));
+        assertEquals("wired", store.getNormalizedTitle(3));
+        assertEquals(3, base.size());
+    }
+
+    @Test
+    public void removeShouldMoveTheFollowingMagazinesDownWithoutChangingTheBase() {
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+        store.remove(0);
+        store.remove(2);
+
+        assertEquals(2, store.size());
+        assertEquals("Træningsblad", store.getTitle(0));
+        assertEquals(51, store.getPublicationsPerYear(1));
+        assertEquals("Vi Menn", base.getTitle(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.remove(-1));
+    }
+
+    @Test
+    public void removeAllShouldKeepTheOrderOfTheRest() {
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+        store.add(new Magazine("Donald Duck", "Egmont", 52));
+        BitSet removed = new BitSet();
+        removed.set(1);
+        removed.set(3);
+        store.removeAll(removed);
+
+        assertEquals(3, store.size());
+        assertEquals("Vi Menn", store.getTitle(0));
+        assertEquals("Se og Hør", store.getTitle(1));
+        assertEquals("Donald Duck", store.getTitle(2));
+    }
+
+    @Test
+    public void copyShouldNotChangeWithTheStore() {
+        store.remove(1);
+        MagazineStore copy = store.copy();
+        store.remove(0);
+        store.add(new Magazine("Wired", "Condé Nast", 12));
+
+        assertEquals(2, copy.size());
+        assertEquals("Vi Menn", copy.getTitle(0));
+        assertEquals("Se og Hør", copy.getTitle(1));
+        assertFalse(copy.isReadOnly());
+    }
+
+}
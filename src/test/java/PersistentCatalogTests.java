@@ -0,0 +1,158 @@
+import com.bookstore.ConcurrentMagazineRegister;
+import com.bookstore.MagazineRegister;
+import com.bookstore.persistence.FsyncPolicy;
+import com.bookstore.persistence.PersistenceOptions;
+import com.bookstore.persistence.PersistentCatalog;
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentCatalogTests {
+
+    private Path directory;
+    private PersistenceOptions options;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("catalog-test");
+        options = new PersistenceOptions(FsyncPolicy.BATCHED, 5, 1024 * 1024);
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void changesShouldBeRecoveredWhenReopening() throws IOException {
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, options)) {
+            MagazineRegister register = catalog.getRegister();
+            Magazine deleted = new Magazine("Deleted", "Aller", 4);
+            register.addMagazine(new Magazine("Vi Menn", "Aller", 52));
+            register.addMagazine(deleted);
+            register.addMagazine(new Magazine("Wired", "Condé Nast", 12));
+            register.deleteMagazine(deleted);
+        }
+
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, options)) {
+            MagazineRegister register = catalog.getRegister();
+            assertEquals(2, register.size());
+            assertEquals("Wired", register.searchMagazinesByPublisher("condé").next().getTitle());
+            assertFalse(register.searchMagazinesTitles("deleted").hasNext());
+        }
+    }
+
+    @Test
+    public void checkpointShouldReplaceOldLogWithSnapshot() throws IOException {
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, options)) {
+            catalog.getRegister().addMagazine(new Magazine("Vi Menn", "Aller", 52));
+            catalog.checkpoint();
+            catalog.getRegister().addMagazine(new Magazine("Wired", "Condé Nast", 12));
+        }
+        assertEquals(2, fileNames().size());
+        assertTrue(fileNames().get(0).startsWith("snapshot-"));
+
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, options)) {
+            assertEquals(2, catalog.getRegister().size());
+        }
+    }
+
+    @Test
+    public void logShouldBeCompactedWhenItReachesTheThreshold() throws IOException {
+        PersistenceOptions smallLog = new PersistenceOptions(FsyncPolicy.NEVER, 5, 2000);
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, smallLog)) {
+            for (int i = 0; i < 500; i++) {
+                catalog.getRegister().addMagazine(new Magazine("Magazine " + i, "Publisher", 1));
+            }
+        }
+        assertTrue(fileNames().stream().anyMatch(name -> name.startsWith("snapshot-")));
+        assertTrue(fileNames().size() <= 4);
+
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, smallLog)) {
+            assertEquals(500, catalog.getRegister().size());
+        }
+    }
+
+    @Test
+    public void changesOfAConcurrentRegisterShouldSurviveCompaction() throws IOException {
+        PersistenceOptions smallLog = new PersistenceOptions(FsyncPolicy.NEVER, 5, 200);
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, smallLog)) {
+            ConcurrentMagazineRegister register = new ConcurrentMagazineRegister(catalog.getRegister());
+            for (int i = 0; i < 50; i++) {
+                register.addMagazine(new Magazine("Magazine " + i, "Publisher", 1));
+            }
+            register.deleteMagazine(new Magazine("Magazine 7", "Publisher", 1));
+            catalog.checkpoint();
+            assertEquals(49, catalog.getRegister().size());
+        }
+
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, smallLog)) {
+            MagazineRegister register = catalog.getRegister();
+            assertEquals(49, register.size());
+            Set<String> titles = register.streamAllMagazines().map(Magazine::getTitle).collect(Collectors.toSet());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i != 7, titles.contains("Magazine " + i));
+            }
+        }
+    }
+
+    @Test
+    public void failedSnapshotShouldBeReportedAndKeepTheLog() throws IOException {
+        PersistenceOptions compactEveryChange = new PersistenceOptions(FsyncPolicy.BATCHED, 5, 1);
+        Path blocker = directory.resolve("snapshot-000000000002.dat");
+        Files.createDirectories(blocker);
+
+        PersistentCatalog catalog = PersistentCatalog.open(directory, compactEveryChange);
+        catalog.getRegister().addMagazine(new Magazine("Vi Menn", "Aller", 52));
+        assertThrows(IOException.class, catalog::close);
+
+        try (PersistentCatalog reopened = PersistentCatalog.open(directory, options)) {
+            assertEquals(1, reopened.getRegister().size());
+            Files.delete(blocker);
+            reopened.checkpoint();
+        }
+    }
+
+    @Test
+    public void tornRecordAtEndOfLogShouldBeIgnored() throws IOException {
+        PersistenceOptions always = new PersistenceOptions(FsyncPolicy.ALWAYS, 5, 1024 * 1024);
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, always)) {
+            catalog.getRegister().addMagazine(new Magazine("Vi Menn", "Aller", 52));
+        }
+        Path segment = directory.resolve(fileNames().get(0));
+        Files.write(segment, new byte[]{0, 0, 0, 40, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, always)) {
+            assertEquals(1, catalog.getRegister().size());
+            catalog.getRegister().addMagazine(new Magazine("Wired", "Condé Nast", 12));
+        }
+        try (PersistentCatalog catalog = PersistentCatalog.open(directory, always)) {
+            assertEquals(2, catalog.getRegister().size());
+        }
+    }
+
+}
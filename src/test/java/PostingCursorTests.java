@@ -0,0 +1,93 @@
+import com.bookstore.index.IntList;
+import com.bookstore.index.IntersectionCursor;
+import com.bookstore.index.ParallelFilterCursor;
+import com.bookstore.index.PostingCursor;
+import com.bookstore.index.UnionCursor;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostingCursorTests {
+
+    private static IntList listOf(int... values) {
+        IntList list = new IntList();
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Test
+    public void listCursorShouldAdvanceToFirstValueAtLeastTarget() {
+        PostingCursor cursor = listOf(1, 4, 9, 16).cursor();
+        assertEquals(4, cursor.advance(2));
+        assertEquals(4, cursor.advance(4));
+        assertEquals(16, cursor.advance(10));
+        assertEquals(PostingCursor.NO_MORE_IDS, cursor.advance(17));
+    }
+
+    @Test
+    public void intersectionShouldOnlyReturnIdsInAllCursors() {
+        PostingCursor cursor = new IntersectionCursor(Arrays.asList(
+                listOf(2, 5, 9, 12).cursor(),
+                listOf(1, 2, 3, 5, 8, 12, 13).cursor(),
+                listOf(2, 4, 5, 12).cursor()));
+        assertArrayEquals(new int[]{2, 5, 12}, cursor.collect().toArray());
+    }
+
+    @Test
+    public void unionShouldReturnIdsOfAllCursorsInOrderWithoutDuplicates() {
+        PostingCursor cursor = new UnionCursor(Arrays.asList(
+                listOf(3, 7).cursor(),
+                listOf(1, 3, 10).cursor(),
+                PostingCursor.EMPTY));
+        assertArrayEquals(new int[]{1, 3, 7, 10}, cursor.collect().toArray());
+    }
+
+    @Test
+    public void parallelFilterShouldReturnAcceptedIdsInOrder() {
+        IntList ids = new IntList();
+        IntList expected = new IntList();
+        for (int id = 0; id < 300000; id += 2) {
+            ids.add(id);
+            if (id % 3 == 0) {
+                expected.add(id);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PostingCursor cursor = new ParallelFilterCursor(ids.cursor(),
+                    id -> id % 3 == 0, pool);
+            assertArrayEquals(expected.toArray(), cursor.collect().toArray());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelFilterShouldSkipToTarget() {
+        IntList ids = new IntList();
+        for (int id = 0; id < 100000; id++) {
+            ids.add(id);
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            PostingCursor cursor = new ParallelFilterCursor(ids.cursor(),
+                    id -> id % 1000 == 1, pool);
+            assertEquals(1, cursor.advance(0));
+            assertEquals(1, cursor.advance(1));
+            assertEquals(50001, cursor.advance(50000));
+            assertEquals(99001, cursor.advance(98002));
+            assertEquals(PostingCursor.NO_MORE_IDS, cursor.advance(99002));
+            assertEquals(PostingCursor.NO_MORE_IDS, new ParallelFilterCursor(
+                    PostingCursor.EMPTY, id -> true, pool).advance(0));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+import com.bookstore.index.IntList;
+import com.bookstore.index.PublicationsPerYearIndex;
+import com.bookstore.readables.Magazine;
+
+import java.util.PrimitiveIterator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublicationsPerYearIndexTests {
+
+    private PublicationsPerYearIndex publicationsIndex;
+    private Magazine weekly;
+
+    @BeforeEach
+    public void beforeEach() {
+        publicationsIndex = new PublicationsPerYearIndex();
+        weekly = new Magazine("Vi Menn", "Aller", 52);
+        publicationsIndex.add(0, new Magazine("Wired", "Condé Nast", 12));
+        publicationsIndex.add(1, weekly);
+        publicationsIndex.add(2, new Magazine("Aftenposten", "Schibsted", 312));
+        publicationsIndex.add(3, new Magazine("Bonytt", "Egmont", 12));
+        publicationsIndex.add(4, new Magazine("Økonomisk Rapport", "Aller", 4));
+    }
+
+    private static int[] collect(PrimitiveIterator.OfInt recordIds) {
+        IntList list = new IntList();
+        recordIds.forEachRemaining((int recordId) -> list.add(recordId));
+        return list.toArray();
+    }
+
+    @Test
+    public void rangeShouldBeSortedByPublicationsPerYearThenRecordId() {
+        assertArrayEquals(new int[]{0, 3, 1}, collect(publicationsIndex.recordIds(5, 52, false)));
+        assertArrayEquals(new int[]{2, 1, 0, 3, 4},
+                collect(publicationsIndex.recordIds(0, Integer.MAX_VALUE, true)));
+        assertArrayEquals(new int[0], collect(publicationsIndex.recordIds(52, 12, false)));
+    }
+
+    @Test
+    public void countShouldAddUpTheRange() {
+        assertEquals(3, publicationsIndex.count(12, 52));
+        assertEquals(2, publicationsIndex.count(52, 1000));
+        assertEquals(0, publicationsIndex.count(13, 51));
+        assertEquals(0, publicationsIndex.count(52, 12));
+    }
+
+    @Test
+    public void cursorShouldReadTheRangeInRecordIdOrder() {
+        assertArrayEquals(new int[]{0, 1, 3}, publicationsIndex.cursor(12, 52).collect().toArray());
+        assertArrayEquals(new int[]{2}, publicationsIndex.cursor(100, 400).collect().toArray());
+        assertTrue(publicationsIndex.cursor(52, 12).collect().isEmpty());
+    }
+
+    @Test
+    public void removedMagazinesShouldNotBeCountedOrFound() {
+        publicationsIndex.remove(1, weekly);
+        publicationsIndex.removeIf(recordId -> recordId == 3);
+        assertEquals(1, publicationsIndex.count(12, 52));
+        assertArrayEquals(new int[]{0}, collect(publicationsIndex.recordIds(12, 52, false)));
+    }
+
+}
@@ -0,0 +1,63 @@
+import com.bookstore.index.PublisherIndex;
+import com.bookstore.readables.Magazine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PublisherIndexTests {
+
+    private PublisherIndex publisherIndex;
+    private Magazine vi;
+
+    @BeforeEach
+    public void beforeEach() {
+        publisherIndex = new PublisherIndex();
+        vi = new Magazine("Vi Menn", "Aller Media", 52);
+        publisherIndex.add(0, new Magazine("Donald Duck", "Egmont", 52));
+        publisherIndex.add(1, vi);
+        publisherIndex.add(2, new Magazine("Wired", "Condé Nast", 12));
+        publisherIndex.add(3, new Magazine("Se og Hør", "ALLER MEDIA", 52));
+        publisherIndex.add(4, new Magazine("Vogue", "Condé Nast", 12));
+    }
+
+    @Test
+    public void shouldHaveOneEntryPerDistinctNormalizedPublisher() {
+        assertEquals(3, publisherIndex.getPublisherCount());
+    }
+
+    @Test
+    public void searchShouldMergeMatchingPublishersInAscendingOrder() {
+        assertArrayEquals(new int[]{1, 2, 3, 4}, publisherIndex.search("a").collect().toArray());
+        assertArrayEquals(new int[]{1, 3}, publisherIndex.search("aller").collect().toArray());
+    }
+
+    @Test
+    public void searchShouldReturnEmptyListWhenNoPublisherMatch() {
+        assertTrue(publisherIndex.search("bonnier").collect().isEmpty());
+    }
+
+    @Test
+    public void countShouldAddUpTheMatchingPublishers() {
+        assertEquals(4, publisherIndex.count("a", false));
+        assertEquals(2, publisherIndex.count("conde", true));
+        assertEquals(0, publisherIndex.count("conde", false));
+    }
+
+    @Test
+    public void publisherShouldBeRemovedWhenItsLastMagazineIsRemoved() {
+        publisherIndex.remove(1, vi);
+        assertArrayEquals(new int[]{3}, publisherIndex.search("aller").collect().toArray());
+        publisherIndex.remove(3, new Magazine("Se og Hør", "Aller Media", 52));
+        assertEquals(2, publisherIndex.getPublisherCount());
+    }
+
+    @Test
+    public void publishersShouldBeRemovedWhenTheirMagazinesAreRemovedInBulk() {
+        publisherIndex.removeIf(recordId -> recordId % 2 == 1);
+        assertEquals(2, publisherIndex.getPublisherCount());
+        assertArrayEquals(new int[]{2, 4}, publisherIndex.search("nast").collect().toArray());
+    }
+
+}
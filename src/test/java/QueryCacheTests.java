@@ -0,0 +1,144 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.cache.QueryCache;
+import com.bookstore.index.IntList;
+import com.bookstore.readables.Magazine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryCacheTests {
+
+    private QueryCache queryCache;
+    private MagazineRegister register;
+
+    @BeforeEach
+    public void beforeEach() {
+        queryCache = new QueryCache(100);
+        register = new MagazineRegister();
+        for (int i = 0; i < 30; i++) {
+            register.addMagazine(new Magazine("Magazine " + i, "Publisher " + (i % 3), 12));
+        }
+        register.setQueryCache(queryCache);
+    }
+
+    private static IntList recordIds(int count) {
+        IntList recordIds = new IntList();
+        for (int i = 0; i < count; i++) {
+            recordIds.add(i);
+        }
+        return recordIds;
+    }
+
+    private static List<String> titles(Iterator<Magazine> magazines) {
+        List<String> titles = new ArrayList<>();
+        magazines.forEachRemaining(magazine -> titles.add(magazine.getTitle()));
+        return titles;
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWhenFull() {
+        QueryCache cache = new QueryCache(40);
+        cache.put(QueryCache.SearchType.TITLE, "a", false, 0, recordIds(10));
+        cache.put(QueryCache.SearchType.TITLE, "b", false, 0, recordIds(10));
+        cache.put(QueryCache.SearchType.TITLE, "c", false, 0, recordIds(10));
+        assertNotNull(cache.get(QueryCache.SearchType.TITLE, "a", false, 0));
+
+        cache.put(QueryCache.SearchType.PUBLISHER, "a", false, 0, recordIds(10));
+        cache.put(QueryCache.SearchType.TITLE, "d", false, 0, recordIds(10));
+        assertNull(cache.get(QueryCache.SearchType.TITLE, "b", false, 0));
+        assertNotNull(cache.get(QueryCache.SearchType.TITLE, "a", false, 0));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(40, cache.getWeight());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotCacheResultsHeavierThanAQuarterOfTheCache() {
+        QueryCache cache = new QueryCache(40);
+        cache.put(QueryCache.SearchType.TITLE, "a", false, 0, recordIds(11));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void shouldDropResultsWhenVersionChanges() {
+        QueryCache cache = new QueryCache(40);
+        cache.put(QueryCache.SearchType.TITLE, "a", false, 0, recordIds(1));
+        assertNull(cache.get(QueryCache.SearchType.TITLE, "a", false, 1));
+        assertEquals(1, cache.getInvalidationCount());
+    }
+
+    @Test
+    public void repeatedSearchShouldBeAnsweredFromCache() {
+        assertEquals(11, titles(register.searchMagazinesTitles("magazine 1")).size());
+        assertEquals(titles(register.searchMagazinesTitles("MAGAZINE 1")),
+                titles(register.searchMagazinesTitles("magazine 1")));
+        assertEquals(10, titles(register.searchMagazinesByPublisher("publisher 2")).size());
+
+        assertEquals(2, queryCache.getMissCount());
+        assertEquals(2, queryCache.getHitCount());
+    }
+
+    @Test
+    public void searchShouldNotReturnStaleResultsWhenRegisterChanges() {
+        assertEquals(11, titles(register.searchMagazinesTitles("magazine 1")).size());
+        register.addMagazine(new Magazine("Magazine 100", "Publisher 0", 1));
+        assertEquals(12, titles(register.searchMagazinesTitles("magazine 1")).size());
+
+        register.deleteMagazine(new Magazine("Magazine 1", "Publisher 1", 12));
+        List<String> found = titles(register.searchMagazinesTitles("magazine 1"));
+        assertEquals(11, found.size());
+        assertFalse(found.contains("Magazine 1"));
+        assertEquals(0, queryCache.getHitCount());
+    }
+
+    @Test
+    public void pagesShouldBeReadFromTheCachedResult() {
+        List<String> all = titles(register.searchMagazinesTitles("magazine"));
+        assertEquals(0, queryCache.getEntryCount());
+
+        queryCache = new QueryCache(1000);
+        register.setQueryCache(queryCache);
+        titles(register.searchMagazinesTitles("magazine"));
+        String token = register.searchMagazinesTitlesPage("magazine", null, 20).getContinuationToken();
+        assertEquals(all.subList(20, 30), register.searchMagazinesTitlesPage("magazine", token, 20)
+                .getMagazines().stream().map(Magazine::getTitle).collect(Collectors.toList()));
+        assertEquals(2, queryCache.getHitCount());
+    }
+
+    @Test
+    public void onlySearchesReadToTheEndShouldBeCached() {
+        assertTrue(register.searchMagazinesTitles("magazine 1").hasNext());
+        String token = register.searchMagazinesTitlesPage("magazine 1", null, 5).getContinuationToken();
+        register.searchMagazinesTitlesPage("magazine 1", token, 20);
+        assertEquals(0, queryCache.getEntryCount());
+        assertEquals(3, queryCache.getMissCount());
+
+        assertEquals(11, titles(register.searchMagazinesTitles("magazine 1")).size());
+        assertEquals(1, queryCache.getEntryCount());
+        assertEquals(11, titles(register.searchMagazinesTitles("magazine 1")).size());
+        assertEquals(1, queryCache.getHitCount());
+    }
+
+    @Test
+    public void searchesWithAndWithoutAccentFoldingShouldNotShareResults() {
+        register.addMagazine(new Magazine("Træen", "Aller", 4));
+        register.addMagazine(new Magazine("Traeen", "Aller", 4));
+        assertEquals(1, titles(register.searchMagazinesTitles("traeen")).size());
+        register.setAccentFolding(true);
+        assertEquals(2, titles(register.searchMagazinesTitles("traeen")).size());
+    }
+
+    @Test
+    public void shouldThrowWhenMaxWeightIsBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryCache(0));
+    }
+
+}
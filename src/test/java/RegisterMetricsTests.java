@@ -0,0 +1,102 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.metrics.Operation;
+import com.bookstore.metrics.RegisterMetrics;
+import com.bookstore.readables.Magazine;
+
+import java.util.Iterator;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegisterMetricsTests {
+
+    private MagazineRegister register;
+    private RegisterMetrics metrics;
+
+    @BeforeEach
+    public void beforeEach() {
+        register = new MagazineRegister();
+        metrics = new RegisterMetrics();
+        register.setMetrics(metrics);
+        register.addMagazine(new Magazine("Vi Menn", "Aller Media", 52));
+        register.addMagazine(new Magazine("Se og Hør", "Aller Media", 51));
+        register.addMagazine(new Magazine("Wired", "Condé Nast", 12));
+    }
+
+    @Test
+    public void updatesShouldBeRecorded() {
+        register.hasDuplicateOf(new Magazine("Wired", "Condé Nast", 12));
+        register.deleteMagazine(new Magazine("Wired", "Condé Nast", 12));
+        register.deleteMagazine(new Magazine("Missing", "Nobody", 1));
+
+        assertEquals(3, metrics.get(Operation.ADD).getCount());
+        assertEquals(1, metrics.get(Operation.HAS_DUPLICATE).getCount());
+        assertEquals(1, metrics.get(Operation.HAS_DUPLICATE).getMaxResultSize());
+        assertEquals(2, metrics.get(Operation.DELETE).getCount());
+    }
+
+    @Test
+    public void searchShouldBeRecordedWhenReadToTheEnd() {
+        Iterator<Magazine> found = register.searchMagazinesByPublisher("aller");
+        found.next();
+        assertEquals(0, metrics.get(Operation.SEARCH_PUBLISHER).getCount());
+
+        found.next();
+        assertFalse(found.hasNext());
+        assertEquals(1, metrics.get(Operation.SEARCH_PUBLISHER).getCount());
+        assertEquals(2, metrics.get(Operation.SEARCH_PUBLISHER).getMaxResultSize());
+    }
+
+    @Test
+    public void pageShouldBeRecordedWithItsSize() {
+        register.searchMagazinesTitlesPage("e", 0, 1);
+        register.getAllMagazinesPage(0, 10);
+
+        assertEquals(1, metrics.get(Operation.SEARCH_TITLES).getMaxResultSize());
+        assertEquals(3, metrics.get(Operation.LIST_ALL).getMaxResultSize());
+    }
+
+    @Test
+    public void disabledMetricsShouldRecordNothing() {
+        metrics.reset();
+        metrics.setEnabled(false);
+        register.addMagazine(new Magazine("Donald Duck", "Egmont", 52));
+        register.streamAllMagazines().count();
+
+        assertEquals(0, metrics.get(Operation.ADD).getCount());
+        assertEquals(0, metrics.get(Operation.LIST_ALL).getCount());
+    }
+
+    @Test
+    public void reportsShouldNameEveryOperation() {
+        String json = metrics.toJson();
+        String text = metrics.toText();
+
+        for (Operation operation : Operation.values()) {
+            assertTrue(json.contains("\"" + operation.getName() + "\":{\"count\":"));
+            assertTrue(text.contains(operation.getName()));
+        }
+    }
+
+    @Test
+    public void metricsShouldBeReadableThroughJmx() throws JMException {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        metrics.registerMBeans(server);
+
+        Object count = server.getAttribute(new ObjectName(
+                "com.bookstore:type=RegisterMetrics,operation=addMagazine"), "Count");
+        assertEquals(3L, count);
+        assertEquals(true, server.getAttribute(new ObjectName("com.bookstore:type=RegisterMetrics"), "Enabled"));
+
+        metrics.unregisterMBeans(server);
+        assertFalse(server.isRegistered(new ObjectName("com.bookstore:type=RegisterMetrics")));
+    }
+
+}
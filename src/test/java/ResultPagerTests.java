@@ -0,0 +1,99 @@
+import com.bookstore.MagazineRegister;
+import com.bookstore.ResultPager;
+import com.bookstore.readables.Magazine;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultPagerTests {
+
+    private MagazineRegister register;
+    private int fetches;
+
+    @BeforeEach
+    public void beforeEach() {
+        register = new MagazineRegister();
+        fetches = 0;
+        for (int i = 0; i < 45; i++) {
+            register.addMagazine(new Magazine("Title " + i, "Publisher", 12));
+        }
+    }
+
+    private ResultPager allMagazines(int pageSize) {
+        return new ResultPager((token, limit) -> {
+            fetches++;
+            return register.getAllMagazinesPage(token, limit);
+        }, pageSize);
+    }
+
+    @Test
+    public void shouldFetchPagesWhenAskedFor() {
+        ResultPager pager = allMagazines(20);
+        assertEquals(0, fetches);
+
+        assertEquals(20, pager.getPage(0).size());
+        assertEquals(1, fetches);
+        assertTrue(pager.hasNextPage(1));
+        assertEquals(5, pager.getPage(2).size());
+        assertFalse(pager.hasPage(3));
+        assertTrue(pager.getPage(3).isEmpty());
+    }
+
+    @Test
+    public void shouldNotFetchAgainWhenGoingBack() {
+        ResultPager pager = allMagazines(20);
+        pager.getPage(1);
+        int fetched = fetches;
+
+        List<Magazine> first = pager.getPage(0);
+        assertEquals("Title 0", first.get(0).getTitle());
+        assertEquals(fetched, fetches);
+    }
+
+    @Test
+    public void shouldKeepRecordIdsOfFetchedMagazines() {
+        ResultPager pager = allMagazines(20);
+        register.deleteMagazine(new Magazine("Title 0", "Publisher", 12));
+        pager.getPage(1);
+
+        assertEquals(20, pager.getFirstIndex(1));
+        assertEquals("Title 21", pager.getPage(1).get(0).getTitle());
+        assertEquals("Title 21", register.getById(pager.getRecordId(20)).getTitle());
+        assertThrows(IndexOutOfBoundsException.class, () -> pager.getRecordId(40));
+    }
+
+    @Test
+    public void shouldContinueAfterDeleteWhenPaging() {
+        ResultPager pager = allMagazines(20);
+        pager.getPage(0);
+        register.deleteById(pager.getRecordId(5));
+        register.deleteMagazine(new Magazine("Title 30", "Publisher", 12));
+
+        assertEquals("Title 20", pager.getPage(1).get(0).getTitle());
+        assertEquals("Title 31", pager.getPage(1).get(10).getTitle());
+        assertEquals(24, pager.getPage(1).size() + pager.getPage(2).size());
+    }
+
+    @Test
+    public void shouldBeEmptyWhenNothingIsFound() {
+        ResultPager pager = new ResultPager((token, limit) ->
+                register.searchMagazinesTitlesPage("no such title", token, limit),
+                20);
+        assertTrue(pager.isEmpty());
+        assertTrue(pager.hasPage(0));
+        assertFalse(pager.hasNextPage(0));
+    }
+
+    @Test
+    public void shouldThrowWhenArgumentsAreInvalid() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ResultPager(null, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> allMagazines(0));
+    }
+
+}
@@ -0,0 +1,74 @@
+import com.bookstore.index.IntList;
+import com.bookstore.index.TrigramIndex;
+import com.bookstore.readables.Magazine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramIndexTests {
+
+    private TrigramIndex trigramIndex;
+    private Magazine technology;
+    private Magazine teknikk;
+    private Magazine cooking;
+
+    @BeforeEach
+    public void beforeEach() {
+        trigramIndex = new TrigramIndex();
+        technology = new Magazine("Technology Today", "Egmont", 12);
+        teknikk = new Magazine("Teknisk Ukeblad", "Egmont", 52);
+        cooking = new Magazine("Cooking Tech", "Aller", 4);
+        trigramIndex.add(0, technology);
+        trigramIndex.add(1, teknikk);
+        trigramIndex.add(2, cooking);
+    }
+
+    @Test
+    public void candidatesShouldContainAllTitlesHavingTheQueryInAscendingOrder() {
+        assertArrayEquals(new int[]{0, 2}, trigramIndex.candidates("tech").collect().toArray());
+    }
+
+    @Test
+    public void candidatesShouldBeEmptyWhenATrigramIsMissing() {
+        assertTrue(trigramIndex.candidates("xyz").collect().isEmpty());
+    }
+
+    @Test
+    public void estimateShouldBeTheShortestPostingListOfTheQuery() {
+        assertEquals(2, trigramIndex.estimateCandidates("tech"));
+        assertEquals(1, trigramIndex.estimateCandidates("technology"));
+        assertEquals(0, trigramIndex.estimateCandidates("xyz"));
+        assertThrows(IllegalArgumentException.class, () -> trigramIndex.estimateCandidates("te"));
+    }
+
+    @Test
+    public void removedMagazineShouldNotBeACandidate() {
+        trigramIndex.remove(0, technology);
+        assertArrayEquals(new int[]{2}, trigramIndex.candidates("tech").collect().toArray());
+    }
+
+    @Test
+    public void magazinesRemovedInBulkShouldNotBeCandidates() {
+        trigramIndex.removeIf(recordId -> recordId == 0);
+        assertArrayEquals(new int[]{2}, trigramIndex.candidates("tech").collect().toArray());
+
+        trigramIndex.removeIf(recordId -> true);
+        assertTrue(trigramIndex.candidates("tech").collect().isEmpty());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenQueryIsTooShort() {
+        assertFalse(TrigramIndex.canSearch("te"));
+        assertThrows(IllegalArgumentException.class, () -> trigramIndex.candidates("te"));
+    }
+
+    @Test
+    public void titleRepeatingATrigramShouldOnlyBeACandidateOnce() {
+        trigramIndex.add(3, new Magazine("Aaaaaa", "Aller", 1));
+        IntList candidates = trigramIndex.candidates("aaa").collect();
+        assertArrayEquals(new int[]{3}, candidates.toArray());
+    }
+
+}
@@ -0,0 +1,169 @@
+import com.bookstore.persistence.FsyncPolicy;
+import com.bookstore.persistence.LogRecord;
+import com.bookstore.persistence.WriteAheadLog;
+import com.bookstore.readables.Magazine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTests {
+
+    private Path segment;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        segment = Files.createTempFile("wal-test", ".log");
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        Files.delete(segment);
+    }
+
+    private List<String> replayedTitles() throws IOException {
+        List<String> titles = new ArrayList<>();
+        WriteAheadLog.replay(segment, record -> titles.add(record.getMagazine().getTitle()));
+        return titles;
+    }
+
+    @Test
+    public void recordsShouldStayInOrderWhenAWriteFailsOnce() throws IOException {
+        try (WriteAheadLog log = new WriteAheadLog(segment, FsyncPolicy.ALWAYS, 5) {
+            @Override
+            protected FileChannel openSegment(Path segmentFile) throws IOException {
+                return new FailOnceChannel(super.openSegment(segmentFile), 2);
+            }
+        }) {
+            log.append(LogRecord.Type.ADD, new Magazine("Vi Menn", "Aller", 52));
+            assertThrows(IOException.class,
+                    () -> log.append(LogRecord.Type.ADD, new Magazine("Wired", "Condé Nast", 12)));
+            log.append(LogRecord.Type.ADD, new Magazine("Kapital", "Kapital", 22));
+        }
+
+        assertEquals(Arrays.asList("Vi Menn", "Wired", "Kapital"), replayedTitles());
+    }
+
+    /**
+     * A channel whose given write only writes a few bytes and then fails
+     */
+    private static class FailOnceChannel extends FileChannel {
+
+        private final FileChannel channel;
+        private int writesUntilFailure;
+
+        FailOnceChannel(FileChannel channel, int failingWrite) {
+            this.channel = channel;
+            this.writesUntilFailure = failingWrite;
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            if (--writesUntilFailure == 0) {
+                ByteBuffer part = source.duplicate();
+                part.limit(part.position() + 3);
+                source.position(source.position() + channel.write(part));
+                throw new IOException("Disk full");
+            }
+            return channel.write(source);
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return channel.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return channel.read(destinations, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            return channel.write(sources, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return channel.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return channel.read(destination, position);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            return channel.write(source, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+}